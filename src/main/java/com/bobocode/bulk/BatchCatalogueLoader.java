@@ -0,0 +1,42 @@
+package com.bobocode.bulk;
+
+import com.bobocode.dao.ActorDao;
+import com.bobocode.dao.ActorDaoImpl;
+import com.bobocode.dao.DaoConfig;
+import com.bobocode.dao.MovieDao;
+import com.bobocode.dao.MovieDaoImpl;
+import com.bobocode.model.Actor;
+import com.bobocode.model.ActorMovieLink;
+import com.bobocode.model.Movie;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Loads chunks through the batched DAO methods, used for databases without a COPY protocol such as H2
+ */
+class BatchCatalogueLoader implements CatalogueLoader {
+    private final ActorDao actorDao;
+    private final MovieDao movieDao;
+
+    BatchCatalogueLoader(DataSource dataSource, int chunkSize) {
+        DaoConfig chunkBatches = DaoConfig.builder().batchSize(chunkSize).build();
+        this.actorDao = new ActorDaoImpl(dataSource, chunkBatches);
+        this.movieDao = new MovieDaoImpl(dataSource, chunkBatches);
+    }
+
+    @Override
+    public void loadActors(List<Actor> actors) {
+        actorDao.saveAll(actors);
+    }
+
+    @Override
+    public void loadMovies(List<Movie> movies) {
+        movieDao.saveAll(movies);
+    }
+
+    @Override
+    public void loadLinks(List<ActorMovieLink> links) {
+        actorDao.linkAll(links);
+    }
+}
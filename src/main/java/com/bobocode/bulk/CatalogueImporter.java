@@ -0,0 +1,236 @@
+package com.bobocode.bulk;
+
+import com.bobocode.exception.ImportException;
+import com.bobocode.model.Actor;
+import com.bobocode.model.ActorMovieLink;
+import com.bobocode.model.Movie;
+import com.bobocode.util.DatabaseDialect;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Bulk loads a catalogue from delimited files that are read line by line, so file size is not limited by memory.
+ * Rows are expected in the following columns:
+ * <ul>
+ * <li>actors: external id, first name, last name, birthday</li>
+ * <li>movies: external id, name, duration, release date</li>
+ * <li>links: actor external id, movie external id</li>
+ * </ul>
+ * Dates use the ISO format. PostgreSQL is loaded with {@code COPY}, other databases with JDBC batches. External ids
+ * are mapped to the generated ones in an {@link ExternalIdTable} of the target database, links are loaded after actors
+ * and movies so that they can be resolved one chunk at a time. Duplicate links are loaded once.
+ */
+public class CatalogueImporter {
+    private static final Logger LOGGER = Logger.getLogger(CatalogueImporter.class.getName());
+
+    private final DataSource dataSource;
+    private final ImportConfig config;
+    private final DelimitedLineParser lineParser;
+
+    public CatalogueImporter(DataSource dataSource) {
+        this(dataSource, ImportConfig.csv());
+    }
+
+    public CatalogueImporter(DataSource dataSource, ImportConfig config) {
+        this.dataSource = Objects.requireNonNull(dataSource);
+        this.config = Objects.requireNonNull(config);
+        this.lineParser = new DelimitedLineParser(config.getDelimiter());
+    }
+
+    public ImportReport importCatalogue(Path actorsFile, Path moviesFile, Path linksFile) {
+        long start = System.nanoTime();
+        CatalogueLoader loader = createLoader();
+        try (ExternalIdTable externalIds = ExternalIdTable.create(dataSource)) {
+            long actorCount = importFile(actorsFile, "actors", 4, records -> importActors(loader, records, externalIds));
+            long movieCount = importFile(moviesFile, "movies", 4, records -> importMovies(loader, records, externalIds));
+            long linkCount = importFile(linksFile, "links", 2, records -> importLinks(loader, records, externalIds));
+            return new ImportReport(actorCount, movieCount, linkCount, Duration.ofNanos(System.nanoTime() - start));
+        } catch (SQLException e) {
+            throw new ImportException("Couldn't create or drop the external id table", e);
+        }
+    }
+
+    private CatalogueLoader createLoader() {
+        try (Connection connection = dataSource.getConnection()) {
+            if (DatabaseDialect.of(connection) == DatabaseDialect.POSTGRES) {
+                return new CopyCatalogueLoader(dataSource);
+            }
+            return new BatchCatalogueLoader(dataSource, config.getChunkSize());
+        } catch (SQLException e) {
+            throw new ImportException("Couldn't detect the target database", e);
+        }
+    }
+
+    private long importFile(Path file, String rowType, int fieldCount, ChunkLoader chunkLoader) {
+        long start = System.nanoTime();
+        long rowCount = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            List<Record> chunk = new ArrayList<>(config.getChunkSize());
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if ((config.isHeader() && lineNumber == 1) || line.isEmpty()) {
+                    continue;
+                }
+                chunk.add(parseRecord(file, lineNumber, line, fieldCount));
+                if (chunk.size() == config.getChunkSize()) {
+                    chunkLoader.load(chunk);
+                    rowCount += chunk.size();
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                chunkLoader.load(chunk);
+                rowCount += chunk.size();
+            }
+        } catch (IOException e) {
+            throw new ImportException("Couldn't read " + file, e);
+        } catch (SQLException e) {
+            throw new ImportException(String.format("Couldn't import %s from %s", rowType, file), e);
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        LOGGER.info(String.format("Imported %d %s from %s in %d ms, %.0f rows/s", rowCount, rowType, file,
+                elapsed.toMillis(), ImportReport.rowsPerSecond(rowCount, elapsed)));
+        return rowCount;
+    }
+
+    private Record parseRecord(Path file, long lineNumber, String line, int fieldCount) {
+        String[] fields = lineParser.parse(line);
+        if (fields.length != fieldCount) {
+            throw new ImportException(String.format("Expected %d fields at %s:%d but found %d", fieldCount, file, lineNumber, fields.length));
+        }
+        return new Record(file, lineNumber, fields);
+    }
+
+    private void importActors(CatalogueLoader loader, List<Record> records, ExternalIdTable externalIds) throws SQLException {
+        verifyNewExternalIds(externalIds, records, "actor");
+        List<Actor> actors = new ArrayList<>(records.size());
+        for (Record record : records) {
+            actors.add(Actor.builder().firstName(record.fields[1]).lastName(record.fields[2])
+                    .birthday(record.parseDate(3)).build());
+        }
+        loader.loadActors(actors);
+        List<Long> ids = new ArrayList<>(actors.size());
+        actors.forEach(actor -> ids.add(actor.getId()));
+        externalIds.register("actor", externalIdsOf(records), ids);
+    }
+
+    private void importMovies(CatalogueLoader loader, List<Record> records, ExternalIdTable externalIds) throws SQLException {
+        verifyNewExternalIds(externalIds, records, "movie");
+        List<Movie> movies = new ArrayList<>(records.size());
+        for (Record record : records) {
+            movies.add(Movie.builder().name(record.fields[1]).duration(record.parseLong(2))
+                    .releaseDate(record.parseDate(3)).build());
+        }
+        loader.loadMovies(movies);
+        List<Long> ids = new ArrayList<>(movies.size());
+        movies.forEach(movie -> ids.add(movie.getId()));
+        externalIds.register("movie", externalIdsOf(records), ids);
+    }
+
+    private void importLinks(CatalogueLoader loader, List<Record> records, ExternalIdTable externalIds) throws SQLException {
+        Map<String, Long> actorIds = findIds(externalIds, records, 0, "actor");
+        Map<String, Long> movieIds = findIds(externalIds, records, 1, "movie");
+        Set<ActorMovieLink> links = new LinkedHashSet<>();
+        for (Record record : records) {
+            links.add(new ActorMovieLink(resolveId(actorIds, record, 0, "actor"), resolveId(movieIds, record, 1, "movie")));
+        }
+        loader.loadLinks(new ArrayList<>(links));
+    }
+
+    private void verifyNewExternalIds(ExternalIdTable externalIds, List<Record> records, String entityName) throws SQLException {
+        Set<String> chunkIds = new HashSet<>();
+        for (Record record : records) {
+            if (!chunkIds.add(record.fields[0])) {
+                throw duplicateId(record, entityName);
+            }
+        }
+        Map<String, Long> registeredIds = externalIds.findIds(entityName, chunkIds);
+        for (Record record : records) {
+            if (registeredIds.containsKey(record.fields[0])) {
+                throw duplicateId(record, entityName);
+            }
+        }
+    }
+
+    private ImportException duplicateId(Record record, String entityName) {
+        return new ImportException(String.format("Duplicate %s id %s at %s", entityName, record.fields[0], record.position()));
+    }
+
+    private List<String> externalIdsOf(List<Record> records) {
+        List<String> ids = new ArrayList<>(records.size());
+        records.forEach(record -> ids.add(record.fields[0]));
+        return ids;
+    }
+
+    private Map<String, Long> findIds(ExternalIdTable externalIds, List<Record> records, int fieldIndex,
+                                      String entityName) throws SQLException {
+        Set<String> chunkIds = new HashSet<>();
+        records.forEach(record -> chunkIds.add(record.fields[fieldIndex]));
+        return externalIds.findIds(entityName, chunkIds);
+    }
+
+    private Long resolveId(Map<String, Long> ids, Record record, int fieldIndex, String entityName) {
+        Long id = ids.get(record.fields[fieldIndex]);
+        if (id == null) {
+            throw new ImportException(String.format("Unknown %s id %s at %s", entityName, record.fields[fieldIndex], record.position()));
+        }
+        return id;
+    }
+
+    @FunctionalInterface
+    private interface ChunkLoader {
+        void load(List<Record> records) throws SQLException;
+    }
+
+    private static class Record {
+        private final Path file;
+        private final long lineNumber;
+        private final String[] fields;
+
+        private Record(Path file, long lineNumber, String[] fields) {
+            this.file = file;
+            this.lineNumber = lineNumber;
+            this.fields = fields;
+        }
+
+        private LocalDate parseDate(int fieldIndex) {
+            try {
+                return LocalDate.parse(fields[fieldIndex]);
+            } catch (DateTimeParseException e) {
+                throw new ImportException(String.format("Invalid date %s at %s", fields[fieldIndex], position()), e);
+            }
+        }
+
+        private long parseLong(int fieldIndex) {
+            try {
+                return Long.parseLong(fields[fieldIndex]);
+            } catch (NumberFormatException e) {
+                throw new ImportException(String.format("Invalid number %s at %s", fields[fieldIndex], position()), e);
+            }
+        }
+
+        private String position() {
+            return file + ":" + lineNumber;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.bobocode.bulk;
+
+import com.bobocode.model.Actor;
+import com.bobocode.model.ActorMovieLink;
+import com.bobocode.model.Movie;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Writes one chunk of parsed rows, actors and movies get their generated ids assigned in list order
+ */
+interface CatalogueLoader {
+    void loadActors(List<Actor> actors) throws SQLException;
+
+    void loadMovies(List<Movie> movies) throws SQLException;
+
+    void loadLinks(List<ActorMovieLink> links) throws SQLException;
+}
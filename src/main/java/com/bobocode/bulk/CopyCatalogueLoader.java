@@ -0,0 +1,168 @@
+package com.bobocode.bulk;
+
+import com.bobocode.model.Actor;
+import com.bobocode.model.ActorMovieLink;
+import com.bobocode.model.Movie;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Loads chunks with PostgreSQL {@code COPY FROM STDIN}. Ids are taken from the serial sequences up front so that
+ * rows can be copied together with their ids, every chunk is copied and committed in one transaction. Links are
+ * copied into a temporary table first and then inserted unless already present, so that a duplicate link doesn't fail
+ * the whole chunk.
+ */
+class CopyCatalogueLoader implements CatalogueLoader {
+    private static final String NEXT_IDS_SQL = "SELECT nextval(pg_get_serial_sequence(?, 'id')) FROM generate_series(1, ?);";
+    private static final String COPY_ACTORS_SQL = "COPY actor (id, first_name, last_name, birthday) FROM STDIN";
+    private static final String COPY_MOVIES_SQL = "COPY movie (id, name, duration, release_date) FROM STDIN";
+    private static final String CREATE_LINKS_STAGE_SQL = "CREATE TEMPORARY TABLE actor_movie_stage (LIKE actor_movie) ON COMMIT DROP;";
+    private static final String COPY_LINKS_SQL = "COPY actor_movie_stage (actor_id, movie_id) FROM STDIN";
+    private static final String INSERT_STAGED_LINKS_SQL = "INSERT INTO actor_movie (actor_id, movie_id) " +
+            "SELECT actor_id, movie_id FROM actor_movie_stage ON CONFLICT DO NOTHING;";
+
+    private final DataSource dataSource;
+
+    CopyCatalogueLoader(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void loadActors(List<Actor> actors) throws SQLException {
+        inTransaction(connection -> {
+            long[] ids = nextIds(connection, "actor", actors.size());
+            StringBuilder rows = new StringBuilder();
+            for (int i = 0; i < actors.size(); i++) {
+                Actor actor = actors.get(i);
+                actor.setId(ids[i]);
+                appendRow(rows, actor.getId(), actor.getFirstName(), actor.getLastName(), actor.getBirthday());
+            }
+            copy(connection, COPY_ACTORS_SQL, rows);
+        });
+    }
+
+    @Override
+    public void loadMovies(List<Movie> movies) throws SQLException {
+        inTransaction(connection -> {
+            long[] ids = nextIds(connection, "movie", movies.size());
+            StringBuilder rows = new StringBuilder();
+            for (int i = 0; i < movies.size(); i++) {
+                Movie movie = movies.get(i);
+                movie.setId(ids[i]);
+                appendRow(rows, movie.getId(), movie.getName(), movie.getDuration(), movie.getReleaseDate());
+            }
+            copy(connection, COPY_MOVIES_SQL, rows);
+        });
+    }
+
+    @Override
+    public void loadLinks(List<ActorMovieLink> links) throws SQLException {
+        inTransaction(connection -> {
+            StringBuilder rows = new StringBuilder();
+            for (ActorMovieLink link : new LinkedHashSet<>(links)) {
+                appendRow(rows, link.getActorId(), link.getMovieId());
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_LINKS_STAGE_SQL);
+                copy(connection, COPY_LINKS_SQL, rows);
+                statement.executeUpdate(INSERT_STAGED_LINKS_SQL);
+            }
+        });
+    }
+
+    private void inTransaction(TransactionWork work) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                work.execute(connection);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private long[] nextIds(Connection connection, String table, int count) throws SQLException {
+        long[] ids = new long[count];
+        int fetched = 0;
+        try (PreparedStatement nextIdsStatement = connection.prepareStatement(NEXT_IDS_SQL)) {
+            nextIdsStatement.setString(1, table);
+            nextIdsStatement.setInt(2, count);
+            try (ResultSet resultSet = nextIdsStatement.executeQuery()) {
+                while (fetched < count && resultSet.next()) {
+                    ids[fetched++] = resultSet.getLong(1);
+                }
+            }
+        }
+        if (fetched < count) {
+            throw new SQLException(String.format("Expected %d ids from the %s sequence but got %d", count, table, fetched));
+        }
+        return ids;
+    }
+
+    private void copy(Connection connection, String copySql, StringBuilder rows) throws SQLException {
+        try {
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            copyManager.copyIn(copySql, new StringReader(rows.toString()));
+        } catch (IOException e) {
+            throw new SQLException("Couldn't copy rows", e);
+        }
+    }
+
+    /**
+     * Appends a row in the COPY text format: tab separated, backslash escaped
+     */
+    private void appendRow(StringBuilder rows, Object... values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                rows.append('\t');
+            }
+            appendValue(rows, values[i]);
+        }
+        rows.append('\n');
+    }
+
+    private void appendValue(StringBuilder rows, Object value) {
+        if (value == null) {
+            rows.append("\\N");
+            return;
+        }
+        String text = value.toString();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\':
+                    rows.append("\\\\");
+                    break;
+                case '\t':
+                    rows.append("\\t");
+                    break;
+                case '\n':
+                    rows.append("\\n");
+                    break;
+                case '\r':
+                    rows.append("\\r");
+                    break;
+                default:
+                    rows.append(c);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface TransactionWork {
+        void execute(Connection connection) throws SQLException;
+    }
+}
@@ -0,0 +1,46 @@
+package com.bobocode.bulk;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a line into fields. Fields may be wrapped in double quotes to contain the delimiter, a doubled quote inside
+ * a quoted field stands for one quote. Quoted fields spanning several lines are not supported.
+ */
+class DelimitedLineParser {
+    private static final char QUOTE = '"';
+
+    private final char delimiter;
+
+    DelimitedLineParser(char delimiter) {
+        this.delimiter = delimiter;
+    }
+
+    String[] parse(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == QUOTE && i + 1 < line.length() && line.charAt(i + 1) == QUOTE) {
+                    field.append(QUOTE);
+                    i++;
+                } else if (c == QUOTE) {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == QUOTE && field.length() == 0) {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+}
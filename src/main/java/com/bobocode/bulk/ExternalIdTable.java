@@ -0,0 +1,99 @@
+package com.bobocode.bulk;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Maps the external ids of imported rows to the generated ones in a table of the target database, so that an import
+ * only keeps one chunk of ids in memory. The table is created for a single import and dropped on {@link #close()}.
+ */
+class ExternalIdTable implements AutoCloseable {
+    private static final int LOOKUP_BATCH_SIZE = 1_000;
+    private static final String CREATE_TABLE_SQL_TEMPLATE = "CREATE TABLE %s (entity VARCHAR(16) NOT NULL, " +
+            "external_id VARCHAR NOT NULL, id BIGINT NOT NULL, PRIMARY KEY (entity, external_id));";
+    private static final String INSERT_SQL_TEMPLATE = "INSERT INTO %s (entity, external_id, id) VALUES (?, ?, ?);";
+    private static final String SELECT_SQL_TEMPLATE = "SELECT external_id, id FROM %s WHERE entity = ? AND external_id IN (%s);";
+    private static final String DROP_TABLE_SQL_TEMPLATE = "DROP TABLE %s;";
+
+    private final DataSource dataSource;
+    private final String tableName;
+
+    private ExternalIdTable(DataSource dataSource, String tableName) {
+        this.dataSource = dataSource;
+        this.tableName = tableName;
+    }
+
+    static ExternalIdTable create(DataSource dataSource) throws SQLException {
+        String tableName = "catalogue_import_id_" + UUID.randomUUID().toString().replace("-", "");
+        execute(dataSource, String.format(CREATE_TABLE_SQL_TEMPLATE, tableName));
+        return new ExternalIdTable(dataSource, tableName);
+    }
+
+    void register(String entity, List<String> externalIds, List<Long> ids) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insertStatement = connection.prepareStatement(String.format(INSERT_SQL_TEMPLATE, tableName))) {
+                for (int i = 0; i < externalIds.size(); i++) {
+                    insertStatement.setString(1, entity);
+                    insertStatement.setString(2, externalIds.get(i));
+                    insertStatement.setLong(3, ids.get(i));
+                    insertStatement.addBatch();
+                }
+                insertStatement.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Returns the generated ids of the given external ids, ids that weren't registered are absent from the result
+     */
+    Map<String, Long> findIds(String entity, Collection<String> externalIds) throws SQLException {
+        List<String> idList = new ArrayList<>(externalIds);
+        Map<String, Long> ids = new HashMap<>();
+        try (Connection connection = dataSource.getConnection()) {
+            for (int from = 0; from < idList.size(); from += LOOKUP_BATCH_SIZE) {
+                List<String> batch = idList.subList(from, Math.min(from + LOOKUP_BATCH_SIZE, idList.size()));
+                String selectSql = String.format(SELECT_SQL_TEMPLATE, tableName, String.join(", ", Collections.nCopies(batch.size(), "?")));
+                try (PreparedStatement selectStatement = connection.prepareStatement(selectSql)) {
+                    selectStatement.setString(1, entity);
+                    for (int i = 0; i < batch.size(); i++) {
+                        selectStatement.setString(i + 2, batch.get(i));
+                    }
+                    try (ResultSet resultSet = selectStatement.executeQuery()) {
+                        while (resultSet.next()) {
+                            ids.put(resultSet.getString(1), resultSet.getLong(2));
+                        }
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        execute(dataSource, String.format(DROP_TABLE_SQL_TEMPLATE, tableName));
+    }
+
+    private static void execute(DataSource dataSource, String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
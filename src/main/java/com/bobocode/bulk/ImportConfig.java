@@ -0,0 +1,31 @@
+package com.bobocode.bulk;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@Builder
+@ToString
+public class ImportConfig {
+    /**
+     * Field separator, {@code ','} for CSV and {@code '\t'} for TSV files
+     */
+    @Builder.Default
+    private char delimiter = ',';
+    @Builder.Default
+    private boolean header = true;
+    /**
+     * Rows parsed and written per round trip, each chunk is committed on its own
+     */
+    @Builder.Default
+    private int chunkSize = 10_000;
+
+    public static ImportConfig csv() {
+        return ImportConfig.builder().build();
+    }
+
+    public static ImportConfig tsv() {
+        return ImportConfig.builder().delimiter('\t').build();
+    }
+}
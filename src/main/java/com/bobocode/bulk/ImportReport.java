@@ -0,0 +1,30 @@
+package com.bobocode.bulk;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+
+@Getter
+@AllArgsConstructor
+@ToString
+public class ImportReport {
+    private final long actorCount;
+    private final long movieCount;
+    private final long linkCount;
+    private final Duration elapsed;
+
+    public long getRowCount() {
+        return actorCount + movieCount + linkCount;
+    }
+
+    public double rowsPerSecond() {
+        return rowsPerSecond(getRowCount(), elapsed);
+    }
+
+    static double rowsPerSecond(long rows, Duration elapsed) {
+        long elapsedNanos = Math.max(elapsed.toNanos(), 1);
+        return rows * 1e9 / elapsedNanos;
+    }
+}
@@ -0,0 +1,217 @@
+package com.bobocode.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Thread-safe cache bounded by entry count, or by the total weight of its values, that evicts the least recently used
+ * entry first. Entries optionally expire after a fixed time to live. Concurrent misses for the same key share a single
+ * call to the loader.
+ */
+public class LruCache<K, V> {
+    private final long maximumWeight;
+    private final ToIntFunction<? super V> weigher;
+    private final long timeToLiveNanos;
+    private final Map<K, Entry<V>> entries;
+    private final Lock lock = new ReentrantLock();
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlightLoads = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private long totalWeight;
+
+    public LruCache(int maximumSize) {
+        this(maximumSize, Duration.ZERO);
+    }
+
+    /**
+     * @param timeToLive how long an entry stays valid after it was stored, {@link Duration#ZERO} keeps entries until evicted
+     */
+    public LruCache(int maximumSize, Duration timeToLive) {
+        this(maximumSize, timeToLive, value -> 1);
+    }
+
+    /**
+     * @param maximumWeight upper bound for the sum of {@code weigher} over all cached values
+     */
+    public LruCache(long maximumWeight, Duration timeToLive, ToIntFunction<? super V> weigher) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("Maximum cache weight must be positive, but was " + maximumWeight);
+        }
+        this.maximumWeight = maximumWeight;
+        this.weigher = Objects.requireNonNull(weigher);
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public V getIfPresent(K key) {
+        Objects.requireNonNull(key);
+        V value = lookup(key);
+        if (value == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V cachedValue = getIfPresent(key);
+        if (cachedValue != null) {
+            return cachedValue;
+        }
+        CompletableFuture<V> newLoad = new CompletableFuture<>();
+        CompletableFuture<V> inFlightLoad = inFlightLoads.putIfAbsent(key, newLoad);
+        if (inFlightLoad != null) {
+            return awaitLoad(inFlightLoad);
+        }
+        try {
+            V value = lookup(key);
+            if (value == null) {
+                loads.increment();
+                value = Objects.requireNonNull(loader.apply(key), "Cache loader returned null");
+                put(key, value);
+            }
+            newLoad.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            newLoad.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLoads.remove(key, newLoad);
+        }
+    }
+
+    private V awaitLoad(CompletableFuture<V> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private V lookup(K key) {
+        lock.lock();
+        try {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (isExpired(entry)) {
+                removeEntry(key);
+                expirations.increment();
+                return null;
+            }
+            return entry.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(K key, V value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        Entry<V> entry = new Entry<>(value, weigher.applyAsInt(value), System.nanoTime());
+        lock.lock();
+        try {
+            Entry<V> replacedEntry = entries.put(key, entry);
+            if (replacedEntry != null) {
+                totalWeight -= replacedEntry.weight;
+            }
+            totalWeight += entry.weight;
+            evictEldestEntries();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evictEldestEntries() {
+        Iterator<Entry<V>> leastRecentlyUsedFirst = entries.values().iterator();
+        while (totalWeight > maximumWeight && leastRecentlyUsedFirst.hasNext()) {
+            totalWeight -= leastRecentlyUsedFirst.next().weight;
+            leastRecentlyUsedFirst.remove();
+            evictions.increment();
+        }
+    }
+
+    private void removeEntry(K key) {
+        Entry<V> removedEntry = entries.remove(key);
+        if (removedEntry != null) {
+            totalWeight -= removedEntry.weight;
+        }
+    }
+
+    private boolean isExpired(Entry<V> entry) {
+        return timeToLiveNanos > 0 && System.nanoTime() - entry.storedAtNanos >= timeToLiveNanos;
+    }
+
+    public void invalidate(K key) {
+        lock.lock();
+        try {
+            removeEntry(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            entries.clear();
+            totalWeight = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long totalWeight() {
+        lock.lock();
+        try {
+            return totalWeight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), loads.sum(), evictions.sum(), expirations.sum(), size(), totalWeight());
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final int weight;
+        private final long storedAtNanos;
+
+        private Entry(V value, int weight, long storedAtNanos) {
+            this.value = value;
+            this.weight = weight;
+            this.storedAtNanos = storedAtNanos;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.bobocode.cache;
+
+import com.bobocode.model.Movie;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Caches results of movie queries keyed by query and parameters, bounded by the estimated memory of cached rows.
+ * Writers invalidate exactly the keys they affect, see {@link #invalidateName(String)} and {@link #invalidateActor(String, String)}.
+ * <p>
+ * Every invalidation first bumps a generation shared by the keys hashing to the same stripe. A load drops its result
+ * again when the generation of its key changed while it ran, so a query that read the rows before a write can't put
+ * them back after the write invalidated the key.
+ */
+public class MovieQueryCache {
+    private static final int LIST_OVERHEAD_BYTES = 40;
+    private static final int MOVIE_OVERHEAD_BYTES = 120;
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final LruCache<String, List<Movie>> moviesByName;
+    private final LruCache<List<String>, List<Movie>> moviesByActorName;
+    private final AtomicLongArray nameGenerations = new AtomicLongArray(GENERATION_STRIPES);
+    private final AtomicLongArray actorGenerations = new AtomicLongArray(GENERATION_STRIPES);
+
+    /**
+     * @param maximumBytes estimated heap size the cached results of each query may occupy
+     */
+    public MovieQueryCache(long maximumBytes, Duration timeToLive) {
+        this.moviesByName = new LruCache<>(maximumBytes, timeToLive, MovieQueryCache::estimateBytes);
+        this.moviesByActorName = new LruCache<>(maximumBytes, timeToLive, MovieQueryCache::estimateBytes);
+    }
+
+    public List<Movie> findByName(String name, Supplier<List<Movie>> query) {
+        return copyOf(load(moviesByName, nameGenerations, name, query));
+    }
+
+    public List<Movie> findByActorFirstAndLastName(String actorFirstName, String actorLastName, Supplier<List<Movie>> query) {
+        return copyOf(load(moviesByActorName, actorGenerations, List.of(actorFirstName, actorLastName), query));
+    }
+
+    public void invalidateName(String name) {
+        nameGenerations.incrementAndGet(stripeOf(name));
+        moviesByName.invalidate(name);
+    }
+
+    public void invalidateActor(String actorFirstName, String actorLastName) {
+        List<String> key = List.of(actorFirstName, actorLastName);
+        actorGenerations.incrementAndGet(stripeOf(key));
+        moviesByActorName.invalidate(key);
+    }
+
+    /**
+     * Drops the cached movies of every actor, for writers that don't know the name of the actor they changed
+     */
+    public void invalidateActors() {
+        incrementAll(actorGenerations);
+        moviesByActorName.invalidateAll();
+    }
+
+    public void invalidateAll() {
+        incrementAll(nameGenerations);
+        incrementAll(actorGenerations);
+        moviesByName.invalidateAll();
+        moviesByActorName.invalidateAll();
+    }
+
+    public CacheStats getByNameStats() {
+        return moviesByName.stats();
+    }
+
+    public CacheStats getByActorStats() {
+        return moviesByActorName.stats();
+    }
+
+    /**
+     * The generation is read before the query starts and checked after the result was cached, an invalidation in
+     * between either is seen by the check or removes the result itself
+     */
+    private static <K> List<Movie> load(LruCache<K, List<Movie>> cache, AtomicLongArray generations, K key,
+                                        Supplier<List<Movie>> query) {
+        int stripe = stripeOf(key);
+        long generation = generations.get(stripe);
+        List<Movie> movies = cache.get(key, missingKey -> copyOf(query.get()));
+        if (generations.get(stripe) != generation) {
+            cache.invalidate(key);
+        }
+        return movies;
+    }
+
+    private static int stripeOf(Object key) {
+        return (key.hashCode() & Integer.MAX_VALUE) % GENERATION_STRIPES;
+    }
+
+    private static void incrementAll(AtomicLongArray generations) {
+        for (int i = 0; i < generations.length(); i++) {
+            generations.incrementAndGet(i);
+        }
+    }
+
+    private static int estimateBytes(List<Movie> movies) {
+        int bytes = LIST_OVERHEAD_BYTES;
+        for (Movie movie : movies) {
+            bytes += MOVIE_OVERHEAD_BYTES + 2 * movie.getName().length();
+        }
+        return bytes;
+    }
+
+    private static List<Movie> copyOf(List<Movie> movies) {
+        return movies.stream()
+                .map(movie -> new Movie(movie.getId(), movie.getName(), movie.getDuration(), movie.getReleaseDate(),
+                        movie.getActors() == null ? null : new ArrayList<>(movie.getActors())))
+                .collect(Collectors.toList());
+    }
+}
@@ -1,11 +1,42 @@
 package com.bobocode.dao;
 
 import com.bobocode.model.Actor;
+import com.bobocode.model.ActorMovieLink;
+import com.bobocode.model.Page;
+
+import java.util.Collection;
+import java.util.Map;
 
 public interface ActorDao {
     void save(Actor actor);
 
+    /**
+     * Inserts all actors in one transaction using JDBC batches and assigns generated ids in iteration order
+     */
+    void saveAll(Collection<Actor> actors);
+
     Actor findById(Long id);
 
+    /**
+     * Loads the rows with the given ids in one or a few queries. Ids without a row are simply absent from the map
+     */
+    Map<Long, Actor> findAllByIds(Collection<Long> ids);
+
     void linkActorToMovieByID(Long actorId, Long movieId);
+
+    /**
+     * Links actors to movies in one transaction. Referenced ids are verified with one query per batch and
+     * pairs that are already linked are skipped
+     */
+    void linkAll(Collection<ActorMovieLink> links);
+
+    /**
+     * Returns up to {@code limit} actors with id greater than {@code lastId} in id order, {@code null} starts from the beginning
+     */
+    Page<Actor> findAllAfter(Long lastId, int limit);
+
+    /**
+     * Returns the page that follows the one which produced {@code continuationToken}, {@code null} returns the first page
+     */
+    Page<Actor> findPage(String continuationToken, int limit);
 }
@@ -2,19 +2,47 @@ package com.bobocode.dao;
 
 import com.bobocode.exception.DaoOperationException;
 import com.bobocode.model.Actor;
+import com.bobocode.model.ActorMovieLink;
+import com.bobocode.model.Page;
+import com.bobocode.util.DatabaseDialect;
 
 import javax.sql.DataSource;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 public class ActorDaoImpl implements ActorDao {
     private static final String INSERT_SQL = "INSERT INTO actor (first_name, last_name, birthday) VALUES (?, ?, ?);";
-    private static final String SELECT_BY_ID_SQL = "SELECT * FROM actor WHERE id=?;";
+    private static final String INSERT_WITH_ID_IF_ABSENT_POSTGRES_SQL = "INSERT INTO actor (id, first_name, last_name, birthday) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (id) DO NOTHING;";
+    private static final String INSERT_WITH_ID_IF_ABSENT_H2_SQL = "MERGE INTO actor (id, first_name, last_name, birthday) KEY (id) VALUES (?, ?, ?, ?);";
+    private static final String SELECT_BY_ID_SQL = "SELECT " + ActorRowMapper.COLUMNS + " FROM actor WHERE id=?;";
     private static final String INSERT_ACTOR_MOVIE_LINK_SQL = "INSERT INTO actor_movie (actor_id, movie_id) VALUES (?, ?);";
+    private static final String INSERT_ACTOR_MOVIE_LINK_IF_ABSENT_POSTGRES_SQL = "INSERT INTO actor_movie (actor_id, movie_id) VALUES (?, ?) ON CONFLICT DO NOTHING;";
+    private static final String INSERT_ACTOR_MOVIE_LINK_IF_ABSENT_H2_SQL = "MERGE INTO actor_movie (actor_id, movie_id) KEY (actor_id, movie_id) VALUES (?, ?);";
+    private static final String SELECT_EXISTING_IDS_SQL_TEMPLATE = "SELECT 'actor', id FROM actor WHERE id IN (%s) " +
+            "UNION ALL SELECT 'movie', id FROM movie WHERE id IN (%s);";
+    private static final String SELECT_BY_IDS_SQL_PREFIX = "SELECT " + ActorRowMapper.COLUMNS + " FROM actor WHERE id";
+    private static final String SELECT_PAGE_SQL = "SELECT " + ActorRowMapper.COLUMNS + " FROM actor WHERE id > ? ORDER BY id LIMIT ?;";
+    private static final RowMapper<Actor> ACTOR_ROW_MAPPER = new ActorRowMapper();
     private DataSource dataSource;
+    private DaoConfig daoConfig;
 
     public ActorDaoImpl(DataSource dataSource) {
+        this(dataSource, DaoConfig.defaults());
+    }
+
+    public ActorDaoImpl(DataSource dataSource, DaoConfig daoConfig) {
         this.dataSource = dataSource;
+        this.daoConfig = daoConfig;
     }
 
     @Override
@@ -28,10 +56,89 @@ public class ActorDaoImpl implements ActorDao {
     }
 
     private void saveActor(Connection connection, Actor actor) throws SQLException {
-        PreparedStatement insertStatement = prepareInsertStatement(connection, actor);
-        executeUpdate(insertStatement);
-        Long id = fetchGeneratedId(insertStatement);
-        actor.setId(id);
+        try (PreparedStatement insertStatement = prepareInsertStatement(connection, actor)) {
+            fillInsertStatementWithParameters(insertStatement, actor);
+            executeUpdate(insertStatement);
+            Long id = fetchGeneratedId(insertStatement);
+            actor.setId(id);
+        }
+    }
+
+    @Override
+    public void saveAll(Collection<Actor> actors) {
+        Objects.requireNonNull(actors);
+        if (actors.isEmpty()) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                saveActors(connection, actors);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DaoOperationException("Couldn't save " + actors.size() + " actors", e);
+        }
+    }
+
+    void saveActors(Connection connection, Collection<Actor> actors) throws SQLException {
+        try (PreparedStatement insertStatement = connection.prepareStatement(INSERT_SQL, PreparedStatement.RETURN_GENERATED_KEYS)) {
+            List<Actor> batch = new ArrayList<>(daoConfig.getBatchSize());
+            for (Actor actor : actors) {
+                fillInsertStatementWithParameters(insertStatement, Objects.requireNonNull(actor));
+                insertStatement.addBatch();
+                batch.add(actor);
+                if (batch.size() == daoConfig.getBatchSize()) {
+                    executeInsertBatch(insertStatement, batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                executeInsertBatch(insertStatement, batch);
+            }
+        }
+    }
+
+    /**
+     * Inserts actors whose ids were assigned up front instead of generated by the database. An actor that is already
+     * stored under its id is not an error, so that concurrent copies of replicated actors do not conflict.
+     */
+    void saveActorsWithIds(Connection connection, Collection<Actor> actors) throws SQLException {
+        String insertSql = DatabaseDialect.of(connection) == DatabaseDialect.POSTGRES
+                ? INSERT_WITH_ID_IF_ABSENT_POSTGRES_SQL
+                : INSERT_WITH_ID_IF_ABSENT_H2_SQL;
+        try (PreparedStatement insertStatement = connection.prepareStatement(insertSql)) {
+            int batchSize = 0;
+            for (Actor actor : actors) {
+                insertStatement.setLong(1, Objects.requireNonNull(actor.getId(), "Actor ID"));
+                insertStatement.setString(2, actor.getFirstName());
+                insertStatement.setString(3, actor.getLastName());
+                insertStatement.setDate(4, Date.valueOf(actor.getBirthday()));
+                insertStatement.addBatch();
+                if (++batchSize == daoConfig.getBatchSize()) {
+                    insertStatement.executeBatch();
+                    batchSize = 0;
+                }
+            }
+            if (batchSize > 0) {
+                insertStatement.executeBatch();
+            }
+        }
+    }
+
+    private void executeInsertBatch(PreparedStatement insertStatement, List<Actor> batch) throws SQLException {
+        insertStatement.executeBatch();
+        try (ResultSet generatedKeys = insertStatement.getGeneratedKeys()) {
+            for (Actor actor : batch) {
+                if (!generatedKeys.next()) {
+                    throw new DaoOperationException("Can not obtain actor ID");
+                }
+                actor.setId(generatedKeys.getLong(1));
+            }
+        }
     }
 
     private void executeUpdate(PreparedStatement insertStatement) throws SQLException {
@@ -42,18 +149,18 @@ public class ActorDaoImpl implements ActorDao {
     }
 
     private Long fetchGeneratedId(PreparedStatement insertStatement) throws SQLException {
-        ResultSet generatedKeys = insertStatement.getGeneratedKeys();
-        if (generatedKeys.next()) {
-            return generatedKeys.getLong(1);
-        } else {
-            throw new DaoOperationException("Can not obtain actor ID");
+        try (ResultSet generatedKeys = insertStatement.getGeneratedKeys()) {
+            if (generatedKeys.next()) {
+                return generatedKeys.getLong(1);
+            } else {
+                throw new DaoOperationException("Can not obtain actor ID");
+            }
         }
     }
 
     private PreparedStatement prepareInsertStatement(Connection connection, Actor actor) {
         try {
-            PreparedStatement insertPreparedStatement = connection.prepareStatement(INSERT_SQL, PreparedStatement.RETURN_GENERATED_KEYS);
-            return fillInsertStatementWithParameters(insertPreparedStatement, actor);
+            return connection.prepareStatement(INSERT_SQL, PreparedStatement.RETURN_GENERATED_KEYS);
         } catch (SQLException e) {
             throw new DaoOperationException("Couldn't prepare statement for actor" + actor, e);
         }
@@ -77,32 +184,24 @@ public class ActorDaoImpl implements ActorDao {
     }
 
     private Actor findActorById(Long id, Connection connection) throws SQLException {
-        PreparedStatement selectByIdPreparedStatement = prepareSelectByIdStatement(id, connection);
-        ResultSet resultSet = selectByIdPreparedStatement.executeQuery();
-        if (resultSet.next()) {
-            return parseRow(resultSet);
-        } else {
-            throw new DaoOperationException(String.format("Actor with id = %d does not exist", id));
+        try (PreparedStatement selectByIdPreparedStatement = prepareSelectByIdStatement(id, connection);
+             ResultSet resultSet = selectByIdPreparedStatement.executeQuery()) {
+            if (resultSet.next()) {
+                return parseRow(resultSet);
+            } else {
+                throw new DaoOperationException(String.format("Actor with id = %d does not exist", id));
+            }
         }
     }
 
     private Actor parseRow(ResultSet resultSet) {
         try {
-            return createFromResultSet(resultSet);
+            return ACTOR_ROW_MAPPER.mapRow(resultSet);
         } catch (SQLException e) {
             throw new DaoOperationException("Couldn't parse row to create actor instance", e);
         }
     }
 
-    private Actor createFromResultSet(ResultSet resultSet) throws SQLException {
-        Actor actor = new Actor();
-        actor.setId(resultSet.getLong("id"));
-        actor.setFirstName(resultSet.getString("first_name"));
-        actor.setLastName(resultSet.getString("last_name"));
-        actor.setBirthday(resultSet.getDate("birthday").toLocalDate());
-        return actor;
-    }
-
     private PreparedStatement prepareSelectByIdStatement(Long id, Connection connection) {
         try {
             PreparedStatement selectByIdPreparedStatement = connection.prepareStatement(SELECT_BY_ID_SQL);
@@ -120,14 +219,25 @@ public class ActorDaoImpl implements ActorDao {
         findActorById(id, connection);
     }
 
+    @Override
+    public Map<Long, Actor> findAllByIds(Collection<Long> ids) {
+        Objects.requireNonNull(ids);
+        try (Connection connection = dataSource.getConnection()) {
+            return FindByIdsQuery.execute(connection, SELECT_BY_IDS_SQL_PREFIX, ids, daoConfig.getBatchSize(), ACTOR_ROW_MAPPER, Actor::getId);
+        } catch (SQLException e) {
+            throw new DaoOperationException("Couldn't find actors by " + ids.size() + " ids", e);
+        }
+    }
+
     @Override
     public void linkActorToMovieByID(Long actorId, Long movieId) {
         try (Connection connection = dataSource.getConnection()) {
             verifyActorId(actorId, connection);
             MovieDaoImpl movieDao = new MovieDaoImpl(dataSource);
             movieDao.verifyMovieId(movieId, connection);
-            PreparedStatement insertActorMovieLinkPreparedStatement = prepareInsertActorMovieLinkStatement(connection, actorId, movieId);
-            executeUpdate(insertActorMovieLinkPreparedStatement);
+            try (PreparedStatement insertActorMovieLinkPreparedStatement = prepareInsertActorMovieLinkStatement(connection, actorId, movieId)) {
+                executeUpdate(insertActorMovieLinkPreparedStatement);
+            }
         } catch (SQLException e) {
             throw new DaoOperationException("Couldn't link actor to movie by id");
         }
@@ -143,4 +253,122 @@ public class ActorDaoImpl implements ActorDao {
             throw new DaoOperationException("Couldn't prepare statement for insert actor movie link for actor id" + actorId + " movieID" + movieId, e);
         }
     }
+
+    @Override
+    public void linkAll(Collection<ActorMovieLink> links) {
+        Objects.requireNonNull(links);
+        if (links.isEmpty()) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                linkActorsToMovies(connection, links);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DaoOperationException("Couldn't link " + links.size() + " actor movie pairs", e);
+        }
+    }
+
+    void linkActorsToMovies(Connection connection, Collection<ActorMovieLink> links) throws SQLException {
+        List<ActorMovieLink> distinctLinks = new ArrayList<>(new LinkedHashSet<>(links));
+        distinctLinks.forEach(this::verifyLinkIds);
+        String insertLinkSql = DatabaseDialect.of(connection) == DatabaseDialect.POSTGRES
+                ? INSERT_ACTOR_MOVIE_LINK_IF_ABSENT_POSTGRES_SQL
+                : INSERT_ACTOR_MOVIE_LINK_IF_ABSENT_H2_SQL;
+        try (PreparedStatement insertLinkStatement = connection.prepareStatement(insertLinkSql)) {
+            for (int from = 0; from < distinctLinks.size(); from += daoConfig.getBatchSize()) {
+                List<ActorMovieLink> batch = distinctLinks.subList(from, Math.min(from + daoConfig.getBatchSize(), distinctLinks.size()));
+                verifyLinkedEntitiesExist(connection, batch);
+                for (ActorMovieLink link : batch) {
+                    insertLinkStatement.setLong(1, link.getActorId());
+                    insertLinkStatement.setLong(2, link.getMovieId());
+                    insertLinkStatement.addBatch();
+                }
+                insertLinkStatement.executeBatch();
+            }
+        }
+    }
+
+    private void verifyLinkIds(ActorMovieLink link) {
+        Objects.requireNonNull(link);
+        if (link.getActorId() == null) {
+            throw new DaoOperationException("Cannot find a actor without ID");
+        }
+        if (link.getMovieId() == null) {
+            throw new DaoOperationException("Cannot find a movie without ID");
+        }
+    }
+
+    private void verifyLinkedEntitiesExist(Connection connection, List<ActorMovieLink> batch) throws SQLException {
+        Set<Long> missingActorIds = batch.stream().map(ActorMovieLink::getActorId).collect(Collectors.toCollection(TreeSet::new));
+        Set<Long> missingMovieIds = batch.stream().map(ActorMovieLink::getMovieId).collect(Collectors.toCollection(TreeSet::new));
+        String selectExistingIdsSql = String.format(SELECT_EXISTING_IDS_SQL_TEMPLATE,
+                placeholders(missingActorIds.size()), placeholders(missingMovieIds.size()));
+        try (PreparedStatement selectExistingIdsStatement = connection.prepareStatement(selectExistingIdsSql)) {
+            int parameterIndex = 1;
+            for (Long actorId : missingActorIds) {
+                selectExistingIdsStatement.setLong(parameterIndex++, actorId);
+            }
+            for (Long movieId : missingMovieIds) {
+                selectExistingIdsStatement.setLong(parameterIndex++, movieId);
+            }
+            try (ResultSet resultSet = selectExistingIdsStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    Set<Long> missingIds = "actor".equals(resultSet.getString(1)) ? missingActorIds : missingMovieIds;
+                    missingIds.remove(resultSet.getLong(2));
+                }
+            }
+        }
+        if (!missingActorIds.isEmpty()) {
+            throw new DaoOperationException(String.format("Actors with ids = %s do not exist", missingActorIds));
+        }
+        if (!missingMovieIds.isEmpty()) {
+            throw new DaoOperationException(String.format("Movies with ids = %s do not exist", missingMovieIds));
+        }
+    }
+
+    private String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    @Override
+    public Page<Actor> findAllAfter(Long lastId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page limit must be positive, but was " + limit);
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            return findActorPage(connection, lastId, limit);
+        } catch (SQLException e) {
+            throw new DaoOperationException("Couldn't find actors after id=" + lastId, e);
+        }
+    }
+
+    @Override
+    public Page<Actor> findPage(String continuationToken, int limit) {
+        return findAllAfter(PageTokens.decode(continuationToken), limit);
+    }
+
+    private Page<Actor> findActorPage(Connection connection, Long lastId, int limit) throws SQLException {
+        try (PreparedStatement selectPageStatement = connection.prepareStatement(SELECT_PAGE_SQL)) {
+            selectPageStatement.setLong(1, lastId == null ? Long.MIN_VALUE : lastId);
+            // one extra row tells whether there is a next page without a separate count query
+            selectPageStatement.setInt(2, limit + 1);
+            List<Actor> actors = new ArrayList<>(limit + 1);
+            try (ResultSet resultSet = selectPageStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    actors.add(parseRow(resultSet));
+                }
+            }
+            if (actors.size() <= limit) {
+                return new Page<>(actors, null);
+            }
+            List<Actor> pageContent = actors.subList(0, limit);
+            return new Page<>(new ArrayList<>(pageContent), PageTokens.encode(pageContent.get(limit - 1).getId()));
+        }
+    }
 }
@@ -0,0 +1,44 @@
+package com.bobocode.dao;
+
+import com.bobocode.model.Actor;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class ActorRowMapper implements RowMapper<Actor> {
+    public static final String COLUMNS = columns("actor");
+    public static final int COLUMN_COUNT = 4;
+
+    private final int idIndex;
+    private final int firstNameIndex;
+    private final int lastNameIndex;
+    private final int birthdayIndex;
+
+    public ActorRowMapper() {
+        this(1);
+    }
+
+    /**
+     * @param firstColumnIndex position of the first of the {@link #columns(String)} in the select list
+     */
+    public ActorRowMapper(int firstColumnIndex) {
+        this.idIndex = firstColumnIndex;
+        this.firstNameIndex = firstColumnIndex + 1;
+        this.lastNameIndex = firstColumnIndex + 2;
+        this.birthdayIndex = firstColumnIndex + 3;
+    }
+
+    public static String columns(String tableAlias) {
+        return String.format("%1$s.id, %1$s.first_name, %1$s.last_name, %1$s.birthday", tableAlias);
+    }
+
+    @Override
+    public Actor mapRow(ResultSet resultSet) throws SQLException {
+        Actor actor = new Actor();
+        actor.setId(resultSet.getLong(idIndex));
+        actor.setFirstName(resultSet.getString(firstNameIndex));
+        actor.setLastName(resultSet.getString(lastNameIndex));
+        actor.setBirthday(resultSet.getDate(birthdayIndex).toLocalDate());
+        return actor;
+    }
+}
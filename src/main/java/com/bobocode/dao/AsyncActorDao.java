@@ -0,0 +1,57 @@
+package com.bobocode.dao;
+
+import com.bobocode.model.Actor;
+import com.bobocode.model.ActorMovieLink;
+import com.bobocode.model.Page;
+import com.bobocode.util.AsyncDaoExecutor;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking facade over {@link ActorDao}. Every call runs on the {@link AsyncDaoExecutor}, failures complete the
+ * returned future exceptionally with the exception the blocking call would have thrown.
+ */
+public class AsyncActorDao {
+    private final ActorDao actorDao;
+    private final AsyncDaoExecutor executor;
+
+    public AsyncActorDao(ActorDao actorDao, AsyncDaoExecutor executor) {
+        this.actorDao = Objects.requireNonNull(actorDao);
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    public CompletableFuture<Void> save(Actor actor) {
+        return executor.run(() -> actorDao.save(actor));
+    }
+
+    public CompletableFuture<Void> saveAll(Collection<Actor> actors) {
+        return executor.run(() -> actorDao.saveAll(actors));
+    }
+
+    public CompletableFuture<Actor> findById(Long id) {
+        return executor.supply(() -> actorDao.findById(id));
+    }
+
+    public CompletableFuture<Map<Long, Actor>> findAllByIds(Collection<Long> ids) {
+        return executor.supply(() -> actorDao.findAllByIds(ids));
+    }
+
+    public CompletableFuture<Void> linkActorToMovieByID(Long actorId, Long movieId) {
+        return executor.run(() -> actorDao.linkActorToMovieByID(actorId, movieId));
+    }
+
+    public CompletableFuture<Void> linkAll(Collection<ActorMovieLink> links) {
+        return executor.run(() -> actorDao.linkAll(links));
+    }
+
+    public CompletableFuture<Page<Actor>> findAllAfter(Long lastId, int limit) {
+        return executor.supply(() -> actorDao.findAllAfter(lastId, limit));
+    }
+
+    public CompletableFuture<Page<Actor>> findPage(String continuationToken, int limit) {
+        return executor.supply(() -> actorDao.findPage(continuationToken, limit));
+    }
+}
@@ -0,0 +1,82 @@
+package com.bobocode.dao;
+
+import com.bobocode.model.Movie;
+import com.bobocode.model.Page;
+import com.bobocode.util.AsyncDaoExecutor;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking facade over {@link MovieDao}. Every call runs on the {@link AsyncDaoExecutor}, failures complete the
+ * returned future exceptionally with the exception the blocking call would have thrown. Streaming reads are not
+ * offered here because consuming a stream blocks the consumer's thread anyway; use pages instead.
+ */
+public class AsyncMovieDao {
+    private final MovieDao movieDao;
+    private final AsyncDaoExecutor executor;
+
+    public AsyncMovieDao(MovieDao movieDao, AsyncDaoExecutor executor) {
+        this.movieDao = Objects.requireNonNull(movieDao);
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    public CompletableFuture<Void> save(Movie movie) {
+        return executor.run(() -> movieDao.save(movie));
+    }
+
+    public CompletableFuture<Void> saveAll(Collection<Movie> movies) {
+        return executor.run(() -> movieDao.saveAll(movies));
+    }
+
+    public CompletableFuture<Long> saveOrGet(Movie movie) {
+        return executor.supply(() -> movieDao.saveOrGet(movie));
+    }
+
+    public CompletableFuture<Void> upsertAll(Collection<Movie> movies) {
+        return executor.run(() -> movieDao.upsertAll(movies));
+    }
+
+    public CompletableFuture<Movie> findById(Long id) {
+        return executor.supply(() -> movieDao.findById(id));
+    }
+
+    public CompletableFuture<Map<Long, Movie>> findAllByIds(Collection<Long> ids) {
+        return executor.supply(() -> movieDao.findAllByIds(ids));
+    }
+
+    public CompletableFuture<List<Movie>> findAll() {
+        return executor.supply(movieDao::findAll);
+    }
+
+    public CompletableFuture<List<Movie>> findByName(String name) {
+        return executor.supply(() -> movieDao.findByName(name));
+    }
+
+    public CompletableFuture<List<Movie>> findByActorFirstAndLastName(String actorFirstName, String actorLastName) {
+        return executor.supply(() -> movieDao.findByActorFirstAndLastName(actorFirstName, actorLastName));
+    }
+
+    public CompletableFuture<List<Movie>> findAllWithActors() {
+        return executor.supply(movieDao::findAllWithActors);
+    }
+
+    public CompletableFuture<List<Movie>> findByNameWithActors(String name) {
+        return executor.supply(() -> movieDao.findByNameWithActors(name));
+    }
+
+    public CompletableFuture<List<Movie>> searchByName(String query, int limit) {
+        return executor.supply(() -> movieDao.searchByName(query, limit));
+    }
+
+    public CompletableFuture<Page<Movie>> findAllAfter(Long lastId, int limit) {
+        return executor.supply(() -> movieDao.findAllAfter(lastId, limit));
+    }
+
+    public CompletableFuture<Page<Movie>> findPage(String continuationToken, int limit) {
+        return executor.supply(() -> movieDao.findPage(continuationToken, limit));
+    }
+}
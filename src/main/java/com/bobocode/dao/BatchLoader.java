@@ -0,0 +1,198 @@
+package com.bobocode.dao;
+
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.metrics.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Coalesces lookups by id that arrive within {@link BatchLoaderConfig#getBatchWindowMicros()} into one call of a
+ * set-based load function such as {@link ActorDao#findAllByIds(Collection)}. A lookup of an id that is already
+ * pending or being loaded shares the existing future. Futures of ids the load function didn't return complete with
+ * {@code null}, a failed batch fails all of its futures. Closing the loader fails every future that is still pending
+ * or being loaded and every later lookup.
+ */
+public class BatchLoader<V> implements AutoCloseable {
+    private final Function<Collection<Long>, Map<Long, V>> batchFunction;
+    private final BatchLoaderConfig config;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService dispatcher;
+    private final Object lock = new Object();
+    private final Map<Long, CompletableFuture<V>> inFlight = new HashMap<>();
+    private Map<Long, CompletableFuture<V>> pendingBatch;
+    private boolean closed;
+
+    private final AtomicLong loadCount = new AtomicLong();
+    private final AtomicLong deduplicatedCount = new AtomicLong();
+    private final AtomicLongArray batchSizeCounts;
+    private final LatencyHistogram loadLatency = new LatencyHistogram();
+    private final LatencyHistogram batchLatency = new LatencyHistogram();
+
+    public BatchLoader(Function<Collection<Long>, Map<Long, V>> batchFunction, BatchLoaderConfig config) {
+        if (config.getMaxBatchSize() <= 0 || config.getMaxConcurrentBatches() <= 0) {
+            throw new IllegalArgumentException("Max batch size and concurrent batches must be positive, but config was " + config);
+        }
+        this.batchFunction = Objects.requireNonNull(batchFunction);
+        this.config = config;
+        this.batchSizeCounts = new AtomicLongArray(config.getMaxBatchSize() + 1);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> createDaemonThread(runnable, "batch-loader-timer"));
+        this.dispatcher = Executors.newFixedThreadPool(config.getMaxConcurrentBatches(),
+                runnable -> createDaemonThread(runnable, "batch-loader-worker"));
+    }
+
+    private static Thread createDaemonThread(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    public CompletableFuture<V> load(Long id) {
+        Objects.requireNonNull(id);
+        long start = System.nanoTime();
+        loadCount.incrementAndGet();
+        CompletableFuture<V> future;
+        Map<Long, CompletableFuture<V>> fullBatch = null;
+        synchronized (lock) {
+            if (closed) {
+                return CompletableFuture.failedFuture(new DaoOperationException("Batch loader is closed"));
+            }
+            CompletableFuture<V> inFlightFuture = inFlight.get(id);
+            if (inFlightFuture != null) {
+                deduplicatedCount.incrementAndGet();
+                return inFlightFuture;
+            }
+            if (pendingBatch == null) {
+                Map<Long, CompletableFuture<V>> batch = new LinkedHashMap<>();
+                pendingBatch = batch;
+                scheduler.schedule(() -> dispatchIfPending(batch), config.getBatchWindowMicros(), TimeUnit.MICROSECONDS);
+            }
+            future = new CompletableFuture<>();
+            pendingBatch.put(id, future);
+            inFlight.put(id, future);
+            if (pendingBatch.size() >= config.getMaxBatchSize()) {
+                fullBatch = pendingBatch;
+                pendingBatch = null;
+            }
+        }
+        future.whenComplete((value, error) -> loadLatency.record(System.nanoTime() - start));
+        if (fullBatch != null) {
+            dispatch(fullBatch);
+        }
+        return future;
+    }
+
+    public BatchLoaderStats stats() {
+        long batchCount = 0;
+        long totalSize = 0;
+        int maxSize = 0;
+        long[] counts = new long[batchSizeCounts.length()];
+        for (int size = 0; size < counts.length; size++) {
+            counts[size] = batchSizeCounts.get(size);
+            batchCount += counts[size];
+            totalSize += counts[size] * size;
+            if (counts[size] > 0) {
+                maxSize = size;
+            }
+        }
+        return new BatchLoaderStats(loadCount.get(), deduplicatedCount.get(), batchCount,
+                batchCount == 0 ? 0 : (double) totalSize / batchCount,
+                batchSizePercentile(counts, batchCount, 0.5), batchSizePercentile(counts, batchCount, 0.99), maxSize,
+                loadLatency.snapshot(), batchLatency.snapshot());
+    }
+
+    @Override
+    public void close() {
+        List<CompletableFuture<V>> unfinishedFutures;
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            // pending futures are in flight too
+            unfinishedFutures = new ArrayList<>(inFlight.values());
+            inFlight.clear();
+            pendingBatch = null;
+        }
+        scheduler.shutdownNow();
+        dispatcher.shutdown();
+        DaoOperationException closedException = new DaoOperationException("Batch loader was closed before the load completed");
+        unfinishedFutures.forEach(future -> future.completeExceptionally(closedException));
+    }
+
+    private void dispatchIfPending(Map<Long, CompletableFuture<V>> batch) {
+        synchronized (lock) {
+            if (pendingBatch != batch) {
+                // dispatched already because it got full
+                return;
+            }
+            pendingBatch = null;
+        }
+        dispatch(batch);
+    }
+
+    private void dispatch(Map<Long, CompletableFuture<V>> batch) {
+        try {
+            dispatcher.execute(() -> execute(batch));
+        } catch (RejectedExecutionException e) {
+            fail(batch, new DaoOperationException("Batch loader is closed", e));
+        }
+    }
+
+    private void execute(Map<Long, CompletableFuture<V>> batch) {
+        batchSizeCounts.incrementAndGet(batch.size());
+        long start = System.nanoTime();
+        Map<Long, V> values;
+        try {
+            values = batchFunction.apply(new ArrayList<>(batch.keySet()));
+        } catch (RuntimeException e) {
+            batchLatency.record(System.nanoTime() - start);
+            fail(batch, e);
+            return;
+        }
+        batchLatency.record(System.nanoTime() - start);
+        release(batch);
+        batch.forEach((id, future) -> future.complete(values.get(id)));
+    }
+
+    private void fail(Map<Long, CompletableFuture<V>> batch, RuntimeException e) {
+        release(batch);
+        batch.values().forEach(future -> future.completeExceptionally(e));
+    }
+
+    private void release(Map<Long, CompletableFuture<V>> batch) {
+        synchronized (lock) {
+            batch.forEach(inFlight::remove);
+        }
+    }
+
+    private static int batchSizePercentile(long[] counts, long batchCount, double quantile) {
+        if (batchCount == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * batchCount);
+        long seen = 0;
+        for (int size = 0; size < counts.length; size++) {
+            seen += counts[size];
+            if (seen >= rank) {
+                return size;
+            }
+        }
+        return counts.length - 1;
+    }
+
+}
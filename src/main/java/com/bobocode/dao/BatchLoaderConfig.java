@@ -0,0 +1,30 @@
+package com.bobocode.dao;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@Builder
+@ToString
+public class BatchLoaderConfig {
+    /**
+     * Time the first lookup of a batch waits for others to join it
+     */
+    @Builder.Default
+    private long batchWindowMicros = 1000;
+    /**
+     * A batch is dispatched right away once it reaches this many distinct ids
+     */
+    @Builder.Default
+    private int maxBatchSize = 100;
+    /**
+     * Batches queried at the same time, each of them holds a connection while it runs
+     */
+    @Builder.Default
+    private int maxConcurrentBatches = 4;
+
+    public static BatchLoaderConfig defaults() {
+        return BatchLoaderConfig.builder().build();
+    }
+}
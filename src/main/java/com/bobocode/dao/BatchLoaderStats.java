@@ -0,0 +1,30 @@
+package com.bobocode.dao;
+
+import com.bobocode.metrics.HistogramSnapshot;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@AllArgsConstructor
+@ToString
+public class BatchLoaderStats {
+    private final long loadCount;
+    /**
+     * Lookups that joined a pending or running lookup of the same id
+     */
+    private final long deduplicatedCount;
+    private final long batchCount;
+    private final double meanBatchSize;
+    private final int p50BatchSize;
+    private final int p99BatchSize;
+    private final int maxBatchSize;
+    /**
+     * Time from a lookup until its future completed
+     */
+    private final HistogramSnapshot loadLatency;
+    /**
+     * Time the batch queries took
+     */
+    private final HistogramSnapshot batchLatency;
+}
@@ -0,0 +1,77 @@
+package com.bobocode.dao;
+
+import com.bobocode.cache.CacheStats;
+import com.bobocode.cache.LruCache;
+import com.bobocode.model.Actor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Serves {@link #findById(Long)} from a bounded cache. Saved actors are put into the cache right away, callers always
+ * get their own copy so that changing a returned actor never changes the cached one.
+ */
+public class CachingActorDao extends ForwardingActorDao {
+    private final LruCache<Long, Actor> actorsById;
+
+    public CachingActorDao(ActorDao delegate, LruCache<Long, Actor> actorsById) {
+        super(delegate);
+        this.actorsById = Objects.requireNonNull(actorsById);
+    }
+
+    @Override
+    public void save(Actor actor) {
+        super.save(actor);
+        actorsById.put(actor.getId(), copyOf(actor));
+    }
+
+    @Override
+    public void saveAll(Collection<Actor> actors) {
+        super.saveAll(actors);
+        actors.forEach(actor -> actorsById.put(actor.getId(), copyOf(actor)));
+    }
+
+    @Override
+    public Actor findById(Long id) {
+        Objects.requireNonNull(id);
+        return copyOf(actorsById.get(id, super::findById));
+    }
+
+    /**
+     * Serves the cached actors from the cache and loads the others with one delegate call
+     */
+    @Override
+    public Map<Long, Actor> findAllByIds(Collection<Long> ids) {
+        Objects.requireNonNull(ids);
+        Map<Long, Actor> foundActors = new HashMap<>();
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            Actor cachedActor = actorsById.getIfPresent(id);
+            if (cachedActor == null) {
+                missingIds.add(id);
+            } else {
+                foundActors.put(id, copyOf(cachedActor));
+            }
+        }
+        if (!missingIds.isEmpty()) {
+            super.findAllByIds(missingIds).forEach((id, actor) -> {
+                actorsById.put(id, copyOf(actor));
+                foundActors.put(id, actor);
+            });
+        }
+        return foundActors;
+    }
+
+    public CacheStats getCacheStats() {
+        return actorsById.stats();
+    }
+
+    private Actor copyOf(Actor actor) {
+        return new Actor(actor.getId(), actor.getFirstName(), actor.getLastName(), actor.getBirthday());
+    }
+}
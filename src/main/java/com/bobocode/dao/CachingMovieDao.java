@@ -0,0 +1,92 @@
+package com.bobocode.dao;
+
+import com.bobocode.cache.CacheStats;
+import com.bobocode.cache.LruCache;
+import com.bobocode.model.Actor;
+import com.bobocode.model.Movie;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Serves {@link #findById(Long)} from a bounded cache. Saved movies are put into the cache right away, callers always
+ * get their own copy so that changing a returned movie never changes the cached one.
+ */
+public class CachingMovieDao extends ForwardingMovieDao {
+    private final LruCache<Long, Movie> moviesById;
+
+    public CachingMovieDao(MovieDao delegate, LruCache<Long, Movie> moviesById) {
+        super(delegate);
+        this.moviesById = Objects.requireNonNull(moviesById);
+    }
+
+    @Override
+    public void save(Movie movie) {
+        super.save(movie);
+        moviesById.put(movie.getId(), copyOf(movie));
+    }
+
+    @Override
+    public void saveAll(Collection<Movie> movies) {
+        super.saveAll(movies);
+        movies.forEach(movie -> moviesById.put(movie.getId(), copyOf(movie)));
+    }
+
+    @Override
+    public Long saveOrGet(Movie movie) {
+        Long id = super.saveOrGet(movie);
+        moviesById.put(id, copyOf(movie));
+        return id;
+    }
+
+    @Override
+    public void upsertAll(Collection<Movie> movies) {
+        super.upsertAll(movies);
+        movies.forEach(movie -> moviesById.put(movie.getId(), copyOf(movie)));
+    }
+
+    @Override
+    public Movie findById(Long id) {
+        Objects.requireNonNull(id);
+        return copyOf(moviesById.get(id, super::findById));
+    }
+
+    /**
+     * Serves the cached movies from the cache and loads the others with one delegate call
+     */
+    @Override
+    public Map<Long, Movie> findAllByIds(Collection<Long> ids) {
+        Objects.requireNonNull(ids);
+        Map<Long, Movie> foundMovies = new HashMap<>();
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            Movie cachedMovie = moviesById.getIfPresent(id);
+            if (cachedMovie == null) {
+                missingIds.add(id);
+            } else {
+                foundMovies.put(id, copyOf(cachedMovie));
+            }
+        }
+        if (!missingIds.isEmpty()) {
+            super.findAllByIds(missingIds).forEach((id, movie) -> {
+                moviesById.put(id, copyOf(movie));
+                foundMovies.put(id, movie);
+            });
+        }
+        return foundMovies;
+    }
+
+    public CacheStats getCacheStats() {
+        return moviesById.stats();
+    }
+
+    private Movie copyOf(Movie movie) {
+        List<Actor> actors = movie.getActors() == null ? null : new ArrayList<>(movie.getActors());
+        return new Movie(movie.getId(), movie.getName(), movie.getDuration(), movie.getReleaseDate(), actors);
+    }
+}
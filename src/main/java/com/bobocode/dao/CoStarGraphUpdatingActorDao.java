@@ -0,0 +1,31 @@
+package com.bobocode.dao;
+
+import com.bobocode.graph.CoStarGraph;
+import com.bobocode.model.ActorMovieLink;
+
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * Adds every link to a {@link CoStarGraph} once it was stored, so the graph follows the database without reloading
+ */
+public class CoStarGraphUpdatingActorDao extends ForwardingActorDao {
+    private final CoStarGraph coStarGraph;
+
+    public CoStarGraphUpdatingActorDao(ActorDao delegate, CoStarGraph coStarGraph) {
+        super(delegate);
+        this.coStarGraph = Objects.requireNonNull(coStarGraph);
+    }
+
+    @Override
+    public void linkActorToMovieByID(Long actorId, Long movieId) {
+        super.linkActorToMovieByID(actorId, movieId);
+        coStarGraph.addLink(actorId, movieId);
+    }
+
+    @Override
+    public void linkAll(Collection<ActorMovieLink> links) {
+        super.linkAll(links);
+        links.forEach(link -> coStarGraph.addLink(link.getActorId(), link.getMovieId()));
+    }
+}
@@ -0,0 +1,56 @@
+package com.bobocode.dao;
+
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.model.Actor;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Coalesces concurrent {@link #findById(Long)} calls into set-based {@link ActorDao#findAllByIds} queries of the
+ * delegate, see {@link BatchLoader}. Every caller gets its own copy of the actor.
+ */
+public class CoalescingActorDao extends ForwardingActorDao implements AutoCloseable {
+    private final BatchLoader<Actor> loader;
+
+    public CoalescingActorDao(ActorDao delegate, BatchLoaderConfig config) {
+        super(delegate);
+        this.loader = new BatchLoader<>(super::findAllByIds, config);
+    }
+
+    @Override
+    public Actor findById(Long id) {
+        try {
+            return findByIdAsync(id).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    public CompletableFuture<Actor> findByIdAsync(Long id) {
+        Objects.requireNonNull(id);
+        return loader.load(id).thenApply(actor -> {
+            if (actor == null) {
+                throw new DaoOperationException(String.format("Actor with id = %d does not exist", id));
+            }
+            return copyOf(actor);
+        });
+    }
+
+    public BatchLoaderStats getLoaderStats() {
+        return loader.stats();
+    }
+
+    @Override
+    public void close() {
+        loader.close();
+    }
+
+    private Actor copyOf(Actor actor) {
+        return new Actor(actor.getId(), actor.getFirstName(), actor.getLastName(), actor.getBirthday());
+    }
+}
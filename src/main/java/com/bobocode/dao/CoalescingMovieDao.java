@@ -0,0 +1,60 @@
+package com.bobocode.dao;
+
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.model.Actor;
+import com.bobocode.model.Movie;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Coalesces concurrent {@link #findById(Long)} calls into set-based {@link MovieDao#findAllByIds} queries of the
+ * delegate, see {@link BatchLoader}. Every caller gets its own copy of the movie.
+ */
+public class CoalescingMovieDao extends ForwardingMovieDao implements AutoCloseable {
+    private final BatchLoader<Movie> loader;
+
+    public CoalescingMovieDao(MovieDao delegate, BatchLoaderConfig config) {
+        super(delegate);
+        this.loader = new BatchLoader<>(super::findAllByIds, config);
+    }
+
+    @Override
+    public Movie findById(Long id) {
+        try {
+            return findByIdAsync(id).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    public CompletableFuture<Movie> findByIdAsync(Long id) {
+        Objects.requireNonNull(id);
+        return loader.load(id).thenApply(movie -> {
+            if (movie == null) {
+                throw new DaoOperationException(String.format("Movie with id = %d does not exist", id));
+            }
+            return copyOf(movie);
+        });
+    }
+
+    public BatchLoaderStats getLoaderStats() {
+        return loader.stats();
+    }
+
+    @Override
+    public void close() {
+        loader.close();
+    }
+
+    private Movie copyOf(Movie movie) {
+        List<Actor> actors = movie.getActors() == null ? null : new ArrayList<>(movie.getActors());
+        return new Movie(movie.getId(), movie.getName(), movie.getDuration(), movie.getReleaseDate(), actors);
+    }
+}
@@ -0,0 +1,25 @@
+package com.bobocode.dao;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@Builder
+@ToString
+public class DaoConfig {
+    /**
+     * Number of rows sent to the database in one JDBC batch by bulk operations
+     */
+    @Builder.Default
+    private int batchSize = 500;
+    /**
+     * Number of rows fetched per round trip by streaming queries, Postgres keeps the rest behind a server-side cursor
+     */
+    @Builder.Default
+    private int fetchSize = 1000;
+
+    public static DaoConfig defaults() {
+        return DaoConfig.builder().build();
+    }
+}
@@ -0,0 +1,70 @@
+package com.bobocode.dao;
+
+import com.bobocode.util.DatabaseDialect;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Loads rows for a set of ids in as few round trips as the database allows: one {@code = ANY(?)} query with an array
+ * parameter on Postgres and {@code IN} lists of at most {@code chunkSize} ids on other databases
+ */
+final class FindByIdsQuery {
+    private FindByIdsQuery() {
+    }
+
+    /**
+     * @param selectSqlPrefix select statement ending with the id column the condition is appended to
+     */
+    static <T> Map<Long, T> execute(Connection connection, String selectSqlPrefix, Collection<Long> ids, int chunkSize,
+                                    RowMapper<T> rowMapper, Function<T, Long> idOf) throws SQLException {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        distinctIds.forEach(Objects::requireNonNull);
+        Map<Long, T> rowsById = new HashMap<>(distinctIds.size() * 4 / 3 + 1);
+        if (distinctIds.isEmpty()) {
+            return rowsById;
+        }
+        if (DatabaseDialect.of(connection) == DatabaseDialect.POSTGRES) {
+            try (PreparedStatement selectStatement = connection.prepareStatement(selectSqlPrefix + " = ANY(?);")) {
+                Array idArray = connection.createArrayOf("bigint", distinctIds.toArray());
+                selectStatement.setArray(1, idArray);
+                collect(selectStatement, rowMapper, idOf, rowsById);
+                idArray.free();
+            }
+            return rowsById;
+        }
+        for (int from = 0; from < distinctIds.size(); from += chunkSize) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + chunkSize, distinctIds.size()));
+            String selectSql = selectSqlPrefix + " IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ");";
+            try (PreparedStatement selectStatement = connection.prepareStatement(selectSql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    selectStatement.setLong(i + 1, chunk.get(i));
+                }
+                collect(selectStatement, rowMapper, idOf, rowsById);
+            }
+        }
+        return rowsById;
+    }
+
+    private static <T> void collect(PreparedStatement selectStatement, RowMapper<T> rowMapper, Function<T, Long> idOf,
+                                    Map<Long, T> rowsById) throws SQLException {
+        try (ResultSet resultSet = selectStatement.executeQuery()) {
+            while (resultSet.next()) {
+                T row = rowMapper.mapRow(resultSet);
+                rowsById.put(idOf.apply(row), row);
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.bobocode.dao;
+
+import com.bobocode.model.Actor;
+import com.bobocode.model.ActorMovieLink;
+import com.bobocode.model.Page;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Base class for {@link ActorDao} decorators, every call is passed to the delegate unless a subclass overrides it
+ */
+public abstract class ForwardingActorDao implements ActorDao {
+    private final ActorDao delegate;
+
+    protected ForwardingActorDao(ActorDao delegate) {
+        this.delegate = Objects.requireNonNull(delegate);
+    }
+
+    protected ActorDao delegate() {
+        return delegate;
+    }
+
+    @Override
+    public void save(Actor actor) {
+        delegate.save(actor);
+    }
+
+    @Override
+    public void saveAll(Collection<Actor> actors) {
+        delegate.saveAll(actors);
+    }
+
+    @Override
+    public Actor findById(Long id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public Map<Long, Actor> findAllByIds(Collection<Long> ids) {
+        return delegate.findAllByIds(ids);
+    }
+
+    @Override
+    public void linkActorToMovieByID(Long actorId, Long movieId) {
+        delegate.linkActorToMovieByID(actorId, movieId);
+    }
+
+    @Override
+    public void linkAll(Collection<ActorMovieLink> links) {
+        delegate.linkAll(links);
+    }
+
+    @Override
+    public Page<Actor> findAllAfter(Long lastId, int limit) {
+        return delegate.findAllAfter(lastId, limit);
+    }
+
+    @Override
+    public Page<Actor> findPage(String continuationToken, int limit) {
+        return delegate.findPage(continuationToken, limit);
+    }
+}
@@ -0,0 +1,105 @@
+package com.bobocode.dao;
+
+import com.bobocode.model.Movie;
+import com.bobocode.model.Page;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Base class for {@link MovieDao} decorators, every call is passed to the delegate unless a subclass overrides it
+ */
+public abstract class ForwardingMovieDao implements MovieDao {
+    private final MovieDao delegate;
+
+    protected ForwardingMovieDao(MovieDao delegate) {
+        this.delegate = Objects.requireNonNull(delegate);
+    }
+
+    protected MovieDao delegate() {
+        return delegate;
+    }
+
+    @Override
+    public void save(Movie movie) {
+        delegate.save(movie);
+    }
+
+    @Override
+    public void saveAll(Collection<Movie> movies) {
+        delegate.saveAll(movies);
+    }
+
+    @Override
+    public Long saveOrGet(Movie movie) {
+        return delegate.saveOrGet(movie);
+    }
+
+    @Override
+    public void upsertAll(Collection<Movie> movies) {
+        delegate.upsertAll(movies);
+    }
+
+    @Override
+    public Movie findById(Long id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public Map<Long, Movie> findAllByIds(Collection<Long> ids) {
+        return delegate.findAllByIds(ids);
+    }
+
+    @Override
+    public List<Movie> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<Movie> findByName(String name) {
+        return delegate.findByName(name);
+    }
+
+    @Override
+    public List<Movie> findByActorFirstAndLastName(String actorFirstName, String actorLastName) {
+        return delegate.findByActorFirstAndLastName(actorFirstName, actorLastName);
+    }
+
+    @Override
+    public List<Movie> findAllWithActors() {
+        return delegate.findAllWithActors();
+    }
+
+    @Override
+    public List<Movie> findByNameWithActors(String name) {
+        return delegate.findByNameWithActors(name);
+    }
+
+    @Override
+    public List<Movie> searchByName(String query, int limit) {
+        return delegate.searchByName(query, limit);
+    }
+
+    @Override
+    public Stream<Movie> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public Stream<Movie> streamByActorFirstAndLastName(String actorFirstName, String actorLastName) {
+        return delegate.streamByActorFirstAndLastName(actorFirstName, actorLastName);
+    }
+
+    @Override
+    public Page<Movie> findAllAfter(Long lastId, int limit) {
+        return delegate.findAllAfter(lastId, limit);
+    }
+
+    @Override
+    public Page<Movie> findPage(String continuationToken, int limit) {
+        return delegate.findPage(continuationToken, limit);
+    }
+}
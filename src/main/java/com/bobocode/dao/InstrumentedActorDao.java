@@ -0,0 +1,136 @@
+package com.bobocode.dao;
+
+import com.bobocode.metrics.DaoMetrics;
+import com.bobocode.metrics.OperationMetrics;
+import com.bobocode.model.Actor;
+import com.bobocode.model.ActorMovieLink;
+import com.bobocode.model.Page;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Records latency, rows read and written and failures of every {@link ActorDao} call under {@code actor.<method>}
+ */
+public class InstrumentedActorDao extends ForwardingActorDao {
+    private final OperationMetrics saveMetrics;
+    private final OperationMetrics saveAllMetrics;
+    private final OperationMetrics findByIdMetrics;
+    private final OperationMetrics findAllByIdsMetrics;
+    private final OperationMetrics linkMetrics;
+    private final OperationMetrics linkAllMetrics;
+    private final OperationMetrics findAllAfterMetrics;
+    private final OperationMetrics findPageMetrics;
+
+    public InstrumentedActorDao(ActorDao delegate, DaoMetrics metrics) {
+        super(delegate);
+        saveMetrics = metrics.operation("actor.save");
+        saveAllMetrics = metrics.operation("actor.saveAll");
+        findByIdMetrics = metrics.operation("actor.findById");
+        findAllByIdsMetrics = metrics.operation("actor.findAllByIds");
+        linkMetrics = metrics.operation("actor.linkActorToMovieByID");
+        linkAllMetrics = metrics.operation("actor.linkAll");
+        findAllAfterMetrics = metrics.operation("actor.findAllAfter");
+        findPageMetrics = metrics.operation("actor.findPage");
+    }
+
+    @Override
+    public void save(Actor actor) {
+        long start = System.nanoTime();
+        try {
+            super.save(actor);
+            saveMetrics.recordSuccess(System.nanoTime() - start, 0, 1);
+        } catch (RuntimeException e) {
+            saveMetrics.recordFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public void saveAll(Collection<Actor> actors) {
+        long start = System.nanoTime();
+        try {
+            super.saveAll(actors);
+            saveAllMetrics.recordSuccess(System.nanoTime() - start, 0, actors.size());
+        } catch (RuntimeException e) {
+            saveAllMetrics.recordFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Actor findById(Long id) {
+        long start = System.nanoTime();
+        try {
+            Actor actor = super.findById(id);
+            findByIdMetrics.recordSuccess(System.nanoTime() - start, 1, 0);
+            return actor;
+        } catch (RuntimeException e) {
+            findByIdMetrics.recordFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Map<Long, Actor> findAllByIds(Collection<Long> ids) {
+        long start = System.nanoTime();
+        try {
+            Map<Long, Actor> actorsById = super.findAllByIds(ids);
+            findAllByIdsMetrics.recordSuccess(System.nanoTime() - start, actorsById.size(), 0);
+            return actorsById;
+        } catch (RuntimeException e) {
+            findAllByIdsMetrics.recordFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public void linkActorToMovieByID(Long actorId, Long movieId) {
+        long start = System.nanoTime();
+        try {
+            super.linkActorToMovieByID(actorId, movieId);
+            linkMetrics.recordSuccess(System.nanoTime() - start, 0, 1);
+        } catch (RuntimeException e) {
+            linkMetrics.recordFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public void linkAll(Collection<ActorMovieLink> links) {
+        long start = System.nanoTime();
+        try {
+            super.linkAll(links);
+            linkAllMetrics.recordSuccess(System.nanoTime() - start, 0, links.size());
+        } catch (RuntimeException e) {
+            linkAllMetrics.recordFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Page<Actor> findAllAfter(Long lastId, int limit) {
+        long start = System.nanoTime();
+        try {
+            Page<Actor> page = super.findAllAfter(lastId, limit);
+            findAllAfterMetrics.recordSuccess(System.nanoTime() - start, page.getContent().size(), 0);
+            return page;
+        } catch (RuntimeException e) {
+            findAllAfterMetrics.recordFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Page<Actor> findPage(String continuationToken, int limit) {
+        long start = System.nanoTime();
+        try {
+            Page<Actor> page = super.findPage(continuationToken, limit);
+            findPageMetrics.recordSuccess(System.nanoTime() - start, page.getContent().size(), 0);
+            return page;
+        } catch (RuntimeException e) {
+            findPageMetrics.recordFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+}
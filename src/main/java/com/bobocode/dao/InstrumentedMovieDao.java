@@ -0,0 +1,259 @@
+package com.bobocode.dao;
+
+import com.bobocode.metrics.DaoMetrics;
+import com.bobocode.metrics.OperationMetrics;
+import com.bobocode.model.Movie;
+import com.bobocode.model.Page;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Records latency, rows read and written and failures of every {@link MovieDao} call under {@code movie.<method>}.
+ * For streams the latency covers opening the cursor, rows are counted as they are consumed.
+ */
+public class InstrumentedMovieDao extends ForwardingMovieDao {
+    private final OperationMetrics saveMetrics;
+    private final OperationMetrics saveAllMetrics;
+    private final OperationMetrics saveOrGetMetrics;
+    private final OperationMetrics upsertAllMetrics;
+    private final OperationMetrics findByIdMetrics;
+    private final OperationMetrics findAllByIdsMetrics;
+    private final OperationMetrics findAllMetrics;
+    private final OperationMetrics findByNameMetrics;
+    private final OperationMetrics findByActorMetrics;
+    private final OperationMetrics findAllWithActorsMetrics;
+    private final OperationMetrics findByNameWithActorsMetrics;
+    private final OperationMetrics searchByNameMetrics;
+    private final OperationMetrics streamAllMetrics;
+    private final OperationMetrics streamByActorMetrics;
+    private final OperationMetrics findAllAfterMetrics;
+    private final OperationMetrics findPageMetrics;
+
+    public InstrumentedMovieDao(MovieDao delegate, DaoMetrics metrics) {
+        super(delegate);
+        saveMetrics = metrics.operation("movie.save");
+        saveAllMetrics = metrics.operation("movie.saveAll");
+        findByIdMetrics = metrics.operation("movie.findById");
+        findAllByIdsMetrics = metrics.operation("movie.findAllByIds");
+        findAllMetrics = metrics.operation("movie.findAll");
+        saveOrGetMetrics = metrics.operation("movie.saveOrGet");
+        upsertAllMetrics = metrics.operation("movie.upsertAll");
+        findByNameMetrics = metrics.operation("movie.findByName");
+        findByActorMetrics = metrics.operation("movie.findByActorFirstAndLastName");
+        findAllWithActorsMetrics = metrics.operation("movie.findAllWithActors");
+        findByNameWithActorsMetrics = metrics.operation("movie.findByNameWithActors");
+        searchByNameMetrics = metrics.operation("movie.searchByName");
+        streamAllMetrics = metrics.operation("movie.streamAll");
+        streamByActorMetrics = metrics.operation("movie.streamByActorFirstAndLastName");
+        findAllAfterMetrics = metrics.operation("movie.findAllAfter");
+        findPageMetrics = metrics.operation("movie.findPage");
+    }
+
+    @Override
+    public void save(Movie movie) {
+        long start = System.nanoTime();
+        try {
+            super.save(movie);
+            saveMetrics.recordSuccess(System.nanoTime() - start, 0, 1);
+        } catch (RuntimeException e) {
+            saveMetrics.recordFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public void saveAll(Collection<Movie> movies) {
+        long start = System.nanoTime();
+        try {
+            super.saveAll(movies);
+            saveAllMetrics.recordSuccess(System.nanoTime() - start, 0, movies.size());
+        } catch (RuntimeException e) {
+            saveAllMetrics.recordFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Long saveOrGet(Movie movie) {
+        long start = System.nanoTime();
+        try {
+            Long id = super.saveOrGet(movie);
+            saveOrGetMetrics.recordSuccess(System.nanoTime() - start, 0, 1);
+            return id;
+        } catch (RuntimeException e) {
+            saveOrGetMetrics.recordFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public void upsertAll(Collection<Movie> movies) {
+        long start = System.nanoTime();
+        try {
+            super.upsertAll(movies);
+            upsertAllMetrics.recordSuccess(System.nanoTime() - start, 0, movies.size());
+        } catch (RuntimeException e) {
+            upsertAllMetrics.recordFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Movie findById(Long id) {
+        long start = System.nanoTime();
+        try {
+            Movie movie = super.findById(id);
+            findByIdMetrics.recordSuccess(System.nanoTime() - start, 1, 0);
+            return movie;
+        } catch (RuntimeException e) {
+            findByIdMetrics.recordFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Map<Long, Movie> findAllByIds(Collection<Long> ids) {
+        long start = System.nanoTime();
+        try {
+            Map<Long, Movie> moviesById = super.findAllByIds(ids);
+            findAllByIdsMetrics.recordSuccess(System.nanoTime() - start, moviesById.size(), 0);
+            return moviesById;
+        } catch (RuntimeException e) {
+            findAllByIdsMetrics.recordFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Movie> findAll() {
+        long start = System.nanoTime();
+        try {
+            List<Movie> movies = super.findAll();
+            findAllMetrics.recordSuccess(System.nanoTime() - start, movies.size(), 0);
+            return movies;
+        } catch (RuntimeException e) {
+            findAllMetrics.recordFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Movie> findByName(String name) {
+        long start = System.nanoTime();
+        try {
+            List<Movie> movies = super.findByName(name);
+            findByNameMetrics.recordSuccess(System.nanoTime() - start, movies.size(), 0);
+            return movies;
+        } catch (RuntimeException e) {
+            findByNameMetrics.recordFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Movie> findByActorFirstAndLastName(String actorFirstName, String actorLastName) {
+        long start = System.nanoTime();
+        try {
+            List<Movie> movies = super.findByActorFirstAndLastName(actorFirstName, actorLastName);
+            findByActorMetrics.recordSuccess(System.nanoTime() - start, movies.size(), 0);
+            return movies;
+        } catch (RuntimeException e) {
+            findByActorMetrics.recordFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Movie> findAllWithActors() {
+        long start = System.nanoTime();
+        try {
+            List<Movie> movies = super.findAllWithActors();
+            findAllWithActorsMetrics.recordSuccess(System.nanoTime() - start, movies.size(), 0);
+            return movies;
+        } catch (RuntimeException e) {
+            findAllWithActorsMetrics.recordFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Movie> findByNameWithActors(String name) {
+        long start = System.nanoTime();
+        try {
+            List<Movie> movies = super.findByNameWithActors(name);
+            findByNameWithActorsMetrics.recordSuccess(System.nanoTime() - start, movies.size(), 0);
+            return movies;
+        } catch (RuntimeException e) {
+            findByNameWithActorsMetrics.recordFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Movie> searchByName(String query, int limit) {
+        long start = System.nanoTime();
+        try {
+            List<Movie> movies = super.searchByName(query, limit);
+            searchByNameMetrics.recordSuccess(System.nanoTime() - start, movies.size(), 0);
+            return movies;
+        } catch (RuntimeException e) {
+            searchByNameMetrics.recordFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Stream<Movie> streamAll() {
+        long start = System.nanoTime();
+        try {
+            Stream<Movie> movies = super.streamAll();
+            streamAllMetrics.recordSuccess(System.nanoTime() - start, 0, 0);
+            return movies.peek(movie -> streamAllMetrics.addRowsRead(1));
+        } catch (RuntimeException e) {
+            streamAllMetrics.recordFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Stream<Movie> streamByActorFirstAndLastName(String actorFirstName, String actorLastName) {
+        long start = System.nanoTime();
+        try {
+            Stream<Movie> movies = super.streamByActorFirstAndLastName(actorFirstName, actorLastName);
+            streamByActorMetrics.recordSuccess(System.nanoTime() - start, 0, 0);
+            return movies.peek(movie -> streamByActorMetrics.addRowsRead(1));
+        } catch (RuntimeException e) {
+            streamByActorMetrics.recordFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Page<Movie> findAllAfter(Long lastId, int limit) {
+        long start = System.nanoTime();
+        try {
+            Page<Movie> page = super.findAllAfter(lastId, limit);
+            findAllAfterMetrics.recordSuccess(System.nanoTime() - start, page.getContent().size(), 0);
+            return page;
+        } catch (RuntimeException e) {
+            findAllAfterMetrics.recordFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Page<Movie> findPage(String continuationToken, int limit) {
+        long start = System.nanoTime();
+        try {
+            Page<Movie> page = super.findPage(continuationToken, limit);
+            findPageMetrics.recordSuccess(System.nanoTime() - start, page.getContent().size(), 0);
+            return page;
+        } catch (RuntimeException e) {
+            findPageMetrics.recordFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+}
@@ -1,15 +1,78 @@
 package com.bobocode.dao;
 
 import com.bobocode.model.Movie;
+import com.bobocode.model.Page;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public interface MovieDao {
     void save(Movie movie);
 
+    /**
+     * Inserts all movies in one transaction using JDBC batches and assigns generated ids in iteration order
+     */
+    void saveAll(Collection<Movie> movies);
+
+    /**
+     * Inserts the movie unless one with the same name, duration and release date exists and assigns the id of the new
+     * or existing row, the conflict is resolved by the insert statement itself
+     */
+    Long saveOrGet(Movie movie);
+
+    /**
+     * Batched {@link #saveOrGet(Movie)} in one transaction, equal movies of the collection get the same id
+     */
+    void upsertAll(Collection<Movie> movies);
+
+    Movie findById(Long id);
+
+    /**
+     * Loads the rows with the given ids in one or a few queries. Ids without a row are simply absent from the map
+     */
+    Map<Long, Movie> findAllByIds(Collection<Long> ids);
+
     List<Movie> findAll();
 
     List<Movie> findByName(String name);
 
     List<Movie> findByActorFirstAndLastName(String actorFirstName, String actorLastName);
+
+    /**
+     * Fetches all movies with their actors in one query, an actor playing in several movies is one shared instance
+     */
+    List<Movie> findAllWithActors();
+
+    /**
+     * Variant of {@link #findByName(String)} that fetches the actors of the movies in the same query
+     */
+    List<Movie> findByNameWithActors(String name);
+
+    /**
+     * Finds up to {@code limit} movies whose names start with the query or are similar to it, best match first.
+     * Unlike {@link #findByName(String)} it returns an empty list when nothing matches
+     */
+    List<Movie> searchByName(String query, int limit);
+
+    /**
+     * Lazily reads all movies through a cursor. The returned stream holds a connection and must be closed
+     */
+    Stream<Movie> streamAll();
+
+    /**
+     * Streaming variant of {@link #findByActorFirstAndLastName(String, String)}. The returned stream must be closed
+     */
+    Stream<Movie> streamByActorFirstAndLastName(String actorFirstName, String actorLastName);
+
+    /**
+     * Returns up to {@code limit} movies with id greater than {@code lastId} in id order, {@code null} starts from the beginning
+     */
+    Page<Movie> findAllAfter(Long lastId, int limit);
+
+    /**
+     * Returns the page that follows the one which produced {@code continuationToken}, {@code null} returns the first page
+     */
+    Page<Movie> findPage(String continuationToken, int limit);
 }
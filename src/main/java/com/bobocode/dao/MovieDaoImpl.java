@@ -1,28 +1,70 @@
 package com.bobocode.dao;
 
 import com.bobocode.exception.DaoOperationException;
+import com.bobocode.model.Actor;
 import com.bobocode.model.Movie;
+import com.bobocode.model.Page;
+import com.bobocode.util.DatabaseDialect;
 
 import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class MovieDaoImpl implements MovieDao {
     private static final String INSERT_SQL = "INSERT INTO movie (name, duration, release_date) VALUES (?, ?, ?);";
-    private static final String SELECT_BY_NAME_SQL = "SELECT * FROM movie WHERE name=?;";
-    private static final String SELECT_BY_ID_SQL = "SELECT * FROM movie WHERE id=?;";
-    private static final String SELECT_ALL_SQL = "SELECT * FROM movie;";
-    private static final String SELECT_MOVIE_BY_ACTOR_SQL = "SELECT * FROM movie " +
-            "LEFT JOIN actor_movie am " +
-            "ON movie.id = am.movie_id" +
-            " LEFT JOIN actor ON am.actor_id = actor.id " +
-            "WHERE actor.first_name = ? AND actor.last_name=?;";
+    private static final String INSERT_WITH_ID_SQL = "INSERT INTO movie (id, name, duration, release_date) VALUES (?, ?, ?, ?);";
+    // DO NOTHING returns no row for an existing movie, the no-op update makes RETURNING include it
+    private static final String UPSERT_POSTGRES_SQL_PREFIX = "INSERT INTO movie (name, duration, release_date) VALUES ";
+    private static final String UPSERT_POSTGRES_SQL_SUFFIX = " ON CONFLICT (name, duration, release_date) DO UPDATE SET name = EXCLUDED.name " +
+            "RETURNING " + MovieRowMapper.COLUMNS + ";";
+    private static final String MERGE_H2_SQL_PREFIX = "MERGE INTO movie (name, duration, release_date) KEY (name, duration, release_date) VALUES ";
+    private static final String SELECT_BY_NAMES_SQL_PREFIX = "SELECT " + MovieRowMapper.COLUMNS + " FROM movie WHERE name IN (";
+    static final String SELECT_BY_NAME_SQL = "SELECT " + MovieRowMapper.COLUMNS + " FROM movie WHERE name=?;";
+    private static final String SELECT_BY_ID_SQL = "SELECT " + MovieRowMapper.COLUMNS + " FROM movie WHERE id=?;";
+    private static final String SELECT_ALL_SQL = "SELECT " + MovieRowMapper.COLUMNS + " FROM movie;";
+    static final String SELECT_MOVIE_BY_ACTOR_SQL = "SELECT " + MovieRowMapper.columns("m") + " FROM movie m " +
+            "JOIN actor_movie am ON m.id = am.movie_id " +
+            "JOIN actor a ON am.actor_id = a.id " +
+            "WHERE a.first_name = ? AND a.last_name = ?;";
+    private static final String SELECT_WITH_ACTORS_SQL = "SELECT " + MovieRowMapper.columns("m") + ", " + ActorRowMapper.columns("a") +
+            " FROM movie m " +
+            "LEFT JOIN actor_movie am ON m.id = am.movie_id " +
+            "LEFT JOIN actor a ON am.actor_id = a.id ";
+    private static final String SELECT_ALL_WITH_ACTORS_SQL = SELECT_WITH_ACTORS_SQL + "ORDER BY m.id, a.id;";
+    static final String SELECT_BY_NAME_WITH_ACTORS_SQL = SELECT_WITH_ACTORS_SQL + "WHERE m.name = ? ORDER BY m.id, a.id;";
+    private static final String SEARCH_BY_NAME_POSTGRES_SQL = "SELECT " + MovieRowMapper.COLUMNS + " FROM movie " +
+            "WHERE name % ? OR name ILIKE ? " +
+            "ORDER BY name ILIKE ? DESC, similarity(name, ?) DESC, length(name), id LIMIT ?;";
+    private static final String SEARCH_BY_NAME_PREFIX_SQL = "SELECT " + MovieRowMapper.COLUMNS + " FROM movie " +
+            "WHERE LOWER(name) LIKE ? ORDER BY LENGTH(name), name, id LIMIT ?;";
+    private static final String SELECT_BY_IDS_SQL_PREFIX = "SELECT " + MovieRowMapper.COLUMNS + " FROM movie WHERE id";
+    private static final String SELECT_PAGE_SQL = "SELECT " + MovieRowMapper.COLUMNS + " FROM movie WHERE id > ? ORDER BY id LIMIT ?;";
+    private static final RowMapper<Movie> MOVIE_ROW_MAPPER = new MovieRowMapper();
+    private static final RowMapper<Actor> JOINED_ACTOR_ROW_MAPPER = new ActorRowMapper(MovieRowMapper.COLUMN_COUNT + 1);
     private DataSource dataSource;
+    private DaoConfig daoConfig;
 
     public MovieDaoImpl(DataSource dataSource) {
+        this(dataSource, DaoConfig.defaults());
+    }
+
+    public MovieDaoImpl(DataSource dataSource, DaoConfig daoConfig) {
         this.dataSource = dataSource;
+        this.daoConfig = daoConfig;
     }
 
     @Override
@@ -36,10 +78,229 @@ public class MovieDaoImpl implements MovieDao {
     }
 
     private void saveMovie(Connection connection, Movie movie) throws SQLException {
-        PreparedStatement insertStatement = prepareInsertStatement(connection, movie);
-        executeUpdate(insertStatement);
-        Long id = fetchGeneratedId(insertStatement);
-        movie.setId(id);
+        try (PreparedStatement insertStatement = prepareInsertStatement(connection, movie)) {
+            fillInsertStatementWithParameters(insertStatement, movie);
+            executeUpdate(insertStatement);
+            Long id = fetchGeneratedId(insertStatement);
+            movie.setId(id);
+        }
+    }
+
+    @Override
+    public void saveAll(Collection<Movie> movies) {
+        Objects.requireNonNull(movies);
+        if (movies.isEmpty()) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                saveMovies(connection, movies);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DaoOperationException("Couldn't save " + movies.size() + " movies", e);
+        }
+    }
+
+    void saveMovies(Connection connection, Collection<Movie> movies) throws SQLException {
+        try (PreparedStatement insertStatement = connection.prepareStatement(INSERT_SQL, PreparedStatement.RETURN_GENERATED_KEYS)) {
+            List<Movie> batch = new ArrayList<>(daoConfig.getBatchSize());
+            for (Movie movie : movies) {
+                fillInsertStatementWithParameters(insertStatement, Objects.requireNonNull(movie));
+                insertStatement.addBatch();
+                batch.add(movie);
+                if (batch.size() == daoConfig.getBatchSize()) {
+                    executeInsertBatch(insertStatement, batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                executeInsertBatch(insertStatement, batch);
+            }
+        }
+    }
+
+    @Override
+    public Long saveOrGet(Movie movie) {
+        Objects.requireNonNull(movie);
+        upsertAll(List.of(movie));
+        return movie.getId();
+    }
+
+    @Override
+    public void upsertAll(Collection<Movie> movies) {
+        Objects.requireNonNull(movies);
+        if (movies.isEmpty()) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                upsertMovies(connection, movies);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DaoOperationException("Couldn't upsert " + movies.size() + " movies", e);
+        }
+    }
+
+    /**
+     * Every batch is one statement upserting each distinct name, duration and release date once, since Postgres
+     * refuses to update one row twice in a statement. On Postgres it returns the ids, H2 only returns the keys of the
+     * inserted rows from {@code MERGE}, so one more query by name reads them.
+     */
+    void upsertMovies(Connection connection, Collection<Movie> movies) throws SQLException {
+        Map<List<Object>, List<Movie>> moviesByKey = groupByUniqueKey(movies);
+        boolean postgres = DatabaseDialect.of(connection) == DatabaseDialect.POSTGRES;
+        List<List<Object>> keys = new ArrayList<>(moviesByKey.keySet());
+        for (int from = 0; from < keys.size(); from += daoConfig.getBatchSize()) {
+            List<List<Object>> batch = keys.subList(from, Math.min(from + daoConfig.getBatchSize(), keys.size()));
+            List<Movie> batchMovies = batch.stream().map(key -> moviesByKey.get(key).get(0)).collect(Collectors.toList());
+            Map<List<Object>, Long> idsByKey = postgres ? upsertReturningIds(connection, batchMovies) : mergeAndSelectIds(connection, batchMovies);
+            for (List<Object> key : batch) {
+                Long id = idsByKey.get(key);
+                if (id == null) {
+                    throw new DaoOperationException("Can not obtain movie ID");
+                }
+                moviesByKey.get(key).forEach(movie -> movie.setId(id));
+            }
+        }
+    }
+
+    /**
+     * Ids of the stored movies with the same name, duration and release date as the given ones, read with one query
+     * by name per batch
+     */
+    Map<List<Object>, Long> findIdsByUniqueKeys(Collection<Movie> movies) {
+        List<Movie> distinctMovies = groupByUniqueKey(movies).values().stream()
+                .map(equalMovies -> equalMovies.get(0))
+                .collect(Collectors.toList());
+        Map<List<Object>, Long> idsByKey = new HashMap<>();
+        try (Connection connection = dataSource.getConnection()) {
+            for (int from = 0; from < distinctMovies.size(); from += daoConfig.getBatchSize()) {
+                List<Movie> batchMovies = distinctMovies.subList(from, Math.min(from + daoConfig.getBatchSize(), distinctMovies.size()));
+                idsByKey.putAll(selectIdsByNames(connection, batchMovies));
+            }
+        } catch (SQLException e) {
+            throw new DaoOperationException("Couldn't find ids of " + distinctMovies.size() + " movies", e);
+        }
+        return idsByKey;
+    }
+
+    /**
+     * Groups equal movies by {@link #uniqueKey(Movie)} in their order, every movie needs all of its key columns
+     */
+    static Map<List<Object>, List<Movie>> groupByUniqueKey(Collection<Movie> movies) {
+        Map<List<Object>, List<Movie>> moviesByKey = new LinkedHashMap<>();
+        for (Movie movie : movies) {
+            Objects.requireNonNull(movie);
+            if (movie.getName() == null || movie.getDuration() == null || movie.getReleaseDate() == null) {
+                throw new DaoOperationException("Movie name, duration and release date are required to upsert " + movie);
+            }
+            moviesByKey.computeIfAbsent(uniqueKey(movie), key -> new ArrayList<>()).add(movie);
+        }
+        return moviesByKey;
+    }
+
+    private Map<List<Object>, Long> upsertReturningIds(Connection connection, List<Movie> movies) throws SQLException {
+        String upsertSql = UPSERT_POSTGRES_SQL_PREFIX + valuesPlaceholders(movies.size()) + UPSERT_POSTGRES_SQL_SUFFIX;
+        try (PreparedStatement upsertStatement = connection.prepareStatement(upsertSql)) {
+            fillValuesParameters(upsertStatement, movies);
+            return collectIdsByKey(upsertStatement);
+        }
+    }
+
+    private Map<List<Object>, Long> mergeAndSelectIds(Connection connection, List<Movie> movies) throws SQLException {
+        try (PreparedStatement mergeStatement = connection.prepareStatement(MERGE_H2_SQL_PREFIX + valuesPlaceholders(movies.size()) + ";")) {
+            fillValuesParameters(mergeStatement, movies);
+            mergeStatement.executeUpdate();
+        }
+        return selectIdsByNames(connection, movies);
+    }
+
+    private static String valuesPlaceholders(int rowCount) {
+        return String.join(", ", Collections.nCopies(rowCount, "(?, ?, ?)"));
+    }
+
+    private static void fillValuesParameters(PreparedStatement statement, List<Movie> movies) throws SQLException {
+        int parameterIndex = 1;
+        for (Movie movie : movies) {
+            statement.setString(parameterIndex++, movie.getName());
+            statement.setLong(parameterIndex++, movie.getDuration());
+            statement.setDate(parameterIndex++, Date.valueOf(movie.getReleaseDate()));
+        }
+    }
+
+    private Map<List<Object>, Long> selectIdsByNames(Connection connection, List<Movie> movies) throws SQLException {
+        List<String> names = movies.stream().map(Movie::getName).distinct().collect(Collectors.toList());
+        String selectSql = SELECT_BY_NAMES_SQL_PREFIX + String.join(", ", Collections.nCopies(names.size(), "?")) + ");";
+        try (PreparedStatement selectStatement = connection.prepareStatement(selectSql)) {
+            for (int i = 0; i < names.size(); i++) {
+                selectStatement.setString(i + 1, names.get(i));
+            }
+            // movies that only share the name come along and are simply never looked up
+            return collectIdsByKey(selectStatement);
+        }
+    }
+
+    private Map<List<Object>, Long> collectIdsByKey(PreparedStatement statement) throws SQLException {
+        Map<List<Object>, Long> idsByKey = new HashMap<>();
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                Movie movie = MOVIE_ROW_MAPPER.mapRow(resultSet);
+                idsByKey.put(uniqueKey(movie), movie.getId());
+            }
+        }
+        return idsByKey;
+    }
+
+    /**
+     * Columns of the UQ_name_duration_release_date constraint
+     */
+    private static List<Object> uniqueKey(Movie movie) {
+        return List.of(movie.getName(), movie.getDuration(), movie.getReleaseDate());
+    }
+
+    /**
+     * Inserts movies whose ids were assigned up front instead of generated by the database
+     */
+    void saveMoviesWithIds(Connection connection, Collection<Movie> movies) throws SQLException {
+        try (PreparedStatement insertStatement = connection.prepareStatement(INSERT_WITH_ID_SQL)) {
+            int batchSize = 0;
+            for (Movie movie : movies) {
+                insertStatement.setLong(1, Objects.requireNonNull(movie.getId(), "Movie ID"));
+                insertStatement.setString(2, movie.getName());
+                insertStatement.setLong(3, movie.getDuration());
+                insertStatement.setDate(4, Date.valueOf(movie.getReleaseDate()));
+                insertStatement.addBatch();
+                if (++batchSize == daoConfig.getBatchSize()) {
+                    insertStatement.executeBatch();
+                    batchSize = 0;
+                }
+            }
+            if (batchSize > 0) {
+                insertStatement.executeBatch();
+            }
+        }
+    }
+
+    private void executeInsertBatch(PreparedStatement insertStatement, List<Movie> batch) throws SQLException {
+        insertStatement.executeBatch();
+        try (ResultSet generatedKeys = insertStatement.getGeneratedKeys()) {
+            for (Movie movie : batch) {
+                if (!generatedKeys.next()) {
+                    throw new DaoOperationException("Can not obtain movie ID");
+                }
+                movie.setId(generatedKeys.getLong(1));
+            }
+        }
     }
 
     private void executeUpdate(PreparedStatement insertStatement) throws SQLException {
@@ -50,18 +311,18 @@ public class MovieDaoImpl implements MovieDao {
     }
 
     private Long fetchGeneratedId(PreparedStatement insertStatement) throws SQLException {
-        ResultSet generatedKeys = insertStatement.getGeneratedKeys();
-        if (generatedKeys.next()) {
-            return generatedKeys.getLong(1);
-        } else {
-            throw new DaoOperationException("Can not obtain product ID");
+        try (ResultSet generatedKeys = insertStatement.getGeneratedKeys()) {
+            if (generatedKeys.next()) {
+                return generatedKeys.getLong(1);
+            } else {
+                throw new DaoOperationException("Can not obtain product ID");
+            }
         }
     }
 
     private PreparedStatement prepareInsertStatement(Connection connection, Movie movie) {
         try {
-            PreparedStatement insertPreparedStatement = connection.prepareStatement(INSERT_SQL, PreparedStatement.RETURN_GENERATED_KEYS);
-            return fillInsertStatementWithParameters(insertPreparedStatement, movie);
+            return connection.prepareStatement(INSERT_SQL, PreparedStatement.RETURN_GENERATED_KEYS);
         } catch (SQLException e) {
             throw new DaoOperationException("Couldn't prepare statement for movie" + movie, e);
         }
@@ -77,23 +338,27 @@ public class MovieDaoImpl implements MovieDao {
     @Override
     public List<Movie> findByName(String name) {
         Objects.requireNonNull(name);
-        try (Connection connection = dataSource.getConnection()) {
-            return findMovieByName(name, connection);
-        } catch (SQLException e) {
-            throw new DaoOperationException("Error finding movies by name" + name, e);
-        }
-    }
-
-    private List<Movie> findMovieByName(String name, Connection connection) throws SQLException {
-        PreparedStatement selectByIdPreparedStatement = prepareSelectByIdStatement(name, connection);
-        ResultSet resultSet = selectByIdPreparedStatement.executeQuery();
-        List<Movie> movieList = collectToList(resultSet);
+        List<Movie> movieList = findAllByName(name);
         if (movieList.size() == 0) {
             throw new DaoOperationException(String.format("Movie with name = %s does not exist", name));
         }
         return movieList;
     }
 
+    /**
+     * Same as {@link #findByName(String)}, but returns an empty list when there is no such movie
+     */
+    List<Movie> findAllByName(String name) {
+        Objects.requireNonNull(name);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement selectByIdPreparedStatement = prepareSelectByIdStatement(name, connection);
+             ResultSet resultSet = selectByIdPreparedStatement.executeQuery()) {
+            return collectToList(resultSet);
+        } catch (SQLException e) {
+            throw new DaoOperationException("Error finding movies by name" + name, e);
+        }
+    }
+
     private List<Movie> collectToList(ResultSet resultSet) throws SQLException {
         List<Movie> movieList = new ArrayList<>();
         while (resultSet.next()) {
@@ -105,21 +370,12 @@ public class MovieDaoImpl implements MovieDao {
 
     private Movie parseRow(ResultSet resultSet) {
         try {
-            return createFromResultSet(resultSet);
+            return MOVIE_ROW_MAPPER.mapRow(resultSet);
         } catch (SQLException e) {
             throw new DaoOperationException("Couldn't parse row to create movie instance", e);
         }
     }
 
-    private Movie createFromResultSet(ResultSet resultSet) throws SQLException {
-        Movie movie = new Movie();
-        movie.setId(resultSet.getLong("id"));
-        movie.setName(resultSet.getString("name"));
-        movie.setDuration(resultSet.getLong("duration"));
-        movie.setReleaseDate(resultSet.getDate("release_date").toLocalDate());
-        return movie;
-    }
-
     private PreparedStatement prepareSelectByIdStatement(String name, Connection connection) {
         try {
             PreparedStatement selectByIdPreparedStatement = connection.prepareStatement(SELECT_BY_NAME_SQL);
@@ -130,6 +386,16 @@ public class MovieDaoImpl implements MovieDao {
         }
     }
 
+    @Override
+    public Movie findById(Long id) {
+        Objects.requireNonNull(id);
+        try (Connection connection = dataSource.getConnection()) {
+            return findMovieById(id, connection);
+        } catch (SQLException e) {
+            throw new DaoOperationException("Couldn't find movie with id" + id, e);
+        }
+    }
+
     public void verifyMovieId(Long id, Connection connection) throws SQLException {
         if (id == null) {
             throw new DaoOperationException("Cannot find a movie without ID");
@@ -138,12 +404,13 @@ public class MovieDaoImpl implements MovieDao {
     }
 
     private Movie findMovieById(Long id, Connection connection) throws SQLException {
-        PreparedStatement selectByIdPreparedStatement = prepareSelectByIdStatement(id, connection);
-        ResultSet resultSet = selectByIdPreparedStatement.executeQuery();
-        if (resultSet.next()) {
-            return parseRow(resultSet);
-        } else {
-            throw new DaoOperationException(String.format("Movie with id = %d does not exist", id));
+        try (PreparedStatement selectByIdPreparedStatement = prepareSelectByIdStatement(id, connection);
+             ResultSet resultSet = selectByIdPreparedStatement.executeQuery()) {
+            if (resultSet.next()) {
+                return parseRow(resultSet);
+            } else {
+                throw new DaoOperationException(String.format("Movie with id = %d does not exist", id));
+            }
         }
     }
 
@@ -157,6 +424,16 @@ public class MovieDaoImpl implements MovieDao {
         }
     }
 
+    @Override
+    public Map<Long, Movie> findAllByIds(Collection<Long> ids) {
+        Objects.requireNonNull(ids);
+        try (Connection connection = dataSource.getConnection()) {
+            return FindByIdsQuery.execute(connection, SELECT_BY_IDS_SQL_PREFIX, ids, daoConfig.getBatchSize(), MOVIE_ROW_MAPPER, Movie::getId);
+        } catch (SQLException e) {
+            throw new DaoOperationException("Couldn't find movies by " + ids.size() + " ids", e);
+        }
+    }
+
     @Override
     public List<Movie> findAll() {
         try (Connection connection = dataSource.getConnection()) {
@@ -167,9 +444,10 @@ public class MovieDaoImpl implements MovieDao {
     }
 
     private List<Movie> findAllMovies(Connection connection) throws SQLException {
-        Statement statement = connection.createStatement();
-        ResultSet resultSet = statement.executeQuery(SELECT_ALL_SQL);
-        return collectToList(resultSet);
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(SELECT_ALL_SQL)) {
+            return collectToList(resultSet);
+        }
     }
 
 
@@ -178,15 +456,20 @@ public class MovieDaoImpl implements MovieDao {
         Objects.requireNonNull(actorFirstName);
         Objects.requireNonNull(actorLastName);
         try (Connection connection = dataSource.getConnection()) {
-            PreparedStatement findMovieByActorPreparedStatement = prepareFindMovieByActorPreparedStatement(connection, actorFirstName, actorLastName);
-            ResultSet resultSet = findMovieByActorPreparedStatement.executeQuery();
-            return collectToList(resultSet);
+            return findMoviesByActor(connection, actorFirstName, actorLastName);
         } catch (SQLException e) {
             throw new DaoOperationException("Couldn't find movie by actor first="+actorFirstName+" and lastName="+actorLastName, e);
         }
 
     }
 
+    private List<Movie> findMoviesByActor(Connection connection, String actorFirstName, String actorLastName) throws SQLException {
+        try (PreparedStatement findMovieByActorPreparedStatement = prepareFindMovieByActorPreparedStatement(connection, actorFirstName, actorLastName);
+             ResultSet resultSet = findMovieByActorPreparedStatement.executeQuery()) {
+            return collectToList(resultSet);
+        }
+    }
+
     private PreparedStatement prepareFindMovieByActorPreparedStatement(Connection connection, String actorFirstName, String actorLastName) {
         try {
             PreparedStatement findMovieByActorPreparedStatement = connection.prepareStatement(SELECT_MOVIE_BY_ACTOR_SQL);
@@ -198,4 +481,251 @@ public class MovieDaoImpl implements MovieDao {
             throw new DaoOperationException("Couldn't prepareFindMovieByActorPreparedStatement with actorFirstName" + actorFirstName + " and actorLastName" + actorLastName, e);
         }
     }
+
+    @Override
+    public List<Movie> findAllWithActors() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(SELECT_ALL_WITH_ACTORS_SQL)) {
+            return collectWithActors(resultSet);
+        } catch (SQLException e) {
+            throw new DaoOperationException("Couldn't find all movies with actors", e);
+        }
+    }
+
+    @Override
+    public List<Movie> findByNameWithActors(String name) {
+        List<Movie> movies = findAllByNameWithActors(name);
+        if (movies.isEmpty()) {
+            throw new DaoOperationException(String.format("Movie with name = %s does not exist", name));
+        }
+        return movies;
+    }
+
+    /**
+     * Same as {@link #findByNameWithActors(String)}, but returns an empty list when there is no such movie
+     */
+    List<Movie> findAllByNameWithActors(String name) {
+        Objects.requireNonNull(name);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement selectStatement = connection.prepareStatement(SELECT_BY_NAME_WITH_ACTORS_SQL)) {
+            selectStatement.setString(1, name);
+            try (ResultSet resultSet = selectStatement.executeQuery()) {
+                return collectWithActors(resultSet);
+            }
+        } catch (SQLException e) {
+            throw new DaoOperationException("Couldn't find movie with actors by name=" + name, e);
+        }
+    }
+
+    /**
+     * Uses the trigram similarity of {@code pg_trgm} on Postgres, which needs the extension and a
+     * {@code gin (name gin_trgm_ops)} index on {@code movie}. Other databases only find names starting with the query.
+     * For fuzzy search without {@code pg_trgm} wrap the DAO into a {@link TitleIndexMovieDao}.
+     */
+    @Override
+    public List<Movie> searchByName(String query, int limit) {
+        Objects.requireNonNull(query);
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Search limit must be positive, but was " + limit);
+        }
+        String prefixPattern = query.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        try (Connection connection = dataSource.getConnection()) {
+            PreparedStatement searchStatement;
+            if (DatabaseDialect.of(connection) == DatabaseDialect.POSTGRES) {
+                searchStatement = connection.prepareStatement(SEARCH_BY_NAME_POSTGRES_SQL);
+                searchStatement.setString(1, query);
+                searchStatement.setString(2, prefixPattern);
+                searchStatement.setString(3, prefixPattern);
+                searchStatement.setString(4, query);
+                searchStatement.setInt(5, limit);
+            } else {
+                searchStatement = connection.prepareStatement(SEARCH_BY_NAME_PREFIX_SQL);
+                searchStatement.setString(1, prefixPattern.toLowerCase(Locale.ROOT));
+                searchStatement.setInt(2, limit);
+            }
+            try (PreparedStatement statement = searchStatement;
+                 ResultSet resultSet = statement.executeQuery()) {
+                return collectToList(resultSet);
+            }
+        } catch (SQLException e) {
+            throw new DaoOperationException("Couldn't search movies by name=" + query, e);
+        }
+    }
+
+    /**
+     * Groups the rows of a movie-actor left join ordered by movie id. A movie without actors comes as a single row
+     * with null actor columns and gets an empty cast.
+     */
+    private List<Movie> collectWithActors(ResultSet resultSet) throws SQLException {
+        Map<Long, Movie> moviesById = new LinkedHashMap<>();
+        Map<Long, Actor> actorsById = new HashMap<>();
+        while (resultSet.next()) {
+            long movieId = resultSet.getLong(1);
+            Movie movie = moviesById.get(movieId);
+            if (movie == null) {
+                movie = parseRow(resultSet);
+                movie.setActors(new ArrayList<>());
+                moviesById.put(movieId, movie);
+            }
+            long actorId = resultSet.getLong(MovieRowMapper.COLUMN_COUNT + 1);
+            if (!resultSet.wasNull()) {
+                Actor actor = actorsById.get(actorId);
+                if (actor == null) {
+                    actor = JOINED_ACTOR_ROW_MAPPER.mapRow(resultSet);
+                    actorsById.put(actorId, actor);
+                }
+                movie.getActors().add(actor);
+            }
+        }
+        return new ArrayList<>(moviesById.values());
+    }
+
+    @Override
+    public Stream<Movie> streamAll() {
+        return openMovieStream(SELECT_ALL_SQL, "Couldn't stream all movies");
+    }
+
+    @Override
+    public Stream<Movie> streamByActorFirstAndLastName(String actorFirstName, String actorLastName) {
+        Objects.requireNonNull(actorFirstName);
+        Objects.requireNonNull(actorLastName);
+        return openMovieStream(SELECT_MOVIE_BY_ACTOR_SQL,
+                "Couldn't stream movies by actor first=" + actorFirstName + " and lastName=" + actorLastName, actorFirstName, actorLastName);
+    }
+
+    private Stream<Movie> openMovieStream(String sql, String errorMessage, String... parameters) {
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = dataSource.getConnection();
+            // Postgres only keeps a server-side cursor open inside a transaction, otherwise it fetches every row at once
+            connection.setAutoCommit(false);
+            statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(daoConfig.getFetchSize());
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setString(i + 1, parameters[i]);
+            }
+            resultSet = statement.executeQuery();
+            Runnable closeResources = createStreamCloser(connection, statement, resultSet);
+            return StreamSupport.stream(new MovieSpliterator(resultSet), false).onClose(closeResources);
+        } catch (SQLException | RuntimeException e) {
+            DaoOperationException failure = new DaoOperationException(errorMessage, e);
+            try {
+                closeStreamResources(connection, statement, resultSet);
+            } catch (SQLException closeException) {
+                failure.addSuppressed(closeException);
+            }
+            throw failure;
+        }
+    }
+
+    private Runnable createStreamCloser(Connection connection, Statement statement, ResultSet resultSet) {
+        return () -> {
+            try {
+                closeStreamResources(connection, statement, resultSet);
+            } catch (SQLException e) {
+                throw new DaoOperationException("Couldn't release movie stream resources", e);
+            }
+        };
+    }
+
+    /**
+     * Closes the result set, the statement and then the connection, which discards the read transaction. Every
+     * resource is closed even when an earlier one fails, the first failure is thrown with the later ones suppressed.
+     */
+    private void closeStreamResources(Connection connection, Statement statement, ResultSet resultSet) throws SQLException {
+        SQLException failure = null;
+        if (resultSet != null) {
+            try {
+                resultSet.close();
+            } catch (SQLException e) {
+                failure = e;
+            }
+        }
+        if (statement != null) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                failure = addFailure(failure, e);
+            }
+        }
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                failure = addFailure(failure, e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private SQLException addFailure(SQLException failure, SQLException e) {
+        if (failure == null) {
+            return e;
+        }
+        failure.addSuppressed(e);
+        return failure;
+    }
+
+    private class MovieSpliterator extends Spliterators.AbstractSpliterator<Movie> {
+        private final ResultSet resultSet;
+
+        private MovieSpliterator(ResultSet resultSet) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.resultSet = resultSet;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Movie> action) {
+            try {
+                if (!resultSet.next()) {
+                    return false;
+                }
+            } catch (SQLException e) {
+                throw new DaoOperationException("Couldn't fetch next movie", e);
+            }
+            action.accept(parseRow(resultSet));
+            return true;
+        }
+    }
+
+    @Override
+    public Page<Movie> findAllAfter(Long lastId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page limit must be positive, but was " + limit);
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            return findMoviePage(connection, lastId, limit);
+        } catch (SQLException e) {
+            throw new DaoOperationException("Couldn't find movies after id=" + lastId, e);
+        }
+    }
+
+    @Override
+    public Page<Movie> findPage(String continuationToken, int limit) {
+        return findAllAfter(PageTokens.decode(continuationToken), limit);
+    }
+
+    private Page<Movie> findMoviePage(Connection connection, Long lastId, int limit) throws SQLException {
+        try (PreparedStatement selectPageStatement = connection.prepareStatement(SELECT_PAGE_SQL)) {
+            selectPageStatement.setLong(1, lastId == null ? Long.MIN_VALUE : lastId);
+            // one extra row tells whether there is a next page without a separate count query
+            selectPageStatement.setInt(2, limit + 1);
+            List<Movie> movies = new ArrayList<>(limit + 1);
+            try (ResultSet resultSet = selectPageStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    movies.add(parseRow(resultSet));
+                }
+            }
+            if (movies.size() <= limit) {
+                return new Page<>(movies, null);
+            }
+            List<Movie> pageContent = movies.subList(0, limit);
+            return new Page<>(new ArrayList<>(pageContent), PageTokens.encode(pageContent.get(limit - 1).getId()));
+        }
+    }
 }
@@ -0,0 +1,44 @@
+package com.bobocode.dao;
+
+import com.bobocode.model.Movie;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class MovieRowMapper implements RowMapper<Movie> {
+    public static final String COLUMNS = columns("movie");
+    public static final int COLUMN_COUNT = 4;
+
+    private final int idIndex;
+    private final int nameIndex;
+    private final int durationIndex;
+    private final int releaseDateIndex;
+
+    public MovieRowMapper() {
+        this(1);
+    }
+
+    /**
+     * @param firstColumnIndex position of the first of the {@link #columns(String)} in the select list
+     */
+    public MovieRowMapper(int firstColumnIndex) {
+        this.idIndex = firstColumnIndex;
+        this.nameIndex = firstColumnIndex + 1;
+        this.durationIndex = firstColumnIndex + 2;
+        this.releaseDateIndex = firstColumnIndex + 3;
+    }
+
+    public static String columns(String tableAlias) {
+        return String.format("%1$s.id, %1$s.name, %1$s.duration, %1$s.release_date", tableAlias);
+    }
+
+    @Override
+    public Movie mapRow(ResultSet resultSet) throws SQLException {
+        Movie movie = new Movie();
+        movie.setId(resultSet.getLong(idIndex));
+        movie.setName(resultSet.getString(nameIndex));
+        movie.setDuration(resultSet.getLong(durationIndex));
+        movie.setReleaseDate(resultSet.getDate(releaseDateIndex).toLocalDate());
+        return movie;
+    }
+}
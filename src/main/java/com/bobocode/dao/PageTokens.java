@@ -0,0 +1,36 @@
+package com.bobocode.dao;
+
+import com.bobocode.exception.DaoOperationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes the last seen primary key of a page into an opaque continuation token and back
+ */
+final class PageTokens {
+    private static final String TOKEN_PREFIX = "after:";
+
+    private PageTokens() {
+    }
+
+    static String encode(Long lastId) {
+        String token = TOKEN_PREFIX + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Long decode(String continuationToken) {
+        if (continuationToken == null) {
+            return null;
+        }
+        try {
+            String token = new String(Base64.getUrlDecoder().decode(continuationToken), StandardCharsets.UTF_8);
+            if (!token.startsWith(TOKEN_PREFIX)) {
+                throw new DaoOperationException("Invalid continuation token " + continuationToken);
+            }
+            return Long.valueOf(token.substring(TOKEN_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new DaoOperationException("Invalid continuation token " + continuationToken, e);
+        }
+    }
+}
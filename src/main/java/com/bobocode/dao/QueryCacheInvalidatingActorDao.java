@@ -0,0 +1,104 @@
+package com.bobocode.dao;
+
+import com.bobocode.cache.LruCache;
+import com.bobocode.cache.MovieQueryCache;
+import com.bobocode.model.Actor;
+import com.bobocode.model.ActorMovieLink;
+import com.bobocode.model.Page;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Invalidates the cached filmography of an actor in a {@link MovieQueryCache} once the actor was linked to a movie.
+ * Linking never queries the actor: the names of the actors that were saved or read through this DAO are remembered
+ * in a bounded cache, and a link to an actor whose name isn't known drops the filmographies of all actors.
+ */
+public class QueryCacheInvalidatingActorDao extends ForwardingActorDao {
+    private static final int DEFAULT_MAXIMUM_KNOWN_ACTORS = 10_000;
+
+    private final MovieQueryCache movieQueryCache;
+    private final LruCache<Long, List<String>> actorNamesById;
+
+    public QueryCacheInvalidatingActorDao(ActorDao delegate, MovieQueryCache movieQueryCache) {
+        this(delegate, movieQueryCache, DEFAULT_MAXIMUM_KNOWN_ACTORS);
+    }
+
+    public QueryCacheInvalidatingActorDao(ActorDao delegate, MovieQueryCache movieQueryCache, int maximumKnownActors) {
+        super(delegate);
+        this.movieQueryCache = Objects.requireNonNull(movieQueryCache);
+        this.actorNamesById = new LruCache<>(maximumKnownActors);
+    }
+
+    @Override
+    public void save(Actor actor) {
+        super.save(actor);
+        rememberName(actor);
+    }
+
+    @Override
+    public void saveAll(Collection<Actor> actors) {
+        super.saveAll(actors);
+        actors.forEach(this::rememberName);
+    }
+
+    @Override
+    public Actor findById(Long id) {
+        Actor actor = super.findById(id);
+        rememberName(actor);
+        return actor;
+    }
+
+    @Override
+    public Map<Long, Actor> findAllByIds(Collection<Long> ids) {
+        Map<Long, Actor> actors = super.findAllByIds(ids);
+        actors.values().forEach(this::rememberName);
+        return actors;
+    }
+
+    @Override
+    public Page<Actor> findAllAfter(Long lastId, int limit) {
+        Page<Actor> page = super.findAllAfter(lastId, limit);
+        page.getContent().forEach(this::rememberName);
+        return page;
+    }
+
+    @Override
+    public Page<Actor> findPage(String continuationToken, int limit) {
+        Page<Actor> page = super.findPage(continuationToken, limit);
+        page.getContent().forEach(this::rememberName);
+        return page;
+    }
+
+    @Override
+    public void linkActorToMovieByID(Long actorId, Long movieId) {
+        super.linkActorToMovieByID(actorId, movieId);
+        invalidateFilmography(actorId);
+    }
+
+    @Override
+    public void linkAll(Collection<ActorMovieLink> links) {
+        super.linkAll(links);
+        links.stream()
+                .map(ActorMovieLink::getActorId)
+                .distinct()
+                .forEach(this::invalidateFilmography);
+    }
+
+    private void rememberName(Actor actor) {
+        if (actor != null && actor.getId() != null && actor.getFirstName() != null && actor.getLastName() != null) {
+            actorNamesById.put(actor.getId(), List.of(actor.getFirstName(), actor.getLastName()));
+        }
+    }
+
+    private void invalidateFilmography(Long actorId) {
+        List<String> actorName = actorNamesById.getIfPresent(actorId);
+        if (actorName == null) {
+            movieQueryCache.invalidateActors();
+        } else {
+            movieQueryCache.invalidateActor(actorName.get(0), actorName.get(1));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.bobocode.dao;
+
+import com.bobocode.cache.MovieQueryCache;
+import com.bobocode.model.Movie;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Serves {@link #findByName(String)} and {@link #findByActorFirstAndLastName(String, String)} from a {@link MovieQueryCache}.
+ * Saving a movie invalidates the cached result for its name; links are invalidated by {@link QueryCacheInvalidatingActorDao}.
+ */
+public class QueryCachingMovieDao extends ForwardingMovieDao {
+    private final MovieQueryCache movieQueryCache;
+
+    public QueryCachingMovieDao(MovieDao delegate, MovieQueryCache movieQueryCache) {
+        super(delegate);
+        this.movieQueryCache = Objects.requireNonNull(movieQueryCache);
+    }
+
+    @Override
+    public void save(Movie movie) {
+        super.save(movie);
+        movieQueryCache.invalidateName(movie.getName());
+    }
+
+    @Override
+    public void saveAll(Collection<Movie> movies) {
+        super.saveAll(movies);
+        movies.forEach(movie -> movieQueryCache.invalidateName(movie.getName()));
+    }
+
+    @Override
+    public Long saveOrGet(Movie movie) {
+        Long id = super.saveOrGet(movie);
+        movieQueryCache.invalidateName(movie.getName());
+        return id;
+    }
+
+    @Override
+    public void upsertAll(Collection<Movie> movies) {
+        super.upsertAll(movies);
+        movies.forEach(movie -> movieQueryCache.invalidateName(movie.getName()));
+    }
+
+    @Override
+    public List<Movie> findByName(String name) {
+        Objects.requireNonNull(name);
+        return movieQueryCache.findByName(name, () -> super.findByName(name));
+    }
+
+    @Override
+    public List<Movie> findByActorFirstAndLastName(String actorFirstName, String actorLastName) {
+        Objects.requireNonNull(actorFirstName);
+        Objects.requireNonNull(actorLastName);
+        return movieQueryCache.findByActorFirstAndLastName(actorFirstName, actorLastName,
+                () -> super.findByActorFirstAndLastName(actorFirstName, actorLastName));
+    }
+}
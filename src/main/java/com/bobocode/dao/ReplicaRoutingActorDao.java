@@ -0,0 +1,79 @@
+package com.bobocode.dao;
+
+import com.bobocode.model.Actor;
+import com.bobocode.model.ActorMovieLink;
+import com.bobocode.model.Page;
+import com.bobocode.util.ReadWriteRoutingDataSource;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Sends the reads of a DAO created on a {@link ReadWriteRoutingDataSource} to its replicas and marks every save and
+ * link as a write for read-your-writes.
+ */
+public class ReplicaRoutingActorDao extends ForwardingActorDao {
+    private final ReadWriteRoutingDataSource routingDataSource;
+
+    public ReplicaRoutingActorDao(ActorDao delegate, ReadWriteRoutingDataSource routingDataSource) {
+        super(delegate);
+        this.routingDataSource = Objects.requireNonNull(routingDataSource);
+    }
+
+    @Override
+    public void save(Actor actor) {
+        try {
+            super.save(actor);
+        } finally {
+            routingDataSource.markWritten();
+        }
+    }
+
+    @Override
+    public void saveAll(Collection<Actor> actors) {
+        try {
+            super.saveAll(actors);
+        } finally {
+            routingDataSource.markWritten();
+        }
+    }
+
+    @Override
+    public Actor findById(Long id) {
+        return routingDataSource.readOnly(() -> super.findById(id));
+    }
+
+    @Override
+    public Map<Long, Actor> findAllByIds(Collection<Long> ids) {
+        return routingDataSource.readOnly(() -> super.findAllByIds(ids));
+    }
+
+    @Override
+    public void linkActorToMovieByID(Long actorId, Long movieId) {
+        try {
+            super.linkActorToMovieByID(actorId, movieId);
+        } finally {
+            routingDataSource.markWritten();
+        }
+    }
+
+    @Override
+    public void linkAll(Collection<ActorMovieLink> links) {
+        try {
+            super.linkAll(links);
+        } finally {
+            routingDataSource.markWritten();
+        }
+    }
+
+    @Override
+    public Page<Actor> findAllAfter(Long lastId, int limit) {
+        return routingDataSource.readOnly(() -> super.findAllAfter(lastId, limit));
+    }
+
+    @Override
+    public Page<Actor> findPage(String continuationToken, int limit) {
+        return routingDataSource.readOnly(() -> super.findPage(continuationToken, limit));
+    }
+}
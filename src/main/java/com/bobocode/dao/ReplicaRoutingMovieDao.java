@@ -0,0 +1,120 @@
+package com.bobocode.dao;
+
+import com.bobocode.model.Movie;
+import com.bobocode.model.Page;
+import com.bobocode.util.ReadWriteRoutingDataSource;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Sends the reads of a DAO created on a {@link ReadWriteRoutingDataSource} to its replicas and marks every save as a
+ * write for read-your-writes. Streams take their connection when they are opened, so they are routed too.
+ */
+public class ReplicaRoutingMovieDao extends ForwardingMovieDao {
+    private final ReadWriteRoutingDataSource routingDataSource;
+
+    public ReplicaRoutingMovieDao(MovieDao delegate, ReadWriteRoutingDataSource routingDataSource) {
+        super(delegate);
+        this.routingDataSource = Objects.requireNonNull(routingDataSource);
+    }
+
+    @Override
+    public void save(Movie movie) {
+        try {
+            super.save(movie);
+        } finally {
+            routingDataSource.markWritten();
+        }
+    }
+
+    @Override
+    public void saveAll(Collection<Movie> movies) {
+        try {
+            super.saveAll(movies);
+        } finally {
+            routingDataSource.markWritten();
+        }
+    }
+
+    @Override
+    public Long saveOrGet(Movie movie) {
+        try {
+            return super.saveOrGet(movie);
+        } finally {
+            routingDataSource.markWritten();
+        }
+    }
+
+    @Override
+    public void upsertAll(Collection<Movie> movies) {
+        try {
+            super.upsertAll(movies);
+        } finally {
+            routingDataSource.markWritten();
+        }
+    }
+
+    @Override
+    public Movie findById(Long id) {
+        return routingDataSource.readOnly(() -> super.findById(id));
+    }
+
+    @Override
+    public Map<Long, Movie> findAllByIds(Collection<Long> ids) {
+        return routingDataSource.readOnly(() -> super.findAllByIds(ids));
+    }
+
+    @Override
+    public List<Movie> findAll() {
+        return routingDataSource.readOnly(super::findAll);
+    }
+
+    @Override
+    public List<Movie> findByName(String name) {
+        return routingDataSource.readOnly(() -> super.findByName(name));
+    }
+
+    @Override
+    public List<Movie> findByActorFirstAndLastName(String actorFirstName, String actorLastName) {
+        return routingDataSource.readOnly(() -> super.findByActorFirstAndLastName(actorFirstName, actorLastName));
+    }
+
+    @Override
+    public List<Movie> findAllWithActors() {
+        return routingDataSource.readOnly(super::findAllWithActors);
+    }
+
+    @Override
+    public List<Movie> findByNameWithActors(String name) {
+        return routingDataSource.readOnly(() -> super.findByNameWithActors(name));
+    }
+
+    @Override
+    public List<Movie> searchByName(String query, int limit) {
+        return routingDataSource.readOnly(() -> super.searchByName(query, limit));
+    }
+
+    @Override
+    public Stream<Movie> streamAll() {
+        return routingDataSource.readOnly(super::streamAll);
+    }
+
+    @Override
+    public Stream<Movie> streamByActorFirstAndLastName(String actorFirstName, String actorLastName) {
+        return routingDataSource.readOnly(() -> super.streamByActorFirstAndLastName(actorFirstName, actorLastName));
+    }
+
+    @Override
+    public Page<Movie> findAllAfter(Long lastId, int limit) {
+        return routingDataSource.readOnly(() -> super.findAllAfter(lastId, limit));
+    }
+
+    @Override
+    public Page<Movie> findPage(String continuationToken, int limit) {
+        return routingDataSource.readOnly(() -> super.findPage(continuationToken, limit));
+    }
+}
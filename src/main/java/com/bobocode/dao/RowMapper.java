@@ -0,0 +1,13 @@
+package com.bobocode.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a result set to an object. Implementations read columns by index, the positions are fixed
+ * by the explicit column list the mapper publishes for its queries.
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+    T mapRow(ResultSet resultSet) throws SQLException;
+}
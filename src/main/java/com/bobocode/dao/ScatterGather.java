@@ -0,0 +1,42 @@
+package com.bobocode.dao;
+
+import com.bobocode.util.AsyncDaoExecutor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Runs a query on several shards in parallel and waits for all of them. Results may be {@code null}, writes that
+ * return nothing are run through it as well.
+ */
+final class ScatterGather {
+    private ScatterGather() {
+    }
+
+    static <S, T> List<T> query(AsyncDaoExecutor executor, Collection<S> shards, Function<S, T> shardQuery) {
+        if (shards.size() == 1) {
+            return Collections.singletonList(shardQuery.apply(shards.iterator().next()));
+        }
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards.size());
+        for (S shard : shards) {
+            futures.add(executor.supply(() -> shardQuery.apply(shard)));
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return results;
+    }
+}
@@ -0,0 +1,140 @@
+package com.bobocode.dao;
+
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.model.Actor;
+import com.bobocode.model.ActorMovieLink;
+import com.bobocode.model.Page;
+import com.bobocode.shard.ShardIdAllocator;
+import com.bobocode.shard.ShardMap;
+import com.bobocode.util.AsyncDaoExecutor;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link ActorDao} over a {@link ShardMap}. Actors are small and referenced by links on every shard, so they are
+ * replicated to all shards under an id from a {@link ShardIdAllocator} and read from any of them. Links are stored on
+ * the shard that owns the movie. Writes to several shards are not atomic: an actor that already has an id keeps it,
+ * so a failed save can simply be repeated.
+ */
+public class ShardedActorDao implements ActorDao {
+    private final ShardMap shardMap;
+    private final ShardIdAllocator idAllocator;
+    private final AsyncDaoExecutor executor;
+    private final DaoConfig daoConfig;
+    private final Map<String, ActorDaoImpl> shardDaos = new ConcurrentHashMap<>();
+    private final AtomicInteger nextReadShard = new AtomicInteger();
+
+    public ShardedActorDao(ShardMap shardMap, ShardIdAllocator idAllocator, AsyncDaoExecutor executor) {
+        this(shardMap, idAllocator, executor, DaoConfig.defaults());
+    }
+
+    public ShardedActorDao(ShardMap shardMap, ShardIdAllocator idAllocator, AsyncDaoExecutor executor, DaoConfig daoConfig) {
+        this.shardMap = Objects.requireNonNull(shardMap);
+        this.idAllocator = Objects.requireNonNull(idAllocator);
+        this.executor = Objects.requireNonNull(executor);
+        this.daoConfig = Objects.requireNonNull(daoConfig);
+    }
+
+    @Override
+    public void save(Actor actor) {
+        Objects.requireNonNull(actor);
+        saveOnEveryShard(List.of(actor));
+    }
+
+    @Override
+    public void saveAll(Collection<Actor> actors) {
+        Objects.requireNonNull(actors);
+        if (!actors.isEmpty()) {
+            saveOnEveryShard(actors);
+        }
+    }
+
+    private void saveOnEveryShard(Collection<Actor> actors) {
+        for (Actor actor : actors) {
+            if (Objects.requireNonNull(actor).getId() == null) {
+                actor.setId(idAllocator.nextId());
+            }
+        }
+        ScatterGather.query(executor, shardMap.getAllShards(), shard -> {
+            try (Connection connection = shardMap.dataSource(shard).getConnection()) {
+                connection.setAutoCommit(false);
+                try {
+                    shardDao(shard).saveActorsWithIds(connection, actors);
+                    connection.commit();
+                } catch (SQLException | RuntimeException e) {
+                    connection.rollback();
+                    throw e;
+                }
+            } catch (SQLException e) {
+                throw new DaoOperationException("Couldn't save " + actors.size() + " actors on shard " + shard, e);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public Actor findById(Long id) {
+        return shardDao(readShard()).findById(id);
+    }
+
+    @Override
+    public Map<Long, Actor> findAllByIds(Collection<Long> ids) {
+        return shardDao(readShard()).findAllByIds(ids);
+    }
+
+    @Override
+    public void linkActorToMovieByID(Long actorId, Long movieId) {
+        shardDao(owningShard(movieId)).linkActorToMovieByID(actorId, movieId);
+    }
+
+    /**
+     * Links are grouped by the shard of their movie and written in parallel, every shard in its own transaction
+     */
+    @Override
+    public void linkAll(Collection<ActorMovieLink> links) {
+        Objects.requireNonNull(links);
+        Map<String, List<ActorMovieLink>> linksByShard = new LinkedHashMap<>();
+        for (ActorMovieLink link : links) {
+            linksByShard.computeIfAbsent(owningShard(Objects.requireNonNull(link).getMovieId()), shard -> new ArrayList<>()).add(link);
+        }
+        ScatterGather.query(executor, linksByShard.keySet(), shard -> {
+            shardDao(shard).linkAll(linksByShard.get(shard));
+            return null;
+        });
+    }
+
+    @Override
+    public Page<Actor> findAllAfter(Long lastId, int limit) {
+        return shardDao(readShard()).findAllAfter(lastId, limit);
+    }
+
+    @Override
+    public Page<Actor> findPage(String continuationToken, int limit) {
+        return shardDao(readShard()).findPage(continuationToken, limit);
+    }
+
+    /**
+     * A link without a movie id goes to any shard, which reports it like the unsharded DAO does
+     */
+    private String owningShard(Long movieId) {
+        return movieId == null ? readShard() : shardMap.shardFor(movieId);
+    }
+
+    private String readShard() {
+        List<String> shards = shardMap.getShards();
+        return shards.get(Math.floorMod(nextReadShard.getAndIncrement(), shards.size()));
+    }
+
+    private ActorDaoImpl shardDao(String shard) {
+        return shardDaos.computeIfAbsent(shard, name -> new ActorDaoImpl(shardMap.dataSource(name), daoConfig));
+    }
+}
@@ -0,0 +1,300 @@
+package com.bobocode.dao;
+
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.model.Movie;
+import com.bobocode.model.Page;
+import com.bobocode.search.MovieTitleIndex;
+import com.bobocode.shard.ConsistentHashRing;
+import com.bobocode.shard.ShardIdAllocator;
+import com.bobocode.shard.ShardMap;
+import com.bobocode.util.AsyncDaoExecutor;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * {@link MovieDao} over a {@link ShardMap}, every movie and its links live on the shard that owns the movie id on the
+ * hash ring. Lookups by id go to the owning shard, all other queries fan out to every shard in parallel and merge the
+ * results ordered by id. A shard only contributes the movies it owns, so rows that a {@link
+ * com.bobocode.shard.ShardRebalancer} has copied but not yet deleted are never returned twice.
+ */
+public class ShardedMovieDao implements MovieDao {
+    private final ShardMap shardMap;
+    private final ShardIdAllocator idAllocator;
+    private final AsyncDaoExecutor executor;
+    private final DaoConfig daoConfig;
+    private final Map<String, MovieDaoImpl> shardDaos = new ConcurrentHashMap<>();
+
+    public ShardedMovieDao(ShardMap shardMap, ShardIdAllocator idAllocator, AsyncDaoExecutor executor) {
+        this(shardMap, idAllocator, executor, DaoConfig.defaults());
+    }
+
+    public ShardedMovieDao(ShardMap shardMap, ShardIdAllocator idAllocator, AsyncDaoExecutor executor, DaoConfig daoConfig) {
+        this.shardMap = Objects.requireNonNull(shardMap);
+        this.idAllocator = Objects.requireNonNull(idAllocator);
+        this.executor = Objects.requireNonNull(executor);
+        this.daoConfig = Objects.requireNonNull(daoConfig);
+    }
+
+    @Override
+    public void save(Movie movie) {
+        Objects.requireNonNull(movie);
+        saveAll(List.of(movie));
+    }
+
+    /**
+     * Movies are grouped by their shard and saved in parallel, every shard in its own transaction
+     */
+    @Override
+    public void saveAll(Collection<Movie> movies) {
+        Objects.requireNonNull(movies);
+        Map<String, List<Movie>> moviesByShard = new LinkedHashMap<>();
+        for (Movie movie : movies) {
+            if (Objects.requireNonNull(movie).getId() == null) {
+                movie.setId(idAllocator.nextId());
+            }
+            moviesByShard.computeIfAbsent(shardMap.shardFor(movie.getId()), shard -> new ArrayList<>()).add(movie);
+        }
+        ScatterGather.query(executor, moviesByShard.keySet(), shard -> {
+            List<Movie> shardMovies = moviesByShard.get(shard);
+            try (Connection connection = shardMap.dataSource(shard).getConnection()) {
+                connection.setAutoCommit(false);
+                try {
+                    shardDao(shard).saveMoviesWithIds(connection, shardMovies);
+                    connection.commit();
+                } catch (SQLException | RuntimeException e) {
+                    connection.rollback();
+                    throw e;
+                }
+            } catch (SQLException e) {
+                throw new DaoOperationException("Couldn't save " + shardMovies.size() + " movies on shard " + shard, e);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public Long saveOrGet(Movie movie) {
+        Objects.requireNonNull(movie);
+        upsertAll(List.of(movie));
+        return movie.getId();
+    }
+
+    /**
+     * Looks the movies up by name, duration and release date on every shard and saves the missing ones with ids of
+     * the allocator, equal movies of the collection get the same id. The natural key is only unique within a shard,
+     * so two concurrent upserts of the same new movie can both miss it: the movie is saved twice under different ids
+     * when they land on different shards, otherwise the later save fails on the unique constraint.
+     */
+    @Override
+    public void upsertAll(Collection<Movie> movies) {
+        Objects.requireNonNull(movies);
+        Map<List<Object>, List<Movie>> moviesByKey = MovieDaoImpl.groupByUniqueKey(movies);
+        if (moviesByKey.isEmpty()) {
+            return;
+        }
+        List<Movie> distinctMovies = moviesByKey.values().stream()
+                .map(equalMovies -> equalMovies.get(0))
+                .collect(Collectors.toList());
+        ConsistentHashRing ring = shardMap.getRing();
+        Map<List<Object>, Long> idsByKey = new HashMap<>();
+        ScatterGather.query(executor, ring.getShards(), shard -> ownedIds(ring, shard, shardDao(shard).findIdsByUniqueKeys(distinctMovies)))
+                .forEach(idsByKey::putAll);
+        List<Movie> missingMovies = new ArrayList<>();
+        moviesByKey.forEach((key, equalMovies) -> {
+            Long id = idsByKey.get(key);
+            if (id == null) {
+                id = idAllocator.nextId();
+                missingMovies.add(equalMovies.get(0));
+            }
+            Long movieId = id;
+            equalMovies.forEach(movie -> movie.setId(movieId));
+        });
+        if (!missingMovies.isEmpty()) {
+            saveAll(missingMovies);
+        }
+    }
+
+    @Override
+    public Movie findById(Long id) {
+        Objects.requireNonNull(id);
+        return shardDao(shardMap.shardFor(id)).findById(id);
+    }
+
+    @Override
+    public Map<Long, Movie> findAllByIds(Collection<Long> ids) {
+        Objects.requireNonNull(ids);
+        Map<String, List<Long>> idsByShard = new LinkedHashMap<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            idsByShard.computeIfAbsent(shardMap.shardFor(Objects.requireNonNull(id)), shard -> new ArrayList<>()).add(id);
+        }
+        Map<Long, Movie> moviesById = new HashMap<>();
+        ScatterGather.query(executor, idsByShard.keySet(), shard -> shardDao(shard).findAllByIds(idsByShard.get(shard)))
+                .forEach(moviesById::putAll);
+        return moviesById;
+    }
+
+    @Override
+    public List<Movie> findAll() {
+        return gather(MovieDaoImpl::findAll);
+    }
+
+    @Override
+    public List<Movie> findByName(String name) {
+        Objects.requireNonNull(name);
+        List<Movie> movies = gather(shardDao -> shardDao.findAllByName(name));
+        if (movies.isEmpty()) {
+            throw new DaoOperationException(String.format("Movie with name = %s does not exist", name));
+        }
+        return movies;
+    }
+
+    @Override
+    public List<Movie> findByActorFirstAndLastName(String actorFirstName, String actorLastName) {
+        Objects.requireNonNull(actorFirstName);
+        Objects.requireNonNull(actorLastName);
+        return gather(shardDao -> shardDao.findByActorFirstAndLastName(actorFirstName, actorLastName));
+    }
+
+    @Override
+    public List<Movie> findAllWithActors() {
+        return gather(MovieDaoImpl::findAllWithActors);
+    }
+
+    @Override
+    public List<Movie> findByNameWithActors(String name) {
+        Objects.requireNonNull(name);
+        List<Movie> movies = gather(shardDao -> shardDao.findAllByNameWithActors(name));
+        if (movies.isEmpty()) {
+            throw new DaoOperationException(String.format("Movie with name = %s does not exist", name));
+        }
+        return movies;
+    }
+
+    /**
+     * Takes the best movies of every shard and ranks them again with {@link MovieTitleIndex#score(String, String)}
+     */
+    @Override
+    public List<Movie> searchByName(String query, int limit) {
+        Objects.requireNonNull(query);
+        Comparator<Movie> bestFirst = Comparator.<Movie>comparingDouble(movie -> -MovieTitleIndex.score(query, movie.getName()))
+                .thenComparingInt(movie -> movie.getName().length())
+                .thenComparing(Movie::getId);
+        return gather(shardDao -> shardDao.searchByName(query, limit)).stream()
+                .sorted(bestFirst)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Streams the shards one after another, each shard holds a connection only while its part is consumed
+     */
+    @Override
+    public Stream<Movie> streamAll() {
+        return streamShards(MovieDaoImpl::streamAll);
+    }
+
+    @Override
+    public Stream<Movie> streamByActorFirstAndLastName(String actorFirstName, String actorLastName) {
+        Objects.requireNonNull(actorFirstName);
+        Objects.requireNonNull(actorLastName);
+        return streamShards(shardDao -> shardDao.streamByActorFirstAndLastName(actorFirstName, actorLastName));
+    }
+
+    /**
+     * Merges one page of every shard. A shard that has more movies limits the page to ids up to its last returned
+     * one, because its next movies may come before those of other shards.
+     */
+    @Override
+    public Page<Movie> findAllAfter(Long lastId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page limit must be positive, but was " + limit);
+        }
+        ConsistentHashRing ring = shardMap.getRing();
+        List<Page<Movie>> shardPages = ScatterGather.query(executor, ring.getShards(),
+                shard -> ownedPage(ring, shard, shardDao(shard).findAllAfter(lastId, limit)));
+        long maxSafeId = Long.MAX_VALUE;
+        for (Page<Movie> shardPage : shardPages) {
+            if (shardPage.hasNext()) {
+                maxSafeId = Math.min(maxSafeId, PageTokens.decode(shardPage.getContinuationToken()));
+            }
+        }
+        long safeIdLimit = maxSafeId;
+        List<Movie> movies = shardPages.stream()
+                .flatMap(shardPage -> shardPage.getContent().stream())
+                .filter(movie -> movie.getId() <= safeIdLimit)
+                .sorted(Comparator.comparing(Movie::getId))
+                .collect(Collectors.toList());
+        if (movies.size() > limit) {
+            List<Movie> pageContent = new ArrayList<>(movies.subList(0, limit));
+            return new Page<>(pageContent, PageTokens.encode(pageContent.get(limit - 1).getId()));
+        }
+        if (safeIdLimit == Long.MAX_VALUE) {
+            return new Page<>(movies, null);
+        }
+        // every owned movie up to the safe id is on this page
+        return new Page<>(movies, PageTokens.encode(safeIdLimit));
+    }
+
+    @Override
+    public Page<Movie> findPage(String continuationToken, int limit) {
+        return findAllAfter(PageTokens.decode(continuationToken), limit);
+    }
+
+    private List<Movie> gather(Function<MovieDaoImpl, List<Movie>> shardQuery) {
+        ConsistentHashRing ring = shardMap.getRing();
+        return ScatterGather.query(executor, ring.getShards(), shard -> ownedMovies(ring, shard, shardQuery.apply(shardDao(shard))))
+                .stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(Movie::getId))
+                .collect(Collectors.toList());
+    }
+
+    private Stream<Movie> streamShards(Function<MovieDaoImpl, Stream<Movie>> shardStream) {
+        ConsistentHashRing ring = shardMap.getRing();
+        return ring.getShards().stream()
+                .flatMap(shard -> shardStream.apply(shardDao(shard)).filter(movie -> isOwnedBy(ring, shard, movie)));
+    }
+
+    /**
+     * Keeps the token of the unfiltered page, it marks how far the shard was read
+     */
+    private Page<Movie> ownedPage(ConsistentHashRing ring, String shard, Page<Movie> page) {
+        return new Page<>(ownedMovies(ring, shard, page.getContent()), page.getContinuationToken());
+    }
+
+    private Map<List<Object>, Long> ownedIds(ConsistentHashRing ring, String shard, Map<List<Object>, Long> idsByKey) {
+        Map<List<Object>, Long> ownedIdsByKey = new HashMap<>();
+        idsByKey.forEach((key, id) -> {
+            if (shard.equals(ring.shardFor(id))) {
+                ownedIdsByKey.put(key, id);
+            }
+        });
+        return ownedIdsByKey;
+    }
+
+    private List<Movie> ownedMovies(ConsistentHashRing ring, String shard, List<Movie> movies) {
+        return movies.stream().filter(movie -> isOwnedBy(ring, shard, movie)).collect(Collectors.toList());
+    }
+
+    private boolean isOwnedBy(ConsistentHashRing ring, String shard, Movie movie) {
+        return shard.equals(ring.shardFor(movie.getId()));
+    }
+
+    private MovieDaoImpl shardDao(String shard) {
+        return shardDaos.computeIfAbsent(shard, name -> new MovieDaoImpl(shardMap.dataSource(name), daoConfig));
+    }
+}
@@ -0,0 +1,71 @@
+package com.bobocode.dao;
+
+import com.bobocode.model.Movie;
+import com.bobocode.search.MovieTitleIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Serves {@link #searchByName(String, int)} from a {@link MovieTitleIndex} and adds every saved movie to it. The
+ * matching movies are loaded with one {@link #findAllByIds(Collection)} call.
+ */
+public class TitleIndexMovieDao extends ForwardingMovieDao {
+    private final MovieTitleIndex titleIndex;
+
+    public TitleIndexMovieDao(MovieDao delegate, MovieTitleIndex titleIndex) {
+        super(delegate);
+        this.titleIndex = Objects.requireNonNull(titleIndex);
+    }
+
+    @Override
+    public void save(Movie movie) {
+        super.save(movie);
+        titleIndex.add(movie.getId(), movie.getName());
+    }
+
+    @Override
+    public void saveAll(Collection<Movie> movies) {
+        super.saveAll(movies);
+        movies.forEach(movie -> titleIndex.add(movie.getId(), movie.getName()));
+    }
+
+    /**
+     * The index ignores movies it already has, so an existing movie returned here is not indexed twice
+     */
+    @Override
+    public Long saveOrGet(Movie movie) {
+        Long id = super.saveOrGet(movie);
+        titleIndex.add(id, movie.getName());
+        return id;
+    }
+
+    @Override
+    public void upsertAll(Collection<Movie> movies) {
+        super.upsertAll(movies);
+        movies.forEach(movie -> titleIndex.add(movie.getId(), movie.getName()));
+    }
+
+    @Override
+    public List<Movie> searchByName(String query, int limit) {
+        Objects.requireNonNull(query);
+        long[] movieIds = titleIndex.search(query, limit);
+        if (movieIds.length == 0) {
+            return new ArrayList<>();
+        }
+        Map<Long, Movie> moviesById = findAllByIds(Arrays.stream(movieIds).boxed().collect(Collectors.toList()));
+        List<Movie> movies = new ArrayList<>(movieIds.length);
+        for (long movieId : movieIds) {
+            Movie movie = moviesById.get(movieId);
+            if (movie != null) {
+                movies.add(movie);
+            }
+        }
+        return movies;
+    }
+}
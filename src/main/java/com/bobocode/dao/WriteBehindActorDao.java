@@ -0,0 +1,49 @@
+package com.bobocode.dao;
+
+import com.bobocode.model.Actor;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Sends single saves and links through a {@link WriteBehindWriter}, so that concurrent callers share one transaction.
+ * The blocking methods return once the write is committed, the async ones right after it is queued.
+ */
+public class WriteBehindActorDao extends ForwardingActorDao {
+    private final WriteBehindWriter writer;
+
+    public WriteBehindActorDao(ActorDao delegate, WriteBehindWriter writer) {
+        super(delegate);
+        this.writer = Objects.requireNonNull(writer);
+    }
+
+    @Override
+    public void save(Actor actor) {
+        await(saveAsync(actor));
+    }
+
+    public CompletableFuture<Void> saveAsync(Actor actor) {
+        return writer.saveActor(actor);
+    }
+
+    @Override
+    public void linkActorToMovieByID(Long actorId, Long movieId) {
+        await(linkActorToMovieByIDAsync(actorId, movieId));
+    }
+
+    public CompletableFuture<Void> linkActorToMovieByIDAsync(Long actorId, Long movieId) {
+        return writer.link(actorId, movieId);
+    }
+
+    private void await(CompletableFuture<Void> write) {
+        try {
+            write.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
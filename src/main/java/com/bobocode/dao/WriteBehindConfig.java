@@ -0,0 +1,35 @@
+package com.bobocode.dao;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@Builder
+@ToString
+public class WriteBehindConfig {
+    /**
+     * Writes waiting for a flush, callers block once the queue is full
+     */
+    @Builder.Default
+    private int queueCapacity = 10_000;
+    /**
+     * Time a caller waits for room in a full queue before its write is rejected
+     */
+    @Builder.Default
+    private long enqueueTimeoutMillis = 30_000;
+    /**
+     * Writes committed in one transaction
+     */
+    @Builder.Default
+    private int maxBatchSize = 500;
+    /**
+     * Time the first write of a batch waits for others before the batch is flushed
+     */
+    @Builder.Default
+    private long flushIntervalMillis = 5;
+
+    public static WriteBehindConfig defaults() {
+        return WriteBehindConfig.builder().build();
+    }
+}
@@ -0,0 +1,36 @@
+package com.bobocode.dao;
+
+import com.bobocode.model.Movie;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Sends single saves through a {@link WriteBehindWriter}, so that concurrent callers share one transaction. The
+ * blocking save returns once the movie is committed, the async one right after it is queued.
+ */
+public class WriteBehindMovieDao extends ForwardingMovieDao {
+    private final WriteBehindWriter writer;
+
+    public WriteBehindMovieDao(MovieDao delegate, WriteBehindWriter writer) {
+        super(delegate);
+        this.writer = Objects.requireNonNull(writer);
+    }
+
+    @Override
+    public void save(Movie movie) {
+        try {
+            saveAsync(movie).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    public CompletableFuture<Void> saveAsync(Movie movie) {
+        return writer.saveMovie(movie);
+    }
+}
@@ -0,0 +1,254 @@
+package com.bobocode.dao;
+
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.model.Actor;
+import com.bobocode.model.ActorMovieLink;
+import com.bobocode.model.Movie;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Queues actor and movie inserts and actor-movie links and commits them in batches from a background thread, one
+ * transaction per batch. A batch is flushed once it has {@link WriteBehindConfig#getMaxBatchSize()} writes or its first
+ * write has waited {@link WriteBehindConfig#getFlushIntervalMillis()}. The future of a write completes after its
+ * transaction committed. When a batch fails its writes are retried one by one, so that one bad write does not fail
+ * the others. Links are idempotent like {@link ActorDao#linkAll(java.util.Collection)}.
+ */
+public class WriteBehindWriter implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(WriteBehindWriter.class.getName());
+
+    private final DataSource dataSource;
+    private final WriteBehindConfig config;
+    private final ActorDaoImpl actorDao;
+    private final MovieDaoImpl movieDao;
+    private final BlockingQueue<PendingWrite> queue;
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private final Thread flusher;
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong flushedWriteCount = new AtomicLong();
+    private final AtomicLong failedWriteCount = new AtomicLong();
+    private volatile boolean closed;
+
+    public WriteBehindWriter(DataSource dataSource, WriteBehindConfig config) {
+        this(dataSource, config, DaoConfig.defaults());
+    }
+
+    public WriteBehindWriter(DataSource dataSource, WriteBehindConfig config, DaoConfig daoConfig) {
+        if (config.getQueueCapacity() <= 0 || config.getMaxBatchSize() <= 0) {
+            throw new IllegalArgumentException("Queue capacity and max batch size must be positive, but config was " + config);
+        }
+        this.dataSource = Objects.requireNonNull(dataSource);
+        this.config = config;
+        this.actorDao = new ActorDaoImpl(dataSource, daoConfig);
+        this.movieDao = new MovieDaoImpl(dataSource, daoConfig);
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        this.flusher = new Thread(this::flushUntilClosed, "write-behind-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * The id of the actor is set before the returned future completes
+     */
+    public CompletableFuture<Void> saveActor(Actor actor) {
+        return enqueue(new PendingWrite(Objects.requireNonNull(actor), null, null));
+    }
+
+    /**
+     * The id of the movie is set before the returned future completes
+     */
+    public CompletableFuture<Void> saveMovie(Movie movie) {
+        return enqueue(new PendingWrite(null, Objects.requireNonNull(movie), null));
+    }
+
+    public CompletableFuture<Void> link(Long actorId, Long movieId) {
+        return enqueue(new PendingWrite(null, null, new ActorMovieLink(actorId, movieId)));
+    }
+
+    private CompletableFuture<Void> enqueue(PendingWrite write) {
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                throw new DaoOperationException("Write-behind writer is closed");
+            }
+            if (!queue.offer(write, config.getEnqueueTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                throw new DaoOperationException(String.format("Write-behind queue stayed full for %d ms, %d writes are waiting",
+                        config.getEnqueueTimeoutMillis(), queue.size()));
+            }
+            return write.future;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DaoOperationException("Interrupted while waiting for room in the write-behind queue", e);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    public int getQueuedWriteCount() {
+        return queue.size();
+    }
+
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    public long getFlushedWriteCount() {
+        return flushedWriteCount.get();
+    }
+
+    public long getFailedWriteCount() {
+        return failedWriteCount.get();
+    }
+
+    /**
+     * Stops accepting writes and waits until every queued write is flushed
+     */
+    @Override
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DaoOperationException("Interrupted while draining the write-behind queue", e);
+        }
+    }
+
+    private void flushUntilClosed() {
+        List<PendingWrite> batch = new ArrayList<>(config.getMaxBatchSize());
+        while (!closed || !queue.isEmpty()) {
+            try {
+                collectBatch(batch);
+            } catch (InterruptedException e) {
+                // keep draining, close() is the only way to stop the flusher
+                Thread.interrupted();
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void collectBatch(List<PendingWrite> batch) throws InterruptedException {
+        PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getFlushIntervalMillis());
+        while (batch.size() < config.getMaxBatchSize()) {
+            queue.drainTo(batch, config.getMaxBatchSize() - batch.size());
+            long remainingNanos = deadline - System.nanoTime();
+            if (batch.size() == config.getMaxBatchSize() || remainingNanos <= 0 || closed) {
+                return;
+            }
+            PendingWrite next = queue.poll(remainingNanos, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        try {
+            commit(batch);
+            flushCount.incrementAndGet();
+            flushedWriteCount.addAndGet(batch.size());
+            batch.forEach(write -> write.future.complete(null));
+        } catch (SQLException | RuntimeException e) {
+            if (batch.size() == 1) {
+                fail(batch.get(0), e);
+                return;
+            }
+            LOGGER.log(Level.FINE, "Write-behind batch of " + batch.size() + " writes failed, retrying them one by one", e);
+            for (PendingWrite write : batch) {
+                flush(List.of(write));
+            }
+        }
+    }
+
+    private void commit(List<PendingWrite> batch) throws SQLException {
+        List<Actor> actors = new ArrayList<>();
+        List<Movie> movies = new ArrayList<>();
+        List<ActorMovieLink> links = new ArrayList<>();
+        for (PendingWrite write : batch) {
+            if (write.actor != null) {
+                actors.add(write.actor);
+            } else if (write.movie != null) {
+                movies.add(write.movie);
+            } else {
+                links.add(write.link);
+            }
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                if (!actors.isEmpty()) {
+                    actorDao.saveActors(connection, actors);
+                }
+                if (!movies.isEmpty()) {
+                    movieDao.saveMovies(connection, movies);
+                }
+                if (!links.isEmpty()) {
+                    actorDao.linkActorsToMovies(connection, links);
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private void fail(PendingWrite write, Exception e) {
+        failedWriteCount.incrementAndGet();
+        if (write.actor != null) {
+            write.actor.setId(null);
+        } else if (write.movie != null) {
+            write.movie.setId(null);
+        }
+        write.future.completeExceptionally(e instanceof DaoOperationException ? e
+                : new DaoOperationException("Couldn't flush write-behind " + write.describe(), e));
+    }
+
+    private static class PendingWrite {
+        private final Actor actor;
+        private final Movie movie;
+        private final ActorMovieLink link;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private PendingWrite(Actor actor, Movie movie, ActorMovieLink link) {
+            this.actor = actor;
+            this.movie = movie;
+            this.link = link;
+        }
+
+        private String describe() {
+            if (actor != null) {
+                return "save of actor " + actor;
+            }
+            return movie != null ? "save of movie " + movie : "link " + link;
+        }
+    }
+}
@@ -0,0 +1,432 @@
+package com.bobocode.graph;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bipartite actor-movie graph kept in compressed sparse row form: actors and movies get dense indexes and the
+ * neighbours of every node are a slice of one {@code int} array. Links added after loading go to small per-node
+ * arrays and are merged into the compressed arrays once they outgrow {@link #MIN_COMPACTION_THRESHOLD} or an eighth
+ * of the loaded links. Queries run under a read lock and reuse per-thread search arrays, so they don't allocate
+ * proportionally to the graph size.
+ */
+public class CoStarGraph {
+    static final int MIN_COMPACTION_THRESHOLD = 1024;
+    private static final String SELECT_LINKS_SQL = "SELECT actor_id, movie_id FROM actor_movie;";
+    private static final int LOAD_FETCH_SIZE = 10_000;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ThreadLocal<SearchState> searchStates = ThreadLocal.withInitial(SearchState::new);
+    private final LongIntHashMap actorIndexes;
+    private final LongIntHashMap movieIndexes;
+    private long[] actorIds;
+    private long[] movieIds;
+    private int actorCount;
+    private int movieCount;
+    private final Adjacency actorMovies = new Adjacency();
+    private final Adjacency movieActors = new Adjacency();
+
+    private CoStarGraph(int expectedActors, int expectedMovies) {
+        actorIndexes = new LongIntHashMap(expectedActors);
+        movieIndexes = new LongIntHashMap(expectedMovies);
+        actorIds = new long[Math.max(expectedActors, 16)];
+        movieIds = new long[Math.max(expectedMovies, 16)];
+    }
+
+    /**
+     * Reads every row of {@code actor_movie} through a cursor and builds the graph from it
+     */
+    public static CoStarGraph load(DataSource dataSource) throws SQLException {
+        long[] linkActorIds = new long[1024];
+        long[] linkMovieIds = new long[1024];
+        int linkCount = 0;
+        try (Connection connection = dataSource.getConnection()) {
+            // Postgres only keeps a server-side cursor open inside a transaction, otherwise it fetches every row at once
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.setFetchSize(LOAD_FETCH_SIZE);
+                try (ResultSet resultSet = statement.executeQuery(SELECT_LINKS_SQL)) {
+                    while (resultSet.next()) {
+                        if (linkCount == linkActorIds.length) {
+                            linkActorIds = Arrays.copyOf(linkActorIds, linkCount * 2);
+                            linkMovieIds = Arrays.copyOf(linkMovieIds, linkCount * 2);
+                        }
+                        linkActorIds[linkCount] = resultSet.getLong(1);
+                        linkMovieIds[linkCount] = resultSet.getLong(2);
+                        linkCount++;
+                    }
+                }
+            } finally {
+                connection.rollback();
+            }
+        }
+        return fromLinks(linkActorIds, linkMovieIds, linkCount);
+    }
+
+    /**
+     * Builds the graph from the first {@code linkCount} pairs of the arrays, every pair is expected to be distinct
+     * just like the rows of {@code actor_movie}
+     */
+    public static CoStarGraph fromLinks(long[] linkActorIds, long[] linkMovieIds, int linkCount) {
+        CoStarGraph graph = new CoStarGraph(linkCount / 4, linkCount / 4);
+        int[] actorNodes = new int[linkCount];
+        int[] movieNodes = new int[linkCount];
+        for (int i = 0; i < linkCount; i++) {
+            actorNodes[i] = graph.actorIndexOrAdd(linkActorIds[i]);
+            movieNodes[i] = graph.movieIndexOrAdd(linkMovieIds[i]);
+        }
+        graph.actorMovies.rebuild(graph.actorCount, actorNodes, movieNodes, linkCount);
+        graph.movieActors.rebuild(graph.movieCount, movieNodes, actorNodes, linkCount);
+        return graph;
+    }
+
+    /**
+     * Adds a link, adding one that is already present does nothing
+     */
+    public void addLink(long actorId, long movieId) {
+        lock.writeLock().lock();
+        try {
+            int actor = actorIndexOrAdd(actorId);
+            int movie = movieIndexOrAdd(movieId);
+            actorMovies.ensureNodeCapacity(actorCount);
+            movieActors.ensureNodeCapacity(movieCount);
+            if (actorMovies.contains(actor, movie)) {
+                return;
+            }
+            actorMovies.addExtra(actor, movie);
+            movieActors.addExtra(movie, actor);
+            if (actorMovies.extraEdgeCount > Math.max(MIN_COMPACTION_THRESHOLD, actorMovies.baseEdgeCount() / 8)) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return ids of the actors who played in at least one movie with the actor in ascending order, empty for an
+     * unknown actor
+     */
+    public long[] findCoStars(long actorId) {
+        lock.readLock().lock();
+        try {
+            int actor = actorIndexes.get(actorId);
+            if (actor < 0) {
+                return new long[0];
+            }
+            SearchState state = searchStates.get();
+            int stamp = state.prepare(actorCount, movieCount);
+            Side side = state.forward;
+            side.actorMarks[actor] = stamp;
+            int coStarCount = 0;
+            for (int i = 0, movieDegree = actorMovies.degree(actor); i < movieDegree; i++) {
+                int movie = actorMovies.neighbour(actor, i);
+                for (int j = 0, actorDegree = movieActors.degree(movie); j < actorDegree; j++) {
+                    int coStar = movieActors.neighbour(movie, j);
+                    if (side.actorMarks[coStar] != stamp) {
+                        side.actorMarks[coStar] = stamp;
+                        side.next = Side.append(side.next, coStarCount++, coStar);
+                    }
+                }
+            }
+            long[] coStarIds = new long[coStarCount];
+            for (int i = 0; i < coStarCount; i++) {
+                coStarIds[i] = actorIds[side.next[i]];
+            }
+            Arrays.sort(coStarIds);
+            return coStarIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a breadth-first search from both actors at once, always expanding the smaller frontier
+     *
+     * @return the number of co-star hops between the actors, 0 for the same actor and -1 when they aren't connected
+     */
+    public int degreesOfSeparation(long actorId, long otherActorId) {
+        lock.readLock().lock();
+        try {
+            int source = actorIndexes.get(actorId);
+            int target = actorIndexes.get(otherActorId);
+            if (source < 0 || target < 0) {
+                return -1;
+            }
+            if (source == target) {
+                return 0;
+            }
+            SearchState state = searchStates.get();
+            int stamp = state.prepare(actorCount, movieCount);
+            state.forward.start(source, stamp);
+            state.backward.start(target, stamp);
+            while (state.forward.frontierSize > 0 && state.backward.frontierSize > 0) {
+                int degrees = state.forward.frontierSize <= state.backward.frontierSize
+                        ? expand(state.forward, state.backward, stamp)
+                        : expand(state.backward, state.forward, stamp);
+                if (degrees >= 0) {
+                    return degrees;
+                }
+            }
+            return -1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getActorCount() {
+        lock.readLock().lock();
+        try {
+            return actorCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getMovieCount() {
+        lock.readLock().lock();
+        try {
+            return movieCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getLinkCount() {
+        lock.readLock().lock();
+        try {
+            return actorMovies.baseEdgeCount() + actorMovies.extraEdgeCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Expands one level of {@code side}. The searches haven't met before this level, so every path between the actors
+     * is at least as long as the first one found on it and the search stops there.
+     */
+    private int expand(Side side, Side otherSide, int stamp) {
+        int nextSize = 0;
+        int nextLevel = side.level + 1;
+        for (int f = 0; f < side.frontierSize; f++) {
+            int actor = side.frontier[f];
+            for (int i = 0, movieDegree = actorMovies.degree(actor); i < movieDegree; i++) {
+                int movie = actorMovies.neighbour(actor, i);
+                if (side.movieMarks[movie] == stamp) {
+                    continue;
+                }
+                side.movieMarks[movie] = stamp;
+                for (int j = 0, actorDegree = movieActors.degree(movie); j < actorDegree; j++) {
+                    int coStar = movieActors.neighbour(movie, j);
+                    if (side.actorMarks[coStar] == stamp) {
+                        continue;
+                    }
+                    side.actorMarks[coStar] = stamp;
+                    side.actorLevels[coStar] = nextLevel;
+                    if (otherSide.actorMarks[coStar] == stamp) {
+                        return nextLevel + otherSide.actorLevels[coStar];
+                    }
+                    side.next = Side.append(side.next, nextSize++, coStar);
+                }
+            }
+        }
+        side.advance(nextSize);
+        return -1;
+    }
+
+    private void compact() {
+        int edgeCount = actorMovies.baseEdgeCount() + actorMovies.extraEdgeCount;
+        int[] actorNodes = new int[edgeCount];
+        int[] movieNodes = new int[edgeCount];
+        int edge = 0;
+        for (int actor = 0; actor < actorCount; actor++) {
+            for (int i = 0, degree = actorMovies.degree(actor); i < degree; i++) {
+                actorNodes[edge] = actor;
+                movieNodes[edge++] = actorMovies.neighbour(actor, i);
+            }
+        }
+        actorMovies.rebuild(actorCount, actorNodes, movieNodes, edgeCount);
+        movieActors.rebuild(movieCount, movieNodes, actorNodes, edgeCount);
+    }
+
+    private int actorIndexOrAdd(long actorId) {
+        int actor = actorIndexes.get(actorId);
+        if (actor < 0) {
+            if (actorCount == actorIds.length) {
+                actorIds = Arrays.copyOf(actorIds, actorCount * 2);
+            }
+            actor = actorCount++;
+            actorIds[actor] = actorId;
+            actorIndexes.put(actorId, actor);
+        }
+        return actor;
+    }
+
+    private int movieIndexOrAdd(long movieId) {
+        int movie = movieIndexes.get(movieId);
+        if (movie < 0) {
+            if (movieCount == movieIds.length) {
+                movieIds = Arrays.copyOf(movieIds, movieCount * 2);
+            }
+            movie = movieCount++;
+            movieIds[movie] = movieId;
+            movieIndexes.put(movieId, movie);
+        }
+        return movie;
+    }
+
+    /**
+     * Neighbours of one side of the graph: a compressed slice of {@code targets} for the nodes known at the last
+     * rebuild followed by the node's links added since then
+     */
+    private static class Adjacency {
+        private int[] offsets = new int[1];
+        private int[] targets = new int[0];
+        private int baseNodeCount;
+        private int[][] extraTargets = new int[0][];
+        private int[] extraCounts = new int[0];
+        private int extraEdgeCount;
+
+        int degree(int node) {
+            int baseDegree = node < baseNodeCount ? offsets[node + 1] - offsets[node] : 0;
+            return node < extraCounts.length ? baseDegree + extraCounts[node] : baseDegree;
+        }
+
+        int neighbour(int node, int position) {
+            int baseDegree = node < baseNodeCount ? offsets[node + 1] - offsets[node] : 0;
+            return position < baseDegree ? targets[offsets[node] + position] : extraTargets[node][position - baseDegree];
+        }
+
+        int baseEdgeCount() {
+            return targets.length;
+        }
+
+        boolean contains(int node, int target) {
+            for (int i = 0, degree = degree(node); i < degree; i++) {
+                if (neighbour(node, i) == target) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void ensureNodeCapacity(int nodeCount) {
+            if (nodeCount > extraCounts.length) {
+                int capacity = Math.max(nodeCount, extraCounts.length * 2);
+                extraTargets = Arrays.copyOf(extraTargets, capacity);
+                extraCounts = Arrays.copyOf(extraCounts, capacity);
+            }
+        }
+
+        void addExtra(int node, int target) {
+            int[] nodeTargets = extraTargets[node];
+            int count = extraCounts[node];
+            if (nodeTargets == null) {
+                nodeTargets = new int[4];
+            } else if (count == nodeTargets.length) {
+                nodeTargets = Arrays.copyOf(nodeTargets, count * 2);
+            }
+            nodeTargets[count] = target;
+            extraTargets[node] = nodeTargets;
+            extraCounts[node] = count + 1;
+            extraEdgeCount++;
+        }
+
+        void rebuild(int nodeCount, int[] sources, int[] edgeTargets, int edgeCount) {
+            int[] newOffsets = new int[nodeCount + 1];
+            for (int i = 0; i < edgeCount; i++) {
+                newOffsets[sources[i] + 1]++;
+            }
+            for (int node = 0; node < nodeCount; node++) {
+                newOffsets[node + 1] += newOffsets[node];
+            }
+            int[] positions = Arrays.copyOf(newOffsets, nodeCount);
+            int[] newTargets = new int[edgeCount];
+            for (int i = 0; i < edgeCount; i++) {
+                newTargets[positions[sources[i]]++] = edgeTargets[i];
+            }
+            offsets = newOffsets;
+            targets = newTargets;
+            baseNodeCount = nodeCount;
+            extraTargets = new int[0][];
+            extraCounts = new int[0];
+            extraEdgeCount = 0;
+        }
+    }
+
+    /**
+     * Search arrays reused by the queries of one thread. Marks equal to the current stamp belong to the running
+     * query, so nothing has to be cleared between queries.
+     */
+    private static class SearchState {
+        private final Side forward = new Side();
+        private final Side backward = new Side();
+        private int stamp;
+
+        int prepare(int actorCount, int movieCount) {
+            forward.ensureCapacity(actorCount, movieCount);
+            backward.ensureCapacity(actorCount, movieCount);
+            if (stamp == Integer.MAX_VALUE) {
+                forward.clearMarks();
+                backward.clearMarks();
+                stamp = 0;
+            }
+            return ++stamp;
+        }
+    }
+
+    private static class Side {
+        private int[] actorMarks = new int[0];
+        private int[] actorLevels = new int[0];
+        private int[] movieMarks = new int[0];
+        private int[] frontier = new int[16];
+        private int[] next = new int[16];
+        private int frontierSize;
+        private int level;
+
+        void ensureCapacity(int actorCount, int movieCount) {
+            if (actorMarks.length < actorCount) {
+                int capacity = Math.max(actorCount, actorMarks.length * 2);
+                actorMarks = Arrays.copyOf(actorMarks, capacity);
+                actorLevels = Arrays.copyOf(actorLevels, capacity);
+            }
+            if (movieMarks.length < movieCount) {
+                movieMarks = Arrays.copyOf(movieMarks, Math.max(movieCount, movieMarks.length * 2));
+            }
+        }
+
+        void clearMarks() {
+            Arrays.fill(actorMarks, 0);
+            Arrays.fill(movieMarks, 0);
+        }
+
+        void start(int actor, int stamp) {
+            actorMarks[actor] = stamp;
+            actorLevels[actor] = 0;
+            frontier[0] = actor;
+            frontierSize = 1;
+            level = 0;
+        }
+
+        void advance(int nextSize) {
+            int[] expandedFrontier = frontier;
+            frontier = next;
+            next = expandedFrontier;
+            frontierSize = nextSize;
+            level++;
+        }
+
+        static int[] append(int[] nodes, int size, int node) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+            }
+            nodes[size] = node;
+            return nodes;
+        }
+    }
+}
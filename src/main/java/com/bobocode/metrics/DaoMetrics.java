@@ -0,0 +1,90 @@
+package com.bobocode.metrics;
+
+import com.bobocode.exception.DaoOperationException;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registry of {@link OperationMetrics} shared by instrumented DAOs and {@link InstrumentedDataSource}. Decorators
+ * look their operations up once, so recording never touches the registry.
+ */
+public class DaoMetrics implements DaoMetricsMXBean {
+    private final ConcurrentMap<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+    private final LatencyHistogram connectionAcquire = new LatencyHistogram();
+    private final AtomicLong connectionAcquireErrors = new AtomicLong();
+
+    public OperationMetrics operation(String name) {
+        return operations.computeIfAbsent(name, OperationMetrics::new);
+    }
+
+    public void recordConnectionAcquire(long nanos) {
+        connectionAcquire.record(nanos);
+    }
+
+    public void recordConnectionAcquireFailure(long nanos) {
+        connectionAcquire.record(nanos);
+        connectionAcquireErrors.incrementAndGet();
+    }
+
+    @Override
+    public Map<String, OperationSnapshot> getOperations() {
+        Map<String, OperationSnapshot> snapshots = new TreeMap<>();
+        operations.forEach((name, metrics) -> snapshots.put(name, metrics.snapshot()));
+        return snapshots;
+    }
+
+    public OperationSnapshot getOperation(String name) {
+        OperationMetrics metrics = operations.get(name);
+        return metrics == null ? null : metrics.snapshot();
+    }
+
+    @Override
+    public HistogramSnapshot getConnectionAcquire() {
+        return connectionAcquire.snapshot();
+    }
+
+    @Override
+    public long getConnectionAcquireErrors() {
+        return connectionAcquireErrors.get();
+    }
+
+    /**
+     * Registers these metrics in the platform MBean server as {@code com.bobocode:type=DaoMetrics,name="<name>"}
+     */
+    public ObjectName registerMBean(String name) {
+        try {
+            ObjectName objectName = objectName(name);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            return objectName;
+        } catch (InstanceAlreadyExistsException e) {
+            throw new DaoOperationException(String.format("DaoMetrics with name = %s are already registered", name), e);
+        } catch (JMException e) {
+            throw new DaoOperationException("Couldn't register DaoMetrics " + name, e);
+        }
+    }
+
+    public void unregisterMBean(String name) {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            mBeanServer.unregisterMBean(objectName(name));
+        } catch (InstanceNotFoundException ignored) {
+            // nothing to unregister
+        } catch (JMException e) {
+            throw new DaoOperationException("Couldn't unregister DaoMetrics " + name, e);
+        }
+    }
+
+    private ObjectName objectName(String name) throws JMException {
+        return new ObjectName("com.bobocode:type=DaoMetrics,name=" + ObjectName.quote(name));
+    }
+}
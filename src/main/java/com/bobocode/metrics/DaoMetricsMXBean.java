@@ -0,0 +1,14 @@
+package com.bobocode.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link DaoMetrics}, operations are keyed by name
+ */
+public interface DaoMetricsMXBean {
+    Map<String, OperationSnapshot> getOperations();
+
+    HistogramSnapshot getConnectionAcquire();
+
+    long getConnectionAcquireErrors();
+}
@@ -0,0 +1,20 @@
+package com.bobocode.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Point-in-time view of a {@link LatencyHistogram}, all durations are in nanoseconds
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class HistogramSnapshot {
+    private final long count;
+    private final long meanNanos;
+    private final long maxNanos;
+    private final long p50Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+}
@@ -0,0 +1,87 @@
+package com.bobocode.metrics;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Objects;
+import java.util.logging.Logger;
+
+/**
+ * Records how long callers wait for a connection of the target data source, e.g. while a pool is exhausted.
+ * Connections are returned as is, so the wrapper adds nothing to statement execution.
+ */
+public class InstrumentedDataSource implements DataSource {
+    private final DataSource targetDataSource;
+    private final DaoMetrics metrics;
+
+    public InstrumentedDataSource(DataSource targetDataSource, DaoMetrics metrics) {
+        this.targetDataSource = Objects.requireNonNull(targetDataSource);
+        this.metrics = Objects.requireNonNull(metrics);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            Connection connection = targetDataSource.getConnection();
+            metrics.recordConnectionAcquire(System.nanoTime() - start);
+            return connection;
+        } catch (SQLException | RuntimeException e) {
+            metrics.recordConnectionAcquireFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            Connection connection = targetDataSource.getConnection(username, password);
+            metrics.recordConnectionAcquire(System.nanoTime() - start);
+            return connection;
+        } catch (SQLException | RuntimeException e) {
+            metrics.recordConnectionAcquireFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return targetDataSource.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        targetDataSource.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        targetDataSource.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return targetDataSource.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return targetDataSource.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return targetDataSource.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || targetDataSource.isWrapperFor(iface);
+    }
+}
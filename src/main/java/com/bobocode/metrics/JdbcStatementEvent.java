@@ -0,0 +1,28 @@
+package com.bobocode.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event committed for every statement executed through {@link SlowQueryLoggingDataSource}
+ */
+@Name("com.bobocode.JdbcStatement")
+@Label("JDBC Statement")
+@Category({"Bobocode", "DAO"})
+@Description("Execution of a SQL statement issued by the DAO layer")
+public class JdbcStatementEvent extends Event {
+    @Label("SQL")
+    String sql;
+    @Label("Parameters")
+    @Description("Bound parameters, of the first row for a batch")
+    String parameters;
+    @Label("Batch Size")
+    int batchSize;
+    @Label("Slow")
+    boolean slow;
+    @Label("Failed")
+    boolean failed;
+}
@@ -0,0 +1,45 @@
+package com.bobocode.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency, row and error counters of one logical DAO operation
+ */
+public class OperationMetrics {
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    public void recordSuccess(long nanos, long rowsRead, long rowsWritten) {
+        latency.record(nanos);
+        if (rowsRead != 0) {
+            this.rowsRead.addAndGet(rowsRead);
+        }
+        if (rowsWritten != 0) {
+            this.rowsWritten.addAndGet(rowsWritten);
+        }
+    }
+
+    public void recordFailure(long nanos) {
+        latency.record(nanos);
+        errors.incrementAndGet();
+    }
+
+    public void addRowsRead(long rows) {
+        rowsRead.addAndGet(rows);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public OperationSnapshot snapshot() {
+        return new OperationSnapshot(name, latency.snapshot(), rowsRead.get(), rowsWritten.get(), errors.get());
+    }
+}
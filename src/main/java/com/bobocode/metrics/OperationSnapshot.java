@@ -0,0 +1,16 @@
+package com.bobocode.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@AllArgsConstructor
+@ToString
+public class OperationSnapshot {
+    private final String name;
+    private final HistogramSnapshot latency;
+    private final long rowsRead;
+    private final long rowsWritten;
+    private final long errorCount;
+}
@@ -0,0 +1,22 @@
+package com.bobocode.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Statement that exceeded {@link SlowQueryConfig#getThresholdMillis()}, {@code plan} is {@code null} when it wasn't captured.
+ * For a batch, {@code batchSize} is its number of rows and {@code parameters} are the ones of its first row.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class SlowQuery {
+    private final String sql;
+    private final List<Object> parameters;
+    private final int batchSize;
+    private final long durationNanos;
+    private final String plan;
+}
@@ -0,0 +1,35 @@
+package com.bobocode.metrics;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@Builder
+@ToString
+public class SlowQueryConfig {
+    /**
+     * Statements running at least this long are logged as slow
+     */
+    @Builder.Default
+    private long thresholdMillis = 500;
+    /**
+     * Captures the execution plan of slow statements on a background thread
+     */
+    @Builder.Default
+    private boolean captureExplain = true;
+    /**
+     * Runs slow SELECT statements again with EXPLAIN ANALYZE, other statements are only explained
+     */
+    @Builder.Default
+    private boolean explainAnalyze = true;
+    /**
+     * Plans waiting to be captured, slow statements beyond it are logged without a plan
+     */
+    @Builder.Default
+    private int maxPendingExplains = 16;
+
+    public static SlowQueryConfig defaults() {
+        return SlowQueryConfig.builder().build();
+    }
+}
@@ -0,0 +1,343 @@
+package com.bobocode.metrics;
+
+import com.bobocode.util.DatabaseDialect;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Times every statement executed on its connections and commits a {@link JdbcStatementEvent} for it. Statements
+ * slower than {@link SlowQueryConfig#getThresholdMillis()} are logged with their SQL and bound parameters, batches
+ * with their number of rows and the parameters of the first row. When
+ * plan capture is enabled, the plan is read on a background thread through a separate connection before the slow
+ * query is logged and passed to the listener. Query latency covers execution up to the first rows, not fetching.
+ */
+public class SlowQueryLoggingDataSource implements DataSource, AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(SlowQueryLoggingDataSource.class.getName());
+
+    private final DataSource targetDataSource;
+    private final SlowQueryConfig config;
+    private final long thresholdNanos;
+    private final Consumer<SlowQuery> listener;
+    private final ThreadPoolExecutor explainExecutor;
+
+    public SlowQueryLoggingDataSource(DataSource targetDataSource, SlowQueryConfig config) {
+        this(targetDataSource, config, slowQuery -> {
+        });
+    }
+
+    public SlowQueryLoggingDataSource(DataSource targetDataSource, SlowQueryConfig config, Consumer<SlowQuery> listener) {
+        this.targetDataSource = Objects.requireNonNull(targetDataSource);
+        this.config = Objects.requireNonNull(config);
+        this.listener = Objects.requireNonNull(listener);
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(config.getThresholdMillis());
+        this.explainExecutor = config.isCaptureExplain()
+                ? new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.getMaxPendingExplains()), this::createExplainThread)
+                : null;
+    }
+
+    private Thread createExplainThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "slow-query-explain");
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(targetDataSource.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(targetDataSource.getConnection(username, password));
+    }
+
+    public SlowQueryConfig getConfig() {
+        return config;
+    }
+
+    @Override
+    public void close() {
+        if (explainExecutor != null) {
+            explainExecutor.shutdownNow();
+        }
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                new ConnectionInterceptor(connection));
+    }
+
+    private void reportSlowQuery(String sql, List<Object> parameters, int batchSize, long durationNanos) {
+        if (explainExecutor == null || sql == null) {
+            publish(new SlowQuery(sql, parameters, batchSize, durationNanos, null));
+            return;
+        }
+        try {
+            explainExecutor.execute(() -> publish(new SlowQuery(sql, parameters, batchSize, durationNanos, explain(sql, parameters))));
+        } catch (RejectedExecutionException e) {
+            publish(new SlowQuery(sql, parameters, batchSize, durationNanos, null));
+        }
+    }
+
+    private void publish(SlowQuery slowQuery) {
+        String parameters = slowQuery.getBatchSize() > 0
+                ? String.format("batch of %d rows, first row parameters = %s", slowQuery.getBatchSize(), slowQuery.getParameters())
+                : "parameters = " + slowQuery.getParameters();
+        if (slowQuery.getPlan() == null) {
+            LOGGER.warning(String.format("Slow query took %d ms: %s, %s",
+                    TimeUnit.NANOSECONDS.toMillis(slowQuery.getDurationNanos()), slowQuery.getSql(), parameters));
+        } else {
+            LOGGER.warning(String.format("Slow query took %d ms: %s, %s, plan:%n%s",
+                    TimeUnit.NANOSECONDS.toMillis(slowQuery.getDurationNanos()), slowQuery.getSql(), parameters,
+                    slowQuery.getPlan()));
+        }
+        try {
+            listener.accept(slowQuery);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Slow query listener failed", e);
+        }
+    }
+
+    /**
+     * Explains the statement with the same parameters in a read-only transaction that is always rolled back
+     */
+    private String explain(String sql, List<Object> parameters) {
+        try (Connection connection = targetDataSource.getConnection()) {
+            boolean analyze = config.isExplainAnalyze() && isQuery(sql);
+            String explainSql = explainPrefix(DatabaseDialect.of(connection), analyze) + sql;
+            connection.setAutoCommit(false);
+            connection.setReadOnly(analyze);
+            try (PreparedStatement explainStatement = connection.prepareStatement(explainSql)) {
+                for (int i = 0; i < parameters.size(); i++) {
+                    explainStatement.setObject(i + 1, parameters.get(i));
+                }
+                return readPlan(explainStatement);
+            } finally {
+                connection.rollback();
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Couldn't capture plan of " + sql, e);
+            return null;
+        }
+    }
+
+    private String explainPrefix(DatabaseDialect dialect, boolean analyze) {
+        switch (dialect) {
+            case POSTGRES:
+                return analyze ? "EXPLAIN (ANALYZE, BUFFERS) " : "EXPLAIN ";
+            case H2:
+                return analyze ? "EXPLAIN ANALYZE " : "EXPLAIN ";
+            default:
+                throw new IllegalStateException("Unsupported dialect " + dialect);
+        }
+    }
+
+    private boolean isQuery(String sql) {
+        String statement = sql.trim().toUpperCase();
+        return statement.startsWith("SELECT") || statement.startsWith("WITH");
+    }
+
+    private String readPlan(PreparedStatement explainStatement) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (ResultSet resultSet = explainStatement.executeQuery()) {
+            while (resultSet.next()) {
+                if (plan.length() > 0) {
+                    plan.append(System.lineSeparator());
+                }
+                plan.append(resultSet.getString(1));
+            }
+        }
+        return plan.toString();
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return targetDataSource.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        targetDataSource.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        targetDataSource.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return targetDataSource.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() {
+        return LOGGER.getParent();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return targetDataSource.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || targetDataSource.isWrapperFor(iface);
+    }
+
+    /**
+     * Wraps the statements created by a connection, everything else goes straight to the target connection
+     */
+    private class ConnectionInterceptor implements InvocationHandler {
+        private final Connection targetConnection;
+
+        private ConnectionInterceptor(Connection targetConnection) {
+            this.targetConnection = targetConnection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "SlowQueryLoggingConnection[" + targetConnection + "]";
+                case "prepareStatement":
+                    return wrapStatement(PreparedStatement.class, (Connection) proxy, invokeTarget(targetConnection, method, args), (String) args[0]);
+                case "createStatement":
+                    return wrapStatement(Statement.class, (Connection) proxy, invokeTarget(targetConnection, method, args), null);
+                default:
+                    return invokeTarget(targetConnection, method, args);
+            }
+        }
+
+        private Object wrapStatement(Class<? extends Statement> statementType, Connection connectionProxy, Object statement, String sql) {
+            return Proxy.newProxyInstance(statementType.getClassLoader(), new Class<?>[]{statementType},
+                    new StatementInterceptor(connectionProxy, (Statement) statement, sql));
+        }
+    }
+
+    /**
+     * Remembers the bound parameters of a prepared statement and times its executions. Parameters stay bound across
+     * {@code addBatch} calls, so the ones of the first batch row are copied when it is added.
+     */
+    private class StatementInterceptor implements InvocationHandler {
+        private final Connection connectionProxy;
+        private final Statement targetStatement;
+        private final String preparedSql;
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+        private List<Object> firstBatchRow;
+        private int batchSize;
+
+        private StatementInterceptor(Connection connectionProxy, Statement targetStatement, String preparedSql) {
+            this.connectionProxy = connectionProxy;
+            this.targetStatement = targetStatement;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String methodName = method.getName();
+            switch (methodName) {
+                case "getConnection":
+                    return connectionProxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "clearParameters":
+                    parameters.clear();
+                    break;
+                case "addBatch":
+                    if (batchSize++ == 0) {
+                        firstBatchRow = new ArrayList<>(parameters.values());
+                    }
+                    break;
+                case "clearBatch":
+                    batchSize = 0;
+                    firstBatchRow = null;
+                    break;
+                default:
+                    if (methodName.startsWith("execute")) {
+                        return execute(method, args);
+                    }
+                    if (isParameterSetter(methodName, args)) {
+                        parameters.put((Integer) args[0], methodName.equals("setNull") ? null : args[1]);
+                    }
+            }
+            return invokeTarget(targetStatement, method, args);
+        }
+
+        private boolean isParameterSetter(String methodName, Object[] args) {
+            return preparedSql != null && methodName.startsWith("set") && args != null && args.length >= 2
+                    && args[0] instanceof Integer;
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            String sql = preparedSql != null ? preparedSql : args != null && args.length > 0 ? (String) args[0] : null;
+            boolean batch = method.getName().endsWith("Batch");
+            List<Object> executedParameters = batch && firstBatchRow != null ? firstBatchRow : new ArrayList<>(parameters.values());
+            int executedBatchSize = batch ? batchSize : 0;
+            JdbcStatementEvent event = new JdbcStatementEvent();
+            event.begin();
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                Object result = invokeTarget(targetStatement, method, args);
+                failed = false;
+                return result;
+            } finally {
+                long durationNanos = System.nanoTime() - start;
+                event.end();
+                boolean slow = durationNanos >= thresholdNanos;
+                if (event.shouldCommit()) {
+                    event.sql = sql;
+                    event.parameters = executedParameters.toString();
+                    event.batchSize = executedBatchSize;
+                    event.slow = slow;
+                    event.failed = failed;
+                    event.commit();
+                }
+                if (slow) {
+                    reportSlowQuery(sql, executedParameters, executedBatchSize, durationNanos);
+                }
+                if (batch) {
+                    batchSize = 0;
+                    firstBatchRow = null;
+                }
+            }
+        }
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
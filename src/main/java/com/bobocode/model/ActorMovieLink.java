@@ -0,0 +1,15 @@
+package com.bobocode.model;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+@Builder
+public class ActorMovieLink {
+    private Long actorId;
+    private Long movieId;
+}
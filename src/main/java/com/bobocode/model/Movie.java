@@ -3,6 +3,7 @@ package com.bobocode.model;
 import lombok.*;
 
 import java.time.LocalDate;
+import java.util.List;
 
 @Getter
 @Setter
@@ -16,4 +17,8 @@ public class Movie {
     private String name;
     private Long duration;
     private LocalDate releaseDate;
+    /**
+     * Cast of the movie, {@code null} unless the movie was fetched together with its actors
+     */
+    private List<Actor> actors;
 }
@@ -0,0 +1,22 @@
+package com.bobocode.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. The continuation token is opaque to callers and is {@code null} on the last page
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class Page<T> {
+    private final List<T> content;
+    private final String continuationToken;
+
+    public boolean hasNext() {
+        return continuationToken != null;
+    }
+}
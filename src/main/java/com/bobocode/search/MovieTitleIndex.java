@@ -0,0 +1,637 @@
+package com.bobocode.search;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index of movie titles for prefix and fuzzy search. Titles are normalized like {@code pg_trgm} does it,
+ * lower case with every other character than letters and digits separating words, and split into trigrams of words
+ * padded with two spaces in front and one behind. Titles are grouped in bands by trigram count and posting lists are
+ * kept per trigram and band, holding positions within the band. A search visits the bands that can be the most similar
+ * to the query first and stops as soon as no remaining band can beat the results found so far, the prefix bonus
+ * included. Titles also sit in an array sorted by normalized title for prefix lookups; titles added after loading go
+ * to a small sorted map that is merged into the array once it outgrows {@link #MIN_COMPACTION_THRESHOLD} or an eighth
+ * of the array.
+ * <p>
+ * A title matches when the trigram similarity, shared trigrams divided by the union of both trigram sets, reaches the
+ * threshold, or when it starts with the query. Results are ranked by {@link #score(String, String)}.
+ */
+public class MovieTitleIndex {
+    public static final double DEFAULT_SIMILARITY_THRESHOLD = 0.3;
+    static final int MIN_COMPACTION_THRESHOLD = 1024;
+    private static final String SELECT_TITLES_SQL = "SELECT id, name FROM movie;";
+    private static final int LOAD_FETCH_SIZE = 10_000;
+    private static final int MAX_BAND = 0xFFFF;
+    private static final int MAX_SCORED_PREFIX_MATCHES = 64;
+    private static final int LINEAR_SCAN_FACTOR = 4;
+    private static final int DENSE_POSTINGS_RATIO = 32;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ThreadLocal<SearchState> searchStates = ThreadLocal.withInitial(SearchState::new);
+    private final double similarityThreshold;
+    private final Map<Long, TrigramPostings> postingsByTrigram = new HashMap<>();
+    private final Set<Long> indexedMovieIds = new HashSet<>();
+    private long[] movieIds = new long[16];
+    private String[] titles = new String[16];
+    private int[] trigramCounts = new int[16];
+    private int[] bandIndexes = new int[16];
+    private int[][] titlesByBand = new int[16][];
+    private int[] bandSizes = new int[16];
+    private int titleCount;
+    private int maxTrigramCount;
+    private int[] sortedTitles = new int[0];
+    private final TreeMap<String, List<Integer>> pendingTitles = new TreeMap<>();
+    private int pendingTitleCount;
+
+    public MovieTitleIndex() {
+        this(DEFAULT_SIMILARITY_THRESHOLD);
+    }
+
+    public MovieTitleIndex(double similarityThreshold) {
+        if (similarityThreshold <= 0 || similarityThreshold > 1) {
+            throw new IllegalArgumentException("Similarity threshold must be in (0, 1], but was " + similarityThreshold);
+        }
+        this.similarityThreshold = similarityThreshold;
+    }
+
+    /**
+     * Reads the title of every movie through a cursor and indexes it
+     */
+    public static MovieTitleIndex load(DataSource dataSource) throws SQLException {
+        MovieTitleIndex index = new MovieTitleIndex();
+        try (Connection connection = dataSource.getConnection()) {
+            // Postgres only keeps a server-side cursor open inside a transaction, otherwise it fetches every row at once
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.setFetchSize(LOAD_FETCH_SIZE);
+                try (ResultSet resultSet = statement.executeQuery(SELECT_TITLES_SQL)) {
+                    while (resultSet.next()) {
+                        index.indexTitle(resultSet.getLong(1), resultSet.getString(2));
+                    }
+                }
+            } finally {
+                connection.rollback();
+            }
+        }
+        index.compact();
+        return index;
+    }
+
+    /**
+     * Indexes the title of a movie, a movie that is already in the index keeps its title
+     */
+    public void add(long movieId, String title) {
+        lock.writeLock().lock();
+        try {
+            if (indexedMovieIds.contains(movieId)) {
+                return;
+            }
+            int titleIndex = indexTitle(movieId, title);
+            pendingTitles.computeIfAbsent(titles[titleIndex], key -> new ArrayList<>(1)).add(titleIndex);
+            pendingTitleCount++;
+            if (pendingTitleCount > Math.max(MIN_COMPACTION_THRESHOLD, sortedTitles.length / 8)) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return ids of at most {@code limit} matching movies, best match first
+     */
+    public long[] search(String query, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Search limit must be positive, but was " + limit);
+        }
+        String normalizedQuery = normalize(query);
+        if (normalizedQuery.isEmpty()) {
+            return new long[0];
+        }
+        long[] queryTrigrams = trigrams(normalizedQuery);
+        int queryTrigramCount = queryTrigrams.length;
+        lock.readLock().lock();
+        try {
+            SearchState state = searchStates.get();
+            TrigramPostings[] queryPostings = postingsOf(queryTrigrams);
+            PriorityQueue<Hit> topHits = new PriorityQueue<>(limit + 1);
+            // a few titles starting with the query are cheaper to score one by one than to look for in the bands
+            boolean prefixMatchesScored = offerPrefixMatches(topHits, limit, normalizedQuery, queryPostings);
+            // a title with n trigrams has a similarity of at most min(n, q) / max(n, q), so the bands are visited from
+            // the query's own trigram count outwards
+            int shorterBand = queryTrigramCount;
+            int longerBand = queryTrigramCount + 1;
+            while (true) {
+                double kthScore = topHits.size() < limit ? Double.NEGATIVE_INFINITY : topHits.peek().score;
+                boolean shorterOpen = shorterBand > 0
+                        && canImprove(queryTrigramCount, shorterBand, kthScore, !prefixMatchesScored);
+                boolean longerOpen = longerBand <= maxTrigramCount
+                        && canImprove(queryTrigramCount, longerBand, kthScore, !prefixMatchesScored);
+                if (!shorterOpen && !longerOpen) {
+                    break;
+                }
+                // shorterBand / q >= q / longerBand
+                boolean shorterFirst = (long) shorterBand * longerBand >= (long) queryTrigramCount * queryTrigramCount;
+                int band = shorterOpen && (!longerOpen || shorterFirst) ? shorterBand-- : longerBand++;
+                searchBand(topHits, limit, normalizedQuery, queryPostings, band, kthScore, !prefixMatchesScored, state);
+            }
+            return toMovieIds(topHits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Similarity of the trigram sets of both titles plus one when the title starts with the query, both normalized
+     */
+    public static double score(String query, String title) {
+        String normalizedQuery = normalize(query);
+        String normalizedTitle = normalize(title);
+        long[] queryTrigrams = trigrams(normalizedQuery);
+        long[] titleTrigrams = trigrams(normalizedTitle);
+        int shared = 0;
+        for (long trigram : queryTrigrams) {
+            if (Arrays.binarySearch(titleTrigrams, trigram) >= 0) {
+                shared++;
+            }
+        }
+        double similarity = similarity(shared, queryTrigrams.length, titleTrigrams.length);
+        return !normalizedQuery.isEmpty() && normalizedTitle.startsWith(normalizedQuery) ? similarity + 1 : similarity;
+    }
+
+    public int getTitleCount() {
+        lock.readLock().lock();
+        try {
+            return titleCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * A title with {@code band} trigrams can beat the k-th score on similarity alone, or with the bonus of a prefix
+     * match. A title starting with the query holds every query trigram but the one padding the end of the last word,
+     * so it has at least q - 1 trigrams.
+     */
+    private boolean canImprove(int queryTrigramCount, int band, double kthScore, boolean prefixMatchesInBands) {
+        double maxSimilarity = (double) Math.min(queryTrigramCount, band) / Math.max(queryTrigramCount, band);
+        return maxSimilarity >= Math.max(similarityThreshold, kthScore)
+                || prefixMatchesInBands && band >= queryTrigramCount - 1 && maxSimilarity + 1 >= kthScore;
+    }
+
+    /**
+     * Scores the titles with {@code band} trigrams that can beat the k-th score
+     */
+    private void searchBand(PriorityQueue<Hit> topHits, int limit, String normalizedQuery, TrigramPostings[] queryPostings,
+                            int band, double kthScore, boolean prefixMatchesInBands, SearchState state) {
+        int queryTrigramCount = queryPostings.length;
+        double maxSimilarity = (double) Math.min(queryTrigramCount, band) / Math.max(queryTrigramCount, band);
+        double threshold = Math.max(similarityThreshold, kthScore);
+        int requiredShared = Integer.MAX_VALUE;
+        if (maxSimilarity >= threshold) {
+            // shared / (q + band - shared) >= threshold
+            requiredShared = Math.max(1, (int) Math.ceil(threshold * (queryTrigramCount + band) / (1 + threshold) - 1e-9));
+        }
+        if (prefixMatchesInBands && band >= queryTrigramCount - 1 && maxSimilarity + 1 >= kthScore) {
+            requiredShared = Math.min(requiredShared, Math.max(1, queryTrigramCount - 1));
+        }
+        if (requiredShared > Math.min(queryTrigramCount, band)) {
+            return;
+        }
+        int[] bandTitles = titlesByBand[band];
+        long stamp = state.prepare(bandSizes[band]);
+        Postings[] postings = postingsOf(queryPostings, band);
+        // a matching title shares at least the required trigrams with the query, so it is on at least one of the
+        // (trigram count - required + 1) shortest posting lists
+        int probedLists = queryTrigramCount - requiredShared + 1;
+        int candidateCount = collectCandidates(postings, probedLists, stamp, state);
+        candidateCount = countSharedTrigrams(postings, probedLists, requiredShared, candidateCount, stamp, state);
+        long[] counts = state.counts;
+        int[] candidates = state.candidates;
+        for (int i = 0; i < candidateCount; i++) {
+            int shared = (int) counts[candidates[i]];
+            // only the last band holds titles of different trigram counts
+            int titleTrigramCount = band < MAX_BAND ? band : trigramCounts[bandTitles[candidates[i]]];
+            double similarity = similarity(shared, queryTrigramCount, titleTrigramCount);
+            if (similarity < similarityThreshold && (!prefixMatchesInBands || shared < queryTrigramCount - 1)) {
+                continue;
+            }
+            int title = bandTitles[candidates[i]];
+            if (shared < queryTrigramCount - 1 || !titles[title].startsWith(normalizedQuery)) {
+                offer(topHits, limit, title, similarity);
+            } else if (prefixMatchesInBands) {
+                offer(topHits, limit, title, similarity + 1);
+            }
+        }
+    }
+
+    /**
+     * Counts the trigrams every title on the probed lists shares with the query
+     *
+     * @return number of candidates
+     */
+    private static int collectCandidates(Postings[] postings, int probedLists, long stamp, SearchState state) {
+        long[] counts = state.counts;
+        int[] candidates = state.candidates;
+        int candidateCount = 0;
+        for (int i = 0; i < probedLists; i++) {
+            Postings list = postings[i];
+            for (int j = 0; j < list.size; j++) {
+                int title = list.titles[j];
+                if (counts[title] >>> 32 != stamp) {
+                    counts[title] = stamp << 32;
+                    candidates[candidateCount++] = title;
+                }
+                counts[title]++;
+            }
+        }
+        return candidateCount;
+    }
+
+    /**
+     * Adds the trigrams on the remaining lists to the counts of the candidates, dropping the ones that can no longer
+     * reach the required count
+     *
+     * @return number of remaining candidates
+     */
+    private static int countSharedTrigrams(Postings[] postings, int probedLists, int requiredShared, int candidateCount,
+                                           long stamp, SearchState state) {
+        long[] counts = state.counts;
+        int[] candidates = state.candidates;
+        for (int j = probedLists; j < postings.length && candidateCount > 0; j++) {
+            Postings list = postings[j];
+            int remainingLists = postings.length - j;
+            int kept = 0;
+            if (list.isDense() ? list.size < candidateCount : list.size < candidateCount * LINEAR_SCAN_FACTOR) {
+                // a short list is cheaper to walk than to search once per candidate
+                for (int k = 0; k < list.size; k++) {
+                    int title = list.titles[k];
+                    if (counts[title] >>> 32 == stamp) {
+                        counts[title]++;
+                    }
+                }
+                // most candidates share a single trigram and drop out after the first few lists
+                for (int i = 0; i < candidateCount; i++) {
+                    int title = candidates[i];
+                    if ((int) counts[title] + remainingLists - 1 >= requiredShared) {
+                        candidates[kept++] = title;
+                    }
+                }
+            } else {
+                for (int i = 0; i < candidateCount; i++) {
+                    int title = candidates[i];
+                    if ((int) counts[title] + remainingLists < requiredShared) {
+                        continue;
+                    }
+                    if (list.contains(title)) {
+                        counts[title]++;
+                    }
+                    candidates[kept++] = title;
+                }
+            }
+            candidateCount = kept;
+        }
+        return candidateCount;
+    }
+
+    /**
+     * Scores every title starting with the query when there are at most {@link #MAX_SCORED_PREFIX_MATCHES} of them,
+     * which keeps short queries from walking the bands for a large part of the index
+     *
+     * @return whether the prefix matches were scored, otherwise the bands score them
+     */
+    private boolean offerPrefixMatches(PriorityQueue<Hit> topHits, int limit, String normalizedQuery,
+                                       TrigramPostings[] queryPostings) {
+        int from = firstSortedTitleFrom(normalizedQuery);
+        int to = firstSortedTitleFrom(normalizedQuery + Character.MAX_VALUE);
+        NavigableMap<String, List<Integer>> pendingMatches =
+                pendingTitles.subMap(normalizedQuery, true, normalizedQuery + Character.MAX_VALUE, false);
+        int matchCount = to - from;
+        Iterator<List<Integer>> pendingMatchIterator = pendingMatches.values().iterator();
+        while (matchCount <= MAX_SCORED_PREFIX_MATCHES && pendingMatchIterator.hasNext()) {
+            matchCount += pendingMatchIterator.next().size();
+        }
+        if (matchCount > MAX_SCORED_PREFIX_MATCHES) {
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            offerPrefixMatch(topHits, limit, sortedTitles[i], queryPostings);
+        }
+        for (List<Integer> pendingMatch : pendingMatches.values()) {
+            for (int title : pendingMatch) {
+                offerPrefixMatch(topHits, limit, title, queryPostings);
+            }
+        }
+        return true;
+    }
+
+    private void offerPrefixMatch(PriorityQueue<Hit> topHits, int limit, int title, TrigramPostings[] queryPostings) {
+        int band = Math.min(trigramCounts[title], MAX_BAND);
+        int shared = 0;
+        for (TrigramPostings trigramPostings : queryPostings) {
+            if (trigramPostings.get(band).contains(bandIndexes[title])) {
+                shared++;
+            }
+        }
+        offer(topHits, limit, title, similarity(shared, queryPostings.length, trigramCounts[title]) + 1);
+    }
+
+    private void offer(PriorityQueue<Hit> topHits, int limit, int title, double score) {
+        if (topHits.size() == limit && score < topHits.peek().score) {
+            return;
+        }
+        Hit hit = new Hit(title, score, titles[title].length());
+        if (topHits.size() < limit) {
+            topHits.add(hit);
+        } else if (hit.compareTo(topHits.peek()) > 0) {
+            topHits.poll();
+            topHits.add(hit);
+        }
+    }
+
+    private long[] toMovieIds(PriorityQueue<Hit> topHits) {
+        long[] ids = new long[topHits.size()];
+        for (int i = ids.length - 1; i >= 0; i--) {
+            ids[i] = movieIds[topHits.poll().title];
+        }
+        return ids;
+    }
+
+    private int firstSortedTitleFrom(String normalizedQuery) {
+        int low = 0;
+        int high = sortedTitles.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (titles[sortedTitles[middle]].compareTo(normalizedQuery) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return posting lists of the trigrams, an unknown trigram gets empty ones
+     */
+    private TrigramPostings[] postingsOf(long[] trigrams) {
+        TrigramPostings[] postings = new TrigramPostings[trigrams.length];
+        for (int i = 0; i < trigrams.length; i++) {
+            postings[i] = postingsByTrigram.getOrDefault(trigrams[i], TrigramPostings.EMPTY);
+        }
+        return postings;
+    }
+
+    /**
+     * @return posting lists of the query trigrams in the band ordered from the shortest
+     */
+    private static Postings[] postingsOf(TrigramPostings[] queryPostings, int band) {
+        Postings[] postings = new Postings[queryPostings.length];
+        for (int i = 0; i < queryPostings.length; i++) {
+            postings[i] = queryPostings[i].get(band);
+        }
+        Arrays.sort(postings, (first, second) -> Integer.compare(first.size, second.size));
+        return postings;
+    }
+
+    private int indexTitle(long movieId, String title) {
+        if (titleCount == movieIds.length) {
+            int capacity = titleCount * 2;
+            movieIds = Arrays.copyOf(movieIds, capacity);
+            titles = Arrays.copyOf(titles, capacity);
+            trigramCounts = Arrays.copyOf(trigramCounts, capacity);
+            bandIndexes = Arrays.copyOf(bandIndexes, capacity);
+        }
+        int titleIndex = titleCount++;
+        indexedMovieIds.add(movieId);
+        String normalizedTitle = normalize(title);
+        long[] titleTrigrams = trigrams(normalizedTitle);
+        int band = Math.min(titleTrigrams.length, MAX_BAND);
+        movieIds[titleIndex] = movieId;
+        titles[titleIndex] = normalizedTitle;
+        trigramCounts[titleIndex] = titleTrigrams.length;
+        if (band >= titlesByBand.length) {
+            int capacity = Math.min(Math.max(band + 1, titlesByBand.length * 2), MAX_BAND + 1);
+            titlesByBand = Arrays.copyOf(titlesByBand, capacity);
+            bandSizes = Arrays.copyOf(bandSizes, capacity);
+        }
+        int bandIndex = bandSizes[band]++;
+        titlesByBand[band] = ensureCapacity(titlesByBand[band] == null ? new int[2] : titlesByBand[band], bandIndex + 1);
+        titlesByBand[band][bandIndex] = titleIndex;
+        bandIndexes[titleIndex] = bandIndex;
+        maxTrigramCount = Math.max(maxTrigramCount, band);
+        for (long trigram : titleTrigrams) {
+            postingsByTrigram.computeIfAbsent(trigram, key -> new TrigramPostings()).getOrAdd(band).add(bandIndex);
+        }
+        return titleIndex;
+    }
+
+    /**
+     * Rebuilds the sorted titles from all indexed titles, the pending ones included
+     */
+    private void compact() {
+        Integer[] allTitles = new Integer[titleCount];
+        for (int i = 0; i < titleCount; i++) {
+            allTitles[i] = i;
+        }
+        Arrays.sort(allTitles, (first, second) -> titles[first].compareTo(titles[second]));
+        sortedTitles = new int[titleCount];
+        for (int i = 0; i < titleCount; i++) {
+            sortedTitles[i] = allTitles[i];
+        }
+        pendingTitles.clear();
+        pendingTitleCount = 0;
+    }
+
+    private static double similarity(int shared, int queryTrigramCount, int titleTrigramCount) {
+        int union = queryTrigramCount + titleTrigramCount - shared;
+        return union == 0 ? 0 : (double) shared / union;
+    }
+
+    static String normalize(String text) {
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean separator = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (separator && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                normalized.append(c);
+                separator = false;
+            } else {
+                separator = true;
+            }
+        }
+        return normalized.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return distinct trigrams of the words of a normalized text in ascending order, three chars packed in a long
+     */
+    static long[] trigrams(String normalizedText) {
+        if (normalizedText.isEmpty()) {
+            return new long[0];
+        }
+        long[] trigrams = new long[normalizedText.length() + 2 * (normalizedText.split(" ").length)];
+        int count = 0;
+        for (String word : normalizedText.split(" ")) {
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams[count++] = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+            }
+        }
+        Arrays.sort(trigrams, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || trigrams[distinct - 1] != trigrams[i]) {
+                trigrams[distinct++] = trigrams[i];
+            }
+        }
+        return Arrays.copyOf(trigrams, distinct);
+    }
+
+    private static int[] ensureCapacity(int[] array, int capacity) {
+        return array.length >= capacity ? array : Arrays.copyOf(array, Math.max(capacity, array.length * 2));
+    }
+
+    /**
+     * Posting lists of one trigram by band, the bands in ascending order
+     */
+    private static class TrigramPostings {
+        private static final TrigramPostings EMPTY = new TrigramPostings();
+
+        private int[] bands = new int[0];
+        private Postings[] postings = new Postings[0];
+
+        Postings get(int band) {
+            int position = Arrays.binarySearch(bands, band);
+            return position >= 0 ? postings[position] : Postings.EMPTY;
+        }
+
+        Postings getOrAdd(int band) {
+            int position = Arrays.binarySearch(bands, band);
+            if (position >= 0) {
+                return postings[position];
+            }
+            int insertion = -position - 1;
+            int[] grownBands = new int[bands.length + 1];
+            Postings[] grownPostings = new Postings[bands.length + 1];
+            System.arraycopy(bands, 0, grownBands, 0, insertion);
+            System.arraycopy(postings, 0, grownPostings, 0, insertion);
+            System.arraycopy(bands, insertion, grownBands, insertion + 1, bands.length - insertion);
+            System.arraycopy(postings, insertion, grownPostings, insertion + 1, bands.length - insertion);
+            grownBands[insertion] = band;
+            grownPostings[insertion] = new Postings();
+            bands = grownBands;
+            postings = grownPostings;
+            return grownPostings[insertion];
+        }
+    }
+
+    /**
+     * Positions in their band of the titles with the same trigram count containing one trigram, in ascending order as
+     * titles are only ever appended to a band. A list holding at least one in {@link #DENSE_POSTINGS_RATIO} positions
+     * up to its last one also keeps them as a bitset no larger than the list, so checking a title is a single lookup.
+     */
+    private static class Postings {
+        private static final Postings EMPTY = new Postings();
+
+        private int[] titles = new int[2];
+        private int size;
+        private long[] bits;
+
+        void add(int title) {
+            titles = ensureCapacity(titles, size + 1);
+            titles[size++] = title;
+            if (bits == null) {
+                if ((long) size * DENSE_POSTINGS_RATIO > title) {
+                    bits = new long[(title >>> 6) + 1];
+                    for (int i = 0; i < size; i++) {
+                        bits[titles[i] >>> 6] |= 1L << titles[i];
+                    }
+                }
+            } else if ((long) size * DENSE_POSTINGS_RATIO * 2 <= title) {
+                // dropped only well below the ratio, so a list around it isn't rebuilt on every add
+                bits = null;
+            } else {
+                if (title >>> 6 >= bits.length) {
+                    bits = Arrays.copyOf(bits, Math.max((title >>> 6) + 1, bits.length * 2));
+                }
+                bits[title >>> 6] |= 1L << title;
+            }
+        }
+
+        boolean isDense() {
+            return bits != null;
+        }
+
+        boolean contains(int title) {
+            if (bits != null) {
+                return title >>> 6 < bits.length && (bits[title >>> 6] & 1L << title) != 0;
+            }
+            return Arrays.binarySearch(titles, 0, size, title) >= 0;
+        }
+    }
+
+    /**
+     * Ordered from the worst to the best: lower score, then longer title, then later indexed
+     */
+    private static class Hit implements Comparable<Hit> {
+        private final int title;
+        private final double score;
+        private final int length;
+
+        private Hit(int title, double score, int length) {
+            this.title = title;
+            this.score = score;
+            this.length = length;
+        }
+
+        @Override
+        public int compareTo(Hit other) {
+            if (score != other.score) {
+                return Double.compare(score, other.score);
+            }
+            if (length != other.length) {
+                return Integer.compare(other.length, length);
+            }
+            return Integer.compare(other.title, title);
+        }
+    }
+
+    /**
+     * Candidate arrays reused by the searches of one thread, indexed by the position of a title in its band so a band
+     * only touches as many entries as it holds titles. A count keeps the stamp of the band search it belongs to in the
+     * upper half and the shared trigrams in the lower one, so nothing has to be cleared between band searches.
+     */
+    private static class SearchState {
+        private long[] counts = new long[0];
+        private int[] candidates = new int[0];
+        private long stamp;
+
+        long prepare(int bandSize) {
+            if (counts.length < bandSize) {
+                counts = Arrays.copyOf(counts, Math.max(bandSize, counts.length * 2));
+                candidates = new int[counts.length];
+            }
+            return ++stamp;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.bobocode.shard;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable consistent hash ring of named shards. Every shard owns {@code virtualNodes} points of the ring and a key
+ * belongs to the first point at or after its hash, so adding a shard only moves keys to the new shard.
+ */
+public class ConsistentHashRing {
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    private final List<String> shards;
+    private final int virtualNodes;
+    private final TreeMap<Long, String> ring = new TreeMap<>();
+
+    public ConsistentHashRing(Collection<String> shards) {
+        this(shards, DEFAULT_VIRTUAL_NODES);
+    }
+
+    public ConsistentHashRing(Collection<String> shards, int virtualNodes) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("Hash ring needs at least one shard");
+        }
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("Virtual nodes per shard must be positive, but was " + virtualNodes);
+        }
+        this.shards = List.copyOf(new LinkedHashSet<>(shards));
+        this.virtualNodes = virtualNodes;
+        for (String shard : this.shards) {
+            long shardHash = hash(shard);
+            for (int i = 0; i < virtualNodes; i++) {
+                // the (unlikely) collision of two points goes to the smaller name regardless of the shard order
+                ring.merge(mix(shardHash + i * 0x9E3779B97F4A7C15L), shard, (owner, other) -> owner.compareTo(other) <= 0 ? owner : other);
+            }
+        }
+    }
+
+    public String shardFor(long key) {
+        Map.Entry<Long, String> owner = ring.ceilingEntry(mix(key));
+        return owner != null ? owner.getValue() : ring.firstEntry().getValue();
+    }
+
+    public ConsistentHashRing withShard(String shard) {
+        if (shards.contains(shard)) {
+            throw new IllegalArgumentException("Shard " + shard + " is already on the ring");
+        }
+        List<String> newShards = new ArrayList<>(shards);
+        newShards.add(shard);
+        return new ConsistentHashRing(newShards, virtualNodes);
+    }
+
+    public List<String> getShards() {
+        return shards;
+    }
+
+    private static long hash(String shard) {
+        // FNV-1a, String.hashCode() is only 32 bits
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : shard.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Finalizer of MurmurHash3, spreads sequential ids over the whole ring
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
@@ -0,0 +1,18 @@
+package com.bobocode.shard;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+
+@Getter
+@AllArgsConstructor
+@ToString
+public class RebalanceReport {
+    private final String shard;
+    private final long actorCount;
+    private final long movieCount;
+    private final long linkCount;
+    private final Duration elapsed;
+}
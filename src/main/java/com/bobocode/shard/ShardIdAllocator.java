@@ -0,0 +1,71 @@
+package com.bobocode.shard;
+
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.util.DatabaseDialect;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Objects;
+
+/**
+ * Allocates ids that are unique across shards from a sequence in one database. Every sequence call reserves a block of
+ * {@code blockSize} ids, so the block size must stay the same for as long as the sequence is used.
+ */
+public class ShardIdAllocator {
+    private static final String CREATE_SEQUENCE_SQL_TEMPLATE = "CREATE SEQUENCE IF NOT EXISTS %s START WITH 1 INCREMENT BY %d";
+    private static final String NEXT_VALUE_POSTGRES_SQL_TEMPLATE = "SELECT nextval('%s')";
+    private static final String NEXT_VALUE_H2_SQL_TEMPLATE = "SELECT NEXT VALUE FOR %s";
+
+    private final DataSource dataSource;
+    private final String sequenceName;
+    private final int blockSize;
+    private long nextId;
+    private long blockEnd;
+
+    public ShardIdAllocator(DataSource dataSource, String sequenceName, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive, but was " + blockSize);
+        }
+        if (!sequenceName.matches("[A-Za-z_][A-Za-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid sequence name " + sequenceName);
+        }
+        this.dataSource = Objects.requireNonNull(dataSource);
+        this.sequenceName = sequenceName;
+        this.blockSize = blockSize;
+    }
+
+    public void init() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(String.format(CREATE_SEQUENCE_SQL_TEMPLATE, sequenceName, blockSize));
+        } catch (SQLException e) {
+            throw new DaoOperationException("Couldn't create id sequence " + sequenceName, e);
+        }
+    }
+
+    public synchronized long nextId() {
+        if (nextId == blockEnd) {
+            nextId = reserveBlock();
+            blockEnd = nextId + blockSize;
+        }
+        return nextId++;
+    }
+
+    private long reserveBlock() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            String nextValueSqlTemplate = DatabaseDialect.of(connection) == DatabaseDialect.POSTGRES
+                    ? NEXT_VALUE_POSTGRES_SQL_TEMPLATE
+                    : NEXT_VALUE_H2_SQL_TEMPLATE;
+            try (ResultSet resultSet = statement.executeQuery(String.format(nextValueSqlTemplate, sequenceName))) {
+                resultSet.next();
+                return resultSet.getLong(1);
+            }
+        } catch (SQLException e) {
+            throw new DaoOperationException("Couldn't reserve ids from sequence " + sequenceName, e);
+        }
+    }
+}
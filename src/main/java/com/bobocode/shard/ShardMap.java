@@ -0,0 +1,67 @@
+package com.bobocode.shard;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Named shard DataSources and the hash ring that assigns movie ids to them. The ring is swapped atomically by
+ * {@link ShardRebalancer} once the data of a new shard is in place.
+ */
+public class ShardMap {
+    private final Map<String, DataSource> dataSources = new ConcurrentHashMap<>();
+    private volatile ConsistentHashRing ring;
+
+    public ShardMap(Map<String, ? extends DataSource> dataSources) {
+        this.dataSources.putAll(dataSources);
+        this.ring = new ConsistentHashRing(dataSources.keySet());
+    }
+
+    public String shardFor(long movieId) {
+        return ring.shardFor(movieId);
+    }
+
+    public DataSource dataSource(String shard) {
+        DataSource dataSource = dataSources.get(shard);
+        if (dataSource == null) {
+            throw new IllegalArgumentException("Unknown shard " + shard);
+        }
+        return dataSource;
+    }
+
+    public ConsistentHashRing getRing() {
+        return ring;
+    }
+
+    /**
+     * Shards that currently own movies, a shard that is being added is not among them until the ring is swapped
+     */
+    public List<String> getShards() {
+        return ring.getShards();
+    }
+
+    /**
+     * All shards that must receive actor writes, including a shard that is being added
+     */
+    public Set<String> getAllShards() {
+        return Collections.unmodifiableSet(dataSources.keySet());
+    }
+
+    void register(String shard, DataSource dataSource) {
+        if (dataSources.putIfAbsent(shard, Objects.requireNonNull(dataSource)) != null) {
+            throw new IllegalArgumentException("Shard " + shard + " already exists");
+        }
+    }
+
+    void unregister(String shard) {
+        dataSources.remove(shard);
+    }
+
+    void swapRing(ConsistentHashRing newRing) {
+        this.ring = newRing;
+    }
+}
@@ -0,0 +1,243 @@
+package com.bobocode.shard;
+
+import com.bobocode.dao.ActorRowMapper;
+import com.bobocode.dao.MovieRowMapper;
+import com.bobocode.dao.RowMapper;
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.model.Actor;
+import com.bobocode.model.ActorMovieLink;
+import com.bobocode.model.Movie;
+import com.bobocode.util.DatabaseDialect;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.logging.Logger;
+
+/**
+ * Adds a shard to a {@link ShardMap} and moves the movies that the new ring assigns to it, together with their links.
+ * <ol>
+ * <li>the shard is registered, so that actor saves reach it from now on, and all actors are copied to it</li>
+ * <li>movies and links that change owner are copied while the old ring still routes every query</li>
+ * <li>the ring is swapped, new writes go to the new shard</li>
+ * <li>the copy is repeated to pick up what was written before the swap, then the moved rows are deleted from the
+ * old shards</li>
+ * </ol>
+ * When it fails before the swap the shard is unregistered again and the call can be repeated, copies skip rows that
+ * already exist. A link written through the old ring that commits after the second copy is lost with the delete, pause
+ * link writes during a rebalance if that matters.
+ */
+public class ShardRebalancer {
+    private static final Logger LOGGER = Logger.getLogger(ShardRebalancer.class.getName());
+    private static final String SELECT_ACTOR_PAGE_SQL = "SELECT " + ActorRowMapper.COLUMNS + " FROM actor WHERE id > ? ORDER BY id LIMIT ?;";
+    private static final String SELECT_MOVIE_PAGE_SQL = "SELECT " + MovieRowMapper.COLUMNS + " FROM movie WHERE id > ? ORDER BY id LIMIT ?;";
+    private static final String SELECT_LINKS_SQL_TEMPLATE = "SELECT actor_id, movie_id FROM actor_movie WHERE movie_id IN (%s);";
+    private static final String DELETE_LINKS_SQL_TEMPLATE = "DELETE FROM actor_movie WHERE movie_id IN (%s);";
+    private static final String DELETE_MOVIES_SQL_TEMPLATE = "DELETE FROM movie WHERE id IN (%s);";
+    private static final String INSERT_ACTOR_IF_ABSENT_POSTGRES_SQL = "INSERT INTO actor (id, first_name, last_name, birthday) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (id) DO NOTHING;";
+    private static final String INSERT_ACTOR_IF_ABSENT_H2_SQL = "MERGE INTO actor (id, first_name, last_name, birthday) KEY (id) VALUES (?, ?, ?, ?);";
+    private static final String INSERT_MOVIE_IF_ABSENT_POSTGRES_SQL = "INSERT INTO movie (id, name, duration, release_date) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (id) DO NOTHING;";
+    private static final String INSERT_MOVIE_IF_ABSENT_H2_SQL = "MERGE INTO movie (id, name, duration, release_date) KEY (id) VALUES (?, ?, ?, ?);";
+    private static final String INSERT_LINK_IF_ABSENT_POSTGRES_SQL = "INSERT INTO actor_movie (actor_id, movie_id) VALUES (?, ?) ON CONFLICT DO NOTHING;";
+    private static final String INSERT_LINK_IF_ABSENT_H2_SQL = "MERGE INTO actor_movie (actor_id, movie_id) KEY (actor_id, movie_id) VALUES (?, ?);";
+    private static final RowMapper<Actor> ACTOR_ROW_MAPPER = new ActorRowMapper();
+    private static final RowMapper<Movie> MOVIE_ROW_MAPPER = new MovieRowMapper();
+
+    private final ShardMap shardMap;
+    private final int batchSize;
+
+    public ShardRebalancer(ShardMap shardMap) {
+        this(shardMap, 1000);
+    }
+
+    public ShardRebalancer(ShardMap shardMap, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive, but was " + batchSize);
+        }
+        this.shardMap = Objects.requireNonNull(shardMap);
+        this.batchSize = batchSize;
+    }
+
+    public RebalanceReport addShard(String shard, DataSource dataSource) {
+        long start = System.nanoTime();
+        ConsistentHashRing oldRing = shardMap.getRing();
+        ConsistentHashRing newRing = oldRing.withShard(shard);
+        shardMap.register(shard, dataSource);
+        boolean swapped = false;
+        try {
+            long actorCount = copyActors(shardMap.dataSource(oldRing.getShards().get(0)), dataSource);
+            for (String sourceShard : oldRing.getShards()) {
+                copyMovedMovies(sourceShard, newRing, shard, dataSource);
+            }
+            shardMap.swapRing(newRing);
+            swapped = true;
+            long movieCount = 0;
+            long linkCount = 0;
+            for (String sourceShard : oldRing.getShards()) {
+                MovedMovies movedMovies = copyMovedMovies(sourceShard, newRing, shard, dataSource);
+                deleteMovies(sourceShard, movedMovies.ids);
+                movieCount += movedMovies.ids.size();
+                linkCount += movedMovies.linkCount;
+            }
+            RebalanceReport report = new RebalanceReport(shard, actorCount, movieCount, linkCount, Duration.ofNanos(System.nanoTime() - start));
+            LOGGER.info(String.format("Added shard %s: copied %d actors, moved %d movies and %d links in %d ms",
+                    shard, actorCount, movieCount, linkCount, report.getElapsed().toMillis()));
+            return report;
+        } catch (SQLException e) {
+            throw new DaoOperationException("Couldn't move data to shard " + shard, e);
+        } finally {
+            if (!swapped) {
+                shardMap.unregister(shard);
+            }
+        }
+    }
+
+    private long copyActors(DataSource source, DataSource target) throws SQLException {
+        long actorCount = 0;
+        try (Connection sourceConnection = source.getConnection();
+             Connection targetConnection = target.getConnection();
+             PreparedStatement selectPageStatement = sourceConnection.prepareStatement(SELECT_ACTOR_PAGE_SQL);
+             PreparedStatement insertStatement = targetConnection.prepareStatement(dialectSql(targetConnection,
+                     INSERT_ACTOR_IF_ABSENT_POSTGRES_SQL, INSERT_ACTOR_IF_ABSENT_H2_SQL))) {
+            long lastId = Long.MIN_VALUE;
+            List<Actor> actors;
+            do {
+                actors = selectPage(selectPageStatement, lastId, ACTOR_ROW_MAPPER);
+                for (Actor actor : actors) {
+                    insertStatement.setLong(1, actor.getId());
+                    insertStatement.setString(2, actor.getFirstName());
+                    insertStatement.setString(3, actor.getLastName());
+                    insertStatement.setDate(4, Date.valueOf(actor.getBirthday()));
+                    insertStatement.addBatch();
+                }
+                if (!actors.isEmpty()) {
+                    insertStatement.executeBatch();
+                    lastId = actors.get(actors.size() - 1).getId();
+                    actorCount += actors.size();
+                }
+            } while (actors.size() == batchSize);
+        }
+        return actorCount;
+    }
+
+    private MovedMovies copyMovedMovies(String sourceShard, ConsistentHashRing newRing, String targetShard, DataSource target)
+            throws SQLException {
+        MovedMovies movedMovies = new MovedMovies();
+        try (Connection sourceConnection = shardMap.dataSource(sourceShard).getConnection();
+             Connection targetConnection = target.getConnection();
+             PreparedStatement selectPageStatement = sourceConnection.prepareStatement(SELECT_MOVIE_PAGE_SQL);
+             PreparedStatement insertMovieStatement = targetConnection.prepareStatement(dialectSql(targetConnection,
+                     INSERT_MOVIE_IF_ABSENT_POSTGRES_SQL, INSERT_MOVIE_IF_ABSENT_H2_SQL));
+             PreparedStatement insertLinkStatement = targetConnection.prepareStatement(dialectSql(targetConnection,
+                     INSERT_LINK_IF_ABSENT_POSTGRES_SQL, INSERT_LINK_IF_ABSENT_H2_SQL))) {
+            targetConnection.setAutoCommit(false);
+            long lastId = Long.MIN_VALUE;
+            List<Movie> movies;
+            do {
+                movies = selectPage(selectPageStatement, lastId, MOVIE_ROW_MAPPER);
+                List<Long> movedIds = new ArrayList<>();
+                for (Movie movie : movies) {
+                    if (targetShard.equals(newRing.shardFor(movie.getId()))) {
+                        insertMovieStatement.setLong(1, movie.getId());
+                        insertMovieStatement.setString(2, movie.getName());
+                        insertMovieStatement.setLong(3, movie.getDuration());
+                        insertMovieStatement.setDate(4, Date.valueOf(movie.getReleaseDate()));
+                        insertMovieStatement.addBatch();
+                        movedIds.add(movie.getId());
+                    }
+                }
+                if (!movedIds.isEmpty()) {
+                    insertMovieStatement.executeBatch();
+                    for (ActorMovieLink link : selectLinks(sourceConnection, movedIds)) {
+                        insertLinkStatement.setLong(1, link.getActorId());
+                        insertLinkStatement.setLong(2, link.getMovieId());
+                        insertLinkStatement.addBatch();
+                        movedMovies.linkCount++;
+                    }
+                    insertLinkStatement.executeBatch();
+                    targetConnection.commit();
+                    movedMovies.ids.addAll(movedIds);
+                }
+                if (!movies.isEmpty()) {
+                    lastId = movies.get(movies.size() - 1).getId();
+                }
+            } while (movies.size() == batchSize);
+        }
+        return movedMovies;
+    }
+
+    private <T> List<T> selectPage(PreparedStatement selectPageStatement, long lastId, RowMapper<T> rowMapper) throws SQLException {
+        selectPageStatement.setLong(1, lastId);
+        selectPageStatement.setInt(2, batchSize);
+        List<T> rows = new ArrayList<>(batchSize);
+        try (ResultSet resultSet = selectPageStatement.executeQuery()) {
+            while (resultSet.next()) {
+                rows.add(rowMapper.mapRow(resultSet));
+            }
+        }
+        return rows;
+    }
+
+    private List<ActorMovieLink> selectLinks(Connection connection, List<Long> movieIds) throws SQLException {
+        List<ActorMovieLink> links = new ArrayList<>();
+        try (PreparedStatement selectLinksStatement = connection.prepareStatement(String.format(SELECT_LINKS_SQL_TEMPLATE, placeholders(movieIds.size())))) {
+            setIds(selectLinksStatement, movieIds);
+            try (ResultSet resultSet = selectLinksStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    links.add(new ActorMovieLink(resultSet.getLong(1), resultSet.getLong(2)));
+                }
+            }
+        }
+        return links;
+    }
+
+    private void deleteMovies(String sourceShard, List<Long> movieIds) throws SQLException {
+        try (Connection connection = shardMap.dataSource(sourceShard).getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                for (int from = 0; from < movieIds.size(); from += batchSize) {
+                    List<Long> batch = movieIds.subList(from, Math.min(from + batchSize, movieIds.size()));
+                    for (String deleteSqlTemplate : List.of(DELETE_LINKS_SQL_TEMPLATE, DELETE_MOVIES_SQL_TEMPLATE)) {
+                        try (PreparedStatement deleteStatement = connection.prepareStatement(String.format(deleteSqlTemplate, placeholders(batch.size())))) {
+                            setIds(deleteStatement, batch);
+                            deleteStatement.executeUpdate();
+                        }
+                    }
+                    connection.commit();
+                }
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private static void setIds(PreparedStatement statement, List<Long> ids) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            statement.setLong(i + 1, ids.get(i));
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static String dialectSql(Connection connection, String postgresSql, String h2Sql) throws SQLException {
+        return DatabaseDialect.of(connection) == DatabaseDialect.POSTGRES ? postgresSql : h2Sql;
+    }
+
+    private static class MovedMovies {
+        private final List<Long> ids = new ArrayList<>();
+        private long linkCount;
+    }
+}
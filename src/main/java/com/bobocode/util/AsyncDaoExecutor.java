@@ -0,0 +1,108 @@
+package com.bobocode.util;
+
+import java.lang.reflect.Method;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs blocking DAO calls off the caller's thread. At most {@code maxInFlight} calls run at the same time, which should
+ * match the size of the connection pool so that callers wait here rather than inside the pool. On runtimes with
+ * virtual threads every call gets its own virtual thread, otherwise a fixed pool of {@code maxInFlight} threads is used.
+ */
+public class AsyncDaoExecutor implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(AsyncDaoExecutor.class.getName());
+
+    private final ExecutorService executor;
+    private final Semaphore inFlightPermits;
+    private final boolean virtualThreads;
+
+    public AsyncDaoExecutor(ExecutorService executor, int maxInFlight) {
+        this(executor, maxInFlight, false);
+    }
+
+    private AsyncDaoExecutor(ExecutorService executor, int maxInFlight, boolean virtualThreads) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Max in-flight operations must be positive, but was " + maxInFlight);
+        }
+        this.executor = Objects.requireNonNull(executor);
+        this.inFlightPermits = new Semaphore(maxInFlight);
+        this.virtualThreads = virtualThreads;
+    }
+
+    public static AsyncDaoExecutor create(int maxInFlight) {
+        ExecutorService virtualThreadExecutor = createVirtualThreadPerTaskExecutor();
+        if (virtualThreadExecutor != null) {
+            return new AsyncDaoExecutor(virtualThreadExecutor, maxInFlight, true);
+        }
+        return new AsyncDaoExecutor(Executors.newFixedThreadPool(maxInFlight, AsyncDaoExecutor::createDaemonThread), maxInFlight);
+    }
+
+    public static AsyncDaoExecutor forPool(PooledDataSource pooledDataSource) {
+        return create(pooledDataSource.getConfig().getMaxPoolSize());
+    }
+
+    private static ExecutorService createVirtualThreadPerTaskExecutor() {
+        try {
+            Method factoryMethod = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factoryMethod.invoke(null);
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.log(Level.FINE, "Virtual threads are not available, falling back to a thread pool", e);
+            return null;
+        }
+    }
+
+    private static Thread createDaemonThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "async-dao-worker");
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> operation) {
+        Objects.requireNonNull(operation);
+        return CompletableFuture.supplyAsync(() -> {
+            inFlightPermits.acquireUninterruptibly();
+            try {
+                return operation.get();
+            } finally {
+                inFlightPermits.release();
+            }
+        }, executor);
+    }
+
+    public CompletableFuture<Void> run(Runnable operation) {
+        Objects.requireNonNull(operation);
+        return supply(() -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Stops accepting new operations and waits for the submitted ones to finish
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
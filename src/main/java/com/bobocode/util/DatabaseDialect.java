@@ -0,0 +1,25 @@
+package com.bobocode.util;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+public enum DatabaseDialect {
+    POSTGRES("PostgreSQL"),
+    H2("H2");
+
+    private final String productName;
+
+    DatabaseDialect(String productName) {
+        this.productName = productName;
+    }
+
+    public static DatabaseDialect of(Connection connection) throws SQLException {
+        String databaseProductName = connection.getMetaData().getDatabaseProductName();
+        for (DatabaseDialect dialect : values()) {
+            if (dialect.productName.equalsIgnoreCase(databaseProductName)) {
+                return dialect;
+            }
+        }
+        throw new SQLException("Unsupported database " + databaseProductName);
+    }
+}
@@ -2,40 +2,92 @@ package com.bobocode.util;
 
 import com.bobocode.exception.FileReaderException;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+/**
+ * Reads classpath resources, whether they are plain files or entries of a JAR
+ */
 public class FileReader {
+    private static final String JAR_ENTRY_SEPARATOR = "!/";
+
     public static String readWholeFileFromResources(String fileName) {
-        Path filePath = createPathFromFileName(fileName);
-        try (Stream<String> fileLinesString = openFileLinesStream(filePath)) {
-            return fileLinesString.collect(Collectors.joining("\n"));
+        return readWholeFileFromResources(FileReader.class.getClassLoader(), fileName);
+    }
+
+    public static String readWholeFileFromResources(ClassLoader classLoader, String fileName) {
+        URL fileUrl = findResource(classLoader, fileName);
+        try (InputStream fileStream = fileUrl.openStream();
+             BufferedReader reader = new BufferedReader(new InputStreamReader(fileStream, StandardCharsets.UTF_8))) {
+            return reader.lines().collect(Collectors.joining("\n"));
+        } catch (IOException e) {
+            throw new FileReaderException("Cannot create stream of lines", e);
         }
     }
 
-    private static Stream<String> openFileLinesStream(Path filePath) {
+    public static List<String> listFileNamesFromResources(String directoryName) {
+        return listFileNamesFromResources(FileReader.class.getClassLoader(), directoryName);
+    }
+
+    /**
+     * Lists a resource directory. A directory inside a JAR is listed through a zip file system opened for the call,
+     * as such entries have no path on the default file system.
+     */
+    public static List<String> listFileNamesFromResources(ClassLoader classLoader, String directoryName) {
+        URI directoryUri = toUri(findResource(classLoader, directoryName));
         try {
-            return Files.lines(filePath);
+            if (!"jar".equals(directoryUri.getScheme())) {
+                return listFileNames(Paths.get(directoryUri));
+            }
+            String jarUri = directoryUri.getRawSchemeSpecificPart();
+            Path jarPath = Paths.get(URI.create(jarUri.substring(0, jarUri.indexOf(JAR_ENTRY_SEPARATOR))));
+            String entryName = directoryUri.getSchemeSpecificPart();
+            try (FileSystem jarFileSystem = FileSystems.newFileSystem(jarPath, (ClassLoader) null)) {
+                return listFileNames(jarFileSystem.getPath(entryName.substring(entryName.indexOf(JAR_ENTRY_SEPARATOR) + 1)));
+            }
         } catch (IOException e) {
-         throw new FileReaderException("Cannot create stream of lines",e);
+            throw new FileReaderException("Cannot list directory " + directoryName, e);
         }
     }
 
-    private static Path createPathFromFileName(String fileName) {
+    private static List<String> listFileNames(Path directoryPath) throws IOException {
+        try (Stream<Path> directoryEntries = Files.list(directoryPath)) {
+            return directoryEntries
+                    .map(path -> path.getFileName().toString())
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static URL findResource(ClassLoader classLoader, String fileName) {
         Objects.requireNonNull(fileName);
-        URL fileUrl = FileReader.class.getClassLoader().getResource(fileName);
+        URL fileUrl = classLoader.getResource(fileName);
+        if (fileUrl == null) {
+            throw new FileReaderException("Cannot find resource " + fileName);
+        }
+        return fileUrl;
+    }
+
+    private static URI toUri(URL fileUrl) {
         try {
-            return Paths.get(fileUrl.toURI());
+            return fileUrl.toURI();
         } catch (URISyntaxException e) {
             throw new FileReaderException("Invalid file URL", e);
         }
-
     }
 }
@@ -15,6 +15,15 @@ public class JdbcUtil {
         return createInMemoryH2DataSource(url, DEFAULT_USERNAME, DEFAULT_PASSWORD);
     }
 
+    public static DataSource createInMemoryH2DataSource(String databaseName) {
+        String url = formatH2InMemoryDbUrl(databaseName);
+        return createInMemoryH2DataSource(url, DEFAULT_USERNAME, DEFAULT_PASSWORD);
+    }
+
+    public static PooledDataSource createDefaultPooledInMemoryH2DataSource() {
+        return createPooledDataSource(createDefaultInMemoryH2DataSource(), PoolConfig.defaults());
+    }
+
     private static DataSource createInMemoryH2DataSource(String url, String username, String password) {
         JdbcDataSource h2DataSource = new JdbcDataSource();
         h2DataSource.setUser(username);
@@ -40,6 +49,18 @@ public class JdbcUtil {
         return dataSource;
     }
 
+    public static PooledDataSource createDefaultPooledPostgresDataSource() {
+        return createPooledDataSource(createDefaultPostgresDataSource(), PoolConfig.defaults());
+    }
+
+    public static PooledDataSource createPooledPostgresDataSource(String url, String username, String pass, PoolConfig poolConfig) {
+        return createPooledDataSource(createPostgresDataSource(url, username, pass), poolConfig);
+    }
+
+    public static PooledDataSource createPooledDataSource(DataSource dataSource, PoolConfig poolConfig) {
+        return new PooledDataSource(dataSource, poolConfig);
+    }
+
     private static String formatPostgresDbUrl(String databaseName) {
         return String.format("jdbc:postgresql://localhost:5432/%s", databaseName);
     }
@@ -0,0 +1,137 @@
+package com.bobocode.util;
+
+import com.bobocode.exception.MigrationException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Applies versioned SQL scripts named {@code V<version>__<description>.sql} in version order and records each one in
+ * the {@code schema_history} table together with a checksum of its text. Applied versions are skipped on later runs,
+ * a script that changed after it was applied fails the migration.
+ */
+public class MigrationRunner {
+    public static final String DEFAULT_MIGRATION_LOCATION = "db/migration";
+    private static final Pattern MIGRATION_FILE_NAME_PATTERN = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final String CREATE_HISTORY_TABLE_SQL = "CREATE TABLE IF NOT EXISTS schema_history (" +
+            "version INT NOT NULL, " +
+            "description VARCHAR(255) NOT NULL, " +
+            "checksum BIGINT NOT NULL, " +
+            "installed_on TIMESTAMP NOT NULL, " +
+            "CONSTRAINT PK_schema_history PRIMARY KEY (version));";
+    private static final String SELECT_APPLIED_MIGRATIONS_SQL = "SELECT version, checksum FROM schema_history;";
+    private static final String INSERT_HISTORY_SQL = "INSERT INTO schema_history (version, description, checksum, installed_on) VALUES (?, ?, ?, ?);";
+
+    private final DataSource dataSource;
+    private final String migrationLocation;
+
+    public MigrationRunner(DataSource dataSource) {
+        this(dataSource, DEFAULT_MIGRATION_LOCATION);
+    }
+
+    public MigrationRunner(DataSource dataSource, String migrationLocation) {
+        this.dataSource = dataSource;
+        this.migrationLocation = migrationLocation;
+    }
+
+    /**
+     * @return migrations applied by this run, empty when the schema was already up to date
+     */
+    public List<Migration> migrate() throws SQLException {
+        List<Migration> migrations = loadMigrations();
+        List<Migration> appliedMigrations = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            createHistoryTable(connection);
+            Map<Integer, Long> appliedChecksums = findAppliedChecksums(connection);
+            for (Migration migration : migrations) {
+                Long appliedChecksum = appliedChecksums.get(migration.getVersion());
+                if (appliedChecksum == null) {
+                    apply(connection, migration);
+                    appliedMigrations.add(migration);
+                } else if (appliedChecksum != migration.getChecksum()) {
+                    throw new MigrationException(String.format("Migration %s was changed after it had been applied", migration.getScriptName()));
+                }
+            }
+        }
+        return appliedMigrations;
+    }
+
+    private List<Migration> loadMigrations() {
+        List<Migration> migrations = new ArrayList<>();
+        for (String fileName : FileReader.listFileNamesFromResources(migrationLocation)) {
+            Matcher matcher = MIGRATION_FILE_NAME_PATTERN.matcher(fileName);
+            if (matcher.matches()) {
+                String script = FileReader.readWholeFileFromResources(migrationLocation + "/" + fileName);
+                migrations.add(new Migration(Integer.parseInt(matcher.group(1)), matcher.group(2).replace('_', ' '),
+                        fileName, script, checksumOf(script)));
+            }
+        }
+        migrations.sort(Comparator.comparingInt(Migration::getVersion));
+        return migrations;
+    }
+
+    private long checksumOf(String script) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(script.getBytes(StandardCharsets.UTF_8));
+        return crc32.getValue();
+    }
+
+    private void createHistoryTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_HISTORY_TABLE_SQL);
+        }
+    }
+
+    private Map<Integer, Long> findAppliedChecksums(Connection connection) throws SQLException {
+        Map<Integer, Long> appliedChecksums = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(SELECT_APPLIED_MIGRATIONS_SQL)) {
+            while (resultSet.next()) {
+                appliedChecksums.put(resultSet.getInt(1), resultSet.getLong(2));
+            }
+        }
+        return appliedChecksums;
+    }
+
+    private void apply(Connection connection, Migration migration) throws SQLException {
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement();
+             PreparedStatement insertHistoryStatement = connection.prepareStatement(INSERT_HISTORY_SQL)) {
+            statement.execute(migration.getScript());
+            insertHistoryStatement.setInt(1, migration.getVersion());
+            insertHistoryStatement.setString(2, migration.getDescription());
+            insertHistoryStatement.setLong(3, migration.getChecksum());
+            insertHistoryStatement.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+            insertHistoryStatement.executeUpdate();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw new MigrationException("Couldn't apply migration " + migration.getScriptName(), e);
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    @ToString(exclude = "script")
+    public static class Migration {
+        private final int version;
+        private final String description;
+        private final String scriptName;
+        private final String script;
+        private final long checksum;
+    }
+}
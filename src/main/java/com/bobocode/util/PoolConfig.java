@@ -0,0 +1,39 @@
+package com.bobocode.util;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@Builder
+@ToString
+public class PoolConfig {
+    @Builder.Default
+    private int maxPoolSize = 10;
+    @Builder.Default
+    private int minIdle = 0;
+    @Builder.Default
+    private long acquireTimeoutMillis = 30_000;
+    @Builder.Default
+    private long idleTimeoutMillis = 600_000;
+    @Builder.Default
+    private long validateAfterIdleMillis = 500;
+    @Builder.Default
+    private int validationTimeoutSeconds = 5;
+    /**
+     * Time a connection may stay borrowed before it is reported as a possible leak, 0 disables leak detection
+     */
+    @Builder.Default
+    private long leakDetectionThresholdMillis = 0;
+    @Builder.Default
+    private long housekeepingPeriodMillis = 30_000;
+    /**
+     * Prepared statements kept open per physical connection for reuse, 0 disables statement caching
+     */
+    @Builder.Default
+    private int statementCacheSize = 64;
+
+    public static PoolConfig defaults() {
+        return PoolConfig.builder().build();
+    }
+}
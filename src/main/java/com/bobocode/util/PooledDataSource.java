@@ -0,0 +1,513 @@
+package com.bobocode.util;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded connection pool on top of any {@link DataSource}. Physical connections are validated when they have been
+ * idle for a while, evicted after {@link PoolConfig#getIdleTimeoutMillis()} and reported when they are held longer
+ * than {@link PoolConfig#getLeakDetectionThresholdMillis()}. Every physical connection keeps a {@link StatementCache},
+ * closing a prepared statement returns it to that cache instead of closing it on the server.
+ */
+public class PooledDataSource implements DataSource, AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(PooledDataSource.class.getName());
+
+    private final DataSource targetDataSource;
+    private final PoolConfig config;
+    private final Semaphore permits;
+    private final BlockingDeque<PooledConnection> idleConnections = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> borrowedConnections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicLong createdConnections = new AtomicLong();
+    private final AtomicLong leakSuspects = new AtomicLong();
+    private final AtomicLong preparedStatements = new AtomicLong();
+    private final AtomicLong closedStatements = new AtomicLong();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    public PooledDataSource(DataSource targetDataSource, PoolConfig config) {
+        this.targetDataSource = Objects.requireNonNull(targetDataSource);
+        this.config = Objects.requireNonNull(config);
+        if (config.getMaxPoolSize() <= 0) {
+            throw new IllegalArgumentException("Max pool size must be positive, but was " + config.getMaxPoolSize());
+        }
+        this.permits = new Semaphore(config.getMaxPoolSize(), true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(this::createHousekeeperThread);
+        long period = config.getHousekeepingPeriodMillis();
+        housekeeper.scheduleAtFixedRate(this::houseKeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private Thread createHousekeeperThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "pooled-data-source-housekeeper");
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        acquirePermit();
+        try {
+            PooledConnection pooledConnection = takeIdleOrCreate();
+            pooledConnection.markBorrowed();
+            borrowedConnections.add(pooledConnection);
+            return pooledConnection.createHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void acquirePermit() throws SQLException {
+        try {
+            if (!permits.tryAcquire(config.getAcquireTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(String.format("Couldn't acquire connection within %d ms, all %d connections are in use",
+                        config.getAcquireTimeoutMillis(), config.getMaxPoolSize()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+    }
+
+    private PooledConnection takeIdleOrCreate() throws SQLException {
+        PooledConnection idleConnection;
+        while ((idleConnection = idleConnections.pollFirst()) != null) {
+            if (isUsable(idleConnection)) {
+                return idleConnection;
+            }
+            discard(idleConnection);
+        }
+        return createConnection();
+    }
+
+    private boolean isUsable(PooledConnection pooledConnection) {
+        try {
+            if (pooledConnection.physicalConnection.isClosed()) {
+                return false;
+            }
+            return pooledConnection.idleMillis() < config.getValidateAfterIdleMillis()
+                    || pooledConnection.physicalConnection.isValid(config.getValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection createConnection() throws SQLException {
+        Connection physicalConnection = targetDataSource.getConnection();
+        totalConnections.incrementAndGet();
+        try {
+            PooledConnection pooledConnection = new PooledConnection(physicalConnection);
+            createdConnections.incrementAndGet();
+            return pooledConnection;
+        } catch (SQLException | RuntimeException e) {
+            totalConnections.decrementAndGet();
+            try {
+                physicalConnection.close();
+            } catch (SQLException closeException) {
+                e.addSuppressed(closeException);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a connection to the idle queue. A pool closed concurrently may have drained the queue before the offer,
+     * so the connection is taken back out and discarded unless {@link #close()} got hold of it first.
+     */
+    private void release(PooledConnection pooledConnection) {
+        borrowedConnections.remove(pooledConnection);
+        try {
+            if (closed || pooledConnection.physicalConnection.isClosed()) {
+                discard(pooledConnection);
+            } else {
+                pooledConnection.reset();
+                pooledConnection.markReturned();
+                idleConnections.offerFirst(pooledConnection);
+                if (closed && idleConnections.remove(pooledConnection)) {
+                    discard(pooledConnection);
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Couldn't reset connection, discarding it", e);
+            discard(pooledConnection);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledConnection pooledConnection) {
+        totalConnections.decrementAndGet();
+        pooledConnection.statementCache.closeAll();
+        try {
+            pooledConnection.physicalConnection.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Couldn't close physical connection", e);
+        }
+    }
+
+    private void houseKeep() {
+        try {
+            evictIdleConnections();
+            reportLeakSuspects();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Connection pool housekeeping failed", e);
+        }
+    }
+
+    private void evictIdleConnections() {
+        Iterator<PooledConnection> leastRecentlyUsedFirst = idleConnections.descendingIterator();
+        while (leastRecentlyUsedFirst.hasNext() && idleConnections.size() > config.getMinIdle()) {
+            PooledConnection idleConnection = leastRecentlyUsedFirst.next();
+            if (idleConnection.idleMillis() > config.getIdleTimeoutMillis() && idleConnections.remove(idleConnection)) {
+                discard(idleConnection);
+            }
+        }
+    }
+
+    private void reportLeakSuspects() {
+        long threshold = config.getLeakDetectionThresholdMillis();
+        if (threshold <= 0) {
+            return;
+        }
+        for (PooledConnection borrowedConnection : borrowedConnections) {
+            if (!borrowedConnection.leakReported && borrowedConnection.borrowedMillis() > threshold) {
+                borrowedConnection.leakReported = true;
+                leakSuspects.incrementAndGet();
+                LOGGER.log(Level.WARNING, String.format("Connection has been borrowed for more than %d ms, possible leak", threshold),
+                        borrowedConnection.borrowTrace);
+            }
+        }
+    }
+
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    public int getIdleConnections() {
+        return idleConnections.size();
+    }
+
+    public int getActiveConnections() {
+        return borrowedConnections.size();
+    }
+
+    public long getCreatedConnections() {
+        return createdConnections.get();
+    }
+
+    public long getLeakSuspectCount() {
+        return leakSuspects.get();
+    }
+
+    /**
+     * Number of statements that were actually prepared on a physical connection, cache hits are not counted
+     */
+    public long getPreparedStatementCount() {
+        return preparedStatements.get();
+    }
+
+    /**
+     * Number of cacheable prepared statements that are currently open on physical connections, in use or idle in a cache
+     */
+    public long getOpenStatementCount() {
+        return preparedStatements.get() - closedStatements.get();
+    }
+
+    public PoolConfig getConfig() {
+        return config;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection idleConnection;
+        while ((idleConnection = idleConnections.pollFirst()) != null) {
+            discard(idleConnection);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pooled connections always use the credentials of the target data source");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return targetDataSource.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        targetDataSource.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        targetDataSource.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return targetDataSource.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() {
+        return LOGGER.getParent();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return targetDataSource.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || targetDataSource.isWrapperFor(iface);
+    }
+
+    private class PooledConnection {
+        private final Connection physicalConnection;
+        private final int defaultTransactionIsolation;
+        private final StatementCache statementCache = new StatementCache(config.getStatementCacheSize(), closedStatements);
+        private volatile long returnedAtNanos = System.nanoTime();
+        private volatile long borrowedAtNanos;
+        private volatile Throwable borrowTrace;
+        private volatile boolean leakReported;
+
+        private PooledConnection(Connection physicalConnection) throws SQLException {
+            this.physicalConnection = physicalConnection;
+            this.defaultTransactionIsolation = physicalConnection.getTransactionIsolation();
+        }
+
+        private void markBorrowed() {
+            borrowedAtNanos = System.nanoTime();
+            leakReported = false;
+            borrowTrace = config.getLeakDetectionThresholdMillis() > 0 ? new Throwable("Connection borrowed here") : null;
+        }
+
+        private void markReturned() {
+            returnedAtNanos = System.nanoTime();
+            borrowTrace = null;
+        }
+
+        private long idleMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - returnedAtNanos);
+        }
+
+        private long borrowedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - borrowedAtNanos);
+        }
+
+        private void reset() throws SQLException {
+            if (!physicalConnection.getAutoCommit()) {
+                physicalConnection.rollback();
+                physicalConnection.setAutoCommit(true);
+            }
+            if (physicalConnection.isReadOnly()) {
+                physicalConnection.setReadOnly(false);
+            }
+            if (physicalConnection.getTransactionIsolation() != defaultTransactionIsolation) {
+                physicalConnection.setTransactionIsolation(defaultTransactionIsolation);
+            }
+            physicalConnection.clearWarnings();
+        }
+
+        private Connection createHandle() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new ConnectionHandle(this));
+        }
+    }
+
+    /**
+     * Logical connection handed out to callers. Closing it returns the physical connection to the pool, any call
+     * after that fails the same way a closed physical connection would. Prepared statements it hands out come from the
+     * statement cache of the physical connection and are given back when closed, at the latest with the connection.
+     */
+    private class ConnectionHandle implements InvocationHandler {
+        private final PooledConnection pooledConnection;
+        private final List<StatementHandle> openStatements = new ArrayList<>();
+        private boolean handleClosed;
+
+        private ConnectionHandle(PooledConnection pooledConnection) {
+            this.pooledConnection = pooledConnection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!handleClosed) {
+                        handleClosed = true;
+                        new ArrayList<>(openStatements).forEach(StatementHandle::close);
+                        release(pooledConnection);
+                    }
+                    return null;
+                case "isClosed":
+                    return handleClosed || pooledConnection.physicalConnection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooledConnection.physicalConnection + "]";
+                default:
+                    if (handleClosed) {
+                        throw new SQLException("Connection is closed");
+                    }
+                    StatementCache.Key statementKey = cacheableStatementKey(method, args);
+                    if (statementKey != null) {
+                        return prepareCachedStatement((Connection) proxy, statementKey, method, args);
+                    }
+                    return invokeTarget(pooledConnection.physicalConnection, method, args);
+            }
+        }
+
+        private StatementCache.Key cacheableStatementKey(Method method, Object[] args) {
+            if (config.getStatementCacheSize() <= 0 || !method.getName().equals("prepareStatement")) {
+                return null;
+            }
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            String sql = (String) args[0];
+            if (parameterTypes.length == 1) {
+                return new StatementCache.Key(sql, Statement.NO_GENERATED_KEYS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            } else if (parameterTypes.length == 2 && parameterTypes[1] == int.class) {
+                return new StatementCache.Key(sql, (Integer) args[1], ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            } else if (parameterTypes.length == 3) {
+                return new StatementCache.Key(sql, Statement.NO_GENERATED_KEYS, (Integer) args[1], (Integer) args[2]);
+            }
+            return null;
+        }
+
+        private PreparedStatement prepareCachedStatement(Connection connectionProxy, StatementCache.Key statementKey,
+                                                         Method method, Object[] args) throws Throwable {
+            PreparedStatement physicalStatement = pooledConnection.statementCache.take(statementKey);
+            if (physicalStatement == null) {
+                physicalStatement = (PreparedStatement) invokeTarget(pooledConnection.physicalConnection, method, args);
+                preparedStatements.incrementAndGet();
+            }
+            StatementHandle statementHandle = new StatementHandle(this, connectionProxy, statementKey, physicalStatement);
+            openStatements.add(statementHandle);
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, statementHandle);
+        }
+    }
+
+    /**
+     * Logical prepared statement. Closing it closes the result sets it produced, clears its parameters and batch
+     * and gives the physical statement back to the statement cache.
+     */
+    private class StatementHandle implements InvocationHandler {
+        private final ConnectionHandle connectionHandle;
+        private final Connection connectionProxy;
+        private final StatementCache.Key statementKey;
+        private final PreparedStatement physicalStatement;
+        private final int defaultFetchSize;
+        private final List<ResultSet> openResultSets = new ArrayList<>();
+        private boolean handleClosed;
+
+        private StatementHandle(ConnectionHandle connectionHandle, Connection connectionProxy, StatementCache.Key statementKey,
+                                PreparedStatement physicalStatement) throws SQLException {
+            this.connectionHandle = connectionHandle;
+            this.connectionProxy = connectionProxy;
+            this.statementKey = statementKey;
+            this.physicalStatement = physicalStatement;
+            this.defaultFetchSize = physicalStatement.getFetchSize();
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    close();
+                    return null;
+                case "isClosed":
+                    return handleClosed;
+                case "getConnection":
+                    return connectionProxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + physicalStatement + "]";
+                default:
+                    if (handleClosed) {
+                        throw new SQLException("Statement is closed");
+                    }
+                    Object result = invokeTarget(physicalStatement, method, args);
+                    if (result instanceof ResultSet) {
+                        openResultSets.removeIf(this::isClosed);
+                        openResultSets.add((ResultSet) result);
+                    }
+                    return result;
+            }
+        }
+
+        private boolean isClosed(ResultSet resultSet) {
+            try {
+                return resultSet.isClosed();
+            } catch (SQLException e) {
+                return true;
+            }
+        }
+
+        private void close() {
+            if (handleClosed) {
+                return;
+            }
+            handleClosed = true;
+            connectionHandle.openStatements.remove(this);
+            StatementCache statementCache = connectionHandle.pooledConnection.statementCache;
+            try {
+                if (physicalStatement.isClosed()) {
+                    statementCache.close(physicalStatement);
+                    return;
+                }
+                for (ResultSet resultSet : openResultSets) {
+                    resultSet.close();
+                }
+                physicalStatement.clearParameters();
+                physicalStatement.clearBatch();
+                physicalStatement.clearWarnings();
+                if (physicalStatement.getFetchSize() != defaultFetchSize) {
+                    physicalStatement.setFetchSize(defaultFetchSize);
+                }
+                statementCache.giveBack(statementKey, physicalStatement);
+            } catch (SQLException e) {
+                LOGGER.log(Level.FINE, "Couldn't reset statement, closing it", e);
+                statementCache.close(physicalStatement);
+            }
+        }
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.bobocode.util;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hands out primary connections unless the calling thread is inside {@link #readOnly(Supplier)}, then the connection
+ * comes from one of the replicas in round-robin order. A replica that fails
+ * {@link RoutingConfig#getFailuresBeforeEjection()} times in a row is ejected for
+ * {@link RoutingConfig#getEjectionMillis()} and a background check validates all replicas periodically. After
+ * {@link #markWritten()} reads of the same thread, or of the same session when one is bound with
+ * {@link #inSession(Object, Supplier)}, stay on the primary for {@link RoutingConfig#getReadYourWritesMillis()}.
+ * Writes of sessions that were never read again are expired by later writes, at most once per read-your-writes window.
+ */
+public class ReadWriteRoutingDataSource implements DataSource, AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(ReadWriteRoutingDataSource.class.getName());
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final RoutingConfig config;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final ThreadLocal<Boolean> readOnlyScope = ThreadLocal.withInitial(() -> false);
+    private final ThreadLocal<Object> boundSession = new ThreadLocal<>();
+    private final ThreadLocal<Long> lastThreadWriteNanos = new ThreadLocal<>();
+    private final Map<Object, Long> lastSessionWriteNanos = new ConcurrentHashMap<>();
+    private final AtomicLong nextSessionExpiryNanos = new AtomicLong(System.nanoTime());
+    private final AtomicLong primaryConnections = new AtomicLong();
+    private final AtomicLong stickyReads = new AtomicLong();
+    private final AtomicLong fallbackReads = new AtomicLong();
+    private final ScheduledExecutorService healthChecker;
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<? extends DataSource> replicas, RoutingConfig config) {
+        this.primary = Objects.requireNonNull(primary);
+        this.config = Objects.requireNonNull(config);
+        if (config.getFailuresBeforeEjection() <= 0) {
+            throw new IllegalArgumentException("Failures before ejection must be positive, but was " + config.getFailuresBeforeEjection());
+        }
+        replicas.forEach(replica -> this.replicas.add(new Replica(Objects.requireNonNull(replica))));
+        long period = config.getHealthCheckPeriodMillis();
+        if (period > 0 && !replicas.isEmpty()) {
+            this.healthChecker = Executors.newSingleThreadScheduledExecutor(this::createHealthCheckerThread);
+            healthChecker.scheduleAtFixedRate(this::checkReplicas, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            this.healthChecker = null;
+        }
+    }
+
+    private Thread createHealthCheckerThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "routing-data-source-health-checker");
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Runs the operation with connections taken from the replicas, nested calls keep using replicas
+     */
+    public <T> T readOnly(Supplier<T> operation) {
+        Boolean enclosingScope = readOnlyScope.get();
+        readOnlyScope.set(true);
+        try {
+            return operation.get();
+        } finally {
+            readOnlyScope.set(enclosingScope);
+        }
+    }
+
+    /**
+     * Binds a session to the calling thread for the duration of the operation, so that a write in one thread of the
+     * session keeps the reads of its other threads on the primary too
+     */
+    public <T> T inSession(Object session, Supplier<T> operation) {
+        Objects.requireNonNull(session);
+        Object enclosingSession = boundSession.get();
+        boundSession.set(session);
+        try {
+            return operation.get();
+        } finally {
+            if (enclosingSession == null) {
+                boundSession.remove();
+            } else {
+                boundSession.set(enclosingSession);
+            }
+        }
+    }
+
+    /**
+     * Records a write of the calling thread and its bound session for read-your-writes
+     */
+    public void markWritten() {
+        if (config.getReadYourWritesMillis() <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        lastThreadWriteNanos.set(now);
+        Object session = boundSession.get();
+        if (session != null) {
+            lastSessionWriteNanos.put(session, now);
+            expireSessionWrites(now);
+        }
+    }
+
+    private void expireSessionWrites(long now) {
+        long window = TimeUnit.MILLISECONDS.toNanos(config.getReadYourWritesMillis());
+        long nextExpiry = nextSessionExpiryNanos.get();
+        if (now - nextExpiry >= 0 && nextSessionExpiryNanos.compareAndSet(nextExpiry, now + window)) {
+            // removes an entry only if it still holds the expired write, so a concurrent newer write is kept
+            lastSessionWriteNanos.entrySet().removeIf(sessionWrite -> now - sessionWrite.getValue() >= window);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!readOnlyScope.get()) {
+            return getPrimaryConnection();
+        }
+        if (hasRecentWrite()) {
+            stickyReads.incrementAndGet();
+            return getPrimaryConnection();
+        }
+        return getReplicaConnection();
+    }
+
+    private Connection getPrimaryConnection() throws SQLException {
+        Connection connection = primary.getConnection();
+        primaryConnections.incrementAndGet();
+        return connection;
+    }
+
+    private boolean hasRecentWrite() {
+        long window = TimeUnit.MILLISECONDS.toNanos(config.getReadYourWritesMillis());
+        if (window <= 0) {
+            return false;
+        }
+        long now = System.nanoTime();
+        Long threadWrite = lastThreadWriteNanos.get();
+        if (threadWrite != null) {
+            if (now - threadWrite < window) {
+                return true;
+            }
+            lastThreadWriteNanos.remove();
+        }
+        Object session = boundSession.get();
+        Long sessionWrite = session == null ? null : lastSessionWriteNanos.get(session);
+        if (sessionWrite != null) {
+            if (now - sessionWrite < window) {
+                return true;
+            }
+            lastSessionWriteNanos.remove(session, sessionWrite);
+        }
+        return false;
+    }
+
+    private Connection getReplicaConnection() throws SQLException {
+        SQLException lastFailure = null;
+        int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(replicas.size(), 1));
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.isEjected()) {
+                continue;
+            }
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replica.recordSuccess();
+                replica.connections.incrementAndGet();
+                return connection;
+            } catch (SQLException e) {
+                replica.recordFailure(e);
+                lastFailure = e;
+            }
+        }
+        if (!config.isFallbackToPrimary()) {
+            throw new SQLTransientConnectionException("No replica is available", lastFailure);
+        }
+        fallbackReads.incrementAndGet();
+        return getPrimaryConnection();
+    }
+
+    private void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (connection.isValid(config.getValidationTimeoutSeconds())) {
+                    replica.recordSuccess();
+                } else {
+                    replica.recordFailure(new SQLException("Replica connection is not valid"));
+                }
+            } catch (SQLException | RuntimeException e) {
+                replica.recordFailure(e);
+            }
+        }
+    }
+
+    public int getReplicaCount() {
+        return replicas.size();
+    }
+
+    public int getAvailableReplicaCount() {
+        return (int) replicas.stream().filter(replica -> !replica.isEjected()).count();
+    }
+
+    public boolean isReplicaEjected(int replicaIndex) {
+        return replicas.get(replicaIndex).isEjected();
+    }
+
+    /**
+     * Number of connections handed out by the replica
+     */
+    public long getReplicaConnectionCount(int replicaIndex) {
+        return replicas.get(replicaIndex).connections.get();
+    }
+
+    public long getPrimaryConnectionCount() {
+        return primaryConnections.get();
+    }
+
+    /**
+     * Number of reads that went to the primary because of read-your-writes
+     */
+    public long getStickyReadCount() {
+        return stickyReads.get();
+    }
+
+    /**
+     * Number of sessions whose last write is remembered for read-your-writes
+     */
+    public int getTrackedSessionCount() {
+        return lastSessionWriteNanos.size();
+    }
+
+    /**
+     * Number of reads that went to the primary because no replica was available
+     */
+    public long getFallbackReadCount() {
+        return fallbackReads.get();
+    }
+
+    public RoutingConfig getConfig() {
+        return config;
+    }
+
+    @Override
+    public void close() {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Routed connections always use the credentials of the target data sources");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return primary.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        primary.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        primary.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return primary.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() {
+        return LOGGER.getParent();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+
+    private class Replica {
+        private final DataSource dataSource;
+        private final AtomicLong connections = new AtomicLong();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private volatile long ejectedUntilNanos;
+        private volatile boolean ejected;
+
+        private Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        /**
+         * An ejected replica gets another chance once its ejection is over, a single failure ejects it again
+         */
+        private boolean isEjected() {
+            return ejected && System.nanoTime() - ejectedUntilNanos < 0;
+        }
+
+        private void recordSuccess() {
+            consecutiveFailures.set(0);
+            if (ejected) {
+                ejected = false;
+                LOGGER.info("Replica is available again");
+            }
+        }
+
+        private void recordFailure(Exception e) {
+            int failures = consecutiveFailures.incrementAndGet();
+            if (failures >= config.getFailuresBeforeEjection()) {
+                ejectedUntilNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getEjectionMillis());
+                if (!ejected) {
+                    ejected = true;
+                    LOGGER.log(Level.WARNING, String.format("Replica failed %d times in a row, ejecting it for %d ms",
+                            failures, config.getEjectionMillis()), e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.bobocode.util;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@Builder
+@ToString
+public class RoutingConfig {
+    /**
+     * Time reads of the same thread or session stay on the primary after a write, 0 disables read-your-writes
+     */
+    @Builder.Default
+    private long readYourWritesMillis = 1000;
+    /**
+     * Consecutive failures after which a replica stops receiving reads
+     */
+    @Builder.Default
+    private int failuresBeforeEjection = 2;
+    /**
+     * Time an ejected replica is skipped before reads try it again
+     */
+    @Builder.Default
+    private long ejectionMillis = 30_000;
+    /**
+     * Period of replica validation in the background, 0 disables it
+     */
+    @Builder.Default
+    private long healthCheckPeriodMillis = 5_000;
+    @Builder.Default
+    private int validationTimeoutSeconds = 5;
+    /**
+     * Whether reads go to the primary when no replica is available, otherwise they fail
+     */
+    @Builder.Default
+    private boolean fallbackToPrimary = true;
+
+    public static RoutingConfig defaults() {
+        return RoutingConfig.builder().build();
+    }
+}
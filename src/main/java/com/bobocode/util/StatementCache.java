@@ -0,0 +1,77 @@
+package com.bobocode.util;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Idle prepared statements of one physical connection keyed by SQL text. A statement is removed from the cache while it
+ * is in use, so two callers never share one. When the cache is full the least recently used statement is closed.
+ */
+class StatementCache {
+    private static final Logger LOGGER = Logger.getLogger(StatementCache.class.getName());
+
+    private final int maximumSize;
+    private final AtomicLong closedStatements;
+    private final Map<Key, PreparedStatement> idleStatements = new LinkedHashMap<>(16, 0.75f, true);
+
+    StatementCache(int maximumSize, AtomicLong closedStatements) {
+        this.maximumSize = maximumSize;
+        this.closedStatements = closedStatements;
+    }
+
+    synchronized PreparedStatement take(Key key) {
+        return idleStatements.remove(key);
+    }
+
+    synchronized void giveBack(Key key, PreparedStatement statement) {
+        if (idleStatements.containsKey(key) || maximumSize <= 0) {
+            close(statement);
+            return;
+        }
+        idleStatements.put(key, statement);
+        Iterator<PreparedStatement> leastRecentlyUsedFirst = idleStatements.values().iterator();
+        while (idleStatements.size() > maximumSize) {
+            close(leastRecentlyUsedFirst.next());
+            leastRecentlyUsedFirst.remove();
+        }
+    }
+
+    synchronized int size() {
+        return idleStatements.size();
+    }
+
+    synchronized void closeAll() {
+        idleStatements.values().forEach(this::close);
+        idleStatements.clear();
+    }
+
+    void close(PreparedStatement statement) {
+        closedStatements.incrementAndGet();
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Couldn't close cached statement", e);
+        }
+    }
+
+    /**
+     * SQL text together with the options the statement was prepared with
+     */
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    static class Key {
+        private final String sql;
+        private final int autoGeneratedKeys;
+        private final int resultSetType;
+        private final int resultSetConcurrency;
+    }
+}
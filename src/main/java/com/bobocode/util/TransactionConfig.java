@@ -0,0 +1,29 @@
+package com.bobocode.util;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@Builder
+@ToString
+public class TransactionConfig {
+    /**
+     * One of the {@link java.sql.Connection} isolation constants, null keeps the isolation level of the connection
+     */
+    @Builder.Default
+    private Integer isolationLevel = null;
+    /**
+     * Marks the connection read-only, so that the driver and database may skip the work writes would need
+     */
+    @Builder.Default
+    private boolean readOnly = false;
+
+    public static TransactionConfig defaults() {
+        return TransactionConfig.builder().build();
+    }
+
+    public static TransactionConfig readOnlyDefaults() {
+        return TransactionConfig.builder().readOnly(true).build();
+    }
+}
@@ -0,0 +1,54 @@
+package com.bobocode.util;
+
+import java.sql.Connection;
+
+/**
+ * Unit of work started by {@link TransactionManager#inTransaction(TransactionConfig, java.util.function.Function)}
+ */
+public class TransactionContext {
+    private final Connection connection;
+    private final TransactionConfig config;
+    private volatile boolean rollbackOnly;
+    private volatile boolean rollbackForced;
+
+    TransactionContext(Connection connection, TransactionConfig config) {
+        this.connection = connection;
+        this.config = config;
+    }
+
+    /**
+     * Connection shared by all DAO calls of the unit of work, closing or committing it has no effect
+     */
+    public Connection getConnection() {
+        return connection;
+    }
+
+    public boolean isReadOnly() {
+        return config.isReadOnly();
+    }
+
+    /**
+     * Makes the unit of work roll back instead of committing when it ends
+     */
+    public void setRollbackOnly() {
+        rollbackOnly = true;
+    }
+
+    /**
+     * Marks the unit of work rollback-only because a DAO call or a joined unit of work failed inside it
+     */
+    void forceRollback() {
+        rollbackForced = true;
+    }
+
+    public boolean isRollbackOnly() {
+        return rollbackOnly || rollbackForced;
+    }
+
+    /**
+     * Whether the unit of work rolls back only because of a failure inside it, without {@link #setRollbackOnly()}
+     */
+    boolean isRollbackUnexpected() {
+        return rollbackForced && !rollbackOnly;
+    }
+}
@@ -0,0 +1,248 @@
+package com.bobocode.util;
+
+import com.bobocode.exception.DaoOperationException;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs units of work on one connection with a single commit. DAOs created on {@link #getDataSource()} take the
+ * connection bound to the calling thread while it is inside {@link #inTransaction(TransactionConfig, Function)}, their
+ * own commits are deferred to the end of the unit of work and their rollbacks force it to roll back. Outside of a unit
+ * of work, and in other threads such as the ones of {@link AsyncDaoExecutor}, they get connections of the target
+ * data source as before. Nested units of work join the enclosing one.
+ */
+public class TransactionManager {
+    private static final Logger LOGGER = Logger.getLogger(TransactionManager.class.getName());
+
+    private final DataSource targetDataSource;
+    private final DataSource transactionAwareDataSource = new TransactionAwareDataSource();
+    private final ThreadLocal<TransactionContext> currentTransaction = new ThreadLocal<>();
+    private final AtomicLong commits = new AtomicLong();
+    private final AtomicLong rollbacks = new AtomicLong();
+
+    public TransactionManager(DataSource targetDataSource) {
+        this.targetDataSource = Objects.requireNonNull(targetDataSource);
+    }
+
+    /**
+     * Data source to create DAOs on, so that their calls take part in the unit of work of the calling thread
+     */
+    public DataSource getDataSource() {
+        return transactionAwareDataSource;
+    }
+
+    public <T> T inTransaction(Function<TransactionContext, T> work) {
+        return inTransaction(TransactionConfig.defaults(), work);
+    }
+
+    /**
+     * Runs the work in a unit of work that commits when it returns and rolls back when it throws or was marked
+     * rollback-only. A rollback that the work didn't ask for with {@link TransactionContext#setRollbackOnly()}, because
+     * a DAO call or a nested unit of work failed and the work caught the exception, is reported with a
+     * {@link DaoOperationException} once the unit of work was rolled back. A nested call joins the enclosing unit of
+     * work, which keeps its own settings.
+     */
+    public <T> T inTransaction(TransactionConfig config, Function<TransactionContext, T> work) {
+        Objects.requireNonNull(config);
+        Objects.requireNonNull(work);
+        TransactionContext enclosingTransaction = currentTransaction.get();
+        if (enclosingTransaction != null) {
+            return joinTransaction(enclosingTransaction, config, work);
+        }
+        try (Connection connection = targetDataSource.getConnection()) {
+            begin(connection, config);
+            TransactionContext transaction = new TransactionContext(createHandle(connection), config);
+            currentTransaction.set(transaction);
+            T result;
+            try {
+                result = work.apply(transaction);
+            } catch (RuntimeException | Error e) {
+                rollback(connection, e);
+                throw e;
+            } finally {
+                currentTransaction.remove();
+            }
+            if (transaction.isRollbackOnly()) {
+                rollback(connection, null);
+                if (transaction.isRollbackUnexpected()) {
+                    throw new DaoOperationException("Transaction rolled back unexpectedly, a failed call marked it rollback-only");
+                }
+            } else {
+                connection.commit();
+                commits.incrementAndGet();
+            }
+            return result;
+        } catch (SQLException e) {
+            throw new DaoOperationException("Couldn't complete transaction", e);
+        }
+    }
+
+    private <T> T joinTransaction(TransactionContext enclosingTransaction, TransactionConfig config,
+                                  Function<TransactionContext, T> work) {
+        if (enclosingTransaction.isReadOnly() && !config.isReadOnly()) {
+            throw new IllegalStateException("Cannot join a read-only transaction with a read-write one");
+        }
+        try {
+            return work.apply(enclosingTransaction);
+        } catch (RuntimeException | Error e) {
+            enclosingTransaction.forceRollback();
+            throw e;
+        }
+    }
+
+    private void begin(Connection connection, TransactionConfig config) throws SQLException {
+        // isolation and read-only are only reliably applied before the transaction starts
+        if (config.getIsolationLevel() != null) {
+            connection.setTransactionIsolation(config.getIsolationLevel());
+        }
+        if (config.isReadOnly()) {
+            connection.setReadOnly(true);
+        }
+        connection.setAutoCommit(false);
+    }
+
+    private void rollback(Connection connection, Throwable cause) {
+        try {
+            connection.rollback();
+            rollbacks.incrementAndGet();
+        } catch (SQLException e) {
+            if (cause == null) {
+                throw new DaoOperationException("Couldn't roll back transaction", e);
+            }
+            LOGGER.log(Level.WARNING, "Couldn't roll back transaction after a failure", e);
+            cause.addSuppressed(e);
+        }
+    }
+
+    private Connection createHandle(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new TransactionalConnectionHandle(connection));
+    }
+
+    public boolean isInTransaction() {
+        return currentTransaction.get() != null;
+    }
+
+    public long getCommitCount() {
+        return commits.get();
+    }
+
+    public long getRollbackCount() {
+        return rollbacks.get();
+    }
+
+    /**
+     * Connection handed to DAO calls inside a unit of work. The unit of work decides when the connection commits
+     * and closes, so the DAO's own transaction demarcation is ignored and a rollback forces the unit of work to roll
+     * back.
+     */
+    private class TransactionalConnectionHandle implements InvocationHandler {
+        private final Connection connection;
+
+        private TransactionalConnectionHandle(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                case "commit":
+                case "setAutoCommit":
+                    return null;
+                case "getAutoCommit":
+                    return false;
+                case "rollback":
+                    if (args == null) {
+                        forceRollbackIfActive();
+                        return null;
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "TransactionalConnection[" + connection + "]";
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void forceRollbackIfActive() {
+            TransactionContext transaction = currentTransaction.get();
+            if (transaction != null) {
+                transaction.forceRollback();
+            }
+        }
+    }
+
+    private class TransactionAwareDataSource implements DataSource {
+        @Override
+        public Connection getConnection() throws SQLException {
+            TransactionContext transaction = currentTransaction.get();
+            return transaction != null ? transaction.getConnection() : targetDataSource.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new SQLFeatureNotSupportedException("Transactional connections always use the credentials of the target data source");
+        }
+
+        @Override
+        public PrintWriter getLogWriter() throws SQLException {
+            return targetDataSource.getLogWriter();
+        }
+
+        @Override
+        public void setLogWriter(PrintWriter out) throws SQLException {
+            targetDataSource.setLogWriter(out);
+        }
+
+        @Override
+        public void setLoginTimeout(int seconds) throws SQLException {
+            targetDataSource.setLoginTimeout(seconds);
+        }
+
+        @Override
+        public int getLoginTimeout() throws SQLException {
+            return targetDataSource.getLoginTimeout();
+        }
+
+        @Override
+        public Logger getParentLogger() {
+            return LOGGER.getParent();
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            if (iface.isInstance(this)) {
+                return iface.cast(this);
+            }
+            return targetDataSource.unwrap(iface);
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) throws SQLException {
+            return iface.isInstance(this) || targetDataSource.isWrapperFor(iface);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+-- movie(name) is already covered by UQ_name_duration_release_date, whose index leads with name
+
+CREATE INDEX IF NOT EXISTS IDX_actor_last_name_first_name ON actor (last_name, first_name);
+
+CREATE INDEX IF NOT EXISTS IDX_actor_movie_movie_id ON actor_movie (movie_id);
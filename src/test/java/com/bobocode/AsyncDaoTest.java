@@ -0,0 +1,113 @@
+package com.bobocode;
+
+import com.bobocode.dao.*;
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.model.Actor;
+import com.bobocode.model.Movie;
+import com.bobocode.util.ActorMovieDbInitializer;
+import com.bobocode.util.AsyncDaoExecutor;
+import com.bobocode.util.JdbcUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.*;
+
+public class AsyncDaoTest {
+    private static final int MAX_IN_FLIGHT = 3;
+    private static DataSource dataSource;
+    private AsyncDaoExecutor executor;
+
+    @BeforeClass
+    public static void init() throws SQLException {
+        dataSource = JdbcUtil.createInMemoryH2DataSource("async_dao_test_db");
+        new ActorMovieDbInitializer(dataSource).init();
+    }
+
+    @Before
+    public void createExecutor() {
+        executor = AsyncDaoExecutor.create(MAX_IN_FLIGHT);
+    }
+
+    @After
+    public void closeExecutor() {
+        executor.close();
+    }
+
+    @Test
+    public void testSaveAndFindById() throws Exception {
+        AsyncActorDao actorDao = new AsyncActorDao(new ActorDaoImpl(dataSource), executor);
+        Actor samuelJackson = Actor.builder().firstName("Samuel L.").lastName("Jackson").birthday(LocalDate.of(1948, 12, 21)).build();
+
+        Actor actor = actorDao.save(samuelJackson)
+                .thenCompose(saved -> actorDao.findById(samuelJackson.getId()))
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals(samuelJackson, actor);
+    }
+
+    @Test
+    public void testFailureCompletesFutureExceptionally() throws Exception {
+        AsyncMovieDao movieDao = new AsyncMovieDao(new MovieDaoImpl(dataSource), executor);
+
+        try {
+            movieDao.findByName("404movie").get(5, TimeUnit.SECONDS);
+            fail("Exception wasn't thrown");
+        } catch (ExecutionException e) {
+            assertEquals(DaoOperationException.class, e.getCause().getClass());
+            assertEquals("Movie with name = 404movie does not exist", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void testInFlightOperationsAreCapped() throws Exception {
+        Movie pulpFiction = Movie.builder().name("Pulp Fiction").duration(154000L).releaseDate(LocalDate.of(1994, 10, 14)).build();
+        new MovieDaoImpl(dataSource).save(pulpFiction);
+        ConcurrencyTrackingMovieDao trackingMovieDao = new ConcurrencyTrackingMovieDao(new MovieDaoImpl(dataSource));
+        AsyncMovieDao movieDao = new AsyncMovieDao(trackingMovieDao, executor);
+
+        List<CompletableFuture<Movie>> results = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            results.add(movieDao.findById(pulpFiction.getId()));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+
+        assertThat(trackingMovieDao.maxConcurrency.get(), lessThanOrEqualTo(MAX_IN_FLIGHT));
+    }
+
+    private static class ConcurrencyTrackingMovieDao extends ForwardingMovieDao {
+        private final AtomicInteger concurrency = new AtomicInteger();
+        private final AtomicInteger maxConcurrency = new AtomicInteger();
+
+        private ConcurrencyTrackingMovieDao(MovieDao delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Movie findById(Long id) {
+            maxConcurrency.accumulateAndGet(concurrency.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+                return super.findById(id);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } finally {
+                concurrency.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.bobocode;
+
+import com.bobocode.cache.LruCache;
+import com.bobocode.dao.ActorDaoImpl;
+import com.bobocode.dao.CachingActorDao;
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.model.Actor;
+import com.bobocode.util.ActorMovieDbInitializer;
+import com.bobocode.util.JdbcUtil;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+import static org.junit.Assert.*;
+
+public class CachingActorDaoTest {
+    private static DataSource dataSource;
+    private CachingActorDao actorDao;
+
+    @BeforeClass
+    public static void init() throws SQLException {
+        dataSource = JdbcUtil.createInMemoryH2DataSource("caching_actor_dao_test_db");
+        ActorMovieDbInitializer dbInitializer = new ActorMovieDbInitializer(dataSource);
+        dbInitializer.init();
+    }
+
+    @Before
+    public void createDao() {
+        actorDao = new CachingActorDao(new ActorDaoImpl(dataSource), new LruCache<>(100));
+    }
+
+    @Test
+    public void testSavedActorIsServedFromCache() {
+        Actor robertDeNiro = Actor.builder().firstName("Robert").lastName("De Niro").birthday(LocalDate.of(1943, 8, 17)).build();
+        actorDao.save(robertDeNiro);
+
+        Actor actor = actorDao.findById(robertDeNiro.getId());
+
+        assertEquals(robertDeNiro.getLastName(), actor.getLastName());
+        assertEquals(1, actorDao.getCacheStats().getHitCount());
+        assertEquals(0, actorDao.getCacheStats().getLoadCount());
+    }
+
+    @Test
+    public void testMissLoadsFromDatabaseOnce() {
+        Actor valKilmer = Actor.builder().firstName("Val").lastName("Kilmer").birthday(LocalDate.of(1959, 12, 31)).build();
+        new ActorDaoImpl(dataSource).save(valKilmer);
+
+        actorDao.findById(valKilmer.getId());
+        actorDao.findById(valKilmer.getId());
+
+        assertEquals(1, actorDao.getCacheStats().getLoadCount());
+        assertEquals(1, actorDao.getCacheStats().getHitCount());
+    }
+
+    @Test
+    public void testReturnedActorIsACopy() {
+        Actor jonVoight = Actor.builder().firstName("Jon").lastName("Voight").birthday(LocalDate.of(1938, 12, 29)).build();
+        actorDao.save(jonVoight);
+
+        actorDao.findById(jonVoight.getId()).setLastName("Changed");
+
+        assertEquals("Voight", actorDao.findById(jonVoight.getId()).getLastName());
+    }
+
+    @Test
+    public void testNotExistingActorIsNotCached() {
+        long invalidId = -1L;
+        for (int i = 0; i < 2; i++) {
+            try {
+                actorDao.findById(invalidId);
+                fail("Exception wasn't thrown");
+            } catch (DaoOperationException e) {
+                assertEquals(String.format("Actor with id = %d does not exist", invalidId), e.getMessage());
+            }
+        }
+        assertEquals(2, actorDao.getCacheStats().getLoadCount());
+    }
+}
@@ -0,0 +1,162 @@
+package com.bobocode;
+
+import com.bobocode.bulk.CatalogueImporter;
+import com.bobocode.bulk.ImportConfig;
+import com.bobocode.bulk.ImportReport;
+import com.bobocode.dao.MovieDao;
+import com.bobocode.dao.MovieDaoImpl;
+import com.bobocode.exception.ImportException;
+import com.bobocode.model.Movie;
+import com.bobocode.util.ActorMovieDbInitializer;
+import com.bobocode.util.JdbcUtil;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+public class CatalogueImporterTest {
+    private static DataSource h2DataSource;
+    private static MovieDao movieDao;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void init() throws SQLException {
+        h2DataSource = JdbcUtil.createInMemoryH2DataSource("catalogue_importer_test_db");
+        new ActorMovieDbInitializer(h2DataSource).init();
+        movieDao = new MovieDaoImpl(h2DataSource);
+    }
+
+    @Test
+    public void testImportCsvCatalogue() throws IOException {
+        Path actors = writeFile("actors.csv",
+                "id,first_name,last_name,birthday",
+                "nm01,Harrison,Ford,1942-07-13",
+                "nm02,\"Sean\",\"Young, Jr\",1959-11-20");
+        Path movies = writeFile("movies.csv",
+                "id,name,duration,release_date",
+                "tt01,Blade Runner,117000,1982-06-25",
+                "tt02,\"Witness, The\",112000,1985-02-08");
+        Path links = writeFile("links.csv",
+                "actor_id,movie_id",
+                "nm01,tt01",
+                "nm01,tt02",
+                "nm02,tt01");
+
+        ImportReport report = new CatalogueImporter(h2DataSource, ImportConfig.builder().chunkSize(2).build())
+                .importCatalogue(actors, movies, links);
+
+        assertEquals(2, report.getActorCount());
+        assertEquals(2, report.getMovieCount());
+        assertEquals(3, report.getLinkCount());
+        assertThat(report.rowsPerSecond(), greaterThan(0.0));
+        List<Movie> harrisonFordMovies = movieDao.findByActorFirstAndLastName("Harrison", "Ford");
+        assertThat(harrisonFordMovies.stream().map(Movie::getName).toArray(), arrayContainingInAnyOrder("Blade Runner", "Witness, The"));
+        assertEquals(1, movieDao.findByActorFirstAndLastName("Sean", "Young, Jr").size());
+    }
+
+    @Test
+    public void testImportTsvCatalogue() throws IOException {
+        Path actors = writeFile("actors.tsv", "id\tfirst_name\tlast_name\tbirthday", "nm10\tRutger\tHauer\t1944-01-23");
+        Path movies = writeFile("movies.tsv", "id\tname\tduration\trelease_date", "tt10\tLadyhawke\t121000\t1985-04-12");
+        Path links = writeFile("links.tsv", "actor_id\tmovie_id", "nm10\ttt10");
+
+        new CatalogueImporter(h2DataSource, ImportConfig.tsv()).importCatalogue(actors, movies, links);
+
+        List<Movie> rutgerHauerMovies = movieDao.findByActorFirstAndLastName("Rutger", "Hauer");
+        assertEquals(1, rutgerHauerMovies.size());
+        assertEquals(LocalDate.of(1985, 4, 12), rutgerHauerMovies.get(0).getReleaseDate());
+    }
+
+    @Test
+    public void testLinkToUnknownActorIsRejected() throws IOException {
+        Path actors = writeFile("actors.csv", "id,first_name,last_name,birthday");
+        Path movies = writeFile("movies.csv", "id,name,duration,release_date", "tt20,Nighthawks,99000,1981-04-10");
+        Path links = writeFile("links.csv", "actor_id,movie_id", "nm404,tt20");
+
+        try {
+            new CatalogueImporter(h2DataSource).importCatalogue(actors, movies, links);
+            fail("Exception wasn't thrown");
+        } catch (ImportException e) {
+            assertEquals(String.format("Unknown actor id nm404 at %s:2", links), e.getMessage());
+        }
+    }
+
+    @Test
+    public void testDuplicateLinksAreLoadedOnce() throws IOException {
+        Path actors = writeFile("actors.csv", "id,first_name,last_name,birthday", "nm30,Daryl,Hannah,1960-12-03");
+        Path movies = writeFile("movies.csv", "id,name,duration,release_date", "tt30,Splash,111000,1984-03-09");
+        Path links = writeFile("links.csv", "actor_id,movie_id", "nm30,tt30", "nm30,tt30", "nm30,tt30");
+
+        ImportReport report = new CatalogueImporter(h2DataSource, ImportConfig.builder().chunkSize(2).build())
+                .importCatalogue(actors, movies, links);
+
+        assertEquals(3, report.getLinkCount());
+        assertEquals(1, movieDao.findByActorFirstAndLastName("Daryl", "Hannah").size());
+    }
+
+    @Test
+    public void testDuplicateActorIdInLaterChunkIsRejected() throws IOException {
+        Path actors = writeFile("actors.csv", "id,first_name,last_name,birthday",
+                "nm40,Edward James,Olmos,1947-02-24",
+                "nm41,Joanna,Cassidy,1945-08-02",
+                "nm40,Edward James,Olmos,1947-02-24");
+        Path movies = writeFile("movies.csv", "id,name,duration,release_date");
+        Path links = writeFile("links.csv", "actor_id,movie_id");
+
+        try {
+            new CatalogueImporter(h2DataSource, ImportConfig.builder().chunkSize(2).build()).importCatalogue(actors, movies, links);
+            fail("Exception wasn't thrown");
+        } catch (ImportException e) {
+            assertEquals(String.format("Duplicate actor id nm40 at %s:4", actors), e.getMessage());
+        }
+    }
+
+    @Test
+    public void testExternalIdTableIsDroppedAfterImport() throws IOException, SQLException {
+        Path actors = writeFile("actors.csv", "id,first_name,last_name,birthday", "nm50,M. Emmet,Walsh,1935-03-22");
+        Path movies = writeFile("movies.csv", "id,name,duration,release_date");
+        Path links = writeFile("links.csv", "actor_id,movie_id", "nm50,tt404");
+
+        try {
+            new CatalogueImporter(h2DataSource).importCatalogue(actors, movies, links);
+            fail("Exception wasn't thrown");
+        } catch (ImportException e) {
+            assertEquals(String.format("Unknown movie id tt404 at %s:2", links), e.getMessage());
+        }
+        try (Connection connection = h2DataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES " +
+                     "WHERE TABLE_NAME LIKE 'CATALOGUE_IMPORT_ID_%'")) {
+            resultSet.next();
+            assertEquals(0, resultSet.getInt(1));
+        }
+    }
+
+    private Path writeFile(String name, String... lines) throws IOException {
+        Path file = temporaryFolder.getRoot().toPath().resolve(name);
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file))) {
+            for (String line : lines) {
+                writer.println(line);
+            }
+        }
+        return file;
+    }
+}
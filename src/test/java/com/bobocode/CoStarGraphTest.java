@@ -0,0 +1,93 @@
+package com.bobocode;
+
+import com.bobocode.dao.*;
+import com.bobocode.graph.CoStarGraph;
+import com.bobocode.model.Actor;
+import com.bobocode.model.ActorMovieLink;
+import com.bobocode.model.Movie;
+import com.bobocode.util.ActorMovieDbInitializer;
+import com.bobocode.util.JdbcUtil;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CoStarGraphTest {
+
+    @Test
+    public void testGraphLoadedFromDatabaseFollowsNewLinks() throws SQLException {
+        DataSource h2DataSource = JdbcUtil.createInMemoryH2DataSource("co_star_graph_test_db");
+        new ActorMovieDbInitializer(h2DataSource).init();
+        ActorDao actorDao = new ActorDaoImpl(h2DataSource);
+        MovieDao movieDao = new MovieDaoImpl(h2DataSource);
+        List<Actor> actors = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            actors.add(Actor.builder().firstName("Actor" + i).lastName("Graph").birthday(LocalDate.of(1960, 1, i + 1)).build());
+        }
+        actorDao.saveAll(actors);
+        Movie first = Movie.builder().name("First").duration(90000L).releaseDate(LocalDate.of(1990, 1, 1)).build();
+        Movie second = Movie.builder().name("Second").duration(90000L).releaseDate(LocalDate.of(1991, 1, 1)).build();
+        movieDao.saveAll(List.of(first, second));
+        actorDao.linkAll(List.of(
+                new ActorMovieLink(actors.get(0).getId(), first.getId()),
+                new ActorMovieLink(actors.get(1).getId(), first.getId()),
+                new ActorMovieLink(actors.get(1).getId(), second.getId())));
+
+        CoStarGraph graph = CoStarGraph.load(h2DataSource);
+        ActorDao graphUpdatingActorDao = new CoStarGraphUpdatingActorDao(actorDao, graph);
+
+        assertArrayEquals(new long[]{actors.get(1).getId()}, graph.findCoStars(actors.get(0).getId()));
+        assertEquals(-1, graph.degreesOfSeparation(actors.get(0).getId(), actors.get(2).getId()));
+
+        graphUpdatingActorDao.linkActorToMovieByID(actors.get(2).getId(), second.getId());
+
+        assertEquals(2, graph.degreesOfSeparation(actors.get(0).getId(), actors.get(2).getId()));
+        assertEquals(0, graph.degreesOfSeparation(actors.get(2).getId(), actors.get(2).getId()));
+        assertEquals(0, graph.findCoStars(actors.get(3).getId()).length);
+    }
+
+    @Test
+    public void testDegreesOfSeparationOnChain() {
+        int chainLength = 50;
+        long[] linkActorIds = new long[chainLength * 2];
+        long[] linkMovieIds = new long[chainLength * 2];
+        // movie i is shared by actor i and actor i + 1
+        for (int i = 0; i < chainLength; i++) {
+            linkActorIds[2 * i] = i;
+            linkMovieIds[2 * i] = 1000 + i;
+            linkActorIds[2 * i + 1] = i + 1;
+            linkMovieIds[2 * i + 1] = 1000 + i;
+        }
+
+        CoStarGraph graph = CoStarGraph.fromLinks(linkActorIds, linkMovieIds, linkActorIds.length);
+
+        assertEquals(chainLength, graph.degreesOfSeparation(0, chainLength));
+        assertEquals(7, graph.degreesOfSeparation(10, 17));
+        assertArrayEquals(new long[]{9, 11}, graph.findCoStars(10));
+
+        graph.addLink(0, 1000 + chainLength - 1);
+
+        assertEquals(1, graph.degreesOfSeparation(0, chainLength));
+        assertEquals(2, graph.degreesOfSeparation(1, chainLength - 1));
+    }
+
+    @Test
+    public void testCompactionKeepsAllLinks() {
+        CoStarGraph graph = CoStarGraph.fromLinks(new long[]{1}, new long[]{1}, 1);
+        int addedLinks = 5000;
+        for (int i = 0; i < addedLinks; i++) {
+            graph.addLink(i % 100, i / 100 + 1);
+            graph.addLink(i % 100, i / 100 + 1);
+        }
+
+        assertEquals(addedLinks, graph.getLinkCount());
+        assertEquals(100, graph.getActorCount());
+        assertEquals(99, graph.findCoStars(42).length);
+        assertEquals(1, graph.degreesOfSeparation(0, 99));
+    }
+}
@@ -0,0 +1,150 @@
+package com.bobocode;
+
+import com.bobocode.dao.*;
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.model.Actor;
+import com.bobocode.util.ActorMovieDbInitializer;
+import com.bobocode.util.JdbcUtil;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class CoalescingDaoTest {
+    private static ActorDao actorDao;
+    private static List<Actor> actors = new ArrayList<>();
+
+    @BeforeClass
+    public static void init() throws SQLException {
+        DataSource h2DataSource = JdbcUtil.createInMemoryH2DataSource("coalescing_dao_test_db");
+        ActorMovieDbInitializer dbInitializer = new ActorMovieDbInitializer(h2DataSource);
+        dbInitializer.init();
+        actorDao = new ActorDaoImpl(h2DataSource);
+        for (int i = 0; i < 20; i++) {
+            actors.add(Actor.builder().firstName("Extra" + i).lastName("Background").birthday(LocalDate.of(1990, 1, i + 1)).build());
+        }
+        actorDao.saveAll(actors);
+    }
+
+    @Test
+    public void testConcurrentFindByIdIsCoalesced() throws Exception {
+        CountingActorDao countingDao = new CountingActorDao(actorDao);
+        BatchLoaderConfig config = BatchLoaderConfig.builder().batchWindowMicros(20_000).maxBatchSize(50).build();
+        ExecutorService callers = Executors.newFixedThreadPool(16);
+        try (CoalescingActorDao coalescingDao = new CoalescingActorDao(countingDao, config)) {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Actor>> results = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                Long id = actors.get(i % actors.size()).getId();
+                results.add(callers.submit(() -> {
+                    start.await();
+                    return coalescingDao.findById(id);
+                }));
+            }
+            start.countDown();
+
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(actors.get(i % actors.size()), results.get(i).get());
+            }
+            BatchLoaderStats stats = coalescingDao.getLoaderStats();
+            assertEquals(40, stats.getLoadCount());
+            assertTrue(countingDao.batchCalls.get() < 16);
+            assertEquals(countingDao.batchCalls.get(), stats.getBatchCount());
+            assertEquals(40, stats.getDeduplicatedCount() + Math.round(stats.getMeanBatchSize() * stats.getBatchCount()));
+            assertEquals(0, countingDao.findByIdCalls.get());
+        } finally {
+            callers.shutdown();
+        }
+    }
+
+    @Test
+    public void testDuplicateLookupsShareOneBatch() {
+        CountingActorDao countingDao = new CountingActorDao(actorDao);
+        BatchLoaderConfig config = BatchLoaderConfig.builder().batchWindowMicros(1_000_000).maxBatchSize(3).build();
+        try (CoalescingActorDao coalescingDao = new CoalescingActorDao(countingDao, config)) {
+            CompletableFuture<Actor> first = coalescingDao.findByIdAsync(actors.get(0).getId());
+            CompletableFuture<Actor> duplicate = coalescingDao.findByIdAsync(actors.get(0).getId());
+            CompletableFuture<Actor> second = coalescingDao.findByIdAsync(actors.get(1).getId());
+            CompletableFuture<Actor> third = coalescingDao.findByIdAsync(actors.get(2).getId());
+
+            assertEquals(actors.get(0), first.join());
+            assertEquals(actors.get(0), duplicate.join());
+            assertNotSame(first.join(), duplicate.join());
+            assertEquals(actors.get(1), second.join());
+            assertEquals(actors.get(2), third.join());
+            assertEquals(1, countingDao.batchCalls.get());
+            BatchLoaderStats stats = coalescingDao.getLoaderStats();
+            assertEquals(1, stats.getDeduplicatedCount());
+            assertEquals(3, stats.getMaxBatchSize());
+        }
+    }
+
+    @Test
+    public void testFindByIdOfNotExistingActor() {
+        Long notExistingId = 666L;
+        try (CoalescingActorDao coalescingDao = new CoalescingActorDao(actorDao, BatchLoaderConfig.defaults())) {
+            coalescingDao.findById(notExistingId);
+            fail("Exception wasn't thrown");
+        } catch (DaoOperationException e) {
+            assertEquals(String.format("Actor with id = %d does not exist", notExistingId), e.getMessage());
+        }
+    }
+
+    @Test
+    public void testCloseFailsPendingLoads() {
+        BatchLoaderConfig longWindow = BatchLoaderConfig.builder().batchWindowMicros(60_000_000).build();
+        CoalescingActorDao coalescingDao = new CoalescingActorDao(actorDao, longWindow);
+        CompletableFuture<Actor> pendingLoad = coalescingDao.findByIdAsync(actors.get(0).getId());
+
+        coalescingDao.close();
+
+        try {
+            pendingLoad.join();
+            fail("Exception wasn't thrown");
+        } catch (CompletionException e) {
+            assertEquals("Batch loader was closed before the load completed", e.getCause().getMessage());
+        }
+        try {
+            coalescingDao.findById(actors.get(1).getId());
+            fail("Exception wasn't thrown");
+        } catch (DaoOperationException e) {
+            assertEquals("Batch loader is closed", e.getMessage());
+        }
+    }
+
+    private static class CountingActorDao extends ForwardingActorDao {
+        private final AtomicInteger batchCalls = new AtomicInteger();
+        private final AtomicInteger findByIdCalls = new AtomicInteger();
+
+        CountingActorDao(ActorDao delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Actor findById(Long id) {
+            findByIdCalls.incrementAndGet();
+            return super.findById(id);
+        }
+
+        @Override
+        public Map<Long, Actor> findAllByIds(Collection<Long> ids) {
+            batchCalls.incrementAndGet();
+            return super.findAllByIds(ids);
+        }
+    }
+}
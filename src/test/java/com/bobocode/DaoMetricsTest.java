@@ -0,0 +1,120 @@
+package com.bobocode;
+
+import com.bobocode.dao.*;
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.metrics.*;
+import com.bobocode.model.Movie;
+import com.bobocode.util.ActorMovieDbInitializer;
+import com.bobocode.util.JdbcUtil;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+public class DaoMetricsTest {
+    private static DataSource h2DataSource;
+
+    @BeforeClass
+    public static void init() throws SQLException {
+        h2DataSource = JdbcUtil.createInMemoryH2DataSource("dao_metrics_test_db");
+        new ActorMovieDbInitializer(h2DataSource).init();
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 100_000; nanos++) {
+            histogram.record(nanos * 1000);
+        }
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        assertEquals(100_000, snapshot.getCount());
+        assertEquals(100_000_000, snapshot.getMaxNanos());
+        assertThat((double) snapshot.getP50Nanos(), closeTo(50_000_000, 50_000_000 * 0.07));
+        assertThat((double) snapshot.getP99Nanos(), closeTo(99_000_000, 99_000_000 * 0.07));
+        assertThat((double) snapshot.getP999Nanos(), closeTo(99_900_000, 99_900_000 * 0.07));
+        assertThat(snapshot.getP50Nanos(), greaterThanOrEqualTo(50_000_000L));
+    }
+
+    @Test
+    public void testRecordingDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        OperationMetrics metrics = new DaoMetrics().operation("test.operation");
+        for (int i = 0; i < 100_000; i++) {
+            metrics.recordSuccess(i, 1, 1);
+        }
+        long threadId = Thread.currentThread().getId();
+
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100_000; i++) {
+            metrics.recordSuccess(i * 31L, 1, 0);
+            metrics.recordFailure(i);
+        }
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        assertThat(allocated, lessThan(1024L));
+    }
+
+    @Test
+    public void testInstrumentedDaoRecordsOperations() {
+        DaoMetrics metrics = new DaoMetrics();
+        MovieDao movieDao = new InstrumentedMovieDao(new MovieDaoImpl(new InstrumentedDataSource(h2DataSource, metrics)), metrics);
+        Movie jaws = Movie.builder().name("Jaws").duration(124000L).releaseDate(LocalDate.of(1975, 6, 20)).build();
+        Movie alien = Movie.builder().name("Alien").duration(117000L).releaseDate(LocalDate.of(1979, 5, 25)).build();
+
+        movieDao.saveAll(List.of(jaws, alien));
+        movieDao.findById(jaws.getId());
+        movieDao.findByName("Alien");
+        try {
+            movieDao.findByName("Not a movie");
+            fail("Exception wasn't thrown");
+        } catch (DaoOperationException ignored) {
+        }
+
+        OperationSnapshot saveAll = metrics.getOperation("movie.saveAll");
+        assertEquals(1, saveAll.getLatency().getCount());
+        assertEquals(2, saveAll.getRowsWritten());
+        assertEquals(1, metrics.getOperation("movie.findById").getRowsRead());
+        OperationSnapshot findByName = metrics.getOperation("movie.findByName");
+        assertEquals(2, findByName.getLatency().getCount());
+        assertEquals(1, findByName.getRowsRead());
+        assertEquals(1, findByName.getErrorCount());
+        assertEquals(4, metrics.getConnectionAcquire().getCount());
+        assertEquals(0, metrics.getConnectionAcquireErrors());
+    }
+
+    @Test
+    public void testMetricsAreReadableThroughJmx() throws Exception {
+        DaoMetrics metrics = new DaoMetrics();
+        ActorDao actorDao = new InstrumentedActorDao(new ActorDaoImpl(h2DataSource), metrics);
+        try {
+            actorDao.findById(-1L);
+        } catch (DaoOperationException ignored) {
+        }
+        ObjectName objectName = metrics.registerMBean("dao-metrics-test");
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+            TabularData operations = (TabularData) mBeanServer.getAttribute(objectName, "Operations");
+            CompositeData findById = (CompositeData) operations.get(new Object[]{"actor.findById"}).get("value");
+
+            assertEquals(1L, findById.get("errorCount"));
+            assertEquals(1L, ((CompositeData) findById.get("latency")).get("count"));
+        } finally {
+            metrics.unregisterMBean("dao-metrics-test");
+        }
+    }
+}
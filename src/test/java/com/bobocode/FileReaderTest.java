@@ -0,0 +1,52 @@
+package com.bobocode;
+
+import com.bobocode.util.FileReader;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+public class FileReaderTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testListDirectoryOfFileSystem() {
+        assertThat(FileReader.listFileNamesFromResources("db/migration"),
+                hasItems("V1__create_actor_movie_tables.sql", "V2__add_lookup_indexes.sql"));
+    }
+
+    @Test
+    public void testListAndReadDirectoryInsideJar() throws IOException {
+        Path jar = temporaryFolder.getRoot().toPath().resolve("scripts in.jar");
+        try (JarOutputStream jarStream = new JarOutputStream(Files.newOutputStream(jar))) {
+            jarStream.putNextEntry(new JarEntry("db/scripts/"));
+            writeEntry(jarStream, "db/scripts/V2__second.sql", "SELECT 2;");
+            writeEntry(jarStream, "db/scripts/V1__first.sql", "SELECT 1;\nSELECT 11;");
+        }
+
+        try (URLClassLoader jarClassLoader = new URLClassLoader(new URL[]{jar.toUri().toURL()}, null)) {
+            assertThat(FileReader.listFileNamesFromResources(jarClassLoader, "db/scripts"),
+                    contains("V1__first.sql", "V2__second.sql"));
+            assertEquals("SELECT 1;\nSELECT 11;", FileReader.readWholeFileFromResources(jarClassLoader, "db/scripts/V1__first.sql"));
+        }
+    }
+
+    private void writeEntry(JarOutputStream jarStream, String name, String content) throws IOException {
+        jarStream.putNextEntry(new JarEntry(name));
+        jarStream.write(content.getBytes(StandardCharsets.UTF_8));
+        jarStream.closeEntry();
+    }
+}
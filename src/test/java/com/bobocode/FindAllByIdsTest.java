@@ -0,0 +1,80 @@
+package com.bobocode;
+
+import com.bobocode.cache.LruCache;
+import com.bobocode.dao.*;
+import com.bobocode.model.Actor;
+import com.bobocode.model.Movie;
+import com.bobocode.util.ActorMovieDbInitializer;
+import com.bobocode.util.JdbcUtil;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.Assert.*;
+
+public class FindAllByIdsTest {
+    private static final Long NOT_EXISTING_ID = 404_404L;
+    private static ActorDao actorDao;
+    private static MovieDao movieDao;
+    private static List<Actor> actors = new ArrayList<>();
+    private static List<Movie> movies = new ArrayList<>();
+
+    @BeforeClass
+    public static void init() throws SQLException {
+        DataSource h2DataSource = JdbcUtil.createInMemoryH2DataSource("find_all_by_ids_test_db");
+        new ActorMovieDbInitializer(h2DataSource).init();
+        DaoConfig smallChunks = DaoConfig.builder().batchSize(2).build();
+        actorDao = new ActorDaoImpl(h2DataSource, smallChunks);
+        movieDao = new MovieDaoImpl(h2DataSource, smallChunks);
+        for (int i = 0; i < 5; i++) {
+            actors.add(Actor.builder().firstName("Extra" + i).lastName("Crowd").birthday(LocalDate.of(1980, 3, i + 1)).build());
+            movies.add(Movie.builder().name("Blockbuster " + i).duration(95000L).releaseDate(LocalDate.of(2001, 7, i + 1)).build());
+        }
+        actorDao.saveAll(actors);
+        movieDao.saveAll(movies);
+    }
+
+    @Test
+    public void testFindAllActorsByIdsAcrossChunks() {
+        List<Long> ids = List.of(actors.get(0).getId(), actors.get(2).getId(), NOT_EXISTING_ID, actors.get(4).getId(), actors.get(0).getId());
+
+        Map<Long, Actor> actorsById = actorDao.findAllByIds(ids);
+
+        assertEquals(3, actorsById.size());
+        assertFalse(actorsById.containsKey(NOT_EXISTING_ID));
+        assertEquals(actors.get(2), actorsById.get(actors.get(2).getId()));
+        assertEquals(actors.get(2).getBirthday(), actorsById.get(actors.get(2).getId()).getBirthday());
+    }
+
+    @Test
+    public void testFindAllMoviesByIds() {
+        Map<Long, Movie> moviesById = movieDao.findAllByIds(List.of(movies.get(1).getId(), movies.get(3).getId()));
+
+        assertThat(moviesById.values(), containsInAnyOrder(movies.get(1), movies.get(3)));
+    }
+
+    @Test
+    public void testFindAllByEmptyIds() {
+        assertTrue(actorDao.findAllByIds(List.of()).isEmpty());
+    }
+
+    @Test
+    public void testCachingDaoLoadsOnlyMissingIds() {
+        CachingActorDao cachingActorDao = new CachingActorDao(actorDao, new LruCache<>(100));
+        cachingActorDao.findById(actors.get(1).getId());
+
+        Map<Long, Actor> actorsById = cachingActorDao.findAllByIds(List.of(actors.get(1).getId(), actors.get(3).getId()));
+
+        assertEquals(2, actorsById.size());
+        assertEquals(1, cachingActorDao.getCacheStats().getHitCount());
+        assertEquals(2, cachingActorDao.getCacheStats().getSize());
+    }
+}
@@ -0,0 +1,93 @@
+package com.bobocode;
+
+import com.bobocode.dao.ActorDao;
+import com.bobocode.dao.ActorDaoImpl;
+import com.bobocode.dao.MovieDao;
+import com.bobocode.dao.MovieDaoImpl;
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.model.Actor;
+import com.bobocode.model.Movie;
+import com.bobocode.model.Page;
+import com.bobocode.util.ActorMovieDbInitializer;
+import com.bobocode.util.JdbcUtil;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class KeysetPaginationTest {
+    private static ActorDao actorDao;
+    private static MovieDao movieDao;
+
+    @BeforeClass
+    public static void init() throws SQLException {
+        DataSource h2DataSource = JdbcUtil.createInMemoryH2DataSource("keyset_pagination_test_db");
+        ActorMovieDbInitializer dbInitializer = new ActorMovieDbInitializer(h2DataSource);
+        dbInitializer.init();
+        actorDao = new ActorDaoImpl(h2DataSource);
+        movieDao = new MovieDaoImpl(h2DataSource);
+        List<Actor> actors = new ArrayList<>();
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            actors.add(Actor.builder().firstName("Stunt" + i).lastName("Double").birthday(LocalDate.of(1975, 5, i + 1)).build());
+            movies.add(Movie.builder().name("Remake " + i).duration(100000L).releaseDate(LocalDate.of(2010, 2, i + 1)).build());
+        }
+        actorDao.saveAll(actors);
+        movieDao.saveAll(movies);
+    }
+
+    @Test
+    public void testMoviePagesFollowContinuationTokens() {
+        List<Movie> allMovies = movieDao.findAll();
+        List<Movie> pagedMovies = new ArrayList<>();
+
+        Page<Movie> page = movieDao.findPage(null, 3);
+        pagedMovies.addAll(page.getContent());
+        while (page.hasNext()) {
+            page = movieDao.findPage(page.getContinuationToken(), 3);
+            pagedMovies.addAll(page.getContent());
+        }
+
+        assertEquals(allMovies.size(), pagedMovies.size());
+        assertTrue(pagedMovies.containsAll(allMovies));
+        for (int i = 1; i < pagedMovies.size(); i++) {
+            assertTrue(pagedMovies.get(i - 1).getId() < pagedMovies.get(i).getId());
+        }
+    }
+
+    @Test
+    public void testActorFindAllAfter() {
+        Page<Actor> firstPage = actorDao.findAllAfter(null, 2);
+        Long lastSeenId = firstPage.getContent().get(1).getId();
+
+        Page<Actor> secondPage = actorDao.findAllAfter(lastSeenId, 2);
+
+        assertEquals(2, secondPage.getContent().size());
+        assertTrue(secondPage.getContent().get(0).getId() > lastSeenId);
+        assertTrue(secondPage.hasNext());
+    }
+
+    @Test
+    public void testLastPageHasNoContinuationToken() {
+        Page<Actor> page = actorDao.findAllAfter(null, 1000);
+
+        assertFalse(page.hasNext());
+        assertNull(page.getContinuationToken());
+    }
+
+    @Test
+    public void testInvalidContinuationToken() {
+        try {
+            movieDao.findPage("not-a-token", 10);
+            fail("Exception wasn't thrown");
+        } catch (DaoOperationException e) {
+            assertEquals("Invalid continuation token not-a-token", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.bobocode;
+
+import com.bobocode.dao.*;
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.model.Actor;
+import com.bobocode.model.ActorMovieLink;
+import com.bobocode.model.Movie;
+import com.bobocode.util.ActorMovieDbInitializer;
+import com.bobocode.util.JdbcUtil;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.Assert.*;
+
+public class LinkAllTest {
+    private static ActorDao actorDao;
+    private static MovieDao movieDao;
+
+    @BeforeClass
+    public static void init() throws SQLException {
+        DataSource h2DataSource = JdbcUtil.createInMemoryH2DataSource("link_all_test_db");
+        ActorMovieDbInitializer dbInitializer = new ActorMovieDbInitializer(h2DataSource);
+        dbInitializer.init();
+        DaoConfig smallBatches = DaoConfig.builder().batchSize(2).build();
+        actorDao = new ActorDaoImpl(h2DataSource, smallBatches);
+        movieDao = new MovieDaoImpl(h2DataSource, smallBatches);
+    }
+
+    @Test
+    public void testLinkAllIsIdempotent() {
+        Actor keanuReeves = Actor.builder().firstName("Keanu").lastName("Reeves").birthday(LocalDate.of(1964, 9, 2)).build();
+        actorDao.save(keanuReeves);
+        Movie matrix = Movie.builder().name("The Matrix").duration(136000L).releaseDate(LocalDate.of(1999, 3, 31)).build();
+        Movie speed = Movie.builder().name("Speed").duration(116000L).releaseDate(LocalDate.of(1994, 6, 10)).build();
+        Movie johnWick = Movie.builder().name("John Wick").duration(101000L).releaseDate(LocalDate.of(2014, 10, 24)).build();
+        movieDao.saveAll(List.of(matrix, speed, johnWick));
+        actorDao.linkActorToMovieByID(keanuReeves.getId(), matrix.getId());
+
+        List<ActorMovieLink> castList = List.of(
+                new ActorMovieLink(keanuReeves.getId(), matrix.getId()),
+                new ActorMovieLink(keanuReeves.getId(), speed.getId()),
+                new ActorMovieLink(keanuReeves.getId(), johnWick.getId()));
+        actorDao.linkAll(castList);
+        actorDao.linkAll(castList);
+
+        List<Movie> movies = movieDao.findByActorFirstAndLastName("Keanu", "Reeves");
+        assertThat(movies, containsInAnyOrder(matrix, speed, johnWick));
+    }
+
+    @Test
+    public void testLinkAllWithNotExistingMovieLinksNothing() {
+        Actor carrieAnneMoss = Actor.builder().firstName("Carrie-Anne").lastName("Moss").birthday(LocalDate.of(1967, 8, 21)).build();
+        actorDao.save(carrieAnneMoss);
+        Movie memento = Movie.builder().name("Memento").duration(113000L).releaseDate(LocalDate.of(2000, 9, 5)).build();
+        movieDao.save(memento);
+        Long notExistingMovieId = 888L;
+
+        try {
+            actorDao.linkAll(List.of(
+                    new ActorMovieLink(carrieAnneMoss.getId(), memento.getId()),
+                    new ActorMovieLink(carrieAnneMoss.getId(), notExistingMovieId)));
+            fail("Exception wasn't thrown");
+        } catch (DaoOperationException e) {
+            assertEquals(String.format("Movies with ids = [%d] do not exist", notExistingMovieId), e.getMessage());
+        }
+
+        assertTrue(movieDao.findByActorFirstAndLastName("Carrie-Anne", "Moss").isEmpty());
+    }
+
+    @Test
+    public void testLinkAllWithNullActorId() {
+        try {
+            actorDao.linkAll(List.of(new ActorMovieLink(null, 1L)));
+            fail("Exception wasn't thrown");
+        } catch (DaoOperationException e) {
+            assertEquals("Cannot find a actor without ID", e.getMessage());
+        }
+    }
+}
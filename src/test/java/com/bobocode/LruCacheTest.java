@@ -0,0 +1,110 @@
+package com.bobocode;
+
+import com.bobocode.cache.CacheStats;
+import com.bobocode.cache.LruCache;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class LruCacheTest {
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() {
+        LruCache<Long, String> cache = new LruCache<>(2);
+        cache.put(1L, "one");
+        cache.put(2L, "two");
+        cache.getIfPresent(1L);
+
+        cache.put(3L, "three");
+
+        assertEquals("one", cache.getIfPresent(1L));
+        assertNull(cache.getIfPresent(2L));
+        assertEquals("three", cache.getIfPresent(3L));
+        assertEquals(1, cache.stats().getEvictionCount());
+    }
+
+    @Test
+    public void testEntryExpiresAfterTimeToLive() throws InterruptedException {
+        LruCache<Long, String> cache = new LruCache<>(10, Duration.ofMillis(20));
+        cache.put(1L, "one");
+
+        Thread.sleep(40);
+
+        assertNull(cache.getIfPresent(1L));
+        assertEquals(1, cache.stats().getExpirationCount());
+    }
+
+    @Test
+    public void testStatsCountHitsAndMisses() {
+        LruCache<Long, String> cache = new LruCache<>(10);
+        cache.get(1L, id -> "one");
+        cache.get(1L, id -> "one");
+        cache.get(1L, id -> "one");
+
+        CacheStats stats = cache.stats();
+
+        assertEquals(2, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, stats.getLoadCount());
+    }
+
+    @Test
+    public void testFailedLoadIsNotCached() {
+        LruCache<Long, String> cache = new LruCache<>(10);
+        try {
+            cache.get(1L, id -> {
+                throw new IllegalStateException("not found");
+            });
+            fail("Exception wasn't thrown");
+        } catch (IllegalStateException e) {
+            assertEquals("not found", e.getMessage());
+        }
+
+        assertEquals("one", cache.get(1L, id -> "one"));
+    }
+
+    @Test
+    public void testConcurrentMissesLoadOnce() throws Exception {
+        LruCache<Long, String> cache = new LruCache<>(10);
+        AtomicInteger loaderCalls = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        int callers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> cache.get(1L, id -> {
+                    loaderCalls.incrementAndGet();
+                    loaderStarted.countDown();
+                    awaitQuietly(releaseLoader);
+                    return "one";
+                })));
+            }
+            loaderStarted.await(5, TimeUnit.SECONDS);
+            Thread.sleep(50);
+            releaseLoader.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("one", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loaderCalls.get());
+    }
+
+    private void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.bobocode;
+
+import com.bobocode.exception.MigrationException;
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.MigrationRunner;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+public class MigrationRunnerTest {
+    private static DataSource dataSource;
+    private static List<MigrationRunner.Migration> firstRunMigrations;
+
+    @BeforeClass
+    public static void init() throws SQLException {
+        dataSource = JdbcUtil.createInMemoryH2DataSource("migration_runner_test_db");
+        firstRunMigrations = new MigrationRunner(dataSource).migrate();
+    }
+
+    @Test
+    public void testMigrationsAreAppliedInVersionOrder() {
+        List<Integer> versions = firstRunMigrations.stream().map(MigrationRunner.Migration::getVersion).collect(Collectors.toList());
+
+        assertThat(versions, contains(1, 2));
+    }
+
+    @Test
+    public void testAppliedMigrationsAreSkipped() throws SQLException {
+        List<MigrationRunner.Migration> secondRunMigrations = new MigrationRunner(dataSource).migrate();
+
+        assertTrue(secondRunMigrations.isEmpty());
+    }
+
+    @Test
+    public void testChangedMigrationIsRejected() throws SQLException {
+        DataSource changedDataSource = JdbcUtil.createInMemoryH2DataSource("changed_migration_test_db");
+        new MigrationRunner(changedDataSource).migrate();
+        execute(changedDataSource, "UPDATE schema_history SET checksum = checksum + 1 WHERE version = 2");
+
+        try {
+            new MigrationRunner(changedDataSource).migrate();
+            fail("Exception wasn't thrown");
+        } catch (MigrationException e) {
+            assertEquals("Migration V2__add_lookup_indexes.sql was changed after it had been applied", e.getMessage());
+        }
+    }
+
+    private void execute(DataSource dataSource, String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.bobocode;
+
+import com.bobocode.cache.LruCache;
+import com.bobocode.cache.MovieQueryCache;
+import com.bobocode.dao.*;
+import com.bobocode.model.Actor;
+import com.bobocode.model.Movie;
+import com.bobocode.util.ActorMovieDbInitializer;
+import com.bobocode.util.JdbcUtil;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MovieQueryCacheTest {
+    private static DataSource dataSource;
+    private MovieQueryCache movieQueryCache;
+    private MovieDao movieDao;
+    private ActorDao actorDao;
+
+    @BeforeClass
+    public static void init() throws SQLException {
+        dataSource = JdbcUtil.createInMemoryH2DataSource("movie_query_cache_test_db");
+        ActorMovieDbInitializer dbInitializer = new ActorMovieDbInitializer(dataSource);
+        dbInitializer.init();
+    }
+
+    @Before
+    public void createDaos() {
+        movieQueryCache = new MovieQueryCache(1024 * 1024, Duration.ZERO);
+        movieDao = new QueryCachingMovieDao(new MovieDaoImpl(dataSource), movieQueryCache);
+        actorDao = new QueryCacheInvalidatingActorDao(new CachingActorDao(new ActorDaoImpl(dataSource), new LruCache<>(100)), movieQueryCache);
+    }
+
+    @Test
+    public void testRepeatedFindByNameIsServedFromCache() {
+        movieDao.save(Movie.builder().name("Taxi Driver").duration(114000L).releaseDate(LocalDate.of(1976, 2, 8)).build());
+
+        movieDao.findByName("Taxi Driver");
+        movieDao.findByName("Taxi Driver");
+
+        assertEquals(1, movieQueryCache.getByNameStats().getLoadCount());
+        assertEquals(1, movieQueryCache.getByNameStats().getHitCount());
+    }
+
+    @Test
+    public void testSaveInvalidatesName() {
+        Movie original = Movie.builder().name("Scarface").duration(93000L).releaseDate(LocalDate.of(1932, 4, 9)).build();
+        Movie remake = Movie.builder().name("Scarface").duration(170000L).releaseDate(LocalDate.of(1983, 12, 9)).build();
+        movieDao.save(original);
+        movieDao.findByName("Scarface");
+
+        movieDao.save(remake);
+
+        assertThat(movieDao.findByName("Scarface"), containsInAnyOrder(original, remake));
+    }
+
+    @Test
+    public void testLinkInvalidatesActorFilmography() {
+        Actor michellePfeiffer = Actor.builder().firstName("Michelle").lastName("Pfeiffer").birthday(LocalDate.of(1958, 4, 29)).build();
+        actorDao.save(michellePfeiffer);
+        Movie batmanReturns = Movie.builder().name("Batman Returns").duration(126000L).releaseDate(LocalDate.of(1992, 6, 19)).build();
+        movieDao.save(batmanReturns);
+        assertTrue(movieDao.findByActorFirstAndLastName("Michelle", "Pfeiffer").isEmpty());
+
+        actorDao.linkActorToMovieByID(michellePfeiffer.getId(), batmanReturns.getId());
+
+        assertEquals(List.of(batmanReturns), movieDao.findByActorFirstAndLastName("Michelle", "Pfeiffer"));
+    }
+
+    @Test
+    public void testLinkOfActorSavedElsewhereInvalidatesAllFilmographies() {
+        Actor jodieFoster = Actor.builder().firstName("Jodie").lastName("Foster").birthday(LocalDate.of(1962, 11, 19)).build();
+        new ActorDaoImpl(dataSource).save(jodieFoster);
+        Movie contact = Movie.builder().name("Contact").duration(150000L).releaseDate(LocalDate.of(1997, 7, 11)).build();
+        movieDao.save(contact);
+        assertTrue(movieDao.findByActorFirstAndLastName("Jodie", "Foster").isEmpty());
+
+        actorDao.linkActorToMovieByID(jodieFoster.getId(), contact.getId());
+
+        assertEquals(List.of(contact), movieDao.findByActorFirstAndLastName("Jodie", "Foster"));
+    }
+
+    @Test
+    public void testLoadRacingInvalidationIsNotCached() {
+        Movie heat = Movie.builder().id(1L).name("Heat").duration(170000L).releaseDate(LocalDate.of(1995, 12, 15)).build();
+
+        movieQueryCache.findByActorFirstAndLastName("Al", "Pacino", () -> {
+            // a link commits while the query result is on its way
+            movieQueryCache.invalidateActor("Al", "Pacino");
+            return List.of();
+        });
+
+        assertEquals(List.of(heat), movieQueryCache.findByActorFirstAndLastName("Al", "Pacino", () -> List.of(heat)));
+    }
+
+    @Test
+    public void testCacheIsBoundedByMemory() {
+        MovieQueryCache smallCache = new MovieQueryCache(400, Duration.ZERO);
+        MovieDao smallCacheMovieDao = new QueryCachingMovieDao(new MovieDaoImpl(dataSource), smallCache);
+        for (int i = 0; i < 5; i++) {
+            smallCacheMovieDao.save(Movie.builder().name("Rocky " + i).duration(119000L).releaseDate(LocalDate.of(1976, 11, 21 + i)).build());
+            smallCacheMovieDao.findByName("Rocky " + i);
+        }
+
+        assertTrue(smallCache.getByNameStats().getTotalWeight() <= 400);
+        assertTrue(smallCache.getByNameStats().getEvictionCount() > 0);
+    }
+}
@@ -0,0 +1,146 @@
+package com.bobocode;
+
+import com.bobocode.dao.*;
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.model.Actor;
+import com.bobocode.model.Movie;
+import com.bobocode.util.ActorMovieDbInitializer;
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.PoolConfig;
+import com.bobocode.util.PooledDataSource;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.Assert.*;
+
+public class MovieStreamTest {
+    private static PooledDataSource pooledDataSource;
+    private static MovieDao movieDao;
+    private static ActorDao actorDao;
+
+    @BeforeClass
+    public static void init() throws SQLException {
+        pooledDataSource = JdbcUtil.createPooledDataSource(JdbcUtil.createInMemoryH2DataSource("movie_stream_test_db"), PoolConfig.defaults());
+        ActorMovieDbInitializer dbInitializer = new ActorMovieDbInitializer(pooledDataSource);
+        dbInitializer.init();
+        DaoConfig smallFetches = DaoConfig.builder().fetchSize(10).build();
+        movieDao = new MovieDaoImpl(pooledDataSource, smallFetches);
+        actorDao = new ActorDaoImpl(pooledDataSource, smallFetches);
+    }
+
+    @AfterClass
+    public static void closePool() {
+        pooledDataSource.close();
+    }
+
+    @Test
+    public void testStreamAll() {
+        List<Movie> newMovies = new ArrayList<>();
+        for (int i = 0; i < 95; i++) {
+            newMovies.add(Movie.builder().name("Sequel " + i).duration(90000L + i).releaseDate(LocalDate.of(2000, 1, 1).plusDays(i)).build());
+        }
+        movieDao.saveAll(newMovies);
+
+        List<Movie> streamedMovies;
+        try (Stream<Movie> movies = movieDao.streamAll()) {
+            streamedMovies = movies.collect(Collectors.toList());
+        }
+
+        assertTrue(streamedMovies.containsAll(newMovies));
+        assertEquals(movieDao.findAll().size(), streamedMovies.size());
+    }
+
+    @Test
+    public void testStreamByActorFirstAndLastName() {
+        Actor alPacino = Actor.builder().firstName("Al").lastName("Pacino").birthday(LocalDate.of(1940, 4, 25)).build();
+        actorDao.save(alPacino);
+        Movie heat = Movie.builder().name("Heat").duration(170000L).releaseDate(LocalDate.of(1995, 12, 15)).build();
+        Movie serpico = Movie.builder().name("Serpico").duration(130000L).releaseDate(LocalDate.of(1973, 12, 5)).build();
+        movieDao.saveAll(List.of(heat, serpico));
+        actorDao.linkActorToMovieByID(alPacino.getId(), heat.getId());
+        actorDao.linkActorToMovieByID(alPacino.getId(), serpico.getId());
+
+        try (Stream<Movie> movies = movieDao.streamByActorFirstAndLastName("Al", "Pacino")) {
+            assertThat(movies.collect(Collectors.toList()), containsInAnyOrder(heat, serpico));
+        }
+    }
+
+    @Test
+    public void testClosingStreamReleasesConnection() {
+        Stream<Movie> movies = movieDao.streamAll();
+        movies.findFirst();
+        assertEquals(1, pooledDataSource.getActiveConnections());
+
+        movies.close();
+
+        assertEquals(0, pooledDataSource.getActiveConnections());
+    }
+
+    @Test
+    public void testFailingStatementCloseStillReleasesConnection() {
+        DataSource failingCloseDataSource = proxy(DataSource.class, pooledDataSource, (dataSource, method, args) -> {
+            Object result = invoke(dataSource, method, args);
+            if (!method.getName().equals("getConnection")) {
+                return result;
+            }
+            return proxy(Connection.class, result, (connection, connectionMethod, connectionArgs) -> {
+                Object connectionResult = invoke(connection, connectionMethod, connectionArgs);
+                if (!connectionMethod.getName().equals("prepareStatement")) {
+                    return connectionResult;
+                }
+                return proxy(PreparedStatement.class, connectionResult, (statement, statementMethod, statementArgs) -> {
+                    Object statementResult = invoke(statement, statementMethod, statementArgs);
+                    if (statementMethod.getName().equals("close")) {
+                        throw new SQLException("Statement close failed");
+                    }
+                    return statementResult;
+                });
+            });
+        });
+        Stream<Movie> movies = new MovieDaoImpl(failingCloseDataSource).streamAll();
+        movies.findFirst();
+
+        try {
+            movies.close();
+            fail("Exception wasn't thrown");
+        } catch (DaoOperationException e) {
+            assertEquals("Statement close failed", e.getCause().getMessage());
+        }
+        assertEquals(0, pooledDataSource.getActiveConnections());
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, TargetInvocationHandler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> handler.invoke(target, method, args);
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, invocationHandler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    private interface TargetInvocationHandler {
+        Object invoke(Object target, Method method, Object[] args) throws Throwable;
+    }
+}
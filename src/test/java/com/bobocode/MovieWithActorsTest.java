@@ -0,0 +1,92 @@
+package com.bobocode;
+
+import com.bobocode.dao.*;
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.model.Actor;
+import com.bobocode.model.ActorMovieLink;
+import com.bobocode.model.Movie;
+import com.bobocode.util.ActorMovieDbInitializer;
+import com.bobocode.util.JdbcUtil;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+public class MovieWithActorsTest {
+    private static MovieDao movieDao;
+    private static Actor bradPitt;
+    private static Actor edwardNorton;
+    private static Movie fightClub;
+    private static Movie seven;
+    private static Movie theGame;
+
+    @BeforeClass
+    public static void init() throws SQLException {
+        DataSource h2DataSource = JdbcUtil.createInMemoryH2DataSource("movie_with_actors_test_db");
+        new ActorMovieDbInitializer(h2DataSource).init();
+        ActorDao actorDao = new ActorDaoImpl(h2DataSource);
+        movieDao = new MovieDaoImpl(h2DataSource);
+        bradPitt = Actor.builder().firstName("Brad").lastName("Pitt").birthday(LocalDate.of(1963, 12, 18)).build();
+        edwardNorton = Actor.builder().firstName("Edward").lastName("Norton").birthday(LocalDate.of(1969, 8, 18)).build();
+        actorDao.saveAll(List.of(bradPitt, edwardNorton));
+        fightClub = Movie.builder().name("Fight Club").duration(139000L).releaseDate(LocalDate.of(1999, 10, 15)).build();
+        seven = Movie.builder().name("Se7en").duration(127000L).releaseDate(LocalDate.of(1995, 9, 22)).build();
+        theGame = Movie.builder().name("The Game").duration(129000L).releaseDate(LocalDate.of(1997, 9, 12)).build();
+        movieDao.saveAll(List.of(fightClub, seven, theGame));
+        actorDao.linkAll(List.of(
+                new ActorMovieLink(bradPitt.getId(), fightClub.getId()),
+                new ActorMovieLink(edwardNorton.getId(), fightClub.getId()),
+                new ActorMovieLink(bradPitt.getId(), seven.getId())));
+    }
+
+    @Test
+    public void testFindAllWithActors() {
+        Map<Long, Movie> moviesById = movieDao.findAllWithActors().stream()
+                .collect(Collectors.toMap(Movie::getId, Function.identity()));
+
+        assertEquals(3, moviesById.size());
+        assertThat(moviesById.get(fightClub.getId()).getActors(), containsInAnyOrder(bradPitt, edwardNorton));
+        assertThat(moviesById.get(seven.getId()).getActors(), contains(bradPitt));
+        assertThat(moviesById.get(theGame.getId()).getActors(), empty());
+    }
+
+    @Test
+    public void testActorsAreSharedAcrossMovies() {
+        Map<Long, Movie> moviesById = movieDao.findAllWithActors().stream()
+                .collect(Collectors.toMap(Movie::getId, Function.identity()));
+
+        Actor bradPittInFightClub = moviesById.get(fightClub.getId()).getActors().stream()
+                .filter(bradPitt::equals).findFirst().orElseThrow();
+        assertSame(bradPittInFightClub, moviesById.get(seven.getId()).getActors().get(0));
+        assertEquals(bradPitt.getBirthday(), bradPittInFightClub.getBirthday());
+    }
+
+    @Test
+    public void testFindByNameWithActors() {
+        List<Movie> movies = movieDao.findByNameWithActors("Fight Club");
+
+        assertEquals(1, movies.size());
+        assertEquals(fightClub, movies.get(0));
+        assertThat(movies.get(0).getActors(), containsInAnyOrder(bradPitt, edwardNorton));
+    }
+
+    @Test
+    public void testFindByNameWithActorsNotExistingMovie() {
+        try {
+            movieDao.findByNameWithActors("Troy");
+            fail("Exception wasn't thrown");
+        } catch (DaoOperationException e) {
+            assertEquals("Movie with name = Troy does not exist", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.bobocode;
+
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.PoolConfig;
+import com.bobocode.util.PooledDataSource;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+public class PooledDataSourceTest {
+    private PooledDataSource pooledDataSource;
+
+    @After
+    public void closePool() {
+        if (pooledDataSource != null) {
+            pooledDataSource.close();
+        }
+    }
+
+    @Test
+    public void testConnectionIsReused() throws SQLException {
+        pooledDataSource = createPool(PoolConfig.builder().maxPoolSize(2).build());
+
+        Connection firstPhysicalConnection;
+        try (Connection connection = pooledDataSource.getConnection()) {
+            firstPhysicalConnection = connection.unwrap(Connection.class);
+        }
+        Connection secondPhysicalConnection;
+        try (Connection connection = pooledDataSource.getConnection()) {
+            secondPhysicalConnection = connection.unwrap(Connection.class);
+        }
+
+        assertSame(firstPhysicalConnection, secondPhysicalConnection);
+        assertEquals(1, pooledDataSource.getCreatedConnections());
+        assertEquals(1, pooledDataSource.getIdleConnections());
+    }
+
+    @Test
+    public void testClosedHandleCannotBeUsed() throws SQLException {
+        pooledDataSource = createPool(PoolConfig.defaults());
+        Connection connection = pooledDataSource.getConnection();
+        connection.close();
+
+        assertTrue(connection.isClosed());
+        try {
+            connection.createStatement();
+            fail("Exception wasn't thrown");
+        } catch (SQLException e) {
+            assertEquals("Connection is closed", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testAcquireTimesOutWhenPoolIsExhausted() throws SQLException {
+        pooledDataSource = createPool(PoolConfig.builder().maxPoolSize(1).acquireTimeoutMillis(100).build());
+
+        try (Connection ignored = pooledDataSource.getConnection()) {
+            long start = System.nanoTime();
+            try {
+                pooledDataSource.getConnection();
+                fail("Exception wasn't thrown");
+            } catch (SQLTransientConnectionException e) {
+                assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), greaterThanOrEqualTo(100L));
+            }
+        }
+    }
+
+    @Test
+    public void testBrokenConnectionIsReplaced() throws SQLException {
+        pooledDataSource = createPool(PoolConfig.builder().validateAfterIdleMillis(0).build());
+        try (Connection connection = pooledDataSource.getConnection()) {
+            connection.unwrap(Connection.class).close();
+        }
+
+        try (Connection connection = pooledDataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            assertTrue(statement.execute("SELECT 1"));
+        }
+        assertEquals(2, pooledDataSource.getCreatedConnections());
+        assertEquals(1, pooledDataSource.getTotalConnections());
+    }
+
+    @Test
+    public void testPhysicalConnectionIsClosedWhenItCannotBePooled() throws SQLException {
+        DataSource h2DataSource = JdbcUtil.createInMemoryH2DataSource("pool_test_db");
+        List<Connection> physicalConnections = new ArrayList<>();
+        DataSource failingDataSource = (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+                new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("getConnection")) {
+                        return invoke(h2DataSource, method, args);
+                    }
+                    Connection physicalConnection = h2DataSource.getConnection();
+                    physicalConnections.add(physicalConnection);
+                    return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                            (connectionProxy, connectionMethod, connectionArgs) -> {
+                                if (connectionMethod.getName().equals("getTransactionIsolation")) {
+                                    throw new SQLException("Isolation unavailable");
+                                }
+                                return invoke(physicalConnection, connectionMethod, connectionArgs);
+                            });
+                });
+        pooledDataSource = JdbcUtil.createPooledDataSource(failingDataSource, PoolConfig.defaults());
+
+        try {
+            pooledDataSource.getConnection();
+            fail("Exception wasn't thrown");
+        } catch (SQLException e) {
+            assertEquals("Isolation unavailable", e.getMessage());
+        }
+        assertEquals(0, pooledDataSource.getTotalConnections());
+        assertEquals(0, pooledDataSource.getCreatedConnections());
+        assertTrue(physicalConnections.get(0).isClosed());
+    }
+
+    @Test
+    public void testConnectionReleasedAfterPoolCloseIsClosed() throws SQLException {
+        pooledDataSource = createPool(PoolConfig.defaults());
+        Connection connection = pooledDataSource.getConnection();
+        Connection physicalConnection = connection.unwrap(Connection.class);
+
+        pooledDataSource.close();
+        connection.close();
+
+        assertTrue(physicalConnection.isClosed());
+        assertEquals(0, pooledDataSource.getIdleConnections());
+        assertEquals(0, pooledDataSource.getTotalConnections());
+    }
+
+    @Test
+    public void testUncommittedTransactionIsRolledBackOnRelease() throws SQLException {
+        pooledDataSource = createPool(PoolConfig.builder().maxPoolSize(1).build());
+        try (Connection connection = pooledDataSource.getConnection()) {
+            connection.setAutoCommit(false);
+        }
+
+        try (Connection connection = pooledDataSource.getConnection()) {
+            assertTrue(connection.getAutoCommit());
+        }
+    }
+
+    @Test
+    public void testIdleConnectionsAreEvicted() throws Exception {
+        pooledDataSource = createPool(PoolConfig.builder().idleTimeoutMillis(10).housekeepingPeriodMillis(10).build());
+        pooledDataSource.getConnection().close();
+
+        waitUntil(() -> pooledDataSource.getTotalConnections() == 0);
+        assertEquals(0, pooledDataSource.getIdleConnections());
+    }
+
+    @Test
+    public void testLeakIsReported() throws Exception {
+        pooledDataSource = createPool(PoolConfig.builder().leakDetectionThresholdMillis(10).housekeepingPeriodMillis(10).build());
+        try (Connection ignored = pooledDataSource.getConnection()) {
+            waitUntil(() -> pooledDataSource.getLeakSuspectCount() == 1);
+        }
+    }
+
+    @Test
+    public void testConcurrentCallersSharePoolConnections() throws Exception {
+        int poolSize = 4;
+        int callers = 16;
+        int acquiresPerCaller = 500;
+        pooledDataSource = createPool(PoolConfig.builder().maxPoolSize(poolSize).build());
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        List<Future<Void>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> acquire(acquiresPerCaller)));
+            }
+            for (Future<Void> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(pooledDataSource.getCreatedConnections(), lessThanOrEqualTo((long) poolSize));
+        assertEquals(0, pooledDataSource.getActiveConnections());
+    }
+
+    private Void acquire(int acquires) throws SQLException {
+        for (int i = 0; i < acquires; i++) {
+            try (Connection connection = pooledDataSource.getConnection()) {
+                assertTrue(connection.isValid(1));
+            }
+        }
+        return null;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void waitUntil(Callable<Boolean> condition) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.call()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Condition wasn't met in time");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private PooledDataSource createPool(PoolConfig poolConfig) {
+        return JdbcUtil.createPooledDataSource(JdbcUtil.createInMemoryH2DataSource("pool_test_db"), poolConfig);
+    }
+}
@@ -0,0 +1,169 @@
+package com.bobocode;
+
+import com.bobocode.dao.*;
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.model.Movie;
+import com.bobocode.util.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+
+public class ReadWriteRoutingTest {
+    private static DataSource primary;
+    private static DataSource firstReplica;
+    private static DataSource secondReplica;
+
+    @BeforeClass
+    public static void init() throws SQLException {
+        primary = createDatabase("routing_primary_test_db");
+        firstReplica = createDatabase("routing_first_replica_test_db");
+        secondReplica = createDatabase("routing_second_replica_test_db");
+        for (DataSource replica : List.of(firstReplica, secondReplica)) {
+            new MovieDaoImpl(replica).save(Movie.builder().name("Casablanca").duration(102000L).releaseDate(LocalDate.of(1942, 11, 26)).build());
+        }
+    }
+
+    private static DataSource createDatabase(String databaseName) throws SQLException {
+        DataSource h2DataSource = JdbcUtil.createInMemoryH2DataSource(databaseName);
+        new ActorMovieDbInitializer(h2DataSource).init();
+        return h2DataSource;
+    }
+
+    @Test
+    public void testReadsAreBalancedOverReplicas() {
+        try (ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(primary,
+                List.of(firstReplica, secondReplica), RoutingConfig.defaults())) {
+            MovieDao movieDao = new ReplicaRoutingMovieDao(new MovieDaoImpl(routingDataSource), routingDataSource);
+
+            for (int i = 0; i < 4; i++) {
+                assertEquals(1, movieDao.findByName("Casablanca").size());
+            }
+
+            assertEquals(2, routingDataSource.getReplicaConnectionCount(0));
+            assertEquals(2, routingDataSource.getReplicaConnectionCount(1));
+            assertEquals(0, routingDataSource.getPrimaryConnectionCount());
+        }
+    }
+
+    @Test
+    public void testReadYourWritesAfterSave() {
+        try (ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(primary,
+                List.of(firstReplica, secondReplica), RoutingConfig.builder().readYourWritesMillis(60_000).build())) {
+            MovieDao movieDao = new ReplicaRoutingMovieDao(new MovieDaoImpl(routingDataSource), routingDataSource);
+            Movie vertigo = Movie.builder().name("Vertigo").duration(128000L).releaseDate(LocalDate.of(1958, 5, 9)).build();
+
+            movieDao.save(vertigo);
+
+            assertEquals(vertigo, movieDao.findById(vertigo.getId()));
+            assertEquals(1, routingDataSource.getStickyReadCount());
+            assertEquals(2, routingDataSource.getPrimaryConnectionCount());
+        }
+    }
+
+    @Test
+    public void testReadsWithoutStickinessGoToReplicas() {
+        try (ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(primary,
+                List.of(firstReplica), RoutingConfig.builder().readYourWritesMillis(0).build())) {
+            MovieDao movieDao = new ReplicaRoutingMovieDao(new MovieDaoImpl(routingDataSource), routingDataSource);
+            Movie psycho = Movie.builder().name("Psycho").duration(109000L).releaseDate(LocalDate.of(1960, 6, 16)).build();
+
+            movieDao.save(psycho);
+
+            try {
+                movieDao.findByName("Psycho");
+                fail("Exception wasn't thrown");
+            } catch (DaoOperationException e) {
+                assertEquals("Movie with name = Psycho does not exist", e.getMessage());
+            }
+            assertEquals(1, routingDataSource.getReplicaConnectionCount(0));
+        }
+    }
+
+    @Test
+    public void testSessionStickinessAcrossThreads() {
+        try (ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(primary,
+                List.of(firstReplica), RoutingConfig.builder().readYourWritesMillis(60_000).build())) {
+            MovieDao movieDao = new ReplicaRoutingMovieDao(new MovieDaoImpl(routingDataSource), routingDataSource);
+            Object session = new Object();
+            Movie rebecca = Movie.builder().name("Rebecca").duration(130000L).releaseDate(LocalDate.of(1940, 3, 28)).build();
+            routingDataSource.inSession(session, () -> {
+                movieDao.save(rebecca);
+                return null;
+            });
+
+            List<Movie> foundInSession = CompletableFuture.supplyAsync(
+                    () -> routingDataSource.inSession(session, () -> movieDao.findByName("Rebecca"))).join();
+            long replicaReadsOutsideSession = CompletableFuture.supplyAsync(() -> {
+                movieDao.findAll();
+                return routingDataSource.getReplicaConnectionCount(0);
+            }).join();
+
+            assertEquals(List.of(rebecca), foundInSession);
+            assertEquals(1, routingDataSource.getStickyReadCount());
+            assertEquals(1, replicaReadsOutsideSession);
+        }
+    }
+
+    @Test
+    public void testExpiredSessionWritesAreForgotten() throws InterruptedException {
+        RoutingConfig config = RoutingConfig.builder().readYourWritesMillis(20).healthCheckPeriodMillis(0).build();
+        try (ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(primary, List.of(), config)) {
+            for (int i = 0; i < 100; i++) {
+                routingDataSource.inSession(new Object(), () -> {
+                    routingDataSource.markWritten();
+                    return null;
+                });
+            }
+            Thread.sleep(50);
+
+            routingDataSource.inSession(new Object(), () -> {
+                routingDataSource.markWritten();
+                return null;
+            });
+
+            assertEquals(1, routingDataSource.getTrackedSessionCount());
+        }
+    }
+
+    @Test
+    public void testFailingReplicaIsEjected() {
+        PooledDataSource closedReplica = JdbcUtil.createPooledDataSource(secondReplica, PoolConfig.defaults());
+        closedReplica.close();
+        RoutingConfig config = RoutingConfig.builder().failuresBeforeEjection(1).healthCheckPeriodMillis(0).build();
+        try (ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(primary,
+                List.of(firstReplica, closedReplica), config)) {
+            MovieDao movieDao = new ReplicaRoutingMovieDao(new MovieDaoImpl(routingDataSource), routingDataSource);
+
+            for (int i = 0; i < 4; i++) {
+                assertEquals(1, movieDao.findByName("Casablanca").size());
+            }
+
+            assertTrue(routingDataSource.isReplicaEjected(1));
+            assertEquals(1, routingDataSource.getAvailableReplicaCount());
+            assertEquals(4, routingDataSource.getReplicaConnectionCount(0));
+            assertEquals(0, routingDataSource.getFallbackReadCount());
+        }
+    }
+
+    @Test
+    public void testNoReplicaAvailableWithoutFallback() {
+        PooledDataSource closedReplica = JdbcUtil.createPooledDataSource(firstReplica, PoolConfig.defaults());
+        closedReplica.close();
+        RoutingConfig config = RoutingConfig.builder().fallbackToPrimary(false).healthCheckPeriodMillis(0).build();
+        try (ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(primary, List.of(closedReplica), config)) {
+            MovieDao movieDao = new ReplicaRoutingMovieDao(new MovieDaoImpl(routingDataSource), routingDataSource);
+
+            movieDao.findAll();
+            fail("Exception wasn't thrown");
+        } catch (DaoOperationException e) {
+            assertTrue(e.getCause() instanceof SQLException);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.bobocode;
+
+import com.bobocode.dao.*;
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.model.Actor;
+import com.bobocode.model.Movie;
+import com.bobocode.util.ActorMovieDbInitializer;
+import com.bobocode.util.JdbcUtil;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.*;
+
+public class SaveAllTest {
+    private static ActorDao actorDao;
+    private static MovieDao movieDao;
+
+    @BeforeClass
+    public static void init() throws SQLException {
+        DataSource h2DataSource = JdbcUtil.createInMemoryH2DataSource("save_all_test_db");
+        ActorMovieDbInitializer dbInitializer = new ActorMovieDbInitializer(h2DataSource);
+        dbInitializer.init();
+        DaoConfig smallBatches = DaoConfig.builder().batchSize(3).build();
+        actorDao = new ActorDaoImpl(h2DataSource, smallBatches);
+        movieDao = new MovieDaoImpl(h2DataSource, smallBatches);
+    }
+
+    @Test
+    public void testSaveAllActorsAssignsIdsInOrder() {
+        List<Actor> actors = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            actors.add(Actor.builder().firstName("Extra" + i).lastName("Background").birthday(LocalDate.of(1980, 1, i + 1)).build());
+        }
+
+        actorDao.saveAll(actors);
+
+        for (int i = 0; i < actors.size(); i++) {
+            Actor savedActor = actors.get(i);
+            assertNotNull(savedActor.getId());
+            if (i > 0) {
+                assertThat(savedActor.getId(), greaterThan(actors.get(i - 1).getId()));
+            }
+            assertEquals(savedActor.getFirstName(), actorDao.findById(savedActor.getId()).getFirstName());
+        }
+    }
+
+    @Test
+    public void testSaveAllMovies() {
+        List<Movie> movies = List.of(
+                Movie.builder().name("Heat").duration(170000L).releaseDate(LocalDate.of(1995, 12, 15)).build(),
+                Movie.builder().name("Ronin").duration(122000L).releaseDate(LocalDate.of(1998, 9, 25)).build(),
+                Movie.builder().name("Collateral").duration(120000L).releaseDate(LocalDate.of(2004, 8, 6)).build(),
+                Movie.builder().name("Thief").duration(123000L).releaseDate(LocalDate.of(1981, 3, 27)).build()
+        );
+
+        movieDao.saveAll(movies);
+
+        for (Movie movie : movies) {
+            assertEquals(movie, movieDao.findByName(movie.getName()).get(0));
+        }
+    }
+
+    @Test
+    public void testSaveAllIsAtomic() {
+        List<Movie> movies = List.of(
+                Movie.builder().name("Insomnia").duration(118000L).releaseDate(LocalDate.of(2002, 5, 24)).build(),
+                Movie.builder().name(null).duration(118000L).releaseDate(LocalDate.of(2002, 5, 24)).build()
+        );
+        try {
+            movieDao.saveAll(movies);
+            fail("Exception wasn't thrown");
+        } catch (DaoOperationException e) {
+            assertEquals("Couldn't save 2 movies", e.getMessage());
+        }
+
+        try {
+            movieDao.findByName("Insomnia");
+            fail("Exception wasn't thrown");
+        } catch (DaoOperationException e) {
+            assertEquals("Movie with name = Insomnia does not exist", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.bobocode;
+
+import com.bobocode.dao.*;
+import com.bobocode.model.Actor;
+import com.bobocode.model.ActorMovieLink;
+import com.bobocode.model.Movie;
+import com.bobocode.model.Page;
+import com.bobocode.shard.*;
+import com.bobocode.util.ActorMovieDbInitializer;
+import com.bobocode.util.AsyncDaoExecutor;
+import com.bobocode.util.JdbcUtil;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.Assert.*;
+
+public class ShardingTest {
+    private static final AsyncDaoExecutor executor = AsyncDaoExecutor.create(8);
+
+    @AfterClass
+    public static void closeExecutor() {
+        executor.close();
+    }
+
+    @Test
+    public void testAddingShardOnlyMovesKeysToIt() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("a", "b", "c"));
+        ConsistentHashRing extendedRing = ring.withShard("d");
+        Map<String, Integer> keysPerShard = new HashMap<>();
+
+        for (long key = 1; key <= 10_000; key++) {
+            String owner = ring.shardFor(key);
+            String newOwner = extendedRing.shardFor(key);
+            assertTrue(newOwner.equals(owner) || newOwner.equals("d"));
+            keysPerShard.merge(owner, 1, Integer::sum);
+        }
+
+        keysPerShard.values().forEach(keyCount -> assertTrue(keyCount > 2_500));
+    }
+
+    @Test
+    public void testScatterGatherQueries() throws SQLException {
+        ShardMap shardMap = createShardMap("scatter", "a", "b");
+        ShardIdAllocator idAllocator = createIdAllocator(shardMap);
+        ActorDao actorDao = new ShardedActorDao(shardMap, idAllocator, executor);
+        MovieDao movieDao = new ShardedMovieDao(shardMap, idAllocator, executor, DaoConfig.builder().batchSize(3).build());
+        Actor meryl = Actor.builder().firstName("Meryl").lastName("Streep").birthday(LocalDate.of(1949, 6, 22)).build();
+        actorDao.save(meryl);
+        List<Movie> movies = createMovies("Mamma Mia", 20);
+        movieDao.saveAll(movies);
+        List<ActorMovieLink> links = new ArrayList<>();
+        movies.subList(0, 10).forEach(movie -> links.add(new ActorMovieLink(meryl.getId(), movie.getId())));
+        actorDao.linkAll(links);
+
+        assertEquals(meryl, actorDao.findById(meryl.getId()));
+        assertThat(movieDao.findAll(), containsInAnyOrder(movies.toArray()));
+        assertThat(movieDao.findByActorFirstAndLastName("Meryl", "Streep"), containsInAnyOrder(movies.subList(0, 10).toArray()));
+        assertEquals(movies.get(7), movieDao.findById(movies.get(7).getId()));
+        assertEquals(List.of(movies.get(3)), movieDao.findByName("Mamma Mia 3"));
+        assertEquals(10, movieDao.findAllWithActors().stream().filter(movie -> movie.getActors().contains(meryl)).count());
+        for (String shard : shardMap.getShards()) {
+            assertFalse(new MovieDaoImpl(shardMap.dataSource(shard)).findAll().isEmpty());
+        }
+        assertEquals(movieDao.findAll(), readAllPages(movieDao, 3));
+    }
+
+    @Test
+    public void testAddShardMovesMoviesWithTheirLinks() throws SQLException {
+        ShardMap shardMap = createShardMap("rebalance", "a", "b");
+        ShardIdAllocator idAllocator = createIdAllocator(shardMap);
+        ActorDao actorDao = new ShardedActorDao(shardMap, idAllocator, executor);
+        MovieDao movieDao = new ShardedMovieDao(shardMap, idAllocator, executor);
+        Actor tom = Actor.builder().firstName("Tom").lastName("Hanks").birthday(LocalDate.of(1956, 7, 9)).build();
+        actorDao.save(tom);
+        List<Movie> movies = createMovies("Toy Story", 60);
+        movieDao.saveAll(movies);
+        movies.forEach(movie -> actorDao.linkActorToMovieByID(tom.getId(), movie.getId()));
+
+        DataSource newShard = createDatabase("rebalance_c_test_db");
+        RebalanceReport report = new ShardRebalancer(shardMap, 7).addShard("c", newShard);
+
+        assertEquals(1, report.getActorCount());
+        assertTrue(report.getMovieCount() > 0);
+        assertEquals(report.getMovieCount(), report.getLinkCount());
+        assertEquals(report.getMovieCount(), new MovieDaoImpl(newShard).findAll().size());
+        int storedMovieCount = 0;
+        for (String shard : shardMap.getShards()) {
+            storedMovieCount += new MovieDaoImpl(shardMap.dataSource(shard)).findAll().size();
+        }
+        assertEquals(movies.size(), storedMovieCount);
+        assertThat(movieDao.findByActorFirstAndLastName("Tom", "Hanks"), containsInAnyOrder(movies.toArray()));
+
+        Actor tim = Actor.builder().firstName("Tim").lastName("Allen").birthday(LocalDate.of(1953, 6, 13)).build();
+        actorDao.save(tim);
+        movies.forEach(movie -> actorDao.linkActorToMovieByID(tim.getId(), movie.getId()));
+        assertThat(movieDao.findByActorFirstAndLastName("Tim", "Allen"), containsInAnyOrder(movies.toArray()));
+    }
+
+    @Test
+    public void testUpsertAllFindsMoviesOnEveryShard() throws SQLException {
+        ShardMap shardMap = createShardMap("upsert", "a", "b");
+        ShardIdAllocator idAllocator = createIdAllocator(shardMap);
+        MovieDao movieDao = new ShardedMovieDao(shardMap, idAllocator, executor);
+        List<Movie> movies = createMovies("Alien", 10);
+        movieDao.saveAll(movies);
+        List<Movie> sameMovies = createMovies("Alien", 12);
+        Movie aliensOne = Movie.builder().name("Aliens").duration(137000L).releaseDate(LocalDate.of(1986, 7, 18)).build();
+        Movie aliensTwo = Movie.builder().name("Aliens").duration(137000L).releaseDate(LocalDate.of(1986, 7, 18)).build();
+        sameMovies.add(aliensOne);
+        sameMovies.add(aliensTwo);
+
+        movieDao.upsertAll(sameMovies);
+
+        for (int i = 0; i < movies.size(); i++) {
+            assertEquals(movies.get(i).getId(), sameMovies.get(i).getId());
+        }
+        assertEquals(aliensOne.getId(), aliensTwo.getId());
+        assertEquals(sameMovies.get(10), movieDao.findById(sameMovies.get(10).getId()));
+        assertEquals(13, movieDao.findAll().size());
+        assertEquals(aliensOne.getId(), movieDao.saveOrGet(
+                Movie.builder().name("Aliens").duration(137000L).releaseDate(LocalDate.of(1986, 7, 18)).build()));
+    }
+
+    @Test
+    public void testSingleRowWritesLandOnOneShard() throws SQLException {
+        ShardMap shardMap = createShardMap("single", "a", "b");
+        ShardIdAllocator idAllocator = createIdAllocator(shardMap);
+        ActorDao actorDao = new ShardedActorDao(shardMap, idAllocator, executor);
+        MovieDao movieDao = new ShardedMovieDao(shardMap, idAllocator, executor);
+        Actor sigourney = Actor.builder().firstName("Sigourney").lastName("Weaver").birthday(LocalDate.of(1949, 10, 8)).build();
+        Movie alien = Movie.builder().name("Alien").duration(117000L).releaseDate(LocalDate.of(1979, 5, 25)).build();
+
+        actorDao.save(sigourney);
+        movieDao.save(alien);
+        actorDao.linkAll(List.of(new ActorMovieLink(sigourney.getId(), alien.getId())));
+
+        assertEquals(alien, movieDao.findById(alien.getId()));
+        assertEquals(List.of(alien), movieDao.findByActorFirstAndLastName("Sigourney", "Weaver"));
+    }
+
+    @Test
+    public void testSingleShardMap() throws SQLException {
+        ShardMap shardMap = createShardMap("lone", "a");
+        ShardIdAllocator idAllocator = createIdAllocator(shardMap);
+        ActorDao actorDao = new ShardedActorDao(shardMap, idAllocator, executor);
+        MovieDao movieDao = new ShardedMovieDao(shardMap, idAllocator, executor);
+        Actor ian = Actor.builder().firstName("Ian").lastName("Holm").birthday(LocalDate.of(1931, 9, 12)).build();
+        Movie brazil = Movie.builder().name("Brazil").duration(142000L).releaseDate(LocalDate.of(1985, 2, 20)).build();
+
+        actorDao.save(ian);
+        Long brazilId = movieDao.saveOrGet(brazil);
+        actorDao.linkActorToMovieByID(ian.getId(), brazilId);
+
+        assertEquals(ian, actorDao.findById(ian.getId()));
+        assertEquals(List.of(brazil), movieDao.findByActorFirstAndLastName("Ian", "Holm"));
+    }
+
+    private static List<Movie> readAllPages(MovieDao movieDao, int limit) {
+        List<Movie> pagedMovies = new ArrayList<>();
+        Page<Movie> page = movieDao.findPage(null, limit);
+        pagedMovies.addAll(page.getContent());
+        while (page.hasNext()) {
+            page = movieDao.findPage(page.getContinuationToken(), limit);
+            pagedMovies.addAll(page.getContent());
+        }
+        return pagedMovies;
+    }
+
+    private static List<Movie> createMovies(String name, int count) {
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            movies.add(Movie.builder().name(name + " " + i).duration(95000L).releaseDate(LocalDate.of(2008, 7, 3)).build());
+        }
+        return movies;
+    }
+
+    private static ShardMap createShardMap(String prefix, String... shards) throws SQLException {
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        for (String shard : shards) {
+            dataSources.put(shard, createDatabase(prefix + "_" + shard + "_test_db"));
+        }
+        return new ShardMap(dataSources);
+    }
+
+    private static ShardIdAllocator createIdAllocator(ShardMap shardMap) {
+        ShardIdAllocator idAllocator = new ShardIdAllocator(shardMap.dataSource("a"), "shard_id_seq", 10);
+        idAllocator.init();
+        return idAllocator;
+    }
+
+    private static DataSource createDatabase(String databaseName) throws SQLException {
+        DataSource h2DataSource = JdbcUtil.createInMemoryH2DataSource(databaseName);
+        new ActorMovieDbInitializer(h2DataSource).init();
+        return h2DataSource;
+    }
+}
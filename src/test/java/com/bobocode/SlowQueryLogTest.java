@@ -0,0 +1,117 @@
+package com.bobocode;
+
+import com.bobocode.dao.MovieDao;
+import com.bobocode.dao.MovieDaoImpl;
+import com.bobocode.metrics.SlowQuery;
+import com.bobocode.metrics.SlowQueryConfig;
+import com.bobocode.metrics.SlowQueryLoggingDataSource;
+import com.bobocode.model.Movie;
+import com.bobocode.util.ActorMovieDbInitializer;
+import com.bobocode.util.JdbcUtil;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+public class SlowQueryLogTest {
+    private static DataSource h2DataSource;
+
+    @BeforeClass
+    public static void init() throws SQLException {
+        h2DataSource = JdbcUtil.createInMemoryH2DataSource("slow_query_log_test_db");
+        new ActorMovieDbInitializer(h2DataSource).init();
+        new MovieDaoImpl(h2DataSource).save(Movie.builder().name("Vertigo").duration(128000L).releaseDate(LocalDate.of(1958, 5, 9)).build());
+    }
+
+    @Test
+    public void testSlowQueryIsReportedWithParametersAndPlan() throws InterruptedException {
+        BlockingQueue<SlowQuery> slowQueries = new LinkedBlockingQueue<>();
+        SlowQueryConfig logEverything = SlowQueryConfig.builder().thresholdMillis(0).build();
+        try (SlowQueryLoggingDataSource dataSource = new SlowQueryLoggingDataSource(h2DataSource, logEverything, slowQueries::add)) {
+            MovieDao movieDao = new MovieDaoImpl(dataSource);
+
+            movieDao.findByName("Vertigo");
+
+            SlowQuery slowQuery = slowQueries.poll(5, TimeUnit.SECONDS);
+            assertNotNull(slowQuery);
+            assertThat(slowQuery.getSql(), containsString("FROM movie"));
+            assertEquals(List.of("Vertigo"), slowQuery.getParameters());
+            assertThat(slowQuery.getPlan(), containsString("UQ_NAME_DURATION_RELEASE_DATE"));
+        }
+    }
+
+    @Test
+    public void testSlowBatchIsReportedWithSizeAndFirstRow() throws InterruptedException {
+        BlockingQueue<SlowQuery> slowQueries = new LinkedBlockingQueue<>();
+        SlowQueryConfig logEverything = SlowQueryConfig.builder().thresholdMillis(0).captureExplain(false).build();
+        try (SlowQueryLoggingDataSource dataSource = new SlowQueryLoggingDataSource(h2DataSource, logEverything, slowQueries::add)) {
+            new MovieDaoImpl(dataSource).saveAll(List.of(
+                    Movie.builder().name("Psycho").duration(109000L).releaseDate(LocalDate.of(1960, 9, 8)).build(),
+                    Movie.builder().name("The Birds").duration(119000L).releaseDate(LocalDate.of(1963, 3, 28)).build(),
+                    Movie.builder().name("Marnie").duration(130000L).releaseDate(LocalDate.of(1964, 7, 22)).build()));
+
+            SlowQuery slowBatch = null;
+            for (SlowQuery slowQuery = slowQueries.poll(5, TimeUnit.SECONDS); slowQuery != null; slowQuery = slowQueries.poll()) {
+                if (slowQuery.getBatchSize() > 0) {
+                    slowBatch = slowQuery;
+                }
+            }
+            assertNotNull(slowBatch);
+            assertEquals(3, slowBatch.getBatchSize());
+            assertThat(slowBatch.getParameters(), hasItem("Psycho"));
+            assertThat(slowBatch.getParameters(), not(hasItem("Marnie")));
+        }
+    }
+
+    @Test
+    public void testFastQueryIsNotReported() throws InterruptedException {
+        BlockingQueue<SlowQuery> slowQueries = new LinkedBlockingQueue<>();
+        SlowQueryConfig config = SlowQueryConfig.builder().thresholdMillis(60_000).build();
+        try (SlowQueryLoggingDataSource dataSource = new SlowQueryLoggingDataSource(h2DataSource, config, slowQueries::add)) {
+            new MovieDaoImpl(dataSource).findAll();
+
+            assertNull(slowQueries.poll(200, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @Test
+    public void testStatementEventsAreRecorded() throws Exception {
+        Path recordingFile = Files.createTempFile("slow-query-log-test", ".jfr");
+        try (SlowQueryLoggingDataSource dataSource = new SlowQueryLoggingDataSource(h2DataSource, SlowQueryConfig.defaults());
+             Recording recording = new Recording()) {
+            recording.enable("com.bobocode.JdbcStatement").withThreshold(Duration.ZERO);
+            recording.start();
+            new MovieDaoImpl(dataSource).findByName("Vertigo");
+            recording.stop();
+            recording.dump(recordingFile);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile).stream()
+                    .filter(event -> event.getEventType().getName().equals("com.bobocode.JdbcStatement"))
+                    .collect(Collectors.toList());
+
+            assertEquals(1, events.size());
+            assertThat(events.get(0).getString("sql"), containsString("FROM movie"));
+            assertEquals("[Vertigo]", events.get(0).getString("parameters"));
+            assertFalse(events.get(0).getBoolean("slow"));
+        } finally {
+            Files.deleteIfExists(recordingFile);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.bobocode;
+
+import com.bobocode.dao.ActorDao;
+import com.bobocode.dao.ActorDaoImpl;
+import com.bobocode.dao.MovieDao;
+import com.bobocode.dao.MovieDaoImpl;
+import com.bobocode.model.Actor;
+import com.bobocode.model.Movie;
+import com.bobocode.util.ActorMovieDbInitializer;
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.PoolConfig;
+import com.bobocode.util.PooledDataSource;
+import org.junit.After;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.*;
+
+public class StatementCacheTest {
+    private PooledDataSource pooledDataSource;
+
+    @After
+    public void closePool() {
+        pooledDataSource.close();
+    }
+
+    @Test
+    public void testStatementIsReusedAcrossConnectionCheckouts() throws SQLException {
+        pooledDataSource = createPool(PoolConfig.builder().maxPoolSize(1).build(), "statement_reuse_test_db");
+
+        for (int i = 0; i < 10; i++) {
+            try (Connection connection = pooledDataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement("SELECT ?")) {
+                statement.setInt(1, i);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    assertTrue(resultSet.next());
+                    assertEquals(i, resultSet.getInt(1));
+                }
+            }
+        }
+
+        assertEquals(1, pooledDataSource.getPreparedStatementCount());
+        assertEquals(1, pooledDataSource.getOpenStatementCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedStatementIsClosedWhenCacheIsFull() throws SQLException {
+        pooledDataSource = createPool(PoolConfig.builder().maxPoolSize(1).statementCacheSize(1).build(), "statement_eviction_test_db");
+
+        for (int i = 0; i < 10; i++) {
+            try (Connection connection = pooledDataSource.getConnection()) {
+                connection.prepareStatement("SELECT 1").close();
+                connection.prepareStatement("SELECT 2").close();
+            }
+        }
+
+        assertEquals(20, pooledDataSource.getPreparedStatementCount());
+        assertEquals(1, pooledDataSource.getOpenStatementCount());
+    }
+
+    @Test
+    public void testClosingConnectionReleasesItsStatements() throws SQLException {
+        pooledDataSource = createPool(PoolConfig.builder().maxPoolSize(1).build(), "statement_release_test_db");
+        PreparedStatement statement;
+        try (Connection connection = pooledDataSource.getConnection()) {
+            statement = connection.prepareStatement("SELECT 1");
+        }
+
+        assertTrue(statement.isClosed());
+        try (Connection connection = pooledDataSource.getConnection()) {
+            connection.prepareStatement("SELECT 1").close();
+        }
+        assertEquals(1, pooledDataSource.getPreparedStatementCount());
+    }
+
+    @Test
+    public void testNoStatementGrowthUnderConcurrentDaoLoad() throws Exception {
+        int poolSize = 4;
+        int workers = 8;
+        int operationsPerWorker = 12_500;
+        pooledDataSource = createPool(PoolConfig.builder().maxPoolSize(poolSize).build(), "statement_load_test_db");
+        new ActorMovieDbInitializer(pooledDataSource).init();
+        ActorDao actorDao = new ActorDaoImpl(pooledDataSource);
+        MovieDao movieDao = new MovieDaoImpl(pooledDataSource);
+        Actor actor = Actor.builder().firstName("Gary").lastName("Oldman").birthday(LocalDate.of(1958, 3, 21)).build();
+        actorDao.save(actor);
+        Movie movie = Movie.builder().name("Leon").duration(110000L).releaseDate(LocalDate.of(1994, 9, 14)).build();
+        movieDao.save(movie);
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int worker = 0; worker < workers; worker++) {
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < operationsPerWorker; i++) {
+                        if (i % 2 == 0) {
+                            actorDao.findById(actor.getId());
+                        } else {
+                            movieDao.findByName(movie.getName());
+                        }
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long statementsPerConnection = 4;
+        assertThat(pooledDataSource.getPreparedStatementCount(), lessThanOrEqualTo(poolSize * statementsPerConnection));
+        assertThat(pooledDataSource.getOpenStatementCount(), lessThanOrEqualTo(poolSize * statementsPerConnection));
+        assertEquals(0, pooledDataSource.getActiveConnections());
+    }
+
+    private PooledDataSource createPool(PoolConfig poolConfig, String databaseName) {
+        pooledDataSource = JdbcUtil.createPooledDataSource(JdbcUtil.createInMemoryH2DataSource(databaseName), poolConfig);
+        return pooledDataSource;
+    }
+}
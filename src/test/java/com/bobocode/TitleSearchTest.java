@@ -0,0 +1,112 @@
+package com.bobocode;
+
+import com.bobocode.dao.MovieDao;
+import com.bobocode.dao.MovieDaoImpl;
+import com.bobocode.dao.TitleIndexMovieDao;
+import com.bobocode.model.Movie;
+import com.bobocode.search.MovieTitleIndex;
+import com.bobocode.util.ActorMovieDbInitializer;
+import com.bobocode.util.JdbcUtil;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.*;
+
+public class TitleSearchTest {
+    private static MovieDao movieDao;
+    private static MovieDao indexedMovieDao;
+
+    @BeforeClass
+    public static void init() throws SQLException {
+        DataSource h2DataSource = JdbcUtil.createInMemoryH2DataSource("title_search_test_db");
+        ActorMovieDbInitializer dbInitializer = new ActorMovieDbInitializer(h2DataSource);
+        dbInitializer.init();
+        movieDao = new MovieDaoImpl(h2DataSource);
+        movieDao.saveAll(List.of(movie("The Godfather"), movie("The Godfather Part II"), movie("Goodfellas"),
+                movie("Gladiator"), movie("Godzilla")));
+        indexedMovieDao = new TitleIndexMovieDao(movieDao, MovieTitleIndex.load(h2DataSource));
+    }
+
+    @Test
+    public void testPrefixMatchesComeFirst() {
+        List<String> names = names(indexedMovieDao.searchByName("the godf", 10));
+
+        assertThat(names, contains("The Godfather", "The Godfather Part II"));
+    }
+
+    @Test
+    public void testMisspelledTitleIsFound() {
+        List<String> names = names(indexedMovieDao.searchByName("Godfater", 1));
+
+        assertEquals(List.of("The Godfather"), names);
+    }
+
+    @Test
+    public void testSavedMovieIsSearchable() {
+        Movie gattaca = movie("Gattaca");
+        indexedMovieDao.save(gattaca);
+
+        assertEquals(List.of(gattaca), indexedMovieDao.searchByName("Gatacca", 5));
+    }
+
+    @Test
+    public void testUnrelatedQueryFindsNothing() {
+        assertTrue(indexedMovieDao.searchByName("Zyxwv", 5).isEmpty());
+    }
+
+    @Test
+    public void testIndexScoresRankPrefixAboveSimilarity() {
+        assertTrue(MovieTitleIndex.score("glad", "Gladiator") > MovieTitleIndex.score("glad", "Sad Glad Days"));
+        assertTrue(MovieTitleIndex.score("glad", "Gladiator") >= 1);
+    }
+
+    @Test
+    public void testPrefixBonusCountsInTopK() {
+        MovieTitleIndex index = new MovieTitleIndex();
+        index.add(1, "abc");
+        index.add(2, "ab bbbbbbbbbb");
+        index.add(3, "ab c");
+
+        assertArrayEquals(new long[]{3}, index.search("ab", 1));
+    }
+
+    @Test
+    public void testPrefixBonusCountsInTopKAmongManyPrefixMatches() {
+        MovieTitleIndex index = new MovieTitleIndex();
+        index.add(1, "abc");
+        for (int i = 0; i < 100; i++) {
+            index.add(100 + i, "ab bbbbbbbbbb " + i);
+        }
+        index.add(3, "ab c");
+
+        assertArrayEquals(new long[]{3}, index.search("ab", 1));
+    }
+
+    @Test
+    public void testH2SearchFallsBackToPrefixMatch() {
+        List<String> names = names(movieDao.searchByName("GOD", 10));
+
+        assertThat(names, contains("Godzilla"));
+    }
+
+    @Test
+    public void testLikeWildcardsInQueryAreLiteral() {
+        assertTrue(movieDao.searchByName("%", 10).isEmpty());
+    }
+
+    private static Movie movie(String name) {
+        return Movie.builder().name(name).duration(120000L).releaseDate(LocalDate.of(2000, 1, 1)).build();
+    }
+
+    private static List<String> names(List<Movie> movies) {
+        return movies.stream().map(Movie::getName).collect(Collectors.toList());
+    }
+}
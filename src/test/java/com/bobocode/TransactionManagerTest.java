@@ -0,0 +1,175 @@
+package com.bobocode;
+
+import com.bobocode.dao.ActorDao;
+import com.bobocode.dao.ActorDaoImpl;
+import com.bobocode.dao.MovieDao;
+import com.bobocode.dao.MovieDaoImpl;
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.model.Actor;
+import com.bobocode.model.ActorMovieLink;
+import com.bobocode.model.Movie;
+import com.bobocode.util.*;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.Assert.*;
+
+public class TransactionManagerTest {
+    private static PooledDataSource pooledDataSource;
+    private static TransactionManager transactionManager;
+    private static ActorDao actorDao;
+    private static MovieDao movieDao;
+
+    @BeforeClass
+    public static void init() throws SQLException {
+        pooledDataSource = JdbcUtil.createPooledDataSource(JdbcUtil.createInMemoryH2DataSource("transaction_manager_test_db"), PoolConfig.defaults());
+        ActorMovieDbInitializer dbInitializer = new ActorMovieDbInitializer(pooledDataSource);
+        dbInitializer.init();
+        transactionManager = new TransactionManager(pooledDataSource);
+        actorDao = new ActorDaoImpl(transactionManager.getDataSource());
+        movieDao = new MovieDaoImpl(transactionManager.getDataSource());
+    }
+
+    @AfterClass
+    public static void closePool() {
+        pooledDataSource.close();
+    }
+
+    @Test
+    public void testUnitOfWorkUsesOneConnectionAndCommitsOnce() {
+        Actor joaquinPhoenix = Actor.builder().firstName("Joaquin").lastName("Phoenix").birthday(LocalDate.of(1974, 10, 28)).build();
+        Movie her = Movie.builder().name("Her").duration(126000L).releaseDate(LocalDate.of(2013, 12, 18)).build();
+        Movie joker = Movie.builder().name("Joker").duration(122000L).releaseDate(LocalDate.of(2019, 10, 4)).build();
+        long commitsBefore = transactionManager.getCommitCount();
+
+        transactionManager.inTransaction(context -> {
+            actorDao.save(joaquinPhoenix);
+            movieDao.saveAll(List.of(her, joker));
+            actorDao.linkActorToMovieByID(joaquinPhoenix.getId(), her.getId());
+            actorDao.linkActorToMovieByID(joaquinPhoenix.getId(), joker.getId());
+            assertEquals(1, pooledDataSource.getActiveConnections());
+            return null;
+        });
+
+        assertEquals(commitsBefore + 1, transactionManager.getCommitCount());
+        assertEquals(0, pooledDataSource.getActiveConnections());
+        assertThat(movieDao.findByActorFirstAndLastName("Joaquin", "Phoenix"), containsInAnyOrder(her, joker));
+    }
+
+    @Test
+    public void testFailureRollsBackWholeUnitOfWork() {
+        Actor rooneyMara = Actor.builder().firstName("Rooney").lastName("Mara").birthday(LocalDate.of(1985, 4, 17)).build();
+
+        try {
+            transactionManager.inTransaction(context -> {
+                actorDao.save(rooneyMara);
+                actorDao.linkActorToMovieByID(rooneyMara.getId(), 999L);
+                return null;
+            });
+            fail("Exception wasn't thrown");
+        } catch (DaoOperationException e) {
+            assertFalse(transactionManager.isInTransaction());
+        }
+
+        try {
+            actorDao.findById(rooneyMara.getId());
+            fail("Rolled back actor was found");
+        } catch (DaoOperationException e) {
+            assertEquals(String.format("Actor with id = %d does not exist", rooneyMara.getId()), e.getMessage());
+        }
+    }
+
+    @Test
+    public void testCaughtDaoFailureMarksUnitOfWorkRollbackOnly() {
+        Movie sideEffects = Movie.builder().name("Side Effects").duration(106000L).releaseDate(LocalDate.of(2013, 2, 8)).build();
+
+        boolean[] rollbackOnly = new boolean[1];
+        try {
+            transactionManager.inTransaction(context -> {
+                movieDao.save(sideEffects);
+                try {
+                    actorDao.linkAll(List.of(new ActorMovieLink(1L, 999L)));
+                } catch (DaoOperationException ignored) {
+                    // the unit of work must not commit the movie saved before
+                }
+                rollbackOnly[0] = context.isRollbackOnly();
+                return null;
+            });
+            fail("Exception wasn't thrown");
+        } catch (DaoOperationException e) {
+            assertEquals("Transaction rolled back unexpectedly, a failed call marked it rollback-only", e.getMessage());
+        }
+
+        assertTrue(rollbackOnly[0]);
+        assertFalse(movieDao.findAll().contains(sideEffects));
+    }
+
+    @Test
+    public void testExplicitRollbackOnlyRollsBackQuietly() {
+        Movie contagion = Movie.builder().name("Contagion").duration(106000L).releaseDate(LocalDate.of(2011, 9, 9)).build();
+        long rollbacksBefore = transactionManager.getRollbackCount();
+
+        String result = transactionManager.inTransaction(context -> {
+            movieDao.save(contagion);
+            context.setRollbackOnly();
+            return "dry run";
+        });
+
+        assertEquals("dry run", result);
+        assertEquals(rollbacksBefore + 1, transactionManager.getRollbackCount());
+        assertFalse(movieDao.findAll().contains(contagion));
+    }
+
+    @Test
+    public void testNestedUnitOfWorkJoinsEnclosingOne() {
+        Movie carol = Movie.builder().name("Carol").duration(118000L).releaseDate(LocalDate.of(2015, 11, 20)).build();
+
+        Connection innerConnection = transactionManager.inTransaction(outer -> {
+            movieDao.save(carol);
+            return transactionManager.inTransaction(inner -> {
+                assertSame(outer, inner);
+                return inner.getConnection();
+            });
+        });
+
+        assertNotNull(innerConnection);
+        assertTrue(movieDao.findAll().contains(carol));
+    }
+
+    @Test
+    public void testIsolationLevelAndReadOnlyHint() {
+        TransactionConfig config = TransactionConfig.builder()
+                .isolationLevel(Connection.TRANSACTION_SERIALIZABLE)
+                .readOnly(true)
+                .build();
+
+        transactionManager.inTransaction(config, context -> {
+            try {
+                assertEquals(Connection.TRANSACTION_SERIALIZABLE, context.getConnection().getTransactionIsolation());
+                assertTrue(context.isReadOnly());
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            return movieDao.findAll();
+        });
+    }
+
+    @Test
+    public void testReadWriteWorkCannotJoinReadOnlyOne() {
+        try {
+            transactionManager.inTransaction(TransactionConfig.readOnlyDefaults(),
+                    context -> transactionManager.inTransaction(inner -> null));
+            fail("Exception wasn't thrown");
+        } catch (IllegalStateException e) {
+            assertEquals("Cannot join a read-only transaction with a read-write one", e.getMessage());
+        }
+    }
+}
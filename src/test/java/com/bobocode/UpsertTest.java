@@ -0,0 +1,82 @@
+package com.bobocode;
+
+import com.bobocode.dao.DaoConfig;
+import com.bobocode.dao.MovieDao;
+import com.bobocode.dao.MovieDaoImpl;
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.model.Movie;
+import com.bobocode.util.ActorMovieDbInitializer;
+import com.bobocode.util.JdbcUtil;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class UpsertTest {
+    private static MovieDao movieDao;
+
+    @BeforeClass
+    public static void init() throws SQLException {
+        DataSource h2DataSource = JdbcUtil.createInMemoryH2DataSource("upsert_test_db");
+        ActorMovieDbInitializer dbInitializer = new ActorMovieDbInitializer(h2DataSource);
+        dbInitializer.init();
+        movieDao = new MovieDaoImpl(h2DataSource, DaoConfig.builder().batchSize(2).build());
+    }
+
+    @Test
+    public void testSaveOrGetReturnsIdOfExistingMovie() {
+        Movie arrival = Movie.builder().name("Arrival").duration(116000L).releaseDate(LocalDate.of(2016, 11, 11)).build();
+        movieDao.save(arrival);
+        Movie sameArrival = Movie.builder().name("Arrival").duration(116000L).releaseDate(LocalDate.of(2016, 11, 11)).build();
+
+        Long id = movieDao.saveOrGet(sameArrival);
+
+        assertEquals(arrival.getId(), id);
+        assertEquals(arrival.getId(), sameArrival.getId());
+        assertEquals(1, movieDao.findByName("Arrival").size());
+    }
+
+    @Test
+    public void testSaveOrGetInsertsNewMovie() {
+        Movie sicario = Movie.builder().name("Sicario").duration(121000L).releaseDate(LocalDate.of(2015, 9, 18)).build();
+
+        Long id = movieDao.saveOrGet(sicario);
+
+        assertNotNull(id);
+        assertEquals(sicario, movieDao.findById(id));
+    }
+
+    @Test
+    public void testUpsertAllAssignsSameIdToEqualMovies() {
+        Movie prisoners = Movie.builder().name("Prisoners").duration(153000L).releaseDate(LocalDate.of(2013, 9, 20)).build();
+        movieDao.save(prisoners);
+        Movie duneOne = Movie.builder().name("Dune").duration(155000L).releaseDate(LocalDate.of(2021, 10, 22)).build();
+        Movie duneTwo = Movie.builder().name("Dune").duration(155000L).releaseDate(LocalDate.of(2021, 10, 22)).build();
+        Movie duneLynch = Movie.builder().name("Dune").duration(137000L).releaseDate(LocalDate.of(1984, 12, 14)).build();
+        Movie prisonersAgain = Movie.builder().name("Prisoners").duration(153000L).releaseDate(LocalDate.of(2013, 9, 20)).build();
+
+        movieDao.upsertAll(List.of(duneOne, duneTwo, duneLynch, prisonersAgain));
+
+        assertEquals(duneOne.getId(), duneTwo.getId());
+        assertNotEquals(duneOne.getId(), duneLynch.getId());
+        assertEquals(prisoners.getId(), prisonersAgain.getId());
+        assertEquals(2, movieDao.findByName("Dune").size());
+    }
+
+    @Test
+    public void testUpsertWithoutReleaseDateIsRejected() {
+        Movie undated = Movie.builder().name("Undated").duration(90000L).build();
+
+        try {
+            movieDao.upsertAll(List.of(undated));
+            fail("Movie without release date was upserted");
+        } catch (DaoOperationException e) {
+            assertTrue(e.getMessage().startsWith("Movie name, duration and release date are required"));
+        }
+    }
+}
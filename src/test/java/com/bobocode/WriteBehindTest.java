@@ -0,0 +1,140 @@
+package com.bobocode;
+
+import com.bobocode.dao.*;
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.model.Actor;
+import com.bobocode.model.Movie;
+import com.bobocode.util.ActorMovieDbInitializer;
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.PoolConfig;
+import com.bobocode.util.PooledDataSource;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.Assert.*;
+
+public class WriteBehindTest {
+    private static DataSource h2DataSource;
+    private static ActorDao actorDao;
+    private static MovieDao movieDao;
+
+    @BeforeClass
+    public static void init() throws SQLException {
+        h2DataSource = JdbcUtil.createInMemoryH2DataSource("write_behind_test_db");
+        ActorMovieDbInitializer dbInitializer = new ActorMovieDbInitializer(h2DataSource);
+        dbInitializer.init();
+        actorDao = new ActorDaoImpl(h2DataSource);
+        movieDao = new MovieDaoImpl(h2DataSource);
+    }
+
+    @Test
+    public void testConcurrentSavesShareTransactions() {
+        List<Actor> actors = createActors("Chorus", 50);
+        try (WriteBehindWriter writer = new WriteBehindWriter(h2DataSource, WriteBehindConfig.builder().flushIntervalMillis(50).build())) {
+            WriteBehindActorDao writeBehindActorDao = new WriteBehindActorDao(actorDao, writer);
+
+            CompletableFuture.allOf(actors.stream().map(writeBehindActorDao::saveAsync).toArray(CompletableFuture[]::new)).join();
+
+            assertTrue(writer.getFlushCount() < actors.size());
+            assertEquals(actors.size(), writer.getFlushedWriteCount());
+        }
+        List<Long> ids = actors.stream().map(Actor::getId).collect(Collectors.toList());
+        assertThat(actorDao.findAllByIds(ids).values(), containsInAnyOrder(actors.toArray()));
+    }
+
+    @Test
+    public void testFailedWriteDoesNotFailItsBatch() throws Exception {
+        Actor actor = createActors("Cameo", 1).get(0);
+        actorDao.save(actor);
+        Movie movie = Movie.builder().name("Short Cuts").duration(187000L).releaseDate(LocalDate.of(1993, 10, 3)).build();
+        movieDao.save(movie);
+        Long notExistingMovieId = 999L;
+        try (WriteBehindWriter writer = new WriteBehindWriter(h2DataSource, WriteBehindConfig.builder().flushIntervalMillis(200).build())) {
+            CompletableFuture<Void> validLink = writer.link(actor.getId(), movie.getId());
+            CompletableFuture<Void> invalidLink = writer.link(actor.getId(), notExistingMovieId);
+
+            validLink.get();
+            try {
+                invalidLink.get();
+                fail("Exception wasn't thrown");
+            } catch (ExecutionException e) {
+                assertEquals(String.format("Movies with ids = [%d] do not exist", notExistingMovieId), e.getCause().getMessage());
+            }
+            assertEquals(1, writer.getFailedWriteCount());
+        }
+        assertEquals(List.of(movie), movieDao.findByActorFirstAndLastName("Cameo0", "Extra"));
+    }
+
+    @Test
+    public void testFullQueueAppliesBackpressure() throws SQLException {
+        PooledDataSource singleConnectionPool = JdbcUtil.createPooledDataSource(h2DataSource, PoolConfig.builder().maxPoolSize(1).build());
+        WriteBehindConfig config = WriteBehindConfig.builder().queueCapacity(1).enqueueTimeoutMillis(50).flushIntervalMillis(0).build();
+        List<Actor> actors = createActors("Queued", 3);
+        try (WriteBehindWriter writer = new WriteBehindWriter(singleConnectionPool, config)) {
+            CompletableFuture<Void> flushing;
+            CompletableFuture<Void> queued;
+            try (Connection heldConnection = singleConnectionPool.getConnection()) {
+                flushing = writer.saveActor(actors.get(0));
+                while (writer.getQueuedWriteCount() > 0) {
+                    Thread.onSpinWait();
+                }
+                queued = writer.saveActor(actors.get(1));
+                try {
+                    writer.saveActor(actors.get(2));
+                    fail("Exception wasn't thrown");
+                } catch (DaoOperationException e) {
+                    assertTrue(e.getMessage().startsWith("Write-behind queue stayed full for 50 ms"));
+                }
+                assertFalse(flushing.isDone());
+            }
+            CompletableFuture.allOf(flushing, queued).join();
+            assertNotNull(actors.get(1).getId());
+        } finally {
+            singleConnectionPool.close();
+        }
+    }
+
+    @Test
+    public void testCloseDrainsQueuedWrites() {
+        List<Movie> movies = new ArrayList<>();
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        WriteBehindWriter writer = new WriteBehindWriter(h2DataSource, WriteBehindConfig.builder().flushIntervalMillis(60_000).build());
+        WriteBehindMovieDao writeBehindMovieDao = new WriteBehindMovieDao(movieDao, writer);
+        for (int i = 0; i < 10; i++) {
+            Movie movie = Movie.builder().name("Outtake " + i).duration(60000L).releaseDate(LocalDate.of(2001, 1, i + 1)).build();
+            movies.add(movie);
+            writes.add(writeBehindMovieDao.saveAsync(movie));
+        }
+
+        writer.close();
+
+        assertTrue(writes.stream().allMatch(write -> write.isDone() && !write.isCompletedExceptionally()));
+        assertTrue(movieDao.findAll().containsAll(movies));
+        try {
+            writeBehindMovieDao.save(Movie.builder().name("Too Late").duration(1L).releaseDate(LocalDate.of(2001, 1, 1)).build());
+            fail("Exception wasn't thrown");
+        } catch (DaoOperationException e) {
+            assertEquals("Write-behind writer is closed", e.getMessage());
+        }
+    }
+
+    private static List<Actor> createActors(String firstNamePrefix, int count) {
+        List<Actor> actors = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            actors.add(Actor.builder().firstName(firstNamePrefix + i).lastName("Extra").birthday(LocalDate.of(1985, 3, 1)).build());
+        }
+        return actors;
+    }
+}
@@ -0,0 +1,45 @@
+package com.bobocode.benchmark;
+
+import com.bobocode.model.Actor;
+import com.bobocode.model.ActorMovieLink;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link com.bobocode.dao.ActorDao} operations against an embedded H2 catalogue. The operations are run
+ * by a single thread and by several concurrent threads sharing one connection pool.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class ActorDaoBenchmark {
+
+    @Benchmark
+    public Actor save(CatalogueState catalogue) {
+        Actor actor = catalogue.newActor();
+        catalogue.actorDao().save(actor);
+        return actor;
+    }
+
+    @Benchmark
+    public Actor findById(CatalogueState catalogue) {
+        return catalogue.actorDao().findById(catalogue.randomActor().getId());
+    }
+
+    @Benchmark
+    public void linkActorToMovieByID(CatalogueState catalogue) {
+        ActorMovieLink link = catalogue.nextNewcomerLink();
+        catalogue.actorDao().linkActorToMovieByID(link.getActorId(), link.getMovieId());
+    }
+
+    @Threads(1)
+    public static class SingleThreaded extends ActorDaoBenchmark {
+    }
+
+    @Threads(4)
+    public static class MultiThreaded extends ActorDaoBenchmark {
+    }
+}
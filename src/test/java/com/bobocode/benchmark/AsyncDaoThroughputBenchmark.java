@@ -0,0 +1,101 @@
+package com.bobocode.benchmark;
+
+import com.bobocode.dao.ActorDao;
+import com.bobocode.dao.ActorDaoImpl;
+import com.bobocode.dao.AsyncActorDao;
+import com.bobocode.model.Actor;
+import com.bobocode.util.ActorMovieDbInitializer;
+import com.bobocode.util.AsyncDaoExecutor;
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.PoolConfig;
+import com.bobocode.util.PooledDataSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares concurrent callers of the blocking {@link ActorDao}, each on its own platform thread, with the same callers
+ * going through {@link AsyncActorDao}. One operation is a round in which every caller runs its chain of lookups, so
+ * the lookup throughput is the score times {@code callers * lookupsPerCaller}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AsyncDaoThroughputBenchmark {
+    private static final int POOL_SIZE = 10;
+
+    @Param({"1000"})
+    public int callers;
+    @Param({"10"})
+    public int lookupsPerCaller;
+
+    private PooledDataSource pooledDataSource;
+    private ActorDao actorDao;
+    private Long actorId;
+    private ExecutorService callerThreads;
+    private AsyncDaoExecutor asyncExecutor;
+    private AsyncActorDao asyncActorDao;
+
+    @Setup(Level.Trial)
+    public void createCatalogue() throws SQLException {
+        pooledDataSource = JdbcUtil.createPooledDataSource(JdbcUtil.createInMemoryH2DataSource("async_dao_benchmark_db"),
+                PoolConfig.builder().maxPoolSize(POOL_SIZE).acquireTimeoutMillis(120_000).build());
+        new ActorMovieDbInitializer(pooledDataSource).init();
+        actorDao = new ActorDaoImpl(pooledDataSource);
+        Actor actor = Actor.builder().firstName("Benchmark").lastName("Actor").birthday(LocalDate.of(1970, 1, 1)).build();
+        actorDao.save(actor);
+        actorId = actor.getId();
+        callerThreads = Executors.newFixedThreadPool(callers);
+        asyncExecutor = AsyncDaoExecutor.forPool(pooledDataSource);
+        asyncActorDao = new AsyncActorDao(actorDao, asyncExecutor);
+    }
+
+    @TearDown(Level.Trial)
+    public void closeCatalogue() {
+        callerThreads.shutdownNow();
+        asyncExecutor.close();
+        pooledDataSource.close();
+    }
+
+    @Benchmark
+    public int blocking() throws InterruptedException, ExecutionException {
+        List<Future<?>> results = new ArrayList<>(callers);
+        for (int i = 0; i < callers; i++) {
+            results.add(callerThreads.submit(() -> {
+                for (int lookup = 0; lookup < lookupsPerCaller; lookup++) {
+                    actorDao.findById(actorId);
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        return results.size();
+    }
+
+    @Benchmark
+    public int async() {
+        List<CompletableFuture<Actor>> callerChains = new ArrayList<>(callers);
+        for (int i = 0; i < callers; i++) {
+            CompletableFuture<Actor> chain = asyncActorDao.findById(actorId);
+            for (int lookup = 1; lookup < lookupsPerCaller; lookup++) {
+                chain = chain.thenCompose(previous -> asyncActorDao.findById(actorId));
+            }
+            callerChains.add(chain);
+        }
+        CompletableFuture.allOf(callerChains.toArray(new CompletableFuture[0])).join();
+        return callerChains.size();
+    }
+}
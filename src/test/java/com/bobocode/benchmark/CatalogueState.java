@@ -0,0 +1,153 @@
+package com.bobocode.benchmark;
+
+import com.bobocode.dao.ActorDao;
+import com.bobocode.dao.ActorDaoImpl;
+import com.bobocode.dao.MovieDao;
+import com.bobocode.dao.MovieDaoImpl;
+import com.bobocode.model.Actor;
+import com.bobocode.model.ActorMovieLink;
+import com.bobocode.model.Movie;
+import com.bobocode.util.ActorMovieDbInitializer;
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.PoolConfig;
+import com.bobocode.util.PooledDataSource;
+import org.openjdk.jmh.annotations.*;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedded H2 catalogue shared by all benchmark threads. The database is seeded once per trial with
+ * {@code catalogueSize} actors and movies, every actor playing in {@code moviesPerActor} random movies.
+ * A separate group of newcomer actors without any movies is kept for the link benchmark, their links are removed
+ * after every iteration.
+ */
+@State(Scope.Benchmark)
+public class CatalogueState {
+    private static final long SEED = 42;
+
+    @Param({"1000", "10000"})
+    public int catalogueSize;
+    @Param({"5"})
+    public int moviesPerActor;
+
+    private PooledDataSource pooledDataSource;
+    private ActorDao actorDao;
+    private MovieDao movieDao;
+    private List<Actor> actors;
+    private List<Actor> newcomers;
+    private List<Movie> movies;
+    private final AtomicLong savedEntityCounter = new AtomicLong();
+    private final AtomicLong newcomerLinkCounter = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void seed() throws SQLException {
+        DataSource h2DataSource = JdbcUtil.createDefaultInMemoryH2DataSource();
+        dropAllObjects(h2DataSource);
+        new ActorMovieDbInitializer(h2DataSource).init();
+        pooledDataSource = JdbcUtil.createPooledDataSource(h2DataSource, PoolConfig.defaults());
+        actorDao = new ActorDaoImpl(pooledDataSource);
+        movieDao = new MovieDaoImpl(pooledDataSource);
+
+        actors = createActors("Actor", catalogueSize);
+        newcomers = createActors("Newcomer", catalogueSize);
+        movies = createMovies();
+        actorDao.saveAll(actors);
+        actorDao.saveAll(newcomers);
+        movieDao.saveAll(movies);
+        actorDao.linkAll(createLinks());
+    }
+
+    @TearDown(Level.Iteration)
+    public void unlinkNewcomers() throws SQLException {
+        try (Connection connection = pooledDataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DELETE FROM actor_movie WHERE actor_id >= " + newcomers.get(0).getId());
+        }
+        newcomerLinkCounter.set(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        pooledDataSource.close();
+    }
+
+    public ActorDao actorDao() {
+        return actorDao;
+    }
+
+    public MovieDao movieDao() {
+        return movieDao;
+    }
+
+    public Actor randomActor() {
+        return actors.get(ThreadLocalRandom.current().nextInt(actors.size()));
+    }
+
+    public Movie randomMovie() {
+        return movies.get(ThreadLocalRandom.current().nextInt(movies.size()));
+    }
+
+    /**
+     * Returns a newcomer-movie pair that hasn't been linked during the current iteration
+     */
+    public ActorMovieLink nextNewcomerLink() {
+        long linkNumber = newcomerLinkCounter.getAndIncrement();
+        Actor newcomer = newcomers.get((int) (linkNumber / movies.size() % newcomers.size()));
+        Movie movie = movies.get((int) (linkNumber % movies.size()));
+        return new ActorMovieLink(newcomer.getId(), movie.getId());
+    }
+
+    public Actor newActor() {
+        long number = savedEntityCounter.incrementAndGet();
+        return Actor.builder().firstName("Saved" + number).lastName("Actor").birthday(LocalDate.of(1980, 1, 1)).build();
+    }
+
+    public Movie newMovie() {
+        long number = savedEntityCounter.incrementAndGet();
+        return Movie.builder().name("Saved movie " + number).duration(120000L).releaseDate(LocalDate.of(2020, 1, 1)).build();
+    }
+
+    private void dropAllObjects(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+    }
+
+    private List<Actor> createActors(String firstNamePrefix, int count) {
+        List<Actor> createdActors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            createdActors.add(Actor.builder().firstName(firstNamePrefix + i).lastName("Surname" + i)
+                    .birthday(LocalDate.of(1950, 1, 1).plusDays(i % 20000)).build());
+        }
+        return createdActors;
+    }
+
+    private List<Movie> createMovies() {
+        List<Movie> createdMovies = new ArrayList<>(catalogueSize);
+        for (int i = 0; i < catalogueSize; i++) {
+            createdMovies.add(Movie.builder().name("Movie " + i).duration(90000L + i)
+                    .releaseDate(LocalDate.of(1950, 1, 1).plusDays(i % 20000)).build());
+        }
+        return createdMovies;
+    }
+
+    private List<ActorMovieLink> createLinks() {
+        Random random = new Random(SEED);
+        List<ActorMovieLink> links = new ArrayList<>(catalogueSize * moviesPerActor);
+        for (Actor actor : actors) {
+            random.ints(0, movies.size()).distinct().limit(Math.min(moviesPerActor, movies.size()))
+                    .forEach(movieIndex -> links.add(new ActorMovieLink(actor.getId(), movies.get(movieIndex).getId())));
+        }
+        return links;
+    }
+}
@@ -0,0 +1,55 @@
+package com.bobocode.benchmark;
+
+import com.bobocode.graph.CoStarGraph;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link CoStarGraph} queries on a synthetic catalogue where every movie has {@code castSize} random actors
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class CoStarGraphBenchmark {
+    @Param({"2000000"})
+    public int linkCount;
+    @Param({"20"})
+    public int castSize;
+
+    private CoStarGraph graph;
+    private int actorCount;
+
+    @Setup(Level.Trial)
+    public void buildGraph() {
+        Random random = new Random(42);
+        actorCount = linkCount / 10;
+        long[] linkActorIds = new long[linkCount];
+        long[] linkMovieIds = new long[linkCount];
+        for (int i = 0; i < linkCount; i++) {
+            // consecutive links share a movie, so actors of one movie are distinct with high probability
+            linkActorIds[i] = 1 + random.nextInt(actorCount);
+            linkMovieIds[i] = 1 + i / castSize;
+        }
+        graph = CoStarGraph.fromLinks(linkActorIds, linkMovieIds, linkCount);
+    }
+
+    @Benchmark
+    public long[] findCoStars() {
+        return graph.findCoStars(randomActorId());
+    }
+
+    @Benchmark
+    public int degreesOfSeparation() {
+        return graph.degreesOfSeparation(randomActorId(), randomActorId());
+    }
+
+    private long randomActorId() {
+        return 1 + ThreadLocalRandom.current().nextInt(actorCount);
+    }
+}
@@ -0,0 +1,49 @@
+package com.bobocode.benchmark;
+
+import com.bobocode.model.Actor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares resolving a set of actor ids with {@link com.bobocode.dao.ActorDao#findAllByIds} against calling
+ * {@link com.bobocode.dao.ActorDao#findById} for every id
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FindAllByIdsBenchmark {
+    @Param({"10", "500"})
+    public int idCount;
+
+    private List<Long> ids;
+
+    @Setup(Level.Iteration)
+    public void pickIds(CatalogueState catalogue) {
+        ids = new ArrayList<>(idCount);
+        for (int i = 0; i < idCount; i++) {
+            ids.add(catalogue.randomActor().getId());
+        }
+    }
+
+    @Benchmark
+    public Map<Long, Actor> findAllByIds(CatalogueState catalogue) {
+        return catalogue.actorDao().findAllByIds(ids);
+    }
+
+    @Benchmark
+    public Map<Long, Actor> loopedFindById(CatalogueState catalogue) {
+        Map<Long, Actor> actorsById = new HashMap<>();
+        for (Long id : ids) {
+            actorsById.put(id, catalogue.actorDao().findById(id));
+        }
+        return actorsById;
+    }
+}
@@ -0,0 +1,56 @@
+package com.bobocode.benchmark;
+
+import com.bobocode.model.Actor;
+import com.bobocode.model.Movie;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link com.bobocode.dao.MovieDao} operations against an embedded H2 catalogue. The operations are run
+ * by a single thread and by several concurrent threads sharing one connection pool.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class MovieDaoBenchmark {
+
+    @Benchmark
+    public Movie save(CatalogueState catalogue) {
+        Movie movie = catalogue.newMovie();
+        catalogue.movieDao().save(movie);
+        return movie;
+    }
+
+    @Benchmark
+    public Movie findById(CatalogueState catalogue) {
+        return catalogue.movieDao().findById(catalogue.randomMovie().getId());
+    }
+
+    @Benchmark
+    public List<Movie> findByName(CatalogueState catalogue) {
+        return catalogue.movieDao().findByName(catalogue.randomMovie().getName());
+    }
+
+    @Benchmark
+    public List<Movie> findAll(CatalogueState catalogue) {
+        return catalogue.movieDao().findAll();
+    }
+
+    @Benchmark
+    public List<Movie> findByActorFirstAndLastName(CatalogueState catalogue) {
+        Actor actor = catalogue.randomActor();
+        return catalogue.movieDao().findByActorFirstAndLastName(actor.getFirstName(), actor.getLastName());
+    }
+
+    @Threads(1)
+    public static class SingleThreaded extends MovieDaoBenchmark {
+    }
+
+    @Threads(4)
+    public static class MultiThreaded extends MovieDaoBenchmark {
+    }
+}
@@ -0,0 +1,81 @@
+package com.bobocode.benchmark;
+
+import com.bobocode.search.MovieTitleIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures top-10 {@link MovieTitleIndex} searches over {@code titleCount} synthetic titles of two to four words
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class MovieTitleIndexBenchmark {
+    /**
+     * Letters repeated roughly as often as they occur in English text
+     */
+    private static final String LETTERS = "eeeeeeeeeeeetttttttttaaaaaaaaoooooooiiiiiiinnnnnnnsssssshhhhhhrrrrrrddddllllcccuuummwwffggyyppbbvkjxqz";
+    private static final int VOCABULARY_SIZE = 20_000;
+
+    @Param({"1000000"})
+    public int titleCount;
+
+    private MovieTitleIndex index;
+    private String[] titles;
+
+    @Setup(Level.Trial)
+    public void buildIndex() {
+        Random random = new Random(42);
+        String[] words = new String[VOCABULARY_SIZE];
+        for (int i = 0; i < VOCABULARY_SIZE; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int l = 3 + random.nextInt(7); l > 0; l--) {
+                word.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+            }
+            words[i] = word.toString();
+        }
+        index = new MovieTitleIndex();
+        titles = new String[titleCount];
+        for (int i = 0; i < titleCount; i++) {
+            int wordCount = 2 + random.nextInt(3);
+            StringBuilder title = new StringBuilder(randomWord(random, words));
+            for (int w = 1; w < wordCount; w++) {
+                title.append(' ').append(randomWord(random, words));
+            }
+            titles[i] = title.toString();
+            index.add(i + 1, titles[i]);
+        }
+    }
+
+    @Benchmark
+    public long[] prefixSearch() {
+        String title = randomTitle();
+        return index.search(title.substring(0, Math.min(title.length(), 8)), 10);
+    }
+
+    @Benchmark
+    public long[] misspelledSearch() {
+        String title = randomTitle();
+        int typo = ThreadLocalRandom.current().nextInt(title.length() - 1);
+        // swaps two neighbouring characters
+        return index.search(title.substring(0, typo) + title.charAt(typo + 1) + title.charAt(typo) + title.substring(typo + 2), 10);
+    }
+
+    /**
+     * Picks words with a skewed distribution, a few of them show up in many titles the way "the" and "love" do
+     */
+    private static String randomWord(Random random, String[] words) {
+        double skewed = random.nextDouble();
+        return words[(int) (skewed * skewed * skewed * words.length)];
+    }
+
+    private String randomTitle() {
+        return titles[ThreadLocalRandom.current().nextInt(titleCount)];
+    }
+}
@@ -0,0 +1,55 @@
+package com.bobocode.benchmark;
+
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.PoolConfig;
+import com.bobocode.util.PooledDataSource;
+import org.openjdk.jmh.annotations.*;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of borrowing a connection from a {@link PooledDataSource} when more callers than connections
+ * compete for it, against opening a connection of the embedded H2 database directly. Sampling reports the p50 and
+ * p99 of a borrow.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class PooledDataSourceBenchmark {
+    private static final int POOL_SIZE = 4;
+
+    private DataSource h2DataSource;
+    private PooledDataSource pooledDataSource;
+
+    @Setup(Level.Trial)
+    public void createPool() {
+        h2DataSource = JdbcUtil.createInMemoryH2DataSource("pooled_data_source_benchmark_db");
+        pooledDataSource = JdbcUtil.createPooledDataSource(h2DataSource, PoolConfig.builder().maxPoolSize(POOL_SIZE).build());
+    }
+
+    @TearDown(Level.Trial)
+    public void closePool() {
+        pooledDataSource.close();
+    }
+
+    @Benchmark
+    public boolean pooledAcquire() throws SQLException {
+        try (Connection connection = pooledDataSource.getConnection()) {
+            return connection.isValid(1);
+        }
+    }
+
+    @Benchmark
+    public boolean unpooledAcquire() throws SQLException {
+        try (Connection connection = h2DataSource.getConnection()) {
+            return connection.isValid(1);
+        }
+    }
+}
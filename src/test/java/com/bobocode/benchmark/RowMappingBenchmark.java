@@ -0,0 +1,94 @@
+package com.bobocode.benchmark;
+
+import com.bobocode.dao.DaoConfig;
+import com.bobocode.dao.MovieDaoImpl;
+import com.bobocode.dao.MovieRowMapper;
+import com.bobocode.dao.RowMapper;
+import com.bobocode.model.Movie;
+import com.bobocode.util.ActorMovieDbInitializer;
+import com.bobocode.util.JdbcUtil;
+import org.openjdk.jmh.annotations.*;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the former {@code SELECT *} plus by-name column lookups with explicit column lists mapped by index
+ * on a full scan of the movie table
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RowMappingBenchmark {
+    private static final String SELECT_ALL_BY_NAME_SQL = "SELECT * FROM movie";
+    private static final String SELECT_ALL_BY_INDEX_SQL = "SELECT " + MovieRowMapper.COLUMNS + " FROM movie";
+
+    @Param({"1000000"})
+    public int rows;
+
+    private DataSource dataSource;
+    private final RowMapper<Movie> byNameMapper = RowMappingBenchmark::mapByColumnName;
+    private final RowMapper<Movie> byIndexMapper = new MovieRowMapper();
+
+    @Setup(Level.Trial)
+    public void seedCatalogue() throws SQLException {
+        dataSource = JdbcUtil.createInMemoryH2DataSource("row_mapping_benchmark_db");
+        new ActorMovieDbInitializer(dataSource).init();
+        seedMovies(dataSource, rows);
+    }
+
+    @Benchmark
+    public long selectAllByName() throws SQLException {
+        return scan(dataSource, SELECT_ALL_BY_NAME_SQL, byNameMapper);
+    }
+
+    @Benchmark
+    public long explicitColumnsByIndex() throws SQLException {
+        return scan(dataSource, SELECT_ALL_BY_INDEX_SQL, byIndexMapper);
+    }
+
+    private static void seedMovies(DataSource dataSource, int rows) {
+        MovieDaoImpl movieDao = new MovieDaoImpl(dataSource, DaoConfig.builder().batchSize(10_000).build());
+        List<Movie> movies = new ArrayList<>(10_000);
+        for (int i = 0; i < rows; i++) {
+            movies.add(Movie.builder().name("Benchmark movie " + i).duration(90_000L + i % 1000)
+                    .releaseDate(LocalDate.of(1950, 1, 1).plusDays(i % 20_000)).build());
+            if (movies.size() == 10_000) {
+                movieDao.saveAll(movies);
+                movies.clear();
+            }
+        }
+        movieDao.saveAll(movies);
+    }
+
+    private static long scan(DataSource dataSource, String sql, RowMapper<Movie> rowMapper) throws SQLException {
+        long checksum = 0;
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            while (resultSet.next()) {
+                checksum += rowMapper.mapRow(resultSet).getDuration();
+            }
+        }
+        if (checksum == 0) {
+            throw new IllegalStateException("Nothing was scanned");
+        }
+        return checksum;
+    }
+
+    private static Movie mapByColumnName(ResultSet resultSet) throws SQLException {
+        Movie movie = new Movie();
+        movie.setId(resultSet.getLong("id"));
+        movie.setName(resultSet.getString("name"));
+        movie.setDuration(resultSet.getLong("duration"));
+        movie.setReleaseDate(resultSet.getDate("release_date").toLocalDate());
+        return movie;
+    }
+}
@@ -0,0 +1,128 @@
+package com.bobocode.benchmark;
+
+import com.bobocode.dao.MovieDao;
+import com.bobocode.dao.MovieDaoImpl;
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.model.Movie;
+import com.bobocode.util.ActorMovieDbInitializer;
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.PoolConfig;
+import com.bobocode.util.PooledDataSource;
+import org.openjdk.jmh.annotations.*;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares ingesting a batch of movies with {@link MovieDao#upsertAll} and {@link MovieDao#saveOrGet} against looking
+ * every movie up by name and inserting it when it is missing. A share of {@code duplicateRatio} of every batch is
+ * already in the catalogue.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UpsertBenchmark {
+    @Param({"10000"})
+    public int catalogueSize;
+    @Param({"100"})
+    public int batchSize;
+    @Param({"0.9"})
+    public double duplicateRatio;
+
+    private PooledDataSource pooledDataSource;
+    private MovieDao movieDao;
+    private final AtomicLong newMovieCounter = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void seed() throws SQLException {
+        DataSource h2DataSource = JdbcUtil.createInMemoryH2DataSource("upsert_benchmark_db");
+        try (Connection connection = h2DataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        new ActorMovieDbInitializer(h2DataSource).init();
+        pooledDataSource = JdbcUtil.createPooledDataSource(h2DataSource, PoolConfig.defaults());
+        movieDao = new MovieDaoImpl(pooledDataSource);
+        List<Movie> catalogue = new ArrayList<>(catalogueSize);
+        for (int i = 0; i < catalogueSize; i++) {
+            catalogue.add(existingMovie(i));
+        }
+        movieDao.saveAll(catalogue);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        pooledDataSource.close();
+    }
+
+    @Benchmark
+    public List<Movie> upsertAll() {
+        List<Movie> batch = nextBatch();
+        movieDao.upsertAll(batch);
+        return batch;
+    }
+
+    @Benchmark
+    public List<Movie> loopedSaveOrGet() {
+        List<Movie> batch = nextBatch();
+        batch.forEach(movieDao::saveOrGet);
+        return batch;
+    }
+
+    @Benchmark
+    public List<Movie> lookupThenInsert() {
+        List<Movie> batch = nextBatch();
+        for (Movie movie : batch) {
+            Long existingId = findExistingId(movie);
+            if (existingId != null) {
+                movie.setId(existingId);
+            } else {
+                movieDao.save(movie);
+            }
+        }
+        return batch;
+    }
+
+    private Long findExistingId(Movie movie) {
+        try {
+            return movieDao.findByName(movie.getName()).stream()
+                    .filter(existing -> Objects.equals(existing.getDuration(), movie.getDuration())
+                            && Objects.equals(existing.getReleaseDate(), movie.getReleaseDate()))
+                    .map(Movie::getId)
+                    .findFirst()
+                    .orElse(null);
+        } catch (DaoOperationException e) {
+            // findByName fails when no movie has the name
+            return null;
+        }
+    }
+
+    private List<Movie> nextBatch() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Movie> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(random.nextDouble() < duplicateRatio
+                    ? existingMovie(random.nextInt(catalogueSize))
+                    : Movie.builder().name("Premiere " + newMovieCounter.incrementAndGet()).duration(95000L)
+                    .releaseDate(LocalDate.of(2020, 1, 1)).build());
+        }
+        return batch;
+    }
+
+    private static Movie existingMovie(int index) {
+        return Movie.builder().name("Classic " + index).duration(100000L + index)
+                .releaseDate(LocalDate.of(1950, 1, 1).plusDays(index)).build();
+    }
+}
@@ -0,0 +1,73 @@
+package com.bobocode.dao;
+
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.MigrationRunner;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+/**
+ * Explains the SQL of {@link MovieDaoImpl} itself, so that the checks follow the queries when they change.
+ * Lives in the DAO package to reach the package-private statements.
+ */
+public class MovieQueryPlanTest {
+    private static DataSource dataSource;
+
+    @BeforeClass
+    public static void init() throws SQLException {
+        dataSource = JdbcUtil.createInMemoryH2DataSource("movie_query_plan_test_db");
+        new MigrationRunner(dataSource).migrate();
+    }
+
+    @Test
+    public void testFindByActorNameUsesActorNameIndex() throws SQLException {
+        assertThat(explain(MovieDaoImpl.SELECT_MOVIE_BY_ACTOR_SQL), containsString("IDX_ACTOR_LAST_NAME_FIRST_NAME"));
+    }
+
+    @Test
+    public void testFindByNameUsesUniqueConstraintIndex() throws SQLException {
+        assertThat(explain(MovieDaoImpl.SELECT_BY_NAME_SQL), containsString("UQ_NAME_DURATION_RELEASE_DATE"));
+    }
+
+    @Test
+    public void testCastLookupUsesMovieIdIndex() throws SQLException {
+        assertTrue(indexExists("ACTOR_MOVIE", "IDX_ACTOR_MOVIE_MOVIE_ID"));
+
+        // H2 indexes foreign key columns on its own and picks FK_ACTOR_MOVIE_MOVIE_INDEX_* over the equivalent
+        // IDX_actor_movie_movie_id, which Postgres needs as it doesn't index foreign keys
+        assertThat(explain(MovieDaoImpl.SELECT_BY_NAME_WITH_ACTORS_SQL), anyOf(
+                containsString("IDX_ACTOR_MOVIE_MOVIE_ID: MOVIE_ID = M.ID"),
+                stringContainsInOrder(List.of("FK_ACTOR_MOVIE_MOVIE_INDEX_", ": MOVIE_ID = M.ID"))));
+    }
+
+    private String explain(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement explainStatement = connection.prepareStatement("EXPLAIN " + sql);
+             ResultSet resultSet = explainStatement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+
+    private boolean indexExists(String tableName, String indexName) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             ResultSet indexes = connection.getMetaData().getIndexInfo(null, null, tableName, false, false)) {
+            while (indexes.next()) {
+                if (indexName.equalsIgnoreCase(indexes.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}